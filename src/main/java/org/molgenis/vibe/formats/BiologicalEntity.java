@@ -4,8 +4,6 @@ import org.molgenis.vibe.exceptions.InvalidStringFormatException;
 
 import java.net.URI;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static java.util.Objects.requireNonNull;
 
@@ -24,16 +22,19 @@ public abstract class BiologicalEntity implements ResourceUri, Comparable<Biolog
     protected abstract String getIdPrefix();
 
     /**
-     * A regular expression an input {@link String} should adhere to when deriving the {@link BiologicalEntity} from it.
+     * A regular expression describing the format an input {@link String} should adhere to when deriving the
+     * {@link BiologicalEntity} from it. Only used within error messages: the actual parsing is done without regular
+     * expressions (see {@link #parseNumericId(String)}).
      * @return
      */
     protected abstract String getIdRegex();
 
     /**
-     * The group within the regular expression the actual {@link BiologicalEntity#id} is stored in.
-     * @return
+     * Validates an {@link BiologicalEntity#id} (without prefix) and converts it to a number.
+     * @param id the id to be parsed
+     * @return the numeric id (unique within the subclass), or {@code -1} if {@code id} is not valid
      */
-    protected abstract int getRegexIdGroup();
+    protected abstract long parseNumericId(String id);
 
     /**
      * The regular expression describing the URI prefix it should match with.
@@ -57,6 +58,21 @@ public abstract class BiologicalEntity implements ResourceUri, Comparable<Biolog
      */
     private URI uri;
 
+    /**
+     * The {@link BiologicalEntity#id} as number (see {@link #parseNumericId(String)}).
+     */
+    private long numericId;
+
+    /**
+     * The {@link #hashCode()} (cached as entities are heavily used as keys within hash-based collections).
+     */
+    private int hash;
+
+    /**
+     * The {@link #getFormattedId()} (cached as it is used for sorting).
+     */
+    private String formattedId;
+
     /**
      * @return the {@link BiologicalEntity} ID without prefix.
      */
@@ -68,11 +84,31 @@ public abstract class BiologicalEntity implements ResourceUri, Comparable<Biolog
      * @return the {@link BiologicalEntity} ID with prefix.
      */
     public String getFormattedId() {
-        return getIdPrefix() + id;
+        return formattedId;
+    }
+
+    /**
+     * @return the {@link BiologicalEntity} ID as number (unique among entities of the same type)
+     */
+    public long getNumericId() {
+        return numericId;
     }
 
     protected void setId(String id) {
         this.id = requireNonNull(id);
+        initializeId();
+    }
+
+    /**
+     * Sets all fields derived from {@link #id}.
+     */
+    private void initializeId() {
+        numericId = parseNumericId(id);
+        if(numericId == -1) {
+            throw new InvalidStringFormatException(id + " does not adhere the required format: " + getIdRegex());
+        }
+        hash = Objects.hash(id);
+        formattedId = getIdPrefix() + id;
     }
 
     public String getName() {
@@ -90,6 +126,7 @@ public abstract class BiologicalEntity implements ResourceUri, Comparable<Biolog
 
     public BiologicalEntity(String id) {
         this.id = retrieveIdFromString(requireNonNull(id));
+        initializeId();
         uri = URI.create( getUriPrefix() + this.id );
     }
 
@@ -97,7 +134,8 @@ public abstract class BiologicalEntity implements ResourceUri, Comparable<Biolog
         this.uri = uri;
         String uriString = this.uri.toString();
         validateUri(uriString);
-        id = uriString.split(getUriPrefix())[1];
+        id = uriString.substring(getUriPrefix().length());
+        initializeId();
     }
 
     public BiologicalEntity(String id, String name) {
@@ -112,6 +150,7 @@ public abstract class BiologicalEntity implements ResourceUri, Comparable<Biolog
 
     public BiologicalEntity(String id, String name, URI uri) throws InvalidStringFormatException {
         this.id = retrieveIdFromString(requireNonNull(id));
+        initializeId();
         this.name = requireNonNull(name);
         this.uri = requireNonNull(uri);
         validateUri(this.uri.toString());
@@ -132,17 +171,43 @@ public abstract class BiologicalEntity implements ResourceUri, Comparable<Biolog
 
     /**
      * Validates and retrieves the ID from a {@link String} describing an id (that also includes other information such as a prefix).
+     * The prefix should be either fully lowercase or fully uppercase.
      * @param fullString the {@link String} to be digested
      * @return a {@link String} containing the id only
-     * @throws InvalidStringFormatException if {@code fullString} did not adhere to the regular expression
+     * @throws InvalidStringFormatException if {@code fullString} did not adhere to the format described by {@link #getIdRegex()}
      */
     protected String retrieveIdFromString(String fullString) throws InvalidStringFormatException {
-        Matcher m = Pattern.compile(getIdRegex()).matcher(fullString);
-        if(m.matches()) {
-            return m.group(getRegexIdGroup());
-        } else {
-            throw new InvalidStringFormatException(fullString + " does not adhere the required format: " + getIdRegex());
+        String prefix = getIdPrefix();
+        if(fullString.startsWith(prefix) || fullString.startsWith(prefix.toUpperCase())) {
+            String id = fullString.substring(prefix.length());
+            if(parseNumericId(id) != -1) {
+                return id;
+            }
+        }
+        throw new InvalidStringFormatException(fullString + " does not adhere the required format: " + getIdRegex());
+    }
+
+    /**
+     * Parses a number consisting of only the digits {@code 0-9}.
+     * @param string the {@link String} containing the number
+     * @param start the position within {@code string} where the number starts (continuing till the end of {@code string})
+     * @param length the required number of digits, or {@code -1} if any number of digits (at least 1) is allowed
+     * @return the number, or {@code -1} if the digits are not valid (or the number does not fit within a {@code long})
+     */
+    protected static long parseDigits(String string, int start, int length) {
+        int digitCount = string.length() - start;
+        if(digitCount < 1 || digitCount > 18 || (length != -1 && digitCount != length)) {
+            return -1;
+        }
+        long number = 0;
+        for(int i = start; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if(c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
         }
+        return number;
     }
 
     /**
@@ -165,16 +230,23 @@ public abstract class BiologicalEntity implements ResourceUri, Comparable<Biolog
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         BiologicalEntity that = (BiologicalEntity) o;
-        return Objects.equals(id, that.id);
+        return hash == that.hash && Objects.equals(id, that.id);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return hash;
     }
 
+    /**
+     * Orders on {@link #getFormattedId()}. Entities of the same type share their prefix, so these only need to compare
+     * their {@link #id}.
+     */
     @Override
     public int compareTo(BiologicalEntity o) {
-        return getFormattedId().compareTo(o.getFormattedId());
+        if(getIdPrefix().equals(o.getIdPrefix())) {
+            return id.compareTo(o.id);
+        }
+        return formattedId.compareTo(o.formattedId);
     }
 }
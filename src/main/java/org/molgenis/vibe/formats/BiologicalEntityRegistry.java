@@ -0,0 +1,271 @@
+package org.molgenis.vibe.formats;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Interns {@link Phenotype}{@code s}, {@link Gene}{@code s} and {@link Disease}{@code s} by their numeric ID
+ * ({@link BiologicalEntity#getNumericId()}), so that each entity is only created once and the same instance is shared
+ * by all ontology traversals and query results. Lookups parse the numeric ID directly from the given {@link String}
+ * (without creating a {@link URI} or using regular expressions), so only the first lookup of an entity creates
+ * objects.
+ *
+ * As equality of entities is based on their ID only, the first instance registered for an ID is the one that is
+ * returned afterwards (any other data given for the same ID is ignored). IDs only differing in leading zeros (such as
+ * {@code C0001} and {@code C001}) share a numeric ID, but are different entities: only the first one registered is
+ * interned, the other one is created anew on each lookup. The registry is bounded (see
+ * {@link #MAX_SIZE}) and cleared after each {@link org.molgenis.vibe.options_digestion.RunMode} run, so entities do
+ * not accumulate within a long-lived process. Thread-safe.
+ */
+public final class BiologicalEntityRegistry {
+    /**
+     * The maximum number of entities registered per type (far more than the number of HPO terms, genes or diseases
+     * within DisGeNET). When exceeded, the registry of that type starts anew.
+     */
+    static final int MAX_SIZE = 1 << 20;
+
+    /**
+     * The prefix of a phenotype ID (also allowed in upper case, see {@link Phenotype#Phenotype(String)}).
+     */
+    private static final String PHENOTYPE_ID_PREFIX = "hp:";
+
+    private static final Pool<Phenotype> PHENOTYPES = new Pool<>();
+    private static final Pool<Gene> GENES = new Pool<>();
+    private static final Pool<Disease> DISEASES = new Pool<>();
+
+    private BiologicalEntityRegistry() {
+    }
+
+    /**
+     * @param uri the URI of a phenotype
+     * @return the interned {@link Phenotype}
+     * @throws IllegalArgumentException if {@code uri} does not describe a valid {@link Phenotype}
+     */
+    public static Phenotype getPhenotypeByUri(String uri) {
+        long id = parseUri(uri, Phenotype.URI_PREFIX, 7);
+        if(id == -1) {
+            // Throws an exception describing why the URI is invalid.
+            return new Phenotype(URI.create(uri));
+        }
+        return PHENOTYPES.get(id, 7, () -> new Phenotype(URI.create(uri)));
+    }
+
+    /**
+     * @param id a phenotype ID with prefix (see {@link Phenotype#Phenotype(String)})
+     * @return the interned {@link Phenotype}
+     * @throws org.molgenis.vibe.exceptions.InvalidStringFormatException if {@code id} is not a valid {@link Phenotype} ID
+     */
+    public static Phenotype getPhenotype(String id) {
+        long numericId = id.startsWith(PHENOTYPE_ID_PREFIX) || id.startsWith(PHENOTYPE_ID_PREFIX.toUpperCase())
+                ? BiologicalEntity.parseDigits(id, PHENOTYPE_ID_PREFIX.length(), 7) : -1;
+        if(numericId == -1) {
+            // Throws an exception describing why the ID is invalid.
+            return new Phenotype(id);
+        }
+        return PHENOTYPES.get(numericId, 7, () -> new Phenotype(id));
+    }
+
+    /**
+     * @param phenotype a {@link Phenotype}
+     * @return the interned {@link Phenotype} equal to {@code phenotype} ({@code phenotype} itself if it was not
+     * registered yet)
+     */
+    public static Phenotype intern(Phenotype phenotype) {
+        return PHENOTYPES.get(phenotype.getNumericId(), phenotype.getId().length(), () -> phenotype);
+    }
+
+    /**
+     * @param uri the URI of a gene
+     * @param creator creates the {@link Gene} if it is not registered yet
+     * @return the interned {@link Gene}
+     * @throws IllegalArgumentException if {@code uri} does not describe a valid {@link Gene}
+     */
+    public static Gene getGeneByUri(String uri, Supplier<Gene> creator) {
+        return GENES.get(requireValid(uri, parseUri(uri, Gene.URI_PREFIX, -1)), idLength(uri, Gene.URI_PREFIX), creator);
+    }
+
+    /**
+     * @param uri the URI of a gene
+     * @return the interned {@link Gene}, or {@code null} if not registered
+     */
+    public static Gene findGeneByUri(String uri) {
+        return GENES.find(parseUri(uri, Gene.URI_PREFIX, -1), idLength(uri, Gene.URI_PREFIX));
+    }
+
+    /**
+     * @param uri the URI of a disease
+     * @param creator creates the {@link Disease} if it is not registered yet
+     * @return the interned {@link Disease}
+     * @throws IllegalArgumentException if {@code uri} does not describe a valid {@link Disease}
+     */
+    public static Disease getDiseaseByUri(String uri, Supplier<Disease> creator) {
+        return DISEASES.get(requireValid(uri, parseUri(uri, Disease.URI_PREFIX + "C", -1)),
+                idLength(uri, Disease.URI_PREFIX), creator);
+    }
+
+    /**
+     * Removes all registered entities (the entities themselves stay valid).
+     */
+    public static void clear() {
+        PHENOTYPES.clear();
+        GENES.clear();
+        DISEASES.clear();
+    }
+
+    /**
+     * @param uri the URI to parse
+     * @param prefix everything preceding the digits of the ID (the URI prefix of the entity type, followed by any
+     *               non-numeric start of the ID such as the {@code C} of a UMLS ID)
+     * @param length the required number of digits, or {@code -1} if any number of digits is allowed
+     * @return the numeric ID, or {@code -1} if {@code uri} is not valid
+     */
+    private static long parseUri(String uri, String prefix, int length) {
+        if(!uri.startsWith(prefix)) {
+            return -1;
+        }
+        return BiologicalEntity.parseDigits(uri, prefix.length(), length);
+    }
+
+    /**
+     * @param uri the URI of an entity
+     * @param prefix the URI prefix of the entity type
+     * @return the length of the entity ID (see {@link BiologicalEntity#getId()}) within {@code uri}
+     */
+    private static int idLength(String uri, String prefix) {
+        return uri.length() - prefix.length();
+    }
+
+    private static long requireValid(String uri, long id) {
+        if(id == -1) {
+            throw new IllegalArgumentException("The URI \"" + uri + "\" does not describe a valid entity.");
+        }
+        return id;
+    }
+
+    /**
+     * Maps numeric IDs to entities through an open-addressing hash table with primitive keys (so no {@link Long} is
+     * boxed per lookup). Lookups do not lock: the table is only replaced as a whole (through a {@code volatile} field)
+     * and each slot is written once, storing the entity before (lazily) storing its key, so a lookup finding a key also
+     * finds its entity. A lookup not finding a key falls back to the locked path. The number of entities is bounded by
+     * {@link #MAX_SIZE}: when exceeded, the table is started anew (interning only prevents duplicate instances,
+     * equality is based on the ID).
+     *
+     * As IDs only differing in leading zeros share a numeric ID, the length of the ID is compared as well: an equal
+     * number with an equal number of digits means an equal ID.
+     */
+    private static class Pool<T extends BiologicalEntity> {
+        private static final long EMPTY = -1;
+        private static final int INITIAL_CAPACITY = 1 << 10;
+
+        private volatile Table table = new Table(INITIAL_CAPACITY);
+
+        T get(long id, int idLength, Supplier<T> creator) {
+            T entity = lookup(id);
+            T created = null;
+            if(entity == null) {
+                // The creator is called outside of the lock (another thread might register the same entity meanwhile).
+                created = creator.get();
+                synchronized(this) {
+                    entity = lookup(id);
+                    if(entity == null) {
+                        put(id, created);
+                        entity = created;
+                    }
+                }
+            }
+            if(entity.getId().length() != idLength) {
+                // Registered ID with different leading zeros.
+                return created != null ? created : creator.get();
+            }
+            return entity;
+        }
+
+        T find(long id, int idLength) {
+            T entity = lookup(id);
+            return entity != null && entity.getId().length() == idLength ? entity : null;
+        }
+
+        synchronized void clear() {
+            table = new Table(INITIAL_CAPACITY);
+        }
+
+        @SuppressWarnings("unchecked")
+        private T lookup(long id) {
+            if(id == -1) {
+                return null;
+            }
+            Table current = table;
+            int mask = current.keys.length() - 1;
+            for(int slot = slot(id, mask); ; slot = (slot + 1) & mask) {
+                long key = current.keys.get(slot);
+                if(key == id) {
+                    return (T) current.entities.get(slot);
+                } else if(key == EMPTY) {
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * Must be called while holding the lock.
+         */
+        private void put(long id, T entity) {
+            Table current = table;
+            if((current.size + 1) * 2 > current.keys.length()) {
+                if(current.size >= MAX_SIZE) {
+                    current = new Table(INITIAL_CAPACITY);
+                } else {
+                    current = current.resize();
+                }
+            }
+            current.put(id, entity);
+            // Publishes the (possibly new) table with the entity stored.
+            table = current;
+        }
+
+        private static int slot(long id, int mask) {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private static class Table {
+            private final AtomicLongArray keys;
+            private final AtomicReferenceArray<BiologicalEntity> entities;
+            private int size = 0;
+
+            Table(int capacity) {
+                keys = new AtomicLongArray(capacity);
+                for(int i = 0; i < capacity; i++) {
+                    keys.lazySet(i, EMPTY);
+                }
+                entities = new AtomicReferenceArray<>(capacity);
+            }
+
+            void put(long id, BiologicalEntity entity) {
+                int mask = keys.length() - 1;
+                int slot = slot(id, mask);
+                while(keys.get(slot) != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                // The entity is stored before the key (which is ordered after all preceding writes), so a lookup
+                // finding the key also finds the entity.
+                entities.set(slot, entity);
+                keys.lazySet(slot, id);
+                size++;
+            }
+
+            Table resize() {
+                Table resized = new Table(keys.length() * 2);
+                for(int i = 0; i < keys.length(); i++) {
+                    long key = keys.get(i);
+                    if(key != EMPTY) {
+                        resized.put(key, entities.get(i));
+                    }
+                }
+                return resized;
+            }
+        }
+    }
+}
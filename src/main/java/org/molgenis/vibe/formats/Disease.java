@@ -10,8 +10,7 @@ import java.net.URI;
 public class Disease extends BiologicalEntity {
     private static final String ID_PREFIX = "umls:";
     private static final String ID_REGEX = "^(umls|UMLS):(C[0-9]+)$";
-    private static final int REGEX_ID_GROUP = 2;
-    private static final String URI_PREFIX = "http://linkedlifedata.com/resource/umls/id/";
+    static final String URI_PREFIX = "http://linkedlifedata.com/resource/umls/id/";
 
     @Override
     protected String getIdPrefix() {
@@ -24,8 +23,8 @@ public class Disease extends BiologicalEntity {
     }
 
     @Override
-    protected int getRegexIdGroup() {
-        return REGEX_ID_GROUP;
+    protected long parseNumericId(String id) {
+        return id.startsWith("C") ? parseDigits(id, 1, -1) : -1;
     }
 
     @Override
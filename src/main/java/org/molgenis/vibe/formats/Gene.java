@@ -13,8 +13,7 @@ import java.net.URI;
 public class Gene extends BiologicalEntity {
     private static final String ID_PREFIX = "ncbigene:";
     private static final String ID_REGEX = "^(ncbigene|NCBIGENE):([0-9]+)$";
-    private static final int REGEX_ID_GROUP = 2;
-    private static final String URI_PREFIX = "http://identifiers.org/ncbigene/";
+    static final String URI_PREFIX = "http://identifiers.org/ncbigene/";
 
     /**
      * The HGNC (HUGO Gene Nomenclature Committee) name.
@@ -60,8 +59,8 @@ public class Gene extends BiologicalEntity {
     }
 
     @Override
-    protected int getRegexIdGroup() {
-        return REGEX_ID_GROUP;
+    protected long parseNumericId(String id) {
+        return parseDigits(id, 0, -1);
     }
 
     @Override
@@ -148,6 +148,41 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
         }
     }
 
+    /**
+     * Adds a {@link Source} to this gene-disease combination {@code count} times at once (equal to calling
+     * {@link #add(Source)} {@code count} times).
+     * @param source
+     * @param count the number of occurrences to add
+     * @throws IllegalArgumentException if {@code count} is less than 1
+     */
+    public void add(Source source, int count) {
+        if(count < 1) {
+            throw new IllegalArgumentException("Count should be at least 1.");
+        }
+        sourcesCount.merge(source, count, Integer::sum);
+    }
+
+    /**
+     * Adds a {@link Source} to this gene-disease combination {@code count} times with all of the given evidence
+     * {@link URI}{@code s} (equal to calling {@link #add(Source, URI)} for each evidence {@link URI}, {@code count}
+     * times).
+     * @param source
+     * @param evidence the evidence {@link URI}{@code s} (at least 1)
+     * @param count the number of times {@code evidence} is added
+     * @throws IllegalArgumentException if {@code evidence} is empty or {@code count} is less than 1
+     */
+    public void add(Source source, List<URI> evidence, int count) {
+        if(evidence.isEmpty()) {
+            throw new IllegalArgumentException("At least 1 evidence URI is required.");
+        }
+        add(source, count * evidence.size());
+
+        List<URI> evidenceList = sourcesEvidence.computeIfAbsent(source, key -> new ArrayList<>());
+        for(int i = 0; i < count; i++) {
+            evidenceList.addAll(evidence);
+        }
+    }
+
     @Override
     public String toString() {
         return "GeneDiseaseCombination{" +
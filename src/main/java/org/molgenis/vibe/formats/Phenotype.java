@@ -10,8 +10,7 @@ import java.net.URI;
 public class Phenotype extends BiologicalEntity {
     private static final String ID_PREFIX = "hp:";
     private static final String ID_REGEX = "^(hp|HP):([0-9]{7})$";
-    private static final int REGEX_ID_GROUP = 2;
-    private static final String URI_PREFIX = "http://purl.obolibrary.org/obo/HP_";
+    static final String URI_PREFIX = "http://purl.obolibrary.org/obo/HP_";
 
     @Override
     protected String getIdPrefix() {
@@ -24,8 +23,8 @@ public class Phenotype extends BiologicalEntity {
     }
 
     @Override
-    protected int getRegexIdGroup() {
-        return REGEX_ID_GROUP;
+    protected long parseNumericId(String id) {
+        return parseDigits(id, 0, 7);
     }
 
     @Override
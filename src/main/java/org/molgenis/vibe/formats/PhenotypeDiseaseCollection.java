@@ -1,12 +1,60 @@
 package org.molgenis.vibe.formats;
 
-import org.apache.commons.lang3.NotImplementedException;
+import java.util.Set;
 
 /**
- * Currently unsupported.
+ * A collection of {@link PhenotypeDiseaseCombination}{@code s}.
  */
 public class PhenotypeDiseaseCollection extends BiologicalEntityCollection<Phenotype, Disease, PhenotypeDiseaseCombination> {
+
+    /**
+     * @return all {@link Phenotype}{@code s}.
+     * @see #getT1()
+     */
+    public Set<Phenotype> getPhenotypes() {
+        return getT1();
+    }
+
+    /**
+     * @return all {@link Disease}{@code s}.
+     * @see #getT2()
+     */
+    public Set<Disease> getDiseases() {
+        return getT2();
+    }
+
+    /**
+     * @return all {@link PhenotypeDiseaseCombination}{@code s}.
+     * @see #getT3()
+     */
+    public Set<PhenotypeDiseaseCombination> getPhenotypeDiseaseCombinations() {
+        return getT3();
+    }
+
+    /**
+     * Get the {@link PhenotypeDiseaseCombination}{@code s} for a single {@link Phenotype}.
+     * @param phenotype the {@link Phenotype} to retrieve {@link PhenotypeDiseaseCombination}{@code s} for
+     * @return the {@link PhenotypeDiseaseCombination}{@code s} belonging to {@code phenotype}
+     * @see #getByT1(BiologicalEntity)
+     */
+    public Set<PhenotypeDiseaseCombination> getByPhenotype(Phenotype phenotype) {
+        return getByT1(phenotype);
+    }
+
+    /**
+     * Get the {@link PhenotypeDiseaseCombination}{@code s} for a single {@link Disease}.
+     * @param disease the {@link Disease} to retrieve {@link PhenotypeDiseaseCombination}{@code s} for
+     * @return the {@link PhenotypeDiseaseCombination}{@code s} belonging to {@code disease}
+     * @see #getByT2(BiologicalEntity)
+     */
+    public Set<PhenotypeDiseaseCombination> getByDisease(Disease disease) {
+        return getByT2(disease);
+    }
+
     public PhenotypeDiseaseCollection() {
-        throw new NotImplementedException("placeholder class");
+    }
+
+    public PhenotypeDiseaseCollection(Set<PhenotypeDiseaseCombination> combinations) {
+        super(combinations);
     }
 }
@@ -1,13 +1,31 @@
 package org.molgenis.vibe.formats;
 
-import org.apache.commons.lang3.NotImplementedException;
-
 /**
- * Currently unsupported.
+ * A combination of a {@link Phenotype} and a {@link Disease} (a disease annotated with the phenotype).
  */
 public class PhenotypeDiseaseCombination extends BiologicalEntityCombination<Phenotype, Disease> {
+    /**
+     * @return the {@link Phenotype}
+     * @see #getT1()
+     */
+    public Phenotype getPhenotype() {
+        return getT1();
+    }
+
+    /**
+     * @return the {@link Disease}
+     * @see #getT2()
+     */
+    public Disease getDisease() {
+        return getT2();
+    }
+
     public PhenotypeDiseaseCombination(Phenotype phenotype, Disease disease) {
         super(phenotype, disease);
-        throw new NotImplementedException("placeholder class");
+    }
+
+    @Override
+    public String toString() {
+        return "PhenotypeDiseaseCombination{} " + super.toString();
     }
 }
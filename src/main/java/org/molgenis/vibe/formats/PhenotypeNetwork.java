@@ -6,63 +6,187 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * A network of {@link Phenotype}{@code s} with a single source {@link Phenotype} from which the network is created.
+ *
+ * Internally, the {@link Phenotype}{@code s} are identified by their numeric HPO term ID: an open-addressing hash table
+ * maps each term ID to its distance (stored as unsigned {@code byte}) and the term IDs are additionally stored per
+ * distance in plain {@code int} arrays. No objects are created per stored {@link Phenotype} (the given
+ * {@link Phenotype} instances themselves are kept so that they can be returned).
+ *
+ * The {@link Set}{@code s} returned by {@link #getPhenotypes()} and {@link #getByDistance(int)} are unmodifiable views
+ * on this storage (as were the unmodifiable {@link Set}{@code s} wrapping the internal {@link HashMap}/{@link HashSet}
+ * storage before), so later changes to the network are reflected in them. Their iterators are fail-fast: iterating
+ * while the network is changed throws a {@link ConcurrentModificationException}. Copy a view (such as through
+ * {@code new HashSet<>(network.getPhenotypes())}) when a snapshot is needed.
  */
 public class PhenotypeNetwork {
     /**
-     * A collection of all stored phenotypes with their distance from the source.
+     * The maximum supported distance (the largest unsigned {@code byte}).
      */
-    private Map<Phenotype, Integer> items = new HashMap<>();
+    public static final int MAX_DISTANCE = 255;
+
+    private static final int EMPTY = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The term ID per slot of the hash table ({@link #EMPTY} if the slot is not used). The number of slots is always a
+     * power of 2 and at most half of the slots are used.
+     */
+    private int[] keys;
+
+    /**
+     * The distance per slot of the hash table (unsigned).
+     */
+    private byte[] distances;
+
+    /**
+     * The {@link Phenotype} per slot of the hash table.
+     */
+    private Phenotype[] phenotypes;
+
+    /**
+     * The number of used slots.
+     */
+    private int size = 0;
+
+    /**
+     * The term IDs stored per distance (first {@link #bucketSizes} items). When the distance of a {@link Phenotype} is
+     * lowered it is only added to its new bucket, so a bucket can contain term IDs that are no longer at that distance.
+     * These are skipped when reading the bucket.
+     */
+    private int[][] buckets = new int[1][];
+
+    private int[] bucketSizes = new int[1];
 
     /**
-     * The phenotypes stored per distance level.
+     * The number of term IDs within each bucket that are actually at that distance.
      */
-    private Map<Integer, Set<Phenotype>> network = new HashMap<>();
+    private int[] liveCounts = new int[1];
+
+    /**
+     * The number of structural changes (a {@link Phenotype} added or its distance changed), used by the iterators of
+     * the views to detect changes during iteration.
+     */
+    private int modCount = 0;
+
+    /**
+     * Whether {@link Phenotype}{@code s} can still be added (see {@link #freeze()}).
+     */
+    private volatile boolean frozen = false;
+
+    /**
+     * The distance up to which all {@link Phenotype}{@code s} were added ({@code -1} if unknown, see
+     * {@link #markExpanded(int)}).
+     */
+    private int expandedDistance = -1;
+
+    private Phenotype source;
 
     public PhenotypeNetwork(Phenotype phenotype) {
-        items.put(phenotype, 0);
-        Set<Phenotype> sourceSet = new HashSet<>();
-        sourceSet.add(requireNonNull(phenotype));
-        network.put(0, sourceSet);
+        source = requireNonNull(phenotype);
+        keys = new int[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+        distances = new byte[INITIAL_CAPACITY];
+        phenotypes = new Phenotype[INITIAL_CAPACITY];
+        put(source, termId(source), 0);
     }
 
     /**
      * @return the source phenotype (the only {@link Phenotype} with {@code distance} 0)
      */
     public Phenotype getSource() {
-        return network.get(0).iterator().next();
+        return source;
     }
 
     /**
      *
-     * @return all stored {@link Phenotype}{@code s}
+     * @return all stored {@link Phenotype}{@code s} (an unmodifiable view, see {@link PhenotypeNetwork})
      */
     public Set<Phenotype> getPhenotypes() {
-        return Collections.unmodifiableSet(items.keySet());
+        return new AbstractSet<Phenotype>() {
+            @Override
+            public Iterator<Phenotype> iterator() {
+                return new SlotIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Phenotype && PhenotypeNetwork.this.contains((Phenotype) o);
+            }
+        };
     }
 
     /**
      * @return all {@code distances} for which {@link Phenotype}{@code s} are stored.
      */
     public Set<Integer> getDistances() {
-        return Collections.unmodifiableSet(network.keySet());
+        Set<Integer> storedDistances = new TreeSet<>();
+        for(int distance = 0; distance < liveCounts.length; distance++) {
+            if(liveCounts[distance] > 0) {
+                storedDistances.add(distance);
+            }
+        }
+        return Collections.unmodifiableSet(storedDistances);
     }
 
     /**
      * Retrieves all {@link Phenotype}{@code s} that have the specified {@code distance}
      * @param distance value to be used for {@link Phenotype} retrieval
-     * @return all {@link Phenotype}{@code s} with the given {@code distance}
+     * @return all {@link Phenotype}{@code s} with the given {@code distance} (an unmodifiable view, see
+     * {@link PhenotypeNetwork}), which is empty if all {@link Phenotype}{@code s} stored at this distance were moved
+     * to a closer distance
+     * @throws NullPointerException if no {@link Phenotype} was ever stored with the given {@code distance}
      */
     public Set<Phenotype> getByDistance(int distance) {
-        return Collections.unmodifiableSet(network.get(distance));
+        if(distance < 0 || distance >= buckets.length || buckets[distance] == null) {
+            throw new NullPointerException("No phenotypes are stored with distance " + distance + ".");
+        }
+        return byDistance(distance);
+    }
+
+    /**
+     * Same as {@link #getByDistance(int)}, but returns an empty view for a distance that was never used.
+     */
+    private Set<Phenotype> byDistance(int distance) {
+        return new AbstractSet<Phenotype>() {
+            @Override
+            public Iterator<Phenotype> iterator() {
+                return new BucketIterator(distance);
+            }
+
+            @Override
+            public int size() {
+                return distance >= 0 && distance < liveCounts.length ? liveCounts[distance] : 0;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if(!(o instanceof Phenotype)) {
+                    return false;
+                }
+                int slot = findSlot(termId((Phenotype) o));
+                return keys[slot] != EMPTY && distanceAt(slot) == distance;
+            }
+        };
     }
 
     /**
      * Retrieve the stored {@code distance} belonging to a {@link Phenotype}
      * @param phenotype the {@link Phenotype} to retrieve the {@code distance} from
      * @return the {@code distance} belonging to the {@code phenotype}
+     * @throws NullPointerException if {@code phenotype} is not stored
      */
     public int getDistance(Phenotype phenotype) {
-        return items.get(phenotype);
+        int slot = findSlot(termId(phenotype));
+        if(keys[slot] == EMPTY) {
+            throw new NullPointerException(phenotype.getFormattedId() + " is not part of the network.");
+        }
+        return distanceAt(slot);
     }
 
     public void add(Phenotype[] phenotypes, int distance) {
@@ -85,8 +209,15 @@ public class PhenotypeNetwork {
      * @param phenotype the {@link Phenotype} to be added to the {@code network}
      * @param distance the {@code distance} the {@link Phenotype} is from the {@code source}
      * @return {@code true} if added/distance is updated, otherwise {@code false}
+     * @throws IllegalArgumentException if {@code distance} is 0 for a {@link Phenotype} other than the source, or if
+     * {@code distance} is negative or greater than {@link #MAX_DISTANCE}
+     * @throws UnsupportedOperationException if the {@link PhenotypeNetwork} is frozen
      */
     public boolean add(Phenotype phenotype, int distance) {
+        if(frozen) {
+            throw new UnsupportedOperationException("A frozen PhenotypeNetwork cannot be changed.");
+        }
+
         // Checks if the given distance is 0.
         if(distance == 0) {
             // If given phenotype is the source, nothing happens.
@@ -96,73 +227,315 @@ public class PhenotypeNetwork {
                 throw new IllegalArgumentException("The given phenotype with distance 0 does not equal the source phenotype.");
             }
         }
+        if(distance < 0 || distance > MAX_DISTANCE) {
+            throw new IllegalArgumentException("Distance should be between 0 and " + MAX_DISTANCE + ".");
+        }
 
-        // Tries to retrieve the distance of the given phenotype.
-        Integer retrievedPhenotypeDistance = items.get(phenotype);
+        int termId = termId(phenotype);
+        int slot = findSlot(termId);
 
-        // If no distance was retrieved, phenotype was not yet stored and will be added.
-        if(retrievedPhenotypeDistance == null) {
-            items.put(phenotype, distance);
-            getPhenotypesForDistance(distance).add(phenotype);
+        // If phenotype was not yet stored, it will be added.
+        if(keys[slot] == EMPTY) {
+            put(phenotype, termId, distance);
             return true;
+        }
 
-        } else { // If phenotype is already stored within the network.
-            // If new distance is higher or equal to currently stored one, nothing happens.
-            if(retrievedPhenotypeDistance <= distance) {
-                return false;
-            } else { // Adjusts the phenotype with the new distance if the new distance is closer.
-                items.put(phenotype, distance);
-                getPhenotypesForDistance(retrievedPhenotypeDistance).remove(phenotype);
-                getPhenotypesForDistance(distance).add(phenotype);
-                return true;
-            }
+        // If new distance is higher or equal to currently stored one, nothing happens.
+        int storedDistance = distanceAt(slot);
+        if(storedDistance <= distance) {
+            return false;
         }
+
+        // Adjusts the phenotype with the new distance if the new distance is closer (the old bucket entry becomes stale).
+        distances[slot] = (byte) distance;
+        liveCounts[storedDistance]--;
+        addToBucket(termId, distance);
+        modCount++;
+        return true;
     }
 
     /**
-     * Tries to retrieve all phenotypes belonging to the defined {@code distance}. Note that this functions differently
-     * than the {@code public} version ({@link #getByDistance(int)}) and should be used internally only. It mainly functions
-     * as a safe method for further processing as when a distance is not yet stored. Instead of returning {@code null} in
-     * such cases, a new {@link Set} is created and added to the {@code network} before returning a {@link Set} for further
-     * usage.
-     * @param distance the {@code distance} for which {@link Phenotype}{@code s} should be returned
-     * @return {@link Phenotype}{@code s} currently stored for that distance or an empty {@link Set} if no {@link Phenotype}{@code s}
-     * are stored for that {@code distance}
+     * @param maxDistance the maximum distance to include
+     * @return a new (not frozen) {@link PhenotypeNetwork} with the same source containing only the {@link Phenotype}{@code s}
+     * within {@code maxDistance} (if this network was expanded, the copy is expanded up to the lowest of both distances)
      */
-    private Set<Phenotype> getPhenotypesForDistance(int distance) {
-        // Tries to retrieve the HashSet for that distance.
-        Set<Phenotype> distancePhenotypes = network.get(distance);
+    public PhenotypeNetwork copyWithin(int maxDistance) {
+        PhenotypeNetwork copy = new PhenotypeNetwork(source);
+        for(int distance = 1; distance <= maxDistance && distance < liveCounts.length; distance++) {
+            copy.add(byDistance(distance), distance);
+        }
+        if(expandedDistance != -1) {
+            copy.expandedDistance = Math.min(maxDistance, expandedDistance);
+        }
+        return copy;
+    }
 
-        // Adds a HashSet for that distance if not already available.
-        if(distancePhenotypes == null) {
-            distancePhenotypes = new HashSet<>();
-            network.put(distance, distancePhenotypes);
+    /**
+     * Marks that all {@link Phenotype}{@code s} up to (and including) {@code distance} were added, so that a
+     * {@link org.molgenis.vibe.ontology_processing.PhenotypesRetriever} can later continue the expansion from the
+     * {@link #getFrontier()} instead of starting from the source again.
+     * @param distance the distance up to which the network is complete
+     * @throws IllegalArgumentException if {@code distance} is negative
+     * @throws UnsupportedOperationException if the {@link PhenotypeNetwork} is frozen
+     */
+    public void markExpanded(int distance) {
+        if(frozen) {
+            throw new UnsupportedOperationException("A frozen PhenotypeNetwork cannot be changed.");
+        }
+        if(distance < 0) {
+            throw new IllegalArgumentException("Distance should not be negative.");
         }
+        expandedDistance = distance;
+    }
+
+    /**
+     * @return the distance up to which the network is complete, or {@code -1} if unknown (see {@link #markExpanded(int)})
+     */
+    public int getExpandedDistance() {
+        return expandedDistance;
+    }
 
-        return distancePhenotypes;
+    /**
+     * @return {@code true} if the expansion of this network can be continued (see {@link #markExpanded(int)})
+     */
+    public boolean isResumable() {
+        return expandedDistance != -1;
+    }
+
+    /**
+     * @return the {@link Phenotype}{@code s} at {@link #getExpandedDistance()} from which the expansion can be continued
+     * (empty if the network is not resumable, or if nothing was found at that distance as the expansion was exhausted)
+     */
+    public Set<Phenotype> getFrontier() {
+        return expandedDistance == -1 ? Collections.emptySet() : byDistance(expandedDistance);
+    }
+
+    /**
+     * Makes the {@link PhenotypeNetwork} immutable, so that it can safely be shared (such as through a
+     * {@link org.molgenis.vibe.ontology_processing.PhenotypeNetworkCache}). Any further {@code add} throws an
+     * {@link UnsupportedOperationException}.
+     * @return this {@link PhenotypeNetwork}
+     */
+    public PhenotypeNetwork freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * @return {@code true} if the {@link PhenotypeNetwork} is immutable (see {@link #freeze()})
+     */
+    public boolean isFrozen() {
+        return frozen;
     }
 
     public boolean contains(Phenotype phenotype) {
-        return items.keySet().contains(phenotype);
+        return keys[findSlot(termId(phenotype))] != EMPTY;
+    }
+
+    /**
+     * @param phenotype a {@link Phenotype}
+     * @return the numeric HPO term ID of {@code phenotype} (at most 7 digits, so always fits within an {@code int})
+     */
+    private static int termId(Phenotype phenotype) {
+        return (int) phenotype.getNumericId();
+    }
+
+    /**
+     * @param termId a term ID
+     * @return the slot containing {@code termId}, or the empty slot where it should be stored
+     */
+    private int findSlot(int termId) {
+        int mask = keys.length - 1;
+        int hash = termId * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while(keys[slot] != EMPTY && keys[slot] != termId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int distanceAt(int slot) {
+        return distances[slot] & 0xFF;
+    }
+
+    /**
+     * Stores a {@link Phenotype} that is not present yet.
+     */
+    private void put(Phenotype phenotype, int termId, int distance) {
+        if((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int slot = findSlot(termId);
+        keys[slot] = termId;
+        distances[slot] = (byte) distance;
+        phenotypes[slot] = phenotype;
+        size++;
+        addToBucket(termId, distance);
+        modCount++;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        byte[] oldDistances = distances;
+        Phenotype[] oldPhenotypes = phenotypes;
+
+        keys = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        distances = new byte[keys.length];
+        phenotypes = new Phenotype[keys.length];
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] != EMPTY) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                distances[slot] = oldDistances[i];
+                phenotypes[slot] = oldPhenotypes[i];
+            }
+        }
+    }
+
+    private void addToBucket(int termId, int distance) {
+        if(distance >= buckets.length) {
+            int length = Math.max(distance + 1, buckets.length * 2);
+            buckets = Arrays.copyOf(buckets, length);
+            bucketSizes = Arrays.copyOf(bucketSizes, length);
+            liveCounts = Arrays.copyOf(liveCounts, length);
+        }
+        if(buckets[distance] == null) {
+            buckets[distance] = new int[4];
+        } else if(bucketSizes[distance] == buckets[distance].length) {
+            buckets[distance] = Arrays.copyOf(buckets[distance], buckets[distance].length * 2);
+        }
+        buckets[distance][bucketSizes[distance]++] = termId;
+        liveCounts[distance]++;
+    }
+
+    /**
+     * Iterates over all used slots of the hash table.
+     */
+    private class SlotIterator implements Iterator<Phenotype> {
+        private final int expectedModCount = modCount;
+        private int slot = nextSlot(0);
+
+        private int nextSlot(int from) {
+            while(from < keys.length && keys[from] == EMPTY) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < keys.length;
+        }
+
+        @Override
+        public Phenotype next() {
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Phenotype phenotype = phenotypes[slot];
+            slot = nextSlot(slot + 1);
+            return phenotype;
+        }
+    }
+
+    /**
+     * Iterates over the term IDs within a bucket that are still at the distance of that bucket.
+     */
+    private class BucketIterator implements Iterator<Phenotype> {
+        private final int expectedModCount = modCount;
+        private int distance;
+        private int position = -1;
+        private int nextSlot;
+
+        BucketIterator(int distance) {
+            this.distance = distance;
+            advance();
+        }
+
+        private void advance() {
+            int bucketSize = distance >= 0 && distance < bucketSizes.length ? bucketSizes[distance] : 0;
+            for(position++; position < bucketSize; position++) {
+                nextSlot = findSlot(buckets[distance][position]);
+                if(distanceAt(nextSlot) == distance) {
+                    return;
+                }
+            }
+            nextSlot = -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextSlot != -1;
+        }
+
+        @Override
+        public Phenotype next() {
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Phenotype phenotype = phenotypes[nextSlot];
+            advance();
+            return phenotype;
+        }
+    }
+
+    /**
+     * @return the stored {@link Phenotype}{@code s} per distance (as used by {@link #toString()})
+     */
+    private Map<Integer, Set<Phenotype>> toMap() {
+        Map<Integer, Set<Phenotype>> network = new TreeMap<>();
+        for(int distance : getDistances()) {
+            network.put(distance, new HashSet<>(getByDistance(distance)));
+        }
+        return network;
     }
 
     @Override
     public String toString() {
         return "PhenotypeNetwork{" +
-                "network=" + network +
+                "network=" + toMap() +
                 '}';
     }
 
+    /**
+     * Two {@link PhenotypeNetwork}{@code s} are equal if they store the same {@link Phenotype}{@code s} with the same
+     * distances (how far they were expanded is not compared).
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         PhenotypeNetwork that = (PhenotypeNetwork) o;
-        return Objects.equals(network, that.network);
+        if(size != that.size) {
+            return false;
+        }
+        for(int slot = 0; slot < keys.length; slot++) {
+            if(keys[slot] != EMPTY) {
+                int otherSlot = that.findSlot(keys[slot]);
+                if(that.keys[otherSlot] == EMPTY || that.distanceAt(otherSlot) != distanceAt(slot)) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(network);
+        // Order-independent, so equal networks have equal hash codes regardless of their slot layout.
+        int hash = 0;
+        for(int slot = 0; slot < keys.length; slot++) {
+            if(keys[slot] != EMPTY) {
+                hash += keys[slot] * 31 + distanceAt(slot);
+            }
+        }
+        return hash;
     }
 }
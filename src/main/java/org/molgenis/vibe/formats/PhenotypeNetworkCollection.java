@@ -1,23 +1,90 @@
 package org.molgenis.vibe.formats;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * A collection of {@link PhenotypeNetwork}{@code s}.
+ * A collection of {@link PhenotypeNetwork}{@code s}. Thread-safe: {@link PhenotypeNetwork}{@code s} can be added
+ * concurrently (such as by a {@link org.molgenis.vibe.ontology_processing.PhenotypesRetriever} using multiple threads)
+ * while the getters can be used without locking.
+ *
+ * Each {@link Phenotype} within the collection gets a dense index (in order of appearance), so that the
+ * {@link Phenotype}{@code s} of each {@link PhenotypeNetwork} can be stored as a {@link BitSet}. The union of all
+ * {@link PhenotypeNetwork}{@code s} ({@link #getPhenotypes()}) and the other set operations across
+ * {@link PhenotypeNetwork}{@code s} are then done on whole words instead of by hashing each {@link Phenotype}. The
+ * returned {@link Set}{@code s} are read-only views on a {@link BitSet} that are not affected by later changes.
+ *
+ * The dense indices are only changed while holding the lock, after which an immutable snapshot of them is published
+ * ({@link DenseIndex}). The views only read such a snapshot, so checking whether they contain a {@link Phenotype} does
+ * not need any locking.
  */
 public class PhenotypeNetworkCollection {
+    private static final int EMPTY = -1;
+
     /**
-     * The individual {@link Phenotype}{@code s} collected among all {@link PhenotypeNetwork}{@code s}.
+     * A collection of {@link PhenotypeNetwork}{@code s} stored by their source ({@link PhenotypeNetwork#getSource()}).
      */
-    private Set<Phenotype> phenotypes = new HashSet<>();
+    private Map<Phenotype, PhenotypeNetwork> phenotypeNetworks = new ConcurrentHashMap<>();
 
     /**
-     * A collection of {@link PhenotypeNetwork}{@code s} stored by their source ({@link PhenotypeNetwork#getSource()}).
+     * The {@link Phenotype}{@code s} of each {@link PhenotypeNetwork} (by source) as dense indices.
+     */
+    private Map<Phenotype, BitSet> networkBits = new ConcurrentHashMap<>();
+
+    /**
+     * The union of {@link #networkBits}.
+     */
+    private BitSet phenotypeBits = new BitSet();
+
+    /**
+     * {@link #phenotypeBits} as {@link Set} (or {@code null} if it needs to be created again).
+     */
+    private volatile Set<Phenotype> phenotypes;
+
+    /**
+     * The term ID (see {@link #termId(Phenotype)}) per slot of an open-addressing hash table ({@link #EMPTY} if the slot
+     * is not used). The number of slots is always a power of 2 and at most half of the slots are used. Only used while
+     * holding the lock (readers use {@link #denseIndex}).
+     */
+    private int[] termIds;
+
+    /**
+     * The dense index per slot of {@link #termIds}.
+     */
+    private int[] denseIndices;
+
+    /**
+     * The {@link Phenotype} per dense index (first {@link #denseCount} items). Items are only appended (when full, a new
+     * array is created), so a published {@link DenseIndex} can share it.
+     */
+    private Phenotype[] densePhenotypes;
+
+    private int denseCount;
+
+    /**
+     * The last published snapshot of the dense indices. Dense indices are only removed by {@link #clear()}, and views
+     * created earlier keep using the snapshot they were created with, so they stay valid.
      */
-    private Map<Phenotype, PhenotypeNetwork> phenotypeNetworks = new HashMap<>();
+    private volatile DenseIndex denseIndex;
+
+    public PhenotypeNetworkCollection() {
+        resetDenseIndices();
+    }
 
+    /**
+     * @return all {@link Phenotype}{@code s} among all {@link PhenotypeNetwork}{@code s} (read-only)
+     */
     public Set<Phenotype> getPhenotypes() {
-        return phenotypes;
+        Set<Phenotype> view = phenotypes;
+        if(view == null) {
+            synchronized(this) {
+                if(phenotypes == null) {
+                    phenotypes = new PhenotypeBitSetView((BitSet) phenotypeBits.clone());
+                }
+                view = phenotypes;
+            }
+        }
+        return view;
     }
 
     /**
@@ -31,13 +98,76 @@ public class PhenotypeNetworkCollection {
     }
 
     /**
-     * Adds a {@link PhenotypeNetwork} to the {@link PhenotypeNetworkCollection}
+     * @return all stored {@link PhenotypeNetwork}{@code s} (read-only)
+     */
+    public Collection<PhenotypeNetwork> getPhenotypeNetworks() {
+        return Collections.unmodifiableCollection(phenotypeNetworks.values());
+    }
+
+    /**
+     * @param sources sources of {@link PhenotypeNetwork}{@code s} (sources without a {@link PhenotypeNetwork} are ignored)
+     * @return the {@link Phenotype}{@code s} present in any of the {@link PhenotypeNetwork}{@code s} (read-only)
+     */
+    public Set<Phenotype> getUnion(Collection<Phenotype> sources) {
+        return new PhenotypeBitSetView(union(sources));
+    }
+
+    /**
+     * @param sources sources of {@link PhenotypeNetwork}{@code s} (a source without a {@link PhenotypeNetwork} is
+     *                regarded as an empty {@link PhenotypeNetwork})
+     * @return the {@link Phenotype}{@code s} present in all of the {@link PhenotypeNetwork}{@code s}, or an empty
+     * {@link Set} if {@code sources} is empty (read-only)
+     */
+    public Set<Phenotype> getIntersection(Collection<Phenotype> sources) {
+        BitSet bits = null;
+        for(Phenotype source : sources) {
+            BitSet sourceBits = networkBits.getOrDefault(source, new BitSet());
+            if(bits == null) {
+                bits = (BitSet) sourceBits.clone();
+            } else {
+                bits.and(sourceBits);
+            }
+        }
+        return new PhenotypeBitSetView(bits == null ? new BitSet() : bits);
+    }
+
+    /**
+     * @param sources sources of {@link PhenotypeNetwork}{@code s} (sources without a {@link PhenotypeNetwork} are ignored)
+     * @param excludedSources sources of {@link PhenotypeNetwork}{@code s} whose {@link Phenotype}{@code s} should be
+     *                        excluded
+     * @return the {@link Phenotype}{@code s} present in any of the {@link PhenotypeNetwork}{@code s} of {@code sources}
+     * but in none of those of {@code excludedSources} (read-only)
+     */
+    public Set<Phenotype> getDifference(Collection<Phenotype> sources, Collection<Phenotype> excludedSources) {
+        BitSet bits = union(sources);
+        bits.andNot(union(excludedSources));
+        return new PhenotypeBitSetView(bits);
+    }
+
+    /**
+     * Adds a {@link PhenotypeNetwork} to the {@link PhenotypeNetworkCollection} (replacing a {@link PhenotypeNetwork}
+     * with the same source). The {@link Phenotype}{@code s} of the {@code network} are read once, so it should not be
+     * changed afterwards.
      * @param network the {@link PhenotypeNetwork} to be added
      */
-    public void add(PhenotypeNetwork network) {
-        phenotypeNetworks.put(network.getSource(), network);
-        phenotypes.addAll(network.getPhenotypes());
+    public synchronized void add(PhenotypeNetwork network) {
+        int previousDenseCount = denseCount;
+        BitSet bits = new BitSet(denseCount + network.getPhenotypes().size());
+        for(Phenotype phenotype : network.getPhenotypes()) {
+            bits.set(denseIndex(phenotype));
+        }
+        if(denseCount != previousDenseCount) {
+            // Published before the bits, so any view of these bits can find their dense indices.
+            publishDenseIndices();
+        }
 
+        networkBits.put(network.getSource(), bits);
+        if(phenotypeNetworks.put(network.getSource(), network) == null) {
+            phenotypeBits.or(bits);
+        } else {
+            generatePhenotypes();
+        }
+        phenotypes = null;
     }
 
     /**
@@ -45,26 +175,223 @@ public class PhenotypeNetworkCollection {
      * @param network the {@link PhenotypeNetwork} to be removed
      * @return {@code true} if the {@code network} was removed, otherwise {@code false}
      */
-    public boolean remove(PhenotypeNetwork network) {
-        boolean removed = phenotypeNetworks.values().remove(network);
-        generatePhenotypes();
+    public synchronized boolean remove(PhenotypeNetwork network) {
+        boolean removed = phenotypeNetworks.remove(network.getSource(), network);
+        if(removed) {
+            networkBits.remove(network.getSource());
+            generatePhenotypes();
+            phenotypes = null;
+        }
         return removed;
     }
 
     /**
      * Clears the {@link PhenotypeNetworkCollection}
      */
-    public void clear() {
-        phenotypes.clear();
+    public synchronized void clear() {
         phenotypeNetworks.clear();
+        networkBits.clear();
+        phenotypeBits = new BitSet();
+        phenotypes = null;
+        resetDenseIndices();
     }
 
     /**
-     * Generates the {@code phenotypes} from all stored {@link PhenotypeNetwork}{@code s}.
+     * Generates the {@code phenotypeBits} from all stored {@link PhenotypeNetwork}{@code s}.
      */
     private void generatePhenotypes() {
-        for(PhenotypeNetwork network : phenotypeNetworks.values()) {
-            phenotypes.addAll(network.getPhenotypes());
+        phenotypeBits = new BitSet(denseCount);
+        for(BitSet bits : networkBits.values()) {
+            phenotypeBits.or(bits);
+        }
+    }
+
+    /**
+     * @param sources sources of {@link PhenotypeNetwork}{@code s}
+     * @return a new {@link BitSet} containing the union of the {@link PhenotypeNetwork}{@code s} of {@code sources}
+     */
+    private BitSet union(Collection<Phenotype> sources) {
+        BitSet bits = new BitSet();
+        for(Phenotype source : sources) {
+            BitSet sourceBits = networkBits.get(source);
+            if(sourceBits != null) {
+                bits.or(sourceBits);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * @param phenotype a {@link Phenotype}
+     * @return the numeric HPO term ID of {@code phenotype} (at most 7 digits, so always fits within an {@code int})
+     */
+    private static int termId(Phenotype phenotype) {
+        return (int) phenotype.getNumericId();
+    }
+
+    private static int[] newTermIds(int length) {
+        int[] termIds = new int[length];
+        Arrays.fill(termIds, EMPTY);
+        return termIds;
+    }
+
+    /**
+     * @param termIds the slots of an open-addressing hash table (see {@link #termIds})
+     * @param termId a term ID
+     * @return the slot containing {@code termId}, or the empty slot where it should be stored
+     */
+    private static int findSlot(int[] termIds, int termId) {
+        int mask = termIds.length - 1;
+        int hash = termId * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while(termIds[slot] != EMPTY && termIds[slot] != termId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Removes all dense indices (only while holding the lock).
+     */
+    private void resetDenseIndices() {
+        termIds = newTermIds(16);
+        denseIndices = new int[16];
+        densePhenotypes = new Phenotype[16];
+        denseCount = 0;
+        publishDenseIndices();
+    }
+
+    /**
+     * Publishes a snapshot of the current dense indices (only while holding the lock).
+     */
+    private void publishDenseIndices() {
+        denseIndex = new DenseIndex(termIds.clone(), denseIndices.clone(), densePhenotypes);
+    }
+
+    /**
+     * @param phenotype a {@link Phenotype}
+     * @return the dense index of {@code phenotype} (assigned if it did not have one yet)
+     */
+    private int denseIndex(Phenotype phenotype) {
+        int termId = termId(phenotype);
+        int slot = findSlot(termIds, termId);
+        if(termIds[slot] != EMPTY) {
+            return denseIndices[slot];
+        }
+
+        if((denseCount + 1) * 2 > termIds.length) {
+            resize();
+            slot = findSlot(termIds, termId);
+        }
+        if(denseCount == densePhenotypes.length) {
+            // A new array is created, so published snapshots still using the old array are not affected.
+            densePhenotypes = Arrays.copyOf(densePhenotypes, densePhenotypes.length * 2);
+        }
+        termIds[slot] = termId;
+        denseIndices[slot] = denseCount;
+        densePhenotypes[denseCount] = phenotype;
+        return denseCount++;
+    }
+
+    private void resize() {
+        int[] oldTermIds = termIds;
+        int[] oldDenseIndices = denseIndices;
+
+        termIds = newTermIds(oldTermIds.length * 2);
+        denseIndices = new int[termIds.length];
+        for(int i = 0; i < oldTermIds.length; i++) {
+            if(oldTermIds[i] != EMPTY) {
+                int slot = findSlot(termIds, oldTermIds[i]);
+                termIds[slot] = oldTermIds[i];
+                denseIndices[slot] = oldDenseIndices[i];
+            }
+        }
+    }
+
+    /**
+     * An immutable snapshot of the dense indices (see {@link #publishDenseIndices()}).
+     */
+    private static class DenseIndex {
+        private final int[] termIds;
+        private final int[] denseIndices;
+
+        /**
+         * Only the items belonging to {@link #termIds} are read (later items might still be added).
+         */
+        private final Phenotype[] phenotypes;
+
+        DenseIndex(int[] termIds, int[] denseIndices, Phenotype[] phenotypes) {
+            this.termIds = termIds;
+            this.denseIndices = denseIndices;
+            this.phenotypes = phenotypes;
+        }
+
+        /**
+         * @param phenotype a {@link Phenotype}
+         * @return the dense index of {@code phenotype}, or {@code -1} if it is not present in this snapshot
+         */
+        int find(Phenotype phenotype) {
+            int slot = findSlot(termIds, termId(phenotype));
+            return termIds[slot] == EMPTY ? -1 : denseIndices[slot];
+        }
+    }
+
+    /**
+     * A read-only {@link Set} of the {@link Phenotype}{@code s} of which the dense index is present in a {@link BitSet}.
+     */
+    private class PhenotypeBitSetView extends AbstractSet<Phenotype> {
+        private final BitSet bits;
+
+        /**
+         * Contains all dense indices that are present in {@link #bits}.
+         */
+        private final DenseIndex snapshot;
+
+        private final int size;
+
+        /**
+         * @param bits the dense indices (not changed afterwards, and only containing published dense indices)
+         */
+        PhenotypeBitSetView(BitSet bits) {
+            this.bits = bits;
+            this.snapshot = denseIndex;
+            this.size = bits.cardinality();
+        }
+
+        @Override
+        public Iterator<Phenotype> iterator() {
+            return new Iterator<Phenotype>() {
+                private int index = bits.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return index != -1;
+                }
+
+                @Override
+                public Phenotype next() {
+                    if(!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Phenotype phenotype = snapshot.phenotypes[index];
+                    index = bits.nextSetBit(index + 1);
+                    return phenotype;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(!(o instanceof Phenotype)) {
+                return false;
+            }
+            int index = snapshot.find((Phenotype) o);
+            return index != -1 && bits.get(index);
         }
     }
 
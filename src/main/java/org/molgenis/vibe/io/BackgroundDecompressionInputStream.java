@@ -0,0 +1,141 @@
+package org.molgenis.vibe.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * An {@link InputStream} that reads another (decompressing) {@link InputStream} on a separate thread. The decompressed
+ * data is handed over in chunks, so that decompression of the next chunks can take place while the current chunk is
+ * being parsed.
+ */
+class BackgroundDecompressionInputStream extends InputStream {
+    /**
+     * The size of the chunks passed from the decompression thread to the reading thread.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The number of chunks that can be decompressed ahead of the reading thread.
+     */
+    private static final int QUEUE_SIZE = 16;
+
+    /**
+     * Indicates the decompression thread is finished (either successfully or not).
+     */
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+    private final Thread thread;
+
+    /**
+     * The exception that stopped the decompression thread (if any).
+     */
+    private volatile IOException failure;
+
+    private byte[] chunk;
+    private int position;
+    private boolean finished = false;
+
+    /**
+     * @param decompressed the {@link InputStream} to be read on a separate thread (closed once fully read)
+     * @param name the name of the data being read (used for naming the thread)
+     */
+    BackgroundDecompressionInputStream(InputStream decompressed, String name) {
+        thread = new Thread(() -> decompress(decompressed), "decompress-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void decompress(InputStream decompressed) {
+        try (InputStream in = decompressed) {
+            while(true) {
+                byte[] buffer = new byte[CHUNK_SIZE];
+                int length = fill(in, buffer);
+                if(length == 0) {
+                    break;
+                }
+                chunks.put(length == CHUNK_SIZE ? buffer : Arrays.copyOf(buffer, length));
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            // Stream was closed by the reading thread.
+            return;
+        }
+
+        try {
+            chunks.put(END);
+        } catch (InterruptedException e) {
+            // Stream was closed by the reading thread.
+        }
+    }
+
+    /**
+     * Reads from {@code in} until {@code buffer} is full or no more data is available.
+     * @return the number of bytes that were read into {@code buffer}
+     */
+    private int fill(InputStream in, byte[] buffer) throws IOException {
+        int length = 0;
+        int read;
+        while(length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * @return {@code true} if a chunk with unread data is available, {@code false} if all data was read
+     * @throws IOException if decompression failed or the thread was interrupted while waiting
+     */
+    private boolean nextChunk() throws IOException {
+        while(!finished && (chunk == null || position == chunk.length)) {
+            try {
+                chunk = chunks.take();
+                position = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for decompressed data.", e);
+            }
+
+            if(chunk == END) {
+                finished = true;
+                if(failure != null) {
+                    throw new IOException("Decompression failed: " + failure.getMessage(), failure);
+                }
+            }
+        }
+        return !finished;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if(!nextChunk()) {
+            return -1;
+        }
+        return chunk[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if(len == 0) {
+            return 0;
+        }
+        if(!nextChunk()) {
+            return -1;
+        }
+        int length = Math.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, length);
+        position += length;
+        return length;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,131 @@
+package org.molgenis.vibe.io;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The compression formats that can be read directly (without decompressing them to disk first). The format of a file
+ * is detected based on its magic bytes instead of its extension.
+ */
+public enum CompressionFormat {
+    NONE(new byte[0], "") {
+        @Override
+        public InputStream decompress(InputStream in) {
+            return in;
+        }
+    },
+    GZIP(new byte[]{(byte) 0x1F, (byte) 0x8B}, ".gz") {
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new GzipCompressorInputStream(in, true);
+        }
+    },
+    BZIP2(new byte[]{'B', 'Z', 'h'}, ".bz2") {
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new BZip2CompressorInputStream(in, true);
+        }
+    },
+    XZ(new byte[]{(byte) 0xFD, '7', 'z', 'X', 'Z', 0x00}, ".xz") {
+        @Override
+        public InputStream decompress(InputStream in) throws IOException {
+            return new XZCompressorInputStream(in, true);
+        }
+    };
+
+    /**
+     * The maximum number of magic bytes needed to detect a format.
+     */
+    private static final int MAX_MAGIC_LENGTH = 6;
+
+    /**
+     * The bytes a file of this format starts with.
+     */
+    private byte[] magicBytes;
+
+    /**
+     * The extension commonly used for files of this format.
+     */
+    private String extension;
+
+    public String getExtension() {
+        return extension;
+    }
+
+    CompressionFormat(byte[] magicBytes, String extension) {
+        this.magicBytes = magicBytes;
+        this.extension = extension;
+    }
+
+    /**
+     * Wraps {@code in} so that reading from it results in decompressed data.
+     * @param in an {@link InputStream} containing data compressed in this format
+     * @return an {@link InputStream} of the decompressed data
+     * @throws IOException if {@code in} could not be read or is not of this format
+     */
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * Detects the compression format by peeking at the first bytes of {@code in}. Afterwards, {@code in} is reset to
+     * the position it had before.
+     * @param in an {@link InputStream} supporting {@link InputStream#mark(int)}
+     * @return the {@link CompressionFormat}, or {@link #NONE} if the data is not compressed in a supported format
+     * @throws IOException if {@code in} could not be read
+     * @throws IllegalArgumentException if {@code in} does not support {@link InputStream#mark(int)}
+     */
+    public static CompressionFormat detect(InputStream in) throws IOException {
+        if(!in.markSupported()) {
+            throw new IllegalArgumentException("The InputStream must support mark/reset.");
+        }
+
+        byte[] header = new byte[MAX_MAGIC_LENGTH];
+        in.mark(MAX_MAGIC_LENGTH);
+        int length = 0;
+        try {
+            int read;
+            while(length < header.length && (read = in.read(header, length, header.length - length)) != -1) {
+                length += read;
+            }
+        } finally {
+            in.reset();
+        }
+
+        for(CompressionFormat format : values()) {
+            if(format != NONE && format.matches(header, length)) {
+                return format;
+            }
+        }
+        return NONE;
+    }
+
+    private boolean matches(byte[] header, int length) {
+        if(length < magicBytes.length) {
+            return false;
+        }
+        for(int i = 0; i < magicBytes.length; i++) {
+            if(header[i] != magicBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the extension of a compression format from a file name (if present), so that the extension describing
+     * the actual content remains.
+     * @param fileName a file name, such as {@code hp.owl.gz}
+     * @return {@code fileName} without compression extension, such as {@code hp.owl}
+     */
+    public static String stripExtension(String fileName) {
+        for(CompressionFormat format : values()) {
+            if(format != NONE && fileName.toLowerCase().endsWith(format.extension)) {
+                return fileName.substring(0, fileName.length() - format.extension.length());
+            }
+        }
+        return fileName;
+    }
+}
@@ -1,14 +1,42 @@
 package org.molgenis.vibe.io;
 
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.riot.Lang;
-import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.core.Quad;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
- * Creates an (Ontology) {@link Model} from RDF files.
+ * Creates an (Ontology) {@link Model} from RDF files. When multiple files are given, each file is parsed on its own
+ * thread while a single thread adds the parsed triples to the {@link Model} (so no intermediate model per file is
+ * created). The prefixes are set in the order of the given files.
+ * Compressed files are decompressed while being read (see {@link RdfFileParser}).
  */
 public class ModelFilesReader implements ModelReader {
+    /**
+     * The number of triples handed over at once from a parsing thread to the thread adding them to the {@link #model}.
+     */
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * The maximum number of batches waiting to be added to the {@link #model}.
+     */
+    private static final int BUFFER_CAPACITY = 64;
+
     /**
      * The model that is created from the RDF files.
      */
@@ -53,7 +81,7 @@ public class ModelFilesReader implements ModelReader {
      * @return itself for fluent programming
      */
     public ModelFilesReader read(String file) {
-        RDFDataMgr.read(model, file);
+        RdfFileParser.read(model, file, null);
         return this;
     }
 
@@ -64,35 +92,139 @@ public class ModelFilesReader implements ModelReader {
      * @return itself for fluent programming
      */
     public ModelFilesReader read(String file, Lang lang) {
-        RDFDataMgr.read(model, file, lang);
+        RdfFileParser.read(model, file, lang);
         return this;
     }
 
     /**
-     * Adds the {@code files} to the existing {@link Model}
+     * Adds the {@code files} to the existing {@link Model}. The files are parsed in parallel.
      * @param files a {@link String} array defining the location of the RDF files.
      * @return itself for fluent programming
      */
     public ModelFilesReader read(String[] files) {
-        for(String file : files) {
-            read(file);
-        }
-        return this;
+        return read(files, null);
     }
 
     /**
-     * Adds the {@code files} to the existing {@link Model}
+     * Adds the {@code files} to the existing {@link Model}. The files are parsed in parallel.
      * @param files a {@link String} array defining the location of the RDF files.
-     * @param lang the type of RDF file as described by {@link Lang}
+     * @param lang the type of RDF file as described by {@link Lang} (if {@code null}, it is based on the file extension)
      * @return itself for fluent programming
      */
     public ModelFilesReader read(String[] files, Lang lang) {
-        for(String file : files) {
-            read(file, lang);
+        if(files.length == 0) {
+            return this;
+        } else if(files.length == 1) {
+            return lang == null ? read(files[0]) : read(files[0], lang);
+        }
+
+        BlockingQueue<List<Triple>> batches = new ArrayBlockingQueue<>(BUFFER_CAPACITY);
+        List<TripleBuffer> buffers = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(files.length, Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<?>> parsers = new ArrayList<>();
+            for(String file : files) {
+                TripleBuffer buffer = new TripleBuffer(batches);
+                buffers.add(buffer);
+                parsers.add(executor.submit(() -> buffer.parse(file, lang)));
+            }
+
+            // Adds the triples to the graph as they are parsed (each parser signals its end with an empty batch).
+            Graph graph = model.getGraph();
+            int running = files.length;
+            while(running > 0) {
+                List<Triple> batch = batches.take();
+                if(batch.isEmpty()) {
+                    running--;
+                }
+                for(Triple triple : batch) {
+                    graph.add(triple);
+                }
+            }
+
+            for(Future<?> parser : parsers) {
+                parser.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reading the RDF files.", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Sets the prefixes in the order of the files (instead of order of completion) so that they are always
+        // overwritten in the same way as when reading the files sequentially.
+        for(TripleBuffer buffer : buffers) {
+            model.setNsPrefixes(buffer.prefixes);
         }
         return this;
     }
 
+    /**
+     * Collects the triples of a single file into batches which are handed over to the thread adding them to the graph.
+     * As only a limited number of batches can be waiting (see {@link #BUFFER_CAPACITY}), parsing is paused whenever the
+     * graph cannot keep up, so no (full) copy of a file is ever kept in memory.
+     */
+    private static class TripleBuffer extends StreamRDFBase {
+        private final BlockingQueue<List<Triple>> batches;
+        private final Map<String, String> prefixes = new LinkedHashMap<>();
+        private List<Triple> batch = new ArrayList<>(BATCH_SIZE);
+
+        TripleBuffer(BlockingQueue<List<Triple>> batches) {
+            this.batches = batches;
+        }
+
+        /**
+         * Parses {@code file} into the buffer. An empty batch is always handed over at the end (also if parsing failed).
+         * @param file a {@link String} defining the location of an RDF file
+         * @param lang the type of RDF file as described by {@link Lang} (if {@code null}, it is based on the file extension)
+         * @throws InterruptedException if interrupted while waiting for the graph to take a batch
+         */
+        Void parse(String file, Lang lang) throws InterruptedException {
+            try {
+                RdfFileParser.parse(this, file, lang);
+                if(!batch.isEmpty()) {
+                    batches.put(batch);
+                }
+            } finally {
+                batches.put(Collections.emptyList());
+            }
+            return null;
+        }
+
+        @Override
+        public void triple(Triple triple) {
+            batch.add(triple);
+            if(batch.size() == BATCH_SIZE) {
+                try {
+                    batches.put(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while parsing an RDF file.", e);
+                }
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+
+        @Override
+        public void quad(Quad quad) {
+            // Only the default graph is used (the same as when parsing into a model).
+            if(quad.isTriple() || quad.isDefaultGraph()) {
+                triple(quad.asTriple());
+            }
+        }
+
+        @Override
+        public void prefix(String prefix, String iri) {
+            prefixes.put(prefix, iri);
+        }
+    }
+
     @Override
     public void close() {
         model.close();
@@ -2,6 +2,8 @@ package org.molgenis.vibe.io;
 
 import org.apache.jena.rdf.model.Model;
 
+import java.util.function.Supplier;
+
 /**
  * Interface describing a {@link Class} that reads in a {@link Model}.
  */
@@ -10,4 +12,22 @@ public interface ModelReader {
     Model getModel();
 
     void close();
+
+    /**
+     * Runs {@code action} on the current thread while it is allowed to read the {@link Model} (such as within a read
+     * transaction).
+     * @param action the action reading the {@link Model}
+     * @param <T> the type of the result
+     * @return the result of {@code action}
+     */
+    default <T> T read(Supplier<T> action) {
+        return action.get();
+    }
+
+    /**
+     * @return {@code true} if {@link #read(Supplier)} may be called by multiple threads concurrently
+     */
+    default boolean supportsConcurrentReads() {
+        return false;
+    }
 }
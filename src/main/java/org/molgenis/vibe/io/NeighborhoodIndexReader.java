@@ -0,0 +1,134 @@
+package org.molgenis.vibe.io;
+
+import org.molgenis.vibe.io.cache.Fingerprint;
+import org.molgenis.vibe.io.cache.OntologyHierarchySerializer;
+import org.molgenis.vibe.ontology_processing.NeighborhoodIndex;
+import org.molgenis.vibe.ontology_processing.OntologyIndex;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads a {@link NeighborhoodIndex} (as created by {@link org.molgenis.vibe.io.output.NeighborhoodIndexWriter}). The
+ * file is memory-mapped, so it is available almost instantly and its pages are shared by all processes using it.
+ *
+ * The file is stored in big-endian format with the following layout:
+ * <ul>
+ *     <li>{@code int} {@link #MAGIC_NUMBER}</li>
+ *     <li>{@code int} {@link #FORMAT_VERSION}</li>
+ *     <li>{@code byte[64]} the fingerprint of the {@link OntologyIndex} the neighborhoods were created from (see
+ *     {@link #fingerprint(OntologyIndex)}), as US-ASCII encoded hexadecimal digits</li>
+ *     <li>the neighborhoods themselves (see {@link NeighborhoodIndex})</li>
+ * </ul>
+ */
+public class NeighborhoodIndexReader {
+    /**
+     * Identifies a file as a neighborhood index ("VHNB").
+     */
+    public static final int MAGIC_NUMBER = 0x56484E42;
+
+    /**
+     * The version of the layout. Files with a different version are regarded as outdated.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    /**
+     * The extension added to the ontology file name for storing its neighborhood index.
+     */
+    public static final String EXTENSION = ".neighborhood";
+
+    /**
+     * The number of bytes of the hierarchy fingerprint within the header.
+     */
+    public static final int FINGERPRINT_LENGTH = 64;
+
+    /**
+     * The number of bytes before the neighborhoods themselves start.
+     */
+    private static final int HEADER_SIZE = 8 + FINGERPRINT_LENGTH;
+
+    private NeighborhoodIndex neighborhoods;
+
+    public NeighborhoodIndex getNeighborhoods() {
+        return neighborhoods;
+    }
+
+    /**
+     * @param file {@link Path} to the neighborhood index
+     * @throws IOException if the file could not be read or is not a (supported) neighborhood index
+     */
+    public NeighborhoodIndexReader(Path file) throws IOException {
+        read(requireNonNull(file));
+    }
+
+    /**
+     * The location where the neighborhood index of an ontology file is (or should be) stored.
+     * @param ontologyFile the ontology file
+     * @return a {@link Path} to the neighborhood index belonging to {@code ontologyFile}
+     */
+    public static Path getNeighborhoodIndexPath(Path ontologyFile) {
+        return Paths.get(ontologyFile.toString() + EXTENSION);
+    }
+
+    /**
+     * The neighborhoods refer to the classes by their index, so they can only be used with a hierarchy that is identical
+     * to the one they were created from (including the order of the classes). Therefore, they are keyed on the content
+     * of the serialized hierarchy (the same representation as used by snapshots and the
+     * {@link org.molgenis.vibe.io.cache.ArtifactCache}).
+     * @param hierarchy an {@link OntologyIndex}
+     * @return the hexadecimal representation of the fingerprint ({@link #FINGERPRINT_LENGTH} characters)
+     * @throws IOException if the hierarchy could not be serialized
+     */
+    public static String fingerprint(OntologyIndex hierarchy) throws IOException {
+        return new Fingerprint("hpo-neighborhoods").add(OntologyHierarchySerializer.VERSION)
+                .addArtifact(new OntologyHierarchySerializer(), hierarchy).toString();
+    }
+
+    /**
+     * Checks whether a neighborhood index exists and was created from {@code hierarchy} (based on the fingerprint
+     * stored within the file, see {@link #fingerprint(OntologyIndex)}).
+     * @param file {@link Path} to the neighborhood index
+     * @param hierarchy the {@link OntologyIndex} the neighborhoods should belong to
+     * @return {@code true} if the neighborhood index can be used, otherwise {@code false}
+     */
+    public static boolean isUpToDate(Path file, OntologyIndex hierarchy) {
+        if(!Files.isRegularFile(file) || !Files.isReadable(file)) {
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if(in.readInt() != MAGIC_NUMBER || in.readInt() != FORMAT_VERSION) {
+                return false;
+            }
+            byte[] storedFingerprint = new byte[FINGERPRINT_LENGTH];
+            in.readFully(storedFingerprint);
+            return new String(storedFingerprint, StandardCharsets.US_ASCII).equals(fingerprint(hierarchy));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if(in.readInt() != MAGIC_NUMBER) {
+                throw new IOException(file.getFileName() + " is not a neighborhood index.");
+            }
+            if(in.readInt() != FORMAT_VERSION) {
+                throw new IOException(file.getFileName() + " was created with an unsupported neighborhood index version.");
+            }
+        }
+
+        try {
+            neighborhoods = new NeighborhoodIndex(file, HEADER_SIZE);
+        } catch (IOException e) {
+            throw new IOException(file.getFileName() + " is corrupt: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.molgenis.vibe.io;
+
+import org.apache.jena.ontology.OntModel;
+import org.molgenis.vibe.ontology_processing.OntologyIndex;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads in an {@link OntologyIndex} instead of a complete ontology. The index can be traversed directly (see
+ * {@link org.molgenis.vibe.ontology_processing.IndexedPhenotypesRetriever}). If an {@link OntModel} is requested, it
+ * only contains the classes and their subclass relations (see {@link OntologyIndex#toModel()}).
+ */
+public class OntologyHierarchyReader implements OntologyModelReader {
+    /**
+     * The hierarchy that was read.
+     */
+    private OntologyIndex hierarchy;
+
+    /**
+     * The model generated from the {@link #hierarchy} (only created when needed).
+     */
+    private OntModel model;
+
+    protected OntologyHierarchyReader() {
+    }
+
+    /**
+     * @param hierarchy an {@link OntologyIndex} that was already read (such as from an
+     * {@link org.molgenis.vibe.io.cache.ArtifactCache})
+     */
+    public OntologyHierarchyReader(OntologyIndex hierarchy) {
+        this.hierarchy = requireNonNull(hierarchy);
+    }
+
+    public OntologyIndex getHierarchy() {
+        return hierarchy;
+    }
+
+    protected void setHierarchy(OntologyIndex hierarchy) {
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * @return an {@link OntModel} only containing the classes and their subclass relations
+     * @see OntologyIndex#toModel()
+     */
+    @Override
+    public OntModel getModel() {
+        if(model == null) {
+            model = hierarchy.toModel();
+        }
+        return model;
+    }
+
+    @Override
+    public void close() {
+        if(model != null) {
+            model.close();
+        }
+    }
+}
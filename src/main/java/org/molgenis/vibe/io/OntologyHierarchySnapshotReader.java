@@ -0,0 +1,180 @@
+package org.molgenis.vibe.io;
+
+import org.molgenis.vibe.io.cache.Fingerprint;
+import org.molgenis.vibe.io.cache.OntologyHierarchySerializer;
+import org.molgenis.vibe.ontology_processing.MappedOntologyHierarchy;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads an {@link org.molgenis.vibe.ontology_processing.OntologyIndex} from a binary snapshot (as created by
+ * {@link org.molgenis.vibe.io.output.OntologyHierarchySnapshotWriter}). The snapshot is not deserialized but
+ * memory-mapped (see {@link MappedOntologyHierarchy}), so it is available almost instantly and its pages are shared
+ * by all processes using the same snapshot.
+ *
+ * The snapshot is stored in big-endian format with the following layout:
+ * <ul>
+ *     <li>{@code int} {@link #MAGIC_NUMBER}</li>
+ *     <li>{@code int} {@link #FORMAT_VERSION}</li>
+ *     <li>{@code long} the size of the ontology file (in bytes)</li>
+ *     <li>{@code long} the last modified time of the ontology file (in milliseconds since the epoch)</li>
+ *     <li>{@code byte[64]} the hash of the content of the ontology file the snapshot was created from (see
+ *     {@link #hash(Path)}), as US-ASCII encoded hexadecimal digits</li>
+ *     <li>the hierarchy itself (see {@link OntologyHierarchySerializer})</li>
+ * </ul>
+ */
+public class OntologyHierarchySnapshotReader extends OntologyHierarchyReader {
+    /**
+     * Identifies a file as an ontology hierarchy snapshot ("VHPO").
+     */
+    public static final int MAGIC_NUMBER = 0x5648504F;
+
+    /**
+     * The version of the snapshot layout. Snapshots with a different version are regarded as outdated.
+     */
+    public static final int FORMAT_VERSION = 4;
+
+    /**
+     * The number of bytes of the ontology file hash within the header.
+     */
+    public static final int HASH_LENGTH = 64;
+
+    /**
+     * The position of the ontology file size and last modified time within the header.
+     */
+    private static final int FILE_METADATA_OFFSET = 8;
+
+    /**
+     * The number of bytes before the hierarchy itself starts.
+     */
+    private static final int HEADER_SIZE = FILE_METADATA_OFFSET + 16 + HASH_LENGTH;
+
+    /**
+     * The extension added to the ontology file name for storing its snapshot.
+     */
+    public static final String SNAPSHOT_EXTENSION = ".hierarchy";
+
+    /**
+     * @param snapshot {@link Path} to the snapshot file
+     * @throws IOException if the file could not be read or is not a (supported) snapshot
+     */
+    public OntologyHierarchySnapshotReader(Path snapshot) throws IOException {
+        read(requireNonNull(snapshot));
+    }
+
+    /**
+     * The location where the snapshot of an ontology file is (or should be) stored.
+     * @param ontologyFile the ontology file
+     * @return a {@link Path} to the snapshot belonging to {@code ontologyFile}
+     */
+    public static Path getSnapshotPath(Path ontologyFile) {
+        return Paths.get(ontologyFile.toString() + SNAPSHOT_EXTENSION);
+    }
+
+    /**
+     * Hashes the content of an ontology file (in the same way as the {@link org.molgenis.vibe.io.cache.ArtifactCache}
+     * does for its inputs), so that a snapshot is only used for the exact file it was created from.
+     * @param ontologyFile the ontology file
+     * @return the hexadecimal representation of the hash ({@link #HASH_LENGTH} characters)
+     * @throws IOException if the file could not be read
+     */
+    public static String hash(Path ontologyFile) throws IOException {
+        return new Fingerprint("hpo-file").addFile(ontologyFile).toString();
+    }
+
+    /**
+     * Checks whether a snapshot exists and was created from the current content of {@code ontologyFile}. If the size
+     * and last modified time of {@code ontologyFile} equal the ones stored within the snapshot, it is regarded as up to
+     * date without reading the ontology file. Otherwise, the hash stored within the snapshot is compared to the hash
+     * of the ontology file, as a copied or touched file does not need to have a different content. If the hashes are
+     * equal, the stored size and last modified time are updated so that the next check can skip hashing again.
+     * @param snapshot {@link Path} to the snapshot file
+     * @param ontologyFile {@link Path} to the ontology file the snapshot should be created from
+     * @return {@code true} if the snapshot can be used instead of the ontology file, otherwise {@code false}
+     */
+    public static boolean isUpToDate(Path snapshot, Path ontologyFile) {
+        if(!Files.isRegularFile(snapshot) || !Files.isReadable(snapshot)) {
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if(in.readInt() != MAGIC_NUMBER || in.readInt() != FORMAT_VERSION) {
+                return false;
+            }
+            long storedSize = in.readLong();
+            long storedLastModified = in.readLong();
+            byte[] storedHash = new byte[HASH_LENGTH];
+            in.readFully(storedHash);
+
+            BasicFileAttributes attributes = Files.readAttributes(ontologyFile, BasicFileAttributes.class);
+            if(attributes.size() == storedSize && attributes.lastModifiedTime().toMillis() == storedLastModified) {
+                return true;
+            }
+            if(!new String(storedHash, StandardCharsets.US_ASCII).equals(hash(ontologyFile))) {
+                return false;
+            }
+            updateFileMetadata(snapshot, attributes);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates the header fields describing the ontology file (its size and last modified time).
+     * @param attributes the attributes of the ontology file
+     * @return a {@link ByteBuffer} containing the header fields (ready to be read)
+     */
+    public static ByteBuffer fileMetadata(BasicFileAttributes attributes) {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(attributes.size()).putLong(attributes.lastModifiedTime().toMillis());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Overwrites the ontology file size and last modified time stored within the snapshot header. As this only skips
+     * hashing during a next check, failing to do so (for example due to a read-only snapshot) is ignored.
+     * @param snapshot {@link Path} to the snapshot file
+     * @param attributes the current attributes of the ontology file
+     */
+    private static void updateFileMetadata(Path snapshot, BasicFileAttributes attributes) {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = fileMetadata(attributes);
+            while(buffer.hasRemaining()) {
+                channel.write(buffer, FILE_METADATA_OFFSET + buffer.position());
+            }
+        } catch (IOException e) {
+            // Next check simply hashes the ontology file again.
+        }
+    }
+
+    private void read(Path snapshot) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if(in.readInt() != MAGIC_NUMBER) {
+                throw new IOException(snapshot.getFileName() + " is not an ontology hierarchy snapshot.");
+            }
+            if(in.readInt() != FORMAT_VERSION) {
+                throw new IOException(snapshot.getFileName() + " was created with an unsupported snapshot version.");
+            }
+        }
+
+        try {
+            setHierarchy(new MappedOntologyHierarchy(snapshot, HEADER_SIZE));
+        } catch (IOException e) {
+            throw new IOException(snapshot.getFileName() + " is corrupt: " + e.getMessage(), e);
+        }
+    }
+}
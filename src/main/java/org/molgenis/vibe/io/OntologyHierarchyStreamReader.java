@@ -0,0 +1,27 @@
+package org.molgenis.vibe.io;
+
+import org.apache.jena.riot.Lang;
+import org.molgenis.vibe.ontology_processing.OntologyHierarchy;
+import org.molgenis.vibe.ontology_processing.OntologyHierarchyStreamRDF;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads an {@link OntologyHierarchy} from an ontology file by streaming it through an {@link OntologyHierarchyStreamRDF}.
+ * Only the named classes and their {@code rdfs:subClassOf} relations are kept, so (in contrast to the
+ * {@link OntologyModelFilesReader}) no model of the complete ontology is ever created. Compressed files are
+ * decompressed while being read (see {@link RdfFileParser}).
+ */
+public class OntologyHierarchyStreamReader extends OntologyHierarchyReader {
+    public OntologyHierarchyStreamReader(String file) {
+        OntologyHierarchyStreamRDF stream = new OntologyHierarchyStreamRDF();
+        RdfFileParser.parse(stream, requireNonNull(file), null);
+        setHierarchy(stream.getHierarchy());
+    }
+
+    public OntologyHierarchyStreamReader(String file, Lang lang) {
+        OntologyHierarchyStreamRDF stream = new OntologyHierarchyStreamRDF();
+        RdfFileParser.parse(stream, requireNonNull(file), requireNonNull(lang));
+        setHierarchy(stream.getHierarchy());
+    }
+}
@@ -12,7 +12,7 @@ import org.apache.jena.rdf.model.ModelFactory;
  * @see <a href="https://jena.apache.org/documentation/ontology/#creating-ontology-models">https://jena.apache.org/documentation/ontology/#creating-ontology-models</a>
  * @see <a href=https://jena.apache.org/documentation/inference/#direct-and-indirect-relationships">https://jena.apache.org/documentation/inference/#direct-and-indirect-relationships</a>
  */
-public class OntologyModelFilesReader extends ModelFilesReader {
+public class OntologyModelFilesReader extends ModelFilesReader implements OntologyModelReader {
     public OntologyModelFilesReader(String file) {
         super(file);
     }
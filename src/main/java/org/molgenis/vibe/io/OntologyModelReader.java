@@ -0,0 +1,12 @@
+package org.molgenis.vibe.io;
+
+import org.apache.jena.ontology.OntModel;
+
+/**
+ * Interface describing a {@link Class} that reads in an {@link OntModel}.
+ */
+public interface OntologyModelReader extends ModelReader {
+
+    @Override
+    OntModel getModel();
+}
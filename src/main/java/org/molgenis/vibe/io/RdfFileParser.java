@@ -0,0 +1,117 @@
+package org.molgenis.vibe.io;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.riot.SysRIOT;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Parses RDF files that might be compressed (see {@link CompressionFormat}). Compression is detected using the magic
+ * bytes of a file and the decompression itself takes place on a separate thread while parsing (see
+ * {@link BackgroundDecompressionInputStream}). Locations that are not a local file (such as URLs) are passed to
+ * {@link RDFDataMgr} as-is.
+ */
+public class RdfFileParser {
+    /**
+     * Adds the triples (and prefixes) from {@code file} to {@code model}.
+     * @param model the {@link Model} to add the data to
+     * @param file a {@link String} defining the location of an RDF file
+     * @param lang the type of RDF file as described by {@link Lang} (if {@code null}, it is based on the file extension
+     *             after removing any compression extension)
+     * @throws UncheckedIOException if the file could not be read
+     */
+    public static void read(Model model, String file, Lang lang) {
+        parse(StreamRDFLib.graph(model.getGraph()), file, lang);
+    }
+
+    /**
+     * Sends the data from {@code file} to {@code stream}.
+     * @param stream the {@link StreamRDF} to send the data to
+     * @param file a {@link String} defining the location of an RDF file
+     * @param lang the type of RDF file as described by {@link Lang} (if {@code null}, it is based on the file extension
+     *             after removing any compression extension)
+     * @throws UncheckedIOException if the file could not be read
+     */
+    public static void parse(StreamRDF stream, String file, Lang lang) {
+        Path path = toLocalFile(file);
+        if(path == null) {
+            if(lang == null) {
+                RDFDataMgr.parse(stream, file);
+            } else {
+                RDFDataMgr.parse(stream, file, lang);
+            }
+            return;
+        }
+
+        if(lang == null) {
+            lang = guessLang(file);
+        }
+
+        try (InputStream in = open(path)) {
+            RDFDataMgr.parse(stream, in, SysRIOT.chooseBaseIRI(file), lang);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens a file for reading. If the file is compressed, the returned {@link InputStream} contains the decompressed
+     * data (which is decompressed on a separate thread).
+     * @param path the file to be opened
+     * @return an {@link InputStream} containing the (decompressed) data
+     * @throws IOException if the file could not be opened
+     */
+    public static InputStream open(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path));
+        try {
+            CompressionFormat format = CompressionFormat.detect(in);
+            if(format == CompressionFormat.NONE) {
+                return in;
+            }
+            return new BackgroundDecompressionInputStream(format.decompress(in), path.getFileName().toString());
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Determines the {@link Lang} based on the file extension, ignoring any compression extension.
+     * @param file the file name
+     * @return the {@link Lang} belonging to {@code file}
+     * @throws RiotException if the {@link Lang} could not be determined
+     */
+    public static Lang guessLang(String file) {
+        Lang lang = RDFLanguages.filenameToLang(CompressionFormat.stripExtension(file));
+        if(lang == null) {
+            throw new RiotException("Could not determine the RDF syntax of: " + file);
+        }
+        return lang;
+    }
+
+    /**
+     * @param file a {@link String} defining the location of an RDF file
+     * @return a {@link Path} if {@code file} is an existing local file, otherwise {@code null}
+     */
+    private static Path toLocalFile(String file) {
+        try {
+            Path path = Paths.get(file);
+            return Files.isRegularFile(path) ? path : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+}
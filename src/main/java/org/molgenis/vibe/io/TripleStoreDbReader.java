@@ -8,11 +8,15 @@ import org.apache.jena.tdb.TDBFactory;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Creates an (Ontology) {@link Model} from a TDB database.
+ *
+ * TDB read transactions are bound to a thread. The thread that created the reader stays within a read transaction
+ * till {@link #close()}, other threads can read the {@link Model} concurrently using {@link #read(Supplier)}.
  */
 public class TripleStoreDbReader implements ModelReader {
     /**
@@ -52,6 +56,27 @@ public class TripleStoreDbReader implements ModelReader {
         }
     }
 
+    /**
+     * Runs {@code action} within a read transaction of its own, unless the current thread is already within one.
+     */
+    @Override
+    public <T> T read(Supplier<T> action) {
+        if(dataset.isInTransaction()) {
+            return action.get();
+        }
+        dataset.begin(ReadWrite.READ);
+        try {
+            return action.get();
+        } finally {
+            dataset.end();
+        }
+    }
+
+    @Override
+    public boolean supportsConcurrentReads() {
+        return true;
+    }
+
     @Override
     public void close() {
         model.close();
@@ -0,0 +1,45 @@
+package org.molgenis.vibe.io.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts the number of annotations per URI (see
+ * {@link org.molgenis.vibe.rdf_processing.PhenotypeAnnotationCountsRetriever}) to/from their binary representation:
+ * <ul>
+ *     <li>{@code int} number of URIs</li>
+ *     <li>per URI: {@code UTF} URI, {@code int} number of annotations</li>
+ * </ul>
+ */
+public class AnnotationCountsSerializer implements ArtifactSerializer<Map<String, Integer>> {
+    @Override
+    public void write(DataOutputStream out, Map<String, Integer> annotationCounts) throws IOException {
+        out.writeInt(annotationCounts.size());
+        for(Map.Entry<String, Integer> entry : annotationCounts.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    @Override
+    public Map<String, Integer> read(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if(size < 0) {
+            throw new IOException("Invalid number of annotation counts.");
+        }
+
+        Map<String, Integer> annotationCounts = new HashMap<>();
+        for(int i = 0; i < size; i++) {
+            String uri = in.readUTF();
+            int count = in.readInt();
+            if(count < 0) {
+                throw new IOException("Invalid annotation count for " + uri + ".");
+            }
+            annotationCounts.put(uri, count);
+        }
+        return annotationCounts;
+    }
+}
@@ -0,0 +1,198 @@
+package org.molgenis.vibe.io.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A directory storing artifacts (derived data that is expensive to generate) so that they can be reused by later runs.
+ * Each artifact is stored in a file named after the {@link Fingerprint} of its inputs, so changed inputs automatically
+ * result in a cache miss. Artifacts that cannot be read (such as due to being corrupt) are removed.
+ *
+ * The total size of the cache is limited: after storing an artifact, the least recently used artifacts (based on the
+ * last modified time, which is updated whenever an artifact is read) are removed until the limit is no longer exceeded.
+ */
+public class ArtifactCache {
+    /**
+     * Identifies a file as a cached artifact ("VART").
+     */
+    public static final int MAGIC_NUMBER = 0x56415254;
+
+    /**
+     * The version of the artifact layout. Artifacts with a different version are regarded as invalid.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * The extension of the artifact files within the cache directory.
+     */
+    public static final String ARTIFACT_EXTENSION = ".artifact";
+
+    /**
+     * The directory storing the artifacts.
+     */
+    private Path dir;
+
+    /**
+     * The maximum total size (in bytes) of all artifacts.
+     */
+    private long maxSize;
+
+    public Path getDir() {
+        return dir;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param dir the directory storing the artifacts (created if it does not exist yet)
+     * @param maxSize the maximum total size (in bytes) of all artifacts
+     * @throws IOException if the directory could not be created
+     * @throws IllegalArgumentException if {@code maxSize} is negative
+     */
+    public ArtifactCache(Path dir, long maxSize) throws IOException {
+        if(maxSize < 0) {
+            throw new IllegalArgumentException("The maximum cache size cannot be negative.");
+        }
+        this.dir = Files.createDirectories(requireNonNull(dir));
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param fingerprint the {@link Fingerprint} of the artifact
+     * @return the location where the artifact is (or would be) stored
+     */
+    public Path getPath(Fingerprint fingerprint) {
+        return dir.resolve(fingerprint.toString() + ARTIFACT_EXTENSION);
+    }
+
+    /**
+     * Retrieves an artifact from the cache.
+     * @param fingerprint the {@link Fingerprint} of the artifact
+     * @param serializer the {@link ArtifactSerializer} for reading the artifact
+     * @param <T> the type of the artifact
+     * @return the artifact, or {@code null} if it is not present (or could not be read)
+     */
+    public <T> T get(Fingerprint fingerprint, ArtifactSerializer<T> serializer) {
+        Path path = getPath(fingerprint);
+        if(!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        T artifact;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if(in.readInt() != MAGIC_NUMBER || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(fingerprint.toString())) {
+                throw new IOException(path.getFileName() + " is not a valid artifact.");
+            }
+            artifact = serializer.read(in);
+        } catch (IOException | RuntimeException e) {
+            invalidate(path);
+            return null;
+        }
+
+        // Marks the artifact as recently used.
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only influences the eviction order.
+        }
+        return artifact;
+    }
+
+    /**
+     * Stores an artifact in the cache (replacing any artifact with the same {@link Fingerprint}). Afterwards, the least
+     * recently used artifacts are removed if the size limit is exceeded.
+     * @param fingerprint the {@link Fingerprint} of the artifact
+     * @param serializer the {@link ArtifactSerializer} for writing the artifact
+     * @param artifact the artifact to be stored
+     * @param <T> the type of the artifact
+     * @throws IOException if the artifact could not be written
+     */
+    public synchronized <T> void put(Fingerprint fingerprint, ArtifactSerializer<T> serializer, T artifact) throws IOException {
+        Path path = getPath(fingerprint);
+        Path tmpFile = Files.createTempFile(dir, fingerprint.toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                out.writeInt(MAGIC_NUMBER);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(fingerprint.toString());
+                serializer.write(out, artifact);
+            }
+            Files.move(tmpFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+
+        evict();
+    }
+
+    /**
+     * Removes the least recently used artifacts until the total size does not exceed {@link #maxSize}.
+     * @throws IOException if the cache directory could not be read
+     */
+    public synchronized void evict() throws IOException {
+        List<Path> artifacts = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(dir)) {
+            stream.filter(path -> path.getFileName().toString().endsWith(ARTIFACT_EXTENSION)).forEach(artifacts::add);
+        }
+
+        long totalSize = 0;
+        List<ArtifactFile> files = new ArrayList<>();
+        for(Path path : artifacts) {
+            try {
+                ArtifactFile file = new ArtifactFile(path, Files.size(path), Files.getLastModifiedTime(path).toMillis());
+                files.add(file);
+                totalSize += file.size;
+            } catch (IOException e) {
+                // Artifact removed in the meantime.
+            }
+        }
+
+        files.sort(Comparator.comparingLong(file -> file.lastUsed));
+        for(ArtifactFile file : files) {
+            if(totalSize <= maxSize) {
+                break;
+            }
+            invalidate(file.path);
+            totalSize -= file.size;
+        }
+    }
+
+    private void invalidate(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Artifact might be in use, so it will be removed during a later eviction.
+        }
+    }
+
+    /**
+     * The information about an artifact needed for eviction.
+     */
+    private static class ArtifactFile {
+        private Path path;
+        private long size;
+        private long lastUsed;
+
+        ArtifactFile(Path path, long size, long lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
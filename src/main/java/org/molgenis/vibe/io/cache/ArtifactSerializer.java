@@ -0,0 +1,25 @@
+package org.molgenis.vibe.io.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Converts an artifact to/from its binary representation within an {@link ArtifactCache}.
+ * @param <T> the type of the artifact
+ */
+public interface ArtifactSerializer<T> {
+    /**
+     * @param out the stream to write the artifact to
+     * @param artifact the artifact to be written
+     * @throws IOException if the artifact could not be written
+     */
+    void write(DataOutputStream out, T artifact) throws IOException;
+
+    /**
+     * @param in the stream to read the artifact from
+     * @return the artifact
+     * @throws IOException if the artifact could not be read (such as due to corrupt data)
+     */
+    T read(DataInputStream in) throws IOException;
+}
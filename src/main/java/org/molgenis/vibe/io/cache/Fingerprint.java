@@ -0,0 +1,164 @@
+package org.molgenis.vibe.io.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A SHA-256 hash of everything an artifact within an {@link ArtifactCache} is derived from. If any of the inputs
+ * changes, so does the fingerprint (and therefore the location of the artifact within the cache), so outdated
+ * artifacts are never used.
+ */
+public class Fingerprint {
+    private MessageDigest digest;
+
+    /**
+     * The hexadecimal representation of the hash (only available after {@link #toString()} was called).
+     */
+    private String hex;
+
+    /**
+     * @param kind the kind of artifact (so that artifacts derived from the same inputs do not share a fingerprint)
+     */
+    public Fingerprint(String kind) {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+        add(requireNonNull(kind));
+    }
+
+    /**
+     * Adds a {@link String} to the fingerprint.
+     * @param value the value to be added
+     * @return itself for fluent programming
+     */
+    public Fingerprint add(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        add(bytes.length);
+        update(bytes, 0, bytes.length);
+        return this;
+    }
+
+    /**
+     * Adds a {@code long} to the fingerprint.
+     * @param value the value to be added
+     * @return itself for fluent programming
+     */
+    public Fingerprint add(long value) {
+        update(ByteBuffer.allocate(8).putLong(value).array(), 0, 8);
+        return this;
+    }
+
+    /**
+     * Adds the content of a file to the fingerprint.
+     * @param file the file to be added
+     * @return itself for fluent programming
+     * @throws IOException if the file could not be read
+     */
+    public Fingerprint addFile(Path file) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while((read = in.read(buffer)) != -1) {
+                update(buffer, 0, read);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds the binary representation of an artifact (as written by {@code serializer}) to the fingerprint, so that
+     * data derived from the artifact can be keyed on its content.
+     * @param serializer the {@link ArtifactSerializer} for writing the artifact
+     * @param artifact the artifact to be added
+     * @param <T> the type of the artifact
+     * @return itself for fluent programming
+     * @throws IOException if the artifact could not be written
+     */
+    public <T> Fingerprint addArtifact(ArtifactSerializer<T> serializer, T artifact) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                update(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                update(bytes, offset, length);
+            }
+        }, 1 << 16))) {
+            serializer.write(out, artifact);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the names, sizes and last modified times of all files within a directory to the fingerprint. The content is
+     * not used (as for databases, such as a TDB, this would take longer than the work the cache tries to prevent).
+     * @param dir the directory to be added
+     * @param ignoredFileNames names of files that should not be included (such as lock files that change on each use)
+     * @return itself for fluent programming
+     * @throws IOException if the directory could not be read
+     */
+    public Fingerprint addDirectory(Path dir, String... ignoredFileNames) throws IOException {
+        Set<String> ignored = new HashSet<>(Arrays.asList(ignoredFileNames));
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(dir)) {
+            stream.filter(Files::isRegularFile)
+                    .filter(file -> !ignored.contains(file.getFileName().toString()))
+                    .forEach(files::add);
+        }
+        Collections.sort(files);
+
+        add(files.size());
+        for(Path file : files) {
+            add(file.getFileName().toString());
+            add(Files.size(file));
+            add(Files.getLastModifiedTime(file).toMillis());
+        }
+        return this;
+    }
+
+    private void update(byte[] bytes, int offset, int length) {
+        if(hex != null) {
+            throw new IllegalStateException("A fingerprint cannot be changed after it was used.");
+        }
+        digest.update(bytes, offset, length);
+    }
+
+    /**
+     * Finalizes the fingerprint (so no more inputs can be added).
+     * @return the hexadecimal representation of the fingerprint
+     */
+    @Override
+    public String toString() {
+        if(hex == null) {
+            StringBuilder builder = new StringBuilder();
+            for(byte b : digest.digest()) {
+                builder.append(String.format("%02x", b));
+            }
+            hex = builder.toString();
+        }
+        return hex;
+    }
+}
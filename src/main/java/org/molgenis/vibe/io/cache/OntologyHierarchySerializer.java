@@ -0,0 +1,165 @@
+package org.molgenis.vibe.io.cache;
+
+import org.molgenis.vibe.ontology_processing.OntologyHierarchy;
+import org.molgenis.vibe.ontology_processing.OntologyIndex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Converts an {@link OntologyIndex} to/from its binary representation (big-endian):
+ * <ul>
+ *     <li>{@code int} number of classes ({@code n})</li>
+ *     <li>{@code int} number of {@code rdfs:subClassOf} relations ({@code e})</li>
+ *     <li>{@code int[n+1]} parent offsets</li>
+ *     <li>{@code int[e]} parents</li>
+ *     <li>{@code int[n+1]} child offsets</li>
+ *     <li>{@code int[e]} children</li>
+ *     <li>{@code int[n+1]} URI offsets (within the URI bytes)</li>
+ *     <li>{@code int[n]} the class indices ordered by their UTF-8 encoded URI (unsigned byte order)</li>
+ *     <li>{@code byte[n]} flags per class (bit 0: skippable)</li>
+ *     <li>{@code byte[]} the UTF-8 encoded URIs</li>
+ * </ul>
+ * As all sections have a fixed size (given {@code n}, {@code e} and the URI offsets), the representation can be used
+ * directly without deserializing it (see {@link org.molgenis.vibe.ontology_processing.MappedOntologyHierarchy}). The
+ * ordered class indices allow for looking up a URI through a binary search.
+ */
+public class OntologyHierarchySerializer implements ArtifactSerializer<OntologyIndex> {
+    /**
+     * The version of the layout. Should be increased whenever the layout changes (and be included in any
+     * {@link Fingerprint} of a serialized hierarchy).
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * The flag (within the flags per class) indicating a class is skippable.
+     */
+    public static final byte FLAG_SKIPPABLE = 1;
+
+    @Override
+    public void write(DataOutputStream out, OntologyIndex hierarchy) throws IOException {
+        int size = hierarchy.size();
+
+        out.writeInt(size);
+        out.writeInt(hierarchy.edgeCount());
+
+        // Parents.
+        writeOffsets(out, hierarchy, true);
+        for(int i = 0; i < size; i++) {
+            for(int parent : hierarchy.getParents(i)) {
+                out.writeInt(parent);
+            }
+        }
+
+        // Children.
+        writeOffsets(out, hierarchy, false);
+        for(int i = 0; i < size; i++) {
+            for(int child : hierarchy.getChildren(i)) {
+                out.writeInt(child);
+            }
+        }
+
+        // URI offsets (URI bytes are collected for writing after the flags).
+        byte[][] encodedUris = new byte[size][];
+        ByteArrayOutputStream uriBytes = new ByteArrayOutputStream();
+        out.writeInt(0);
+        for(int i = 0; i < size; i++) {
+            encodedUris[i] = hierarchy.getUri(i).getBytes(StandardCharsets.UTF_8);
+            uriBytes.write(encodedUris[i]);
+            out.writeInt(uriBytes.size());
+        }
+
+        // Class indices ordered by URI.
+        Integer[] ordered = new Integer[size];
+        for(int i = 0; i < size; i++) {
+            ordered[i] = i;
+        }
+        Arrays.sort(ordered, Comparator.comparing(i -> encodedUris[i], OntologyHierarchySerializer::compareUnsigned));
+        for(Integer index : ordered) {
+            out.writeInt(index);
+        }
+
+        // Flags.
+        for(int i = 0; i < size; i++) {
+            out.writeByte(hierarchy.isSkippable(i) ? FLAG_SKIPPABLE : 0);
+        }
+
+        // URIs.
+        uriBytes.writeTo(out);
+    }
+
+    private void writeOffsets(DataOutputStream out, OntologyIndex hierarchy, boolean parents) throws IOException {
+        int offset = 0;
+        out.writeInt(offset);
+        for(int i = 0; i < hierarchy.size(); i++) {
+            offset += parents ? hierarchy.getParentCount(i) : hierarchy.getChildCount(i);
+            out.writeInt(offset);
+        }
+    }
+
+    /**
+     * Compares two byte arrays lexicographically with the bytes regarded as unsigned values (which equals the code
+     * point order of the UTF-8 encoded text).
+     * @param a the first array
+     * @param b the second array
+     * @return a negative number, zero or a positive number if {@code a} is less than, equal to or greater than {@code b}
+     */
+    public static int compareUnsigned(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for(int i = 0; i < length; i++) {
+            if(a[i] != b[i]) {
+                return (a[i] & 0xFF) - (b[i] & 0xFF);
+            }
+        }
+        return a.length - b.length;
+    }
+
+    @Override
+    public OntologyHierarchy read(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        int edgeCount = in.readInt();
+        if(size < 0 || edgeCount < 0) {
+            throw new IOException("Invalid number of classes or relations.");
+        }
+
+        int[] parentOffsets = readIntArray(in, size + 1);
+        int[] parents = readIntArray(in, edgeCount);
+        int[] childOffsets = readIntArray(in, size + 1);
+        int[] children = readIntArray(in, edgeCount);
+        int[] uriOffsets = readIntArray(in, size + 1);
+        readIntArray(in, size); // class indices ordered by URI (only needed when used without deserializing)
+
+        boolean[] skippable = new boolean[size];
+        byte[] flags = new byte[size];
+        in.readFully(flags);
+        for(int i = 0; i < size; i++) {
+            skippable[i] = (flags[i] & FLAG_SKIPPABLE) != 0;
+        }
+
+        try {
+            byte[] uriBytes = new byte[uriOffsets[size]];
+            in.readFully(uriBytes);
+            String[] uris = new String[size];
+            for(int i = 0; i < size; i++) {
+                uris[i] = new String(uriBytes, uriOffsets[i], uriOffsets[i + 1] - uriOffsets[i], StandardCharsets.UTF_8);
+            }
+
+            return new OntologyHierarchy(uris, skippable, parentOffsets, parents, childOffsets, children);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("Corrupt ontology hierarchy: " + e.getMessage(), e);
+        }
+    }
+
+    private int[] readIntArray(DataInputStream in, int length) throws IOException {
+        int[] array = new int[length];
+        for(int i = 0; i < length; i++) {
+            array[i] = in.readInt();
+        }
+        return array;
+    }
+}
@@ -0,0 +1,50 @@
+package org.molgenis.vibe.io.cache;
+
+import org.molgenis.vibe.formats.Source;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts the DisGeNET {@link Source}{@code s} (by {@link URI}) to/from their binary representation:
+ * <ul>
+ *     <li>{@code int} number of sources</li>
+ *     <li>per source: {@code UTF} URI, {@code UTF} full name, {@code UTF} {@link Source.Level} name</li>
+ * </ul>
+ */
+public class SourcesSerializer implements ArtifactSerializer<Map<URI, Source>> {
+    @Override
+    public void write(DataOutputStream out, Map<URI, Source> sources) throws IOException {
+        out.writeInt(sources.size());
+        for(Map.Entry<URI, Source> entry : sources.entrySet()) {
+            out.writeUTF(entry.getKey().toString());
+            out.writeUTF(entry.getValue().getFullName());
+            out.writeUTF(entry.getValue().getLevel().name());
+        }
+    }
+
+    @Override
+    public Map<URI, Source> read(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if(size < 0) {
+            throw new IOException("Invalid number of sources.");
+        }
+
+        Map<URI, Source> sources = new HashMap<>();
+        try {
+            for(int i = 0; i < size; i++) {
+                URI uri = URI.create(in.readUTF());
+                String name = in.readUTF();
+                Source.Level level = Source.Level.valueOf(in.readUTF());
+                sources.put(uri, new Source(name, level, uri));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt sources: " + e.getMessage(), e);
+        }
+        return sources;
+    }
+}
@@ -0,0 +1,134 @@
+package org.molgenis.vibe.io.output;
+
+import org.molgenis.vibe.io.NeighborhoodIndexReader;
+import org.molgenis.vibe.ontology_processing.IndexTraversal;
+import org.molgenis.vibe.ontology_processing.NeighborhoodIndex;
+import org.molgenis.vibe.ontology_processing.OntologyIndex;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Computes the neighborhood of each class within an {@link OntologyIndex} and writes them to a file. See
+ * {@link NeighborhoodIndexReader} and {@link NeighborhoodIndex} for the layout.
+ */
+public class NeighborhoodIndexWriter {
+    /**
+     * Path to write the neighborhood index to.
+     */
+    private Path path;
+
+    /**
+     * The hierarchy to compute the neighborhoods for.
+     */
+    private OntologyIndex hierarchy;
+
+    /**
+     * The maximum distance of the neighborhoods.
+     */
+    private int maxDistance;
+
+    public Path getPath() {
+        return path;
+    }
+
+    public NeighborhoodIndexWriter(Path path, OntologyIndex hierarchy, int maxDistance) {
+        this.path = requireNonNull(path);
+        this.hierarchy = requireNonNull(hierarchy);
+        this.maxDistance = maxDistance;
+        if(maxDistance < 0) {
+            throw new IllegalArgumentException("The maximum distance cannot be negative.");
+        }
+    }
+
+    /**
+     * Writes the neighborhood index. The file is first written to a temporary file within the same directory which
+     * replaces {@link #path} once finished, so that other processes never read an incomplete file.
+     * @throws IOException if the file could not be written
+     */
+    public void run() throws IOException {
+        Path tmpFile = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                write(out);
+            }
+            Files.move(tmpFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(NeighborhoodIndexReader.MAGIC_NUMBER);
+        out.writeInt(NeighborhoodIndexReader.FORMAT_VERSION);
+        out.write(NeighborhoodIndexReader.fingerprint(hierarchy).getBytes(StandardCharsets.US_ASCII));
+
+        // Neighborhoods are collected first, as their offsets need to be written before them.
+        int size = hierarchy.size();
+        int[] offsets = new int[size + 1];
+        ByteArrayOutputStream neighborhoods = new ByteArrayOutputStream();
+        IndexTraversal traversal = new IndexTraversal(hierarchy, IndexTraversal.Direction.PARENTS_AND_CHILDREN);
+        for(int i = 0; i < size; i++) {
+            writeNeighborhood(neighborhoods, traversal, i);
+            offsets[i + 1] = neighborhoods.size();
+        }
+
+        out.writeInt(size);
+        out.writeInt(maxDistance);
+        for(int offset : offsets) {
+            out.writeInt(offset);
+        }
+        neighborhoods.writeTo(out);
+    }
+
+    /**
+     * Writes the levels of a single neighborhood.
+     * @param out the stream to write to
+     * @param traversal the {@link IndexTraversal} to use
+     * @param node the class to write the neighborhood for
+     */
+    private void writeNeighborhood(ByteArrayOutputStream out, IndexTraversal traversal, int node) {
+        int reached = traversal.run(node, maxDistance);
+
+        // The traversal is ordered by distance, so each level is a consecutive range (the source is at 0).
+        int start = 1;
+        for(int level = 1; level <= maxDistance; level++) {
+            int end = start;
+            while(end < reached && traversal.getDistance(end) == level) {
+                end++;
+            }
+
+            int[] levelNodes = new int[end - start];
+            for(int i = start; i < end; i++) {
+                levelNodes[i - start] = traversal.getNode(i);
+            }
+            Arrays.sort(levelNodes);
+
+            writeVarInt(out, levelNodes.length);
+            int previous = 0;
+            for(int levelNode : levelNodes) {
+                writeVarInt(out, levelNode - previous);
+                previous = levelNode;
+            }
+            start = end;
+        }
+    }
+
+    private void writeVarInt(ByteArrayOutputStream out, int value) {
+        while((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,74 @@
+package org.molgenis.vibe.io.output;
+
+import org.molgenis.vibe.io.OntologyHierarchySnapshotReader;
+import org.molgenis.vibe.io.cache.OntologyHierarchySerializer;
+import org.molgenis.vibe.ontology_processing.OntologyIndex;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes an {@link OntologyIndex} to a binary snapshot. See {@link OntologyHierarchySnapshotReader} for the layout.
+ */
+public class OntologyHierarchySnapshotWriter {
+    /**
+     * Path to write the snapshot to.
+     */
+    private Path path;
+
+    /**
+     * The hierarchy to be written.
+     */
+    private OntologyIndex hierarchy;
+
+    /**
+     * The ontology file the {@link #hierarchy} was created from.
+     */
+    private Path ontologyFile;
+
+    public Path getPath() {
+        return path;
+    }
+
+    public OntologyHierarchySnapshotWriter(Path path, OntologyIndex hierarchy, Path ontologyFile) {
+        this.path = requireNonNull(path);
+        this.hierarchy = requireNonNull(hierarchy);
+        this.ontologyFile = requireNonNull(ontologyFile);
+    }
+
+    /**
+     * Writes the snapshot. The snapshot is first written to a temporary file within the same directory which replaces
+     * {@link #path} once finished, so that other processes never read an incomplete snapshot.
+     * @throws IOException if the snapshot could not be written
+     */
+    public void run() throws IOException {
+        Path tmpFile = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                write(out);
+            }
+            Files.move(tmpFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(OntologyHierarchySnapshotReader.MAGIC_NUMBER);
+        out.writeInt(OntologyHierarchySnapshotReader.FORMAT_VERSION);
+        // Attributes are read before hashing, so a change during hashing causes the next check to hash again.
+        out.write(OntologyHierarchySnapshotReader.fileMetadata(
+                Files.readAttributes(ontologyFile, BasicFileAttributes.class)).array());
+        out.write(OntologyHierarchySnapshotReader.hash(ontologyFile).getBytes(StandardCharsets.US_ASCII));
+        new OntologyHierarchySerializer().write(out, hierarchy);
+    }
+}
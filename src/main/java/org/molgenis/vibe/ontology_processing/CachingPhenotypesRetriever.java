@@ -0,0 +1,74 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link PhenotypesRetriever} that first looks up each input {@link Phenotype} in a {@link PhenotypeNetworkCache}.
+ * Only the {@link Phenotype}{@code s} that are not cached are expanded (all together by a single delegate
+ * {@link PhenotypesRetriever}), after which their networks are added to the cache. The resulting
+ * {@link PhenotypeNetwork}{@code s} are frozen (see {@link PhenotypeNetwork#freeze()}).
+ *
+ * @see PhenotypesRetrieverFactory#createCached(PhenotypeNetworkCache, OntologyIndex, NeighborhoodIndex, InformationContent, double, Collection, int)
+ */
+public class CachingPhenotypesRetriever extends PhenotypesRetriever {
+    private PhenotypeNetworkCache cache;
+
+    /**
+     * The algorithm used by the delegate (part of the cache key).
+     */
+    private PhenotypesRetrieverFactory factory;
+
+    /**
+     * Creates the delegate {@link PhenotypesRetriever} for the {@link Phenotype}{@code s} that are not cached.
+     */
+    private Function<Collection<Phenotype>, PhenotypesRetriever> delegateCreator;
+
+    /**
+     * @param cache the cache to use
+     * @param factory the algorithm used by {@code delegateCreator}
+     * @param delegateCreator creates a {@link PhenotypesRetriever} (using {@code factory} and the same maximum distance)
+     *                        for the given {@link Phenotype}{@code s}
+     * @param inputPhenotypes the {@link Phenotype}{@code s} for which linked {@link Phenotype}{@code s} need to be found
+     * @param maxDistance the maximum distance
+     */
+    public CachingPhenotypesRetriever(PhenotypeNetworkCache cache, PhenotypesRetrieverFactory factory,
+                                      Function<Collection<Phenotype>, PhenotypesRetriever> delegateCreator,
+                                      Collection<Phenotype> inputPhenotypes, int maxDistance) {
+        super(inputPhenotypes, maxDistance);
+        this.cache = requireNonNull(cache);
+        this.factory = requireNonNull(factory);
+        this.delegateCreator = requireNonNull(delegateCreator);
+    }
+
+    @Override
+    public void run() {
+        List<Phenotype> missing = new ArrayList<>();
+        for(Phenotype phenotype:getInputPhenotypes()) {
+            PhenotypeNetwork network = cache.get(phenotype, factory, getMaxDistance());
+            if(network == null) {
+                missing.add(phenotype);
+            } else {
+                getPhenotypeNetworkCollection().add(network);
+            }
+        }
+
+        if(!missing.isEmpty()) {
+            PhenotypesRetriever delegate = delegateCreator.apply(missing);
+            delegate.setParallelism(getParallelism());
+            delegate.run();
+            for(Phenotype phenotype:missing) {
+                PhenotypeNetwork network = delegate.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(phenotype);
+                cache.put(network, factory, getMaxDistance());
+                getPhenotypeNetworkCollection().add(network);
+            }
+        }
+    }
+}
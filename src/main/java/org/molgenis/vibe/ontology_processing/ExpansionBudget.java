@@ -0,0 +1,97 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+import org.molgenis.vibe.formats.PhenotypeNetworkCollection;
+
+/**
+ * Limits the number of {@link Phenotype}{@code s} resulting from an {@link IndexedPhenotypesRetriever}, so that a single
+ * generic input {@link Phenotype} cannot explode into thousands of {@link Phenotype}{@code s} (which would all need to
+ * be queried). Both a budget per input {@link Phenotype} ({@link PhenotypeNetwork}) and a budget for all
+ * {@link Phenotype}{@code s} together ({@link PhenotypeNetworkCollection#getPhenotypes()}) can be set. Both budgets
+ * include the input {@link Phenotype}{@code s}, though these are always kept.
+ *
+ * The budget is enforced during the expansion (see {@link IndexedPhenotypesRetriever#setExpansionBudget(ExpansionBudget)}),
+ * so classes beyond the point where a budget is reached are never traversed. {@link Phenotype}{@code s} are kept
+ * nearest-first: a network is cut off after the largest distance for which all {@link Phenotype}{@code s} up to (and
+ * including) that distance fit within the budget. A distance is never partially included, so the result does not
+ * depend on the order in which the {@link Phenotype}{@code s} were found.
+ */
+public class ExpansionBudget {
+    /**
+     * Indicates that there is no budget.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private int maxPhenotypesPerInput;
+
+    private int maxPhenotypes;
+
+    /**
+     * Describes where a budget cut off the expansion.
+     */
+    public static class Cutoff {
+        private Phenotype source;
+        private int distance;
+        private int phenotypeCount;
+
+        Cutoff(Phenotype source, int distance, int phenotypeCount) {
+            this.source = source;
+            this.distance = distance;
+            this.phenotypeCount = phenotypeCount;
+        }
+
+        /**
+         * @return the source of the {@link PhenotypeNetwork} that was cut off, or {@code null} if the budget for all
+         * {@link Phenotype}{@code s} together cut off all networks
+         */
+        public Phenotype getSource() {
+            return source;
+        }
+
+        /**
+         * @return the largest distance that was kept
+         */
+        public int getDistance() {
+            return distance;
+        }
+
+        /**
+         * @return the number of {@link Phenotype}{@code s} that were kept (within the network, or among all networks
+         * if {@link #getSource()} is {@code null})
+         */
+        public int getPhenotypeCount() {
+            return phenotypeCount;
+        }
+
+        @Override
+        public String toString() {
+            return (source == null ? "Expansion budget reached for all phenotypes" :
+                    "Expansion budget reached for " + source.getFormattedId()) +
+                    ": kept distance <= " + distance + " (" + phenotypeCount + " phenotypes).";
+        }
+    }
+
+    /**
+     * @param maxPhenotypesPerInput the maximum number of {@link Phenotype}{@code s} per {@link PhenotypeNetwork}
+     *                              (or {@link #UNLIMITED})
+     * @param maxPhenotypes the maximum number of {@link Phenotype}{@code s} among all {@link PhenotypeNetwork}{@code s}
+     *                      (or {@link #UNLIMITED})
+     * @throws IllegalArgumentException if a budget is less than 1
+     */
+    public ExpansionBudget(int maxPhenotypesPerInput, int maxPhenotypes) {
+        if(maxPhenotypesPerInput < 1 || maxPhenotypes < 1) {
+            throw new IllegalArgumentException("An expansion budget should be at least 1.");
+        }
+        this.maxPhenotypesPerInput = maxPhenotypesPerInput;
+        this.maxPhenotypes = maxPhenotypes;
+    }
+
+    public int getMaxPhenotypesPerInput() {
+        return maxPhenotypesPerInput;
+    }
+
+    public int getMaxPhenotypes() {
+        return maxPhenotypes;
+    }
+}
@@ -0,0 +1,241 @@
+package org.molgenis.vibe.ontology_processing;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A reusable breadth-first traversal over an {@link OntologyIndex}. All state is stored in arrays that are allocated
+ * once (sized to the number of classes) and reused for every {@link #run(int, int)}, so the traversal itself does not
+ * allocate any objects. Skippable classes (see {@link OntologyIndex#isSkippable(int)}) are neither visited nor
+ * traversed through.
+ *
+ * The visited classes are stored in the order they were reached, which is ordered by distance: the frontier of each
+ * distance is a consecutive range within {@link #nodes}, directly followed by the frontier of the next distance.
+ *
+ * Not thread-safe: each thread should use its own instance.
+ */
+public class IndexTraversal {
+    /**
+     * The relations to follow from each class.
+     */
+    public enum Direction {
+        /**
+         * Only follows the subclass relations downwards (used by {@link IndexedChildrenRetriever}).
+         */
+        CHILDREN(false),
+        /**
+         * Follows the subclass relations in both directions (used by {@link IndexedMaxDistanceRetriever}).
+         */
+        PARENTS_AND_CHILDREN(true);
+
+        private boolean parents;
+
+        Direction(boolean parents) {
+            this.parents = parents;
+        }
+    }
+
+    private OntologyIndex index;
+
+    private Direction direction;
+
+    /**
+     * A bit per class indicating whether it was visited.
+     */
+    private long[] visited;
+
+    /**
+     * The visited classes in the order they were reached (doubles as queue).
+     */
+    private int[] nodes;
+
+    /**
+     * The distance per item in {@link #nodes}.
+     */
+    private int[] distances;
+
+    /**
+     * The number of items in {@link #nodes}.
+     */
+    private int count;
+
+    /**
+     * The maximum for {@link #count} (see {@link #setMaxSize(int)}).
+     */
+    private int maxSize = Integer.MAX_VALUE;
+
+    /**
+     * The distance up to which the last run is complete.
+     */
+    private int expandedDistance;
+
+    public IndexTraversal(OntologyIndex index, Direction direction) {
+        this.index = requireNonNull(index);
+        this.direction = requireNonNull(direction);
+        visited = new long[(index.size() + 63) >>> 6];
+        nodes = new int[index.size()];
+        distances = new int[index.size()];
+    }
+
+    /**
+     * Limits the number of classes a run may reach. As soon as more classes are reached, the traversal stops and the
+     * classes at the distance at which this happened are dropped again (see {@link #getExpandedDistance()}), so that
+     * no class beyond the limit is traversed through and a distance is never partially included.
+     * @param maxSize the maximum for {@link #size()} (or {@link Integer#MAX_VALUE} for no limit)
+     * @throws IllegalArgumentException if {@code maxSize} is negative
+     */
+    public void setMaxSize(int maxSize) {
+        if(maxSize < 0) {
+            throw new IllegalArgumentException("The maximum size should not be negative.");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the distance up to which all classes were reached during the last run: the given maximum distance, unless
+     * the run was stopped by {@link #setMaxSize(int)}
+     */
+    public int getExpandedDistance() {
+        return expandedDistance;
+    }
+
+    /**
+     * @return the number of classes reached during the last {@link #run(int, int)} (including the source)
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param i a number from {@code 0} up to (but excluding) {@link #size()}
+     * @return the {@code i}th class reached during the last {@link #run(int, int)} (the source is at {@code 0})
+     */
+    public int getNode(int i) {
+        return nodes[i];
+    }
+
+    /**
+     * @param i a number from {@code 0} up to (but excluding) {@link #size()}
+     * @return the distance from the source of {@link #getNode(int)}
+     */
+    public int getDistance(int i) {
+        return distances[i];
+    }
+
+    /**
+     * @param node a class
+     * @return whether {@code node} was reached during the last {@link #run(int, int)}
+     */
+    public boolean isVisited(int node) {
+        return (visited[node >>> 6] & (1L << node)) != 0;
+    }
+
+    /**
+     * Traverses the index starting from {@code source}. Each reachable class (within {@code maxDistance}) is visited
+     * once with its shortest distance from {@code source}. The results of a previous run are discarded.
+     * @param source the class to start from
+     * @param maxDistance the maximum distance from {@code source}
+     * @return the number of classes reached (see {@link #size()})
+     */
+    public int run(int source, int maxDistance) {
+        clear();
+        visit(source, 0);
+        expand(0, count, 0, maxDistance);
+        return count;
+    }
+
+    /**
+     * Continues an earlier traversal (such as one stored in a {@link org.molgenis.vibe.formats.PhenotypeNetwork}) from
+     * its frontier. The {@code frontier} classes are placed first (with {@code frontierDistance}), followed by the
+     * other {@code reached} classes (with distance {@code -1}) and then the newly reached classes, which get the same
+     * distances as they would have gotten from a single {@link #run(int, int)} up to {@code maxDistance}. The results of
+     * a previous run are discarded.
+     * @param reached all classes reached by the earlier traversal (may include the {@code frontier})
+     * @param frontier the classes reached at {@code frontierDistance} by the earlier traversal
+     * @param frontierDistance the maximum distance of the earlier traversal
+     * @param maxDistance the maximum distance from the original source
+     * @return the position of the first newly reached class (all classes from there up to {@link #size()} are new)
+     */
+    public int resume(int[] reached, int[] frontier, int frontierDistance, int maxDistance) {
+        clear();
+        for(int node : frontier) {
+            if(!isVisited(node)) {
+                visit(node, frontierDistance);
+            }
+        }
+        int frontierEnd = count;
+        for(int node : reached) {
+            if(!isVisited(node)) {
+                visit(node, -1);
+            }
+        }
+        int firstNew = count;
+        expand(0, frontierEnd, frontierDistance, maxDistance);
+        return firstNew;
+    }
+
+    /**
+     * Visits the classes beyond a frontier level by level.
+     * @param start the position of the first class of the frontier
+     * @param end the position after the last class of the frontier
+     * @param frontierDistance the distance of the frontier
+     * @param maxDistance the maximum distance
+     */
+    private void expand(int start, int end, int frontierDistance, int maxDistance) {
+        expandedDistance = maxDistance;
+        for(int distance = frontierDistance + 1; distance <= maxDistance && start < end; distance++) {
+            int next = count;
+            for(int i = start; i < end; i++) {
+                int node = nodes[i];
+                if(direction.parents) {
+                    for(int j = 0; j < index.getParentCount(node); j++) {
+                        visitIfUnvisited(index.getParent(node, j), distance);
+                    }
+                }
+                for(int j = 0; j < index.getChildCount(node); j++) {
+                    visitIfUnvisited(index.getChild(node, j), distance);
+                }
+                if(count > maxSize) {
+                    // Drops the incomplete distance without expanding the rest of the frontier.
+                    drop(next);
+                    expandedDistance = distance - 1;
+                    return;
+                }
+            }
+            start = next;
+            end = count;
+        }
+    }
+
+    private void visitIfUnvisited(int node, int distance) {
+        if(!isVisited(node) && !index.isSkippable(node)) {
+            visit(node, distance);
+        }
+    }
+
+    private void visit(int node, int distance) {
+        visited[node >>> 6] |= 1L << node;
+        nodes[count] = node;
+        distances[count] = distance;
+        count++;
+    }
+
+    /**
+     * Removes the classes from position {@code from} onwards.
+     */
+    private void drop(int from) {
+        for(int i = from; i < count; i++) {
+            visited[nodes[i] >>> 6] &= ~(1L << nodes[i]);
+        }
+        count = from;
+    }
+
+    /**
+     * Resets the visited bits of the previous run (only touching the words that were actually set).
+     */
+    private void clear() {
+        for(int i = 0; i < count; i++) {
+            visited[nodes[i] >>> 6] = 0;
+        }
+        count = 0;
+    }
+}
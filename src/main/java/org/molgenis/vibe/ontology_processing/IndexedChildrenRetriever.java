@@ -0,0 +1,21 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.formats.Phenotype;
+
+import java.util.Collection;
+
+/**
+ * The {@link OntologyIndex} equivalent of {@link ChildrenRetriever}. In contrast to {@link ChildrenRetriever} (which
+ * fails on them), skippable classes (see {@link OntologyIndex#isSkippable(int)}) are neither added nor traversed
+ * through.
+ */
+public class IndexedChildrenRetriever extends IndexedPhenotypesRetriever {
+    public IndexedChildrenRetriever(OntologyIndex index, Collection<Phenotype> inputPhenotypes, int maxDistance) {
+        super(index, inputPhenotypes, maxDistance);
+    }
+
+    @Override
+    protected IndexTraversal.Direction getDirection() {
+        return IndexTraversal.Direction.CHILDREN;
+    }
+}
@@ -0,0 +1,20 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.formats.Phenotype;
+
+import java.util.Collection;
+
+/**
+ * The {@link OntologyIndex} equivalent of {@link MaxDistanceRetriever2}: both parents and children are traversed and
+ * skippable classes (see {@link OntologyIndex#isSkippable(int)}) are neither added nor traversed through.
+ */
+public class IndexedMaxDistanceRetriever extends IndexedPhenotypesRetriever {
+    public IndexedMaxDistanceRetriever(OntologyIndex index, Collection<Phenotype> inputPhenotypes, int maxDistance) {
+        super(index, inputPhenotypes, maxDistance);
+    }
+
+    @Override
+    protected IndexTraversal.Direction getDirection() {
+        return IndexTraversal.Direction.PARENTS_AND_CHILDREN;
+    }
+}
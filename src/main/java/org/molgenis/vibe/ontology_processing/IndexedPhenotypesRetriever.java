@@ -0,0 +1,463 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.formats.BiologicalEntityRegistry;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link PhenotypesRetriever} that traverses an {@link OntologyIndex} (such as a {@link MappedOntologyHierarchy})
+ * instead of an {@link org.apache.jena.ontology.OntModel}. The traversal is done on {@code int} indices. Multiple input
+ * {@link Phenotype}{@code s} are expanded together in a single sweep (see {@link MultiSourceIndexTraversal}), after
+ * which the results are split into a {@link PhenotypeNetwork} per input {@link Phenotype}. Classes are only converted
+ * to {@link Phenotype}{@code s} when they are added to a {@link PhenotypeNetwork} (and only once per class).
+ *
+ * As an {@link OntologyIndex} can be read concurrently, the input {@link Phenotype}{@code s} can be divided among
+ * multiple threads (see {@link #setParallelism(int)}) which each expand their own part using a {@link ForkJoinPool}.
+ *
+ * Networks of a previous run (see {@link #setPreviousNetworkCollection(org.molgenis.vibe.formats.PhenotypeNetworkCollection)})
+ * are continued from their frontier with an {@link IndexTraversal#resume(int[], int[], int, int)}.
+ *
+ * If an {@link ExpansionBudget} is set (see {@link #setExpansionBudget(ExpansionBudget)}), all networks are instead
+ * expanded together one distance at a time (on a single thread), so that the expansion can stop at the first distance
+ * that does not fit within the budget.
+ */
+public abstract class IndexedPhenotypesRetriever extends PhenotypesRetriever {
+    /**
+     * The index that stores the {@link Phenotype}{@code s}.
+     */
+    private OntologyIndex index;
+
+    /**
+     * The {@link Phenotype} per class (only filled for the classes that were added to a {@link PhenotypeNetwork}).
+     */
+    private AtomicReferenceArray<Phenotype> phenotypes;
+
+    /**
+     * Limits the expansion ({@code null} if there is no limit).
+     */
+    private ExpansionBudget expansionBudget;
+
+    /**
+     * Where the {@link #expansionBudget} cut off the expansion during {@link #run()}.
+     */
+    private List<ExpansionBudget.Cutoff> cutoffs = new ArrayList<>();
+
+    protected OntologyIndex getIndex() {
+        return index;
+    }
+
+    public ExpansionBudget getExpansionBudget() {
+        return expansionBudget;
+    }
+
+    /**
+     * Sets the {@link ExpansionBudget} to be enforced while expanding, so that no class is traversed beyond the point
+     * where it is reached.
+     * @param expansionBudget the {@link ExpansionBudget} to use
+     */
+    public void setExpansionBudget(ExpansionBudget expansionBudget) {
+        this.expansionBudget = requireNonNull(expansionBudget);
+    }
+
+    /**
+     * @return where the {@link ExpansionBudget} cut off the expansion during {@link #run()} (in the order in which the
+     * budgets were reached)
+     */
+    public List<ExpansionBudget.Cutoff> getCutoffs() {
+        return Collections.unmodifiableList(cutoffs);
+    }
+
+    /**
+     * Registers that the {@link ExpansionBudget} cut off the expansion.
+     * @param cutoff where the expansion was cut off
+     */
+    protected void addCutoff(ExpansionBudget.Cutoff cutoff) {
+        cutoffs.add(cutoff);
+    }
+
+    public IndexedPhenotypesRetriever(OntologyIndex index, Collection<Phenotype> inputPhenotypes, int maxDistance) {
+        super(inputPhenotypes, maxDistance);
+        this.index = requireNonNull(index);
+        this.phenotypes = new AtomicReferenceArray<>(index.size());
+    }
+
+    /**
+     * @return the relations to be followed from each class
+     */
+    protected abstract IndexTraversal.Direction getDirection();
+
+    @Override
+    public void run() {
+        if(expansionBudget != null) {
+            expandWithinBudget();
+            return;
+        }
+
+        // Continues previous networks (see setPreviousNetworkCollection()), all others are expanded from scratch.
+        List<Phenotype> inputPhenotypes = new ArrayList<>();
+        IndexTraversal resumeTraversal = null;
+        for(Phenotype phenotype : getInputPhenotypes()) {
+            PhenotypeNetwork network = retrievePreviousNetwork(phenotype);
+            if(network == null) {
+                inputPhenotypes.add(phenotype);
+            } else {
+                if(network.getExpandedDistance() < getMaxDistance()) {
+                    if(resumeTraversal == null) {
+                        resumeTraversal = new IndexTraversal(index, getDirection());
+                    }
+                    resumeNetwork(network, resumeTraversal);
+                }
+                getPhenotypeNetworkCollection().add(network);
+            }
+        }
+
+        if(inputPhenotypes.isEmpty()) {
+            return;
+        }
+        if(inputPhenotypes.size() == 1) {
+            getPhenotypeNetworkCollection().add(createNetwork(inputPhenotypes.get(0), new IndexTraversal(index, getDirection())));
+            return;
+        }
+
+        if(getParallelism() > 1) {
+            // Divides the input phenotypes evenly among the threads.
+            int batchSize = Math.min(MultiSourceIndexTraversal.MAX_SOURCES,
+                    (inputPhenotypes.size() + getParallelism() - 1) / getParallelism());
+            ForkJoinPool pool = new ForkJoinPool(getParallelism());
+            try {
+                pool.invoke(new ExpansionTask(inputPhenotypes, batchSize));
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            expand(inputPhenotypes, MultiSourceIndexTraversal.MAX_SOURCES);
+        }
+    }
+
+    /**
+     * Expands all networks together one distance at a time. At each distance, the classes at that distance are
+     * retrieved per network (see {@link #retrieveLevel(PhenotypeNetwork, int, int, IndexTraversal)}) and only added once
+     * all networks are known to fit within the {@link #expansionBudget}. A network that does not fit is not expanded any
+     * further (the others continue), while the expansion of all networks stops if they do not fit together.
+     */
+    private void expandWithinBudget() {
+        List<PhenotypeNetwork> networks = new ArrayList<>();
+        for(Phenotype phenotype : getInputPhenotypes()) {
+            PhenotypeNetwork network = retrievePreviousNetwork(phenotype);
+            if(network == null) {
+                network = new PhenotypeNetwork(phenotype);
+                network.markExpanded(0);
+            }
+            networks.add(network);
+        }
+
+        // Per network the number of phenotypes up to the current distance and whether it can be expanded further.
+        int[] sizes = new int[networks.size()];
+        boolean[] active = new boolean[networks.size()];
+        Set<Phenotype> reached = new HashSet<>();
+        for(int i = 0; i < networks.size(); i++) {
+            sizes[i] = 1;
+            active[i] = true;
+            reached.add(networks.get(i).getSource());
+        }
+
+        IndexTraversal traversal = new IndexTraversal(index, getDirection());
+        List<Collection<Phenotype>> levels = new ArrayList<>(Collections.nCopies(networks.size(), null));
+        for(int distance = 1; distance <= getMaxDistance(); distance++) {
+            Set<Phenotype> newPhenotypes = new HashSet<>();
+            boolean withinBudget = true;
+            for(int i = 0; i < networks.size() && withinBudget; i++) {
+                if(!active[i]) {
+                    continue;
+                }
+                PhenotypeNetwork network = networks.get(i);
+                int maxCount = expansionBudget.getMaxPhenotypesPerInput() - sizes[i];
+                Collection<Phenotype> level;
+                if(network.getExpandedDistance() >= distance) {
+                    level = storedLevel(network, distance);
+                    if(level.size() > maxCount) {
+                        level = null;
+                    }
+                } else {
+                    level = retrieveLevel(network, distance, maxCount, traversal);
+                }
+
+                if(level == null) {
+                    networks.set(i, cutOff(network, distance - 1));
+                    addCutoff(new ExpansionBudget.Cutoff(network.getSource(), distance - 1, sizes[i]));
+                    active[i] = false;
+                    continue;
+                }
+                levels.set(i, level);
+                for(Phenotype phenotype : level) {
+                    if(!reached.contains(phenotype)) {
+                        newPhenotypes.add(phenotype);
+                    }
+                }
+                withinBudget = reached.size() + newPhenotypes.size() <= expansionBudget.getMaxPhenotypes();
+            }
+
+            if(!withinBudget) {
+                for(int i = 0; i < networks.size(); i++) {
+                    if(active[i]) {
+                        networks.set(i, cutOff(networks.get(i), distance - 1));
+                    }
+                }
+                addCutoff(new ExpansionBudget.Cutoff(null, distance - 1, reached.size()));
+                break;
+            }
+
+            boolean exhausted = true;
+            for(int i = 0; i < networks.size(); i++) {
+                if(active[i]) {
+                    PhenotypeNetwork network = networks.get(i);
+                    Collection<Phenotype> level = levels.get(i);
+                    if(network.getExpandedDistance() < distance) {
+                        network.add(level, distance);
+                        network.markExpanded(distance);
+                    }
+                    sizes[i] += level.size();
+                    exhausted &= level.isEmpty();
+                }
+            }
+            reached.addAll(newPhenotypes);
+
+            if(exhausted) {
+                // Nothing lies beyond this distance, so the remaining networks are complete.
+                for(int i = 0; i < networks.size(); i++) {
+                    if(active[i]) {
+                        networks.get(i).markExpanded(getMaxDistance());
+                    }
+                }
+                break;
+            }
+        }
+
+        for(PhenotypeNetwork network : networks) {
+            getPhenotypeNetworkCollection().add(network);
+        }
+    }
+
+    /**
+     * @param network a {@link PhenotypeNetwork} that is expanded up to at least {@code distance}
+     * @param distance the distance to retrieve
+     * @return the {@link Phenotype}{@code s} stored at {@code distance} (empty if there are none, as
+     * {@link PhenotypeNetwork#getByDistance(int)} only accepts distances that were used)
+     */
+    private static Collection<Phenotype> storedLevel(PhenotypeNetwork network, int distance) {
+        return network.getDistances().contains(distance) ? network.getByDistance(distance) : Collections.emptySet();
+    }
+
+    /**
+     * @param network a {@link PhenotypeNetwork} that did not fit within the {@link #expansionBudget}
+     * @param distance the largest distance that fitted
+     * @return {@code network} without the {@link Phenotype}{@code s} beyond {@code distance}
+     */
+    private static PhenotypeNetwork cutOff(PhenotypeNetwork network, int distance) {
+        // Only continued previous networks can already be expanded beyond the distance, and these are copies anyhow.
+        return network.getExpandedDistance() > distance ? network.copyWithin(distance) : network;
+    }
+
+    /**
+     * Retrieves the classes at {@code distance} from the source of a {@link PhenotypeNetwork}, without traversing
+     * further once more than {@code maxCount} classes are found.
+     * @param network a (not frozen) {@link PhenotypeNetwork} that is expanded up to {@code distance - 1}
+     * @param distance the distance to retrieve
+     * @param maxCount the maximum number of classes at {@code distance}
+     * @param traversal the {@link IndexTraversal} to use
+     * @return the {@link Phenotype}{@code s} at {@code distance}, or {@code null} if there are more than {@code maxCount}
+     */
+    protected Collection<Phenotype> retrieveLevel(PhenotypeNetwork network, int distance, int maxCount, IndexTraversal traversal) {
+        int[] reached = retrievePhenotypesFromIndex(network.getPhenotypes());
+        int[] frontier = retrievePhenotypesFromIndex(network.getFrontier());
+        traversal.setMaxSize(reached.length + maxCount);
+        int firstNew = traversal.resume(reached, frontier, distance - 1, distance);
+        if(traversal.getExpandedDistance() < distance) {
+            return null;
+        }
+        List<Phenotype> level = new ArrayList<>(traversal.size() - firstNew);
+        for(int i = firstNew; i < traversal.size(); i++) {
+            level.add(retrievePhenotype(traversal.getNode(i)));
+        }
+        return level;
+    }
+
+    /**
+     * Expands {@code phenotypes} in batches and adds the resulting networks to the {@link #getPhenotypeNetworkCollection()}.
+     * @param phenotypes the {@link Phenotype}{@code s} to be expanded
+     * @param batchSize the number of {@link Phenotype}{@code s} expanded in a single sweep
+     */
+    private void expand(List<Phenotype> phenotypes, int batchSize) {
+        MultiSourceIndexTraversal traversal = new MultiSourceIndexTraversal(index, getDirection());
+        for(int start = 0; start < phenotypes.size(); start += batchSize) {
+            List<Phenotype> batch = phenotypes.subList(start, Math.min(start + batchSize, phenotypes.size()));
+            for(PhenotypeNetwork network : createNetworks(batch, traversal)) {
+                getPhenotypeNetworkCollection().add(network);
+            }
+        }
+    }
+
+    /**
+     * Splits the {@link Phenotype}{@code s} till each part fits in a single batch, which is then expanded.
+     */
+    private class ExpansionTask extends RecursiveAction {
+        private List<Phenotype> phenotypes;
+        private int batchSize;
+
+        ExpansionTask(List<Phenotype> phenotypes, int batchSize) {
+            this.phenotypes = phenotypes;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        protected void compute() {
+            if(phenotypes.size() <= batchSize) {
+                expand(phenotypes, batchSize);
+            } else {
+                // Splits at a batch boundary so the batches stay full.
+                int middle = ((phenotypes.size() / batchSize + 1) / 2) * batchSize;
+                invokeAll(new ExpansionTask(phenotypes.subList(0, middle), batchSize),
+                        new ExpansionTask(phenotypes.subList(middle, phenotypes.size()), batchSize));
+            }
+        }
+    }
+
+    /**
+     * @param phenotypes the sources of the networks (at most {@link MultiSourceIndexTraversal#MAX_SOURCES})
+     * @param traversal the {@link MultiSourceIndexTraversal} to use
+     * @return per {@link Phenotype} in {@code phenotypes} (same order) a {@link PhenotypeNetwork} containing all classes
+     * within {@link #getMaxDistance()} of it (a phenotype that is not present in the index only has itself in the
+     * network)
+     */
+    protected PhenotypeNetwork[] createNetworks(List<Phenotype> phenotypes, MultiSourceIndexTraversal traversal) {
+        PhenotypeNetwork[] networks = new PhenotypeNetwork[phenotypes.size()];
+
+        // Only phenotypes present in the index are traversed (bit i of the traversal belongs to networks[sources[i]]).
+        int[] sources = new int[phenotypes.size()];
+        int[] networkBySource = new int[phenotypes.size()];
+        int sourceCount = 0;
+        for(int i = 0; i < phenotypes.size(); i++) {
+            networks[i] = new PhenotypeNetwork(phenotypes.get(i));
+            int phenotypeIndex = retrievePhenotypeFromIndex(phenotypes.get(i));
+            if(phenotypeIndex != -1) {
+                sources[sourceCount] = phenotypeIndex;
+                networkBySource[sourceCount] = i;
+                sourceCount++;
+            }
+        }
+
+        traversal.run(Arrays.copyOf(sources, sourceCount), getMaxDistance(), (node, mask, distance) -> {
+            // The sources themselves are already part of their network.
+            if(distance == 0) {
+                return;
+            }
+            for(long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                addPhenotypeToNetwork(node, networks[networkBySource[Long.numberOfTrailingZeros(remaining)]], distance);
+            }
+        });
+
+        for(PhenotypeNetwork network : networks) {
+            network.markExpanded(getMaxDistance());
+        }
+        return networks;
+    }
+
+    /**
+     * @param phenotype the source of the network
+     * @param traversal the {@link IndexTraversal} to use
+     * @return a {@link PhenotypeNetwork} containing all classes within {@link #getMaxDistance()} of {@code phenotype}
+     * (a phenotype that is not present in the index only has itself in the network)
+     */
+    protected PhenotypeNetwork createNetwork(Phenotype phenotype, IndexTraversal traversal) {
+        PhenotypeNetwork network = new PhenotypeNetwork(phenotype);
+
+        int phenotypeIndex = retrievePhenotypeFromIndex(phenotype);
+        if(phenotypeIndex != -1) {
+            int size = traversal.run(phenotypeIndex, getMaxDistance());
+            // Skips the source itself (always at position 0).
+            for(int i = 1; i < size; i++) {
+                addPhenotypeToNetwork(traversal.getNode(i), network, traversal.getDistance(i));
+            }
+        }
+
+        network.markExpanded(getMaxDistance());
+        return network;
+    }
+
+    /**
+     * Continues the expansion of a {@link PhenotypeNetwork} from its frontier (see {@link PhenotypeNetwork#getFrontier()})
+     * up to {@link #getMaxDistance()}.
+     * @param network a (not frozen) {@link PhenotypeNetwork} that is expanded up to a lower distance
+     * @param traversal the {@link IndexTraversal} to use
+     */
+    protected void resumeNetwork(PhenotypeNetwork network, IndexTraversal traversal) {
+        int[] reached = retrievePhenotypesFromIndex(network.getPhenotypes());
+        int[] frontier = retrievePhenotypesFromIndex(network.getFrontier());
+        int firstNew = traversal.resume(reached, frontier, network.getExpandedDistance(), getMaxDistance());
+        for(int i = firstNew; i < traversal.size(); i++) {
+            addPhenotypeToNetwork(traversal.getNode(i), network, traversal.getDistance(i));
+        }
+        network.markExpanded(getMaxDistance());
+    }
+
+    /**
+     * @param phenotypes the {@link Phenotype}{@code s} to retrieve the indices for
+     * @return the indices of the {@code phenotypes} that are present within the {@link OntologyIndex}
+     */
+    private int[] retrievePhenotypesFromIndex(Collection<Phenotype> phenotypes) {
+        int[] indices = new int[phenotypes.size()];
+        int count = 0;
+        for(Phenotype phenotype : phenotypes) {
+            int phenotypeIndex = retrievePhenotypeFromIndex(phenotype);
+            if(phenotypeIndex != -1) {
+                indices[count++] = phenotypeIndex;
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * @param phenotype the {@link Phenotype} to retrieve the index for
+     * @return the index of the {@code phenotype} within the {@link OntologyIndex}, or {@code -1} if not present
+     */
+    protected int retrievePhenotypeFromIndex(Phenotype phenotype) {
+        return index.getIndex(phenotype.getUri().toString());
+    }
+
+    /**
+     * Adds a class representing a {@link Phenotype} to a {@link PhenotypeNetwork}.
+     * @param phenotypeIndex the index of the class that needs to be added to the {@code network}
+     * @param network where the class needs to be added to
+     * @param distance the number to be used as {@code distance} when adding the class to the {@code network}
+     */
+    protected void addPhenotypeToNetwork(int phenotypeIndex, PhenotypeNetwork network, int distance) {
+        network.add(retrievePhenotype(phenotypeIndex), distance);
+    }
+
+    /**
+     * @param phenotypeIndex a class
+     * @return the {@link Phenotype} belonging to {@code phenotypeIndex} (created when first requested)
+     */
+    protected Phenotype retrievePhenotype(int phenotypeIndex) {
+        Phenotype phenotype = phenotypes.get(phenotypeIndex);
+        if(phenotype == null) {
+            // Concurrent threads might both look up the (interned) phenotype, in which case the first one is kept.
+            phenotypes.compareAndSet(phenotypeIndex, null, BiologicalEntityRegistry.getPhenotypeByUri(index.getUri(phenotypeIndex)));
+            phenotype = phenotypes.get(phenotypeIndex);
+        }
+        return phenotype;
+    }
+}
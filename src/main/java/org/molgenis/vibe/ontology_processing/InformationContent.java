@@ -0,0 +1,129 @@
+package org.molgenis.vibe.ontology_processing;
+
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The information content (IC) of each class within an {@link OntologyIndex}, describing how specific a class is. The
+ * IC of a class is {@code -ln(p)}, where {@code p} is the fraction of all annotations that belong to the class or any of
+ * its descendants (so general classes such as the root have an IC near {@code 0}). Classes without any annotation (also
+ * not through their descendants) get the maximum IC, as if they had a single annotation. Skippable classes (see
+ * {@link OntologyIndex#isSkippable(int)}) have an IC of {@code 0}.
+ *
+ * Immutable after construction, so can be used by multiple threads concurrently.
+ */
+public class InformationContent {
+    private OntologyIndex index;
+
+    /**
+     * The IC per class.
+     */
+    private double[] values;
+
+    /**
+     * The highest IC of all classes.
+     */
+    private double max;
+
+    /**
+     * @param index the {@link OntologyIndex} the values belong to
+     * @param values the IC per class (this array is used directly, so it should not be changed afterwards)
+     * @throws IllegalArgumentException if the number of {@code values} is not equal to the number of classes, or if a
+     * value is negative
+     */
+    public InformationContent(OntologyIndex index, double[] values) {
+        this.index = requireNonNull(index);
+        this.values = requireNonNull(values);
+        if(values.length != index.size()) {
+            throw new IllegalArgumentException("An information content is needed for each class.");
+        }
+        for(double value : values) {
+            if(!(value >= 0)) {
+                throw new IllegalArgumentException("The information content should not be negative.");
+            }
+            max = Math.max(max, value);
+        }
+    }
+
+    /**
+     * @param index an {@link OntologyIndex}
+     * @return an {@link InformationContent} where all classes are equally specific (IC {@code 0})
+     */
+    public static InformationContent uniform(OntologyIndex index) {
+        return new InformationContent(index, new double[index.size()]);
+    }
+
+    /**
+     * Calculates the IC from the number of annotations per class (such as the diseases annotated with each phenotype,
+     * see {@link org.molgenis.vibe.rdf_processing.PhenotypeAnnotationCountsRetriever}). The annotations of a class
+     * also count for all its ancestors.
+     * @param reachability the {@link ReachabilityIndex} of the classes
+     * @param annotationCounts the number of direct annotations per class URI (URIs not present within the
+     *                         {@link OntologyIndex} are ignored)
+     * @return the {@link InformationContent}
+     */
+    public static InformationContent fromAnnotationCounts(ReachabilityIndex reachability, Map<String, Integer> annotationCounts) {
+        OntologyIndex index = reachability.getIndex();
+
+        // Cumulative number of annotations by post-order position, so the annotations of a class and its descendants
+        // can be summed per range of positions (see ReachabilityIndex).
+        int[] counts = new int[index.size()];
+        for(Map.Entry<String, Integer> entry : annotationCounts.entrySet()) {
+            int node = index.getIndex(entry.getKey());
+            if(node != -1 && reachability.getPosition(node) != -1) {
+                counts[reachability.getPosition(node)] += entry.getValue();
+            }
+        }
+        long[] cumulativeCounts = new long[counts.length + 1];
+        for(int position = 0; position < counts.length; position++) {
+            cumulativeCounts[position + 1] = cumulativeCounts[position] + counts[position];
+        }
+        long total = cumulativeCounts[counts.length];
+
+        double[] values = new double[index.size()];
+        for(int node = 0; node < index.size(); node++) {
+            if(reachability.getPosition(node) == -1) {
+                continue;
+            }
+            long count = 0;
+            for(int n = 0; n < reachability.getRangeCount(node); n++) {
+                count += cumulativeCounts[reachability.getRangeEnd(node, n) + 1] - cumulativeCounts[reachability.getRangeStart(node, n)];
+            }
+            values[node] = total == 0 ? 0 : Math.log((double) total / Math.max(count, 1));
+        }
+        return new InformationContent(index, values);
+    }
+
+    /**
+     * @return the {@link OntologyIndex} the values belong to
+     */
+    public OntologyIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @param node a class
+     * @return the IC of {@code node}
+     */
+    public double get(int node) {
+        return values[node];
+    }
+
+    /**
+     * @param uri the URI of a class
+     * @return the IC of the class, or {@link #getMax()} if the class is not present (an unknown class is regarded as
+     * very specific)
+     */
+    public double get(String uri) {
+        int node = index.getIndex(uri);
+        return node == -1 ? max : values[node];
+    }
+
+    /**
+     * @return the highest IC of all classes
+     */
+    public double getMax() {
+        return max;
+    }
+}
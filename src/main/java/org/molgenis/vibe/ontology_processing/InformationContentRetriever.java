@@ -0,0 +1,344 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Retrieves the connected {@link Phenotype}{@code s} (both parents and children) while preferring specific ones. Classes
+ * with an information content (see {@link InformationContent}) below a threshold are neither added nor traversed
+ * through, so that a very general class (such as "Abnormality of the nervous system") cannot connect an input
+ * {@link Phenotype} to a large part of the ontology.
+ *
+ * The classes are expanded in order of their cumulative information content loss: each step from a class to a parent
+ * or child adds the difference between the information content of both classes, so steps between classes that are
+ * about equally specific are cheap. Each class is expanded once through the path with the lowest loss (with the least
+ * steps on a tie) and is stored with the number of steps of that path as distance. A class is only expanded further if
+ * that path has less than {@link #getMaxDistance()} steps. When all classes are equally specific, this results in the
+ * same networks as the {@link IndexedMaxDistanceRetriever}.
+ *
+ * Each input {@link Phenotype} is expanded on its own, so the input {@link Phenotype}{@code s} can be divided among
+ * multiple threads (see {@link #setParallelism(int)}). With an {@link ExpansionBudget}, all input
+ * {@link Phenotype}{@code s} are expanded together in order of their loss instead (on a single thread).
+ */
+public class InformationContentRetriever extends IndexedPhenotypesRetriever {
+    private InformationContent informationContent;
+
+    /**
+     * Classes with a lower information content are neither added nor traversed through.
+     */
+    private double minInformationContent;
+
+    /**
+     * @param index the {@link OntologyIndex} storing the phenotype hierarchy
+     * @param informationContent the {@link InformationContent} belonging to {@code index}
+     * @param minInformationContent classes with a lower information content are neither added nor traversed through
+     *                              (input {@link Phenotype}{@code s} are always expanded)
+     * @param inputPhenotypes the {@link Phenotype}{@code s} for which linked {@link Phenotype}{@code s} need to be found
+     * @param maxDistance the maximum number of steps from an input {@link Phenotype}
+     * @throws IllegalArgumentException if {@code informationContent} does not belong to {@code index}
+     */
+    public InformationContentRetriever(OntologyIndex index, InformationContent informationContent, double minInformationContent,
+                                       Collection<Phenotype> inputPhenotypes, int maxDistance) {
+        super(index, inputPhenotypes, maxDistance);
+        this.informationContent = requireNonNull(informationContent);
+        if(informationContent.getIndex() != index) {
+            throw new IllegalArgumentException("The information content does not belong to the given index.");
+        }
+        this.minInformationContent = minInformationContent;
+    }
+
+    public double getMinInformationContent() {
+        return minInformationContent;
+    }
+
+    @Override
+    protected IndexTraversal.Direction getDirection() {
+        return IndexTraversal.Direction.PARENTS_AND_CHILDREN;
+    }
+
+    @Override
+    public void run() {
+        if(getExpansionBudget() != null) {
+            expandWithinBudget();
+            return;
+        }
+
+        List<Phenotype> inputPhenotypes = new ArrayList<>(getInputPhenotypes());
+        if(getParallelism() > 1 && inputPhenotypes.size() > 1) {
+            // Divides the input phenotypes evenly among the threads.
+            int partSize = (inputPhenotypes.size() + getParallelism() - 1) / getParallelism();
+            ForkJoinPool pool = new ForkJoinPool(getParallelism());
+            try {
+                pool.invoke(new ExpansionTask(inputPhenotypes, partSize));
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            expand(inputPhenotypes);
+        }
+    }
+
+    /**
+     * Expands {@code phenotypes} one by one and adds the resulting networks to the {@link #getPhenotypeNetworkCollection()}.
+     * @param phenotypes the {@link Phenotype}{@code s} to be expanded
+     */
+    private void expand(List<Phenotype> phenotypes) {
+        // A single expansion is reused for all phenotypes.
+        Expansion expansion = new Expansion();
+        for(Phenotype phenotype : phenotypes) {
+            expansion.start(phenotype);
+            while(expansion.hasNext()) {
+                expansion.expandNext();
+            }
+            getPhenotypeNetworkCollection().add(expansion.finish());
+        }
+    }
+
+    /**
+     * Splits the {@link Phenotype}{@code s} till each part is small enough, which is then expanded by a single thread.
+     */
+    private class ExpansionTask extends RecursiveAction {
+        private List<Phenotype> phenotypes;
+        private int partSize;
+
+        ExpansionTask(List<Phenotype> phenotypes, int partSize) {
+            this.phenotypes = phenotypes;
+            this.partSize = partSize;
+        }
+
+        @Override
+        protected void compute() {
+            if(phenotypes.size() <= partSize) {
+                expand(phenotypes);
+            } else {
+                int middle = phenotypes.size() / 2;
+                invokeAll(new ExpansionTask(phenotypes.subList(0, middle), partSize),
+                        new ExpansionTask(phenotypes.subList(middle, phenotypes.size()), partSize));
+            }
+        }
+    }
+
+    /**
+     * Expands all input {@link Phenotype}{@code s} together, each time expanding the class with the lowest loss among
+     * all networks. A network is not expanded any further once it reaches the budget per input, while the expansion of
+     * all networks stops once the budget for all {@link Phenotype}{@code s} together is reached. So instead of keeping
+     * whole distances (see {@link ExpansionBudget}), the {@link Phenotype}{@code s} with the lowest loss are kept.
+     */
+    private void expandWithinBudget() {
+        List<Expansion> expansions = new ArrayList<>();
+        Set<Phenotype> reached = new HashSet<>();
+        for(Phenotype phenotype : getInputPhenotypes()) {
+            Expansion expansion = new Expansion();
+            expansion.start(phenotype);
+            expansions.add(expansion);
+            reached.add(phenotype);
+        }
+
+        while(true) {
+            Expansion next = null;
+            for(Expansion expansion : expansions) {
+                if(expansion.hasNext() && (next == null || expansion.peek().compareTo(next.peek()) < 0)) {
+                    next = expansion;
+                }
+            }
+            if(next == null) {
+                break;
+            }
+
+            Phenotype phenotype = next.peekPhenotype();
+            if(next.peek().steps > 0 && next.network.getPhenotypes().size() >= getExpansionBudget().getMaxPhenotypesPerInput()) {
+                addCutoff(new ExpansionBudget.Cutoff(next.network.getSource(), next.maxSteps, next.network.getPhenotypes().size()));
+                next.stop();
+            } else if(!reached.contains(phenotype) && reached.size() >= getExpansionBudget().getMaxPhenotypes()) {
+                addCutoff(new ExpansionBudget.Cutoff(null, expansions.stream().mapToInt(e -> e.maxSteps).max().orElse(0), reached.size()));
+                break;
+            } else {
+                next.expandNext();
+                reached.add(phenotype);
+            }
+        }
+
+        for(Expansion expansion : expansions) {
+            getPhenotypeNetworkCollection().add(expansion.finish());
+        }
+    }
+
+    /**
+     * The expansion of a single input {@link Phenotype}, which can be done one class at a time.
+     */
+    private class Expansion {
+        /**
+         * The lowest cumulative loss found per class.
+         */
+        private double[] losses;
+
+        /**
+         * The number of steps belonging to {@link #losses} per class.
+         */
+        private int[] steps;
+
+        /**
+         * Whether a class was expanded.
+         */
+        private boolean[] expanded;
+
+        /**
+         * The classes for which {@link #losses} was changed (first {@link #touchedCount} items).
+         */
+        private int[] touched;
+
+        private int touchedCount;
+
+        private PriorityQueue<QueueItem> queue = new PriorityQueue<>();
+
+        private PhenotypeNetwork network;
+
+        /**
+         * The largest number of steps added to the {@link #network}.
+         */
+        private int maxSteps;
+
+        Expansion() {
+            int size = getIndex().size();
+            losses = new double[size];
+            Arrays.fill(losses, Double.POSITIVE_INFINITY);
+            steps = new int[size];
+            expanded = new boolean[size];
+            touched = new int[size];
+        }
+
+        /**
+         * Starts a new expansion (a phenotype that is not present in the index only has itself in the network).
+         * @param phenotype the source of the network
+         */
+        void start(Phenotype phenotype) {
+            network = new PhenotypeNetwork(phenotype);
+            maxSteps = 0;
+            int source = retrievePhenotypeFromIndex(phenotype);
+            if(source != -1) {
+                update(source, 0, 0);
+                queue.add(new QueueItem(source, 0, 0));
+            }
+        }
+
+        /**
+         * @return whether there is a class left to be expanded
+         */
+        boolean hasNext() {
+            // Skips outdated items (the class was already expanded through a better path).
+            while(!queue.isEmpty() && expanded[queue.peek().node]) {
+                queue.poll();
+            }
+            return !queue.isEmpty();
+        }
+
+        /**
+         * @return the next class to be expanded (only if {@link #hasNext()})
+         */
+        QueueItem peek() {
+            return queue.peek();
+        }
+
+        /**
+         * @return the {@link Phenotype} of the next class to be expanded (only if {@link #hasNext()})
+         */
+        Phenotype peekPhenotype() {
+            return retrievePhenotype(queue.peek().node);
+        }
+
+        /**
+         * Adds the next class to the network and queues the classes reached through it (only if {@link #hasNext()}).
+         */
+        void expandNext() {
+            QueueItem item = queue.poll();
+            expanded[item.node] = true;
+            if(item.steps > 0) {
+                addPhenotypeToNetwork(item.node, network, item.steps);
+                maxSteps = Math.max(maxSteps, item.steps);
+            }
+
+            if(item.steps < getMaxDistance()) {
+                for(int j = 0; j < getIndex().getParentCount(item.node); j++) {
+                    relax(item, getIndex().getParent(item.node, j));
+                }
+                for(int j = 0; j < getIndex().getChildCount(item.node); j++) {
+                    relax(item, getIndex().getChild(item.node, j));
+                }
+            }
+        }
+
+        /**
+         * Stops the expansion (no further classes are added to the network).
+         */
+        void stop() {
+            queue.clear();
+        }
+
+        /**
+         * Resets the state of the classes touched by this expansion, so that another one can be started.
+         * @return the network of this expansion
+         */
+        PhenotypeNetwork finish() {
+            queue.clear();
+            for(int i = 0; i < touchedCount; i++) {
+                losses[touched[i]] = Double.POSITIVE_INFINITY;
+                expanded[touched[i]] = false;
+            }
+            touchedCount = 0;
+            return network;
+        }
+
+        /**
+         * Queues {@code node} if it is reached through a better path than before.
+         */
+        private void relax(QueueItem from, int node) {
+            if(expanded[node] || getIndex().isSkippable(node) || informationContent.get(node) < minInformationContent) {
+                return;
+            }
+            double loss = from.loss + Math.abs(informationContent.get(from.node) - informationContent.get(node));
+            int nodeSteps = from.steps + 1;
+            if(loss < losses[node] || (loss == losses[node] && nodeSteps < steps[node])) {
+                update(node, loss, nodeSteps);
+                queue.add(new QueueItem(node, loss, nodeSteps));
+            }
+        }
+
+        private void update(int node, double loss, int nodeSteps) {
+            if(losses[node] == Double.POSITIVE_INFINITY) {
+                touched[touchedCount++] = node;
+            }
+            losses[node] = loss;
+            steps[node] = nodeSteps;
+        }
+    }
+
+    private static class QueueItem implements Comparable<QueueItem> {
+        private final int node;
+        private final double loss;
+        private final int steps;
+
+        QueueItem(int node, double loss, int steps) {
+            this.node = node;
+            this.loss = loss;
+            this.steps = steps;
+        }
+
+        @Override
+        public int compareTo(QueueItem o) {
+            int compare = Double.compare(loss, o.loss);
+            return compare != 0 ? compare : Integer.compare(steps, o.steps);
+        }
+    }
+}
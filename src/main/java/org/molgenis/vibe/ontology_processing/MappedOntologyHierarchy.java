@@ -0,0 +1,204 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.io.cache.OntologyHierarchySerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link OntologyIndex} that is used directly from a read-only memory-mapped file containing a serialized hierarchy
+ * (see {@link OntologyHierarchySerializer} for the layout). Nothing is deserialized: the offset and edge arrays are
+ * read straight from the mapped file and URIs are only decoded when requested. As the pages of the file are shared
+ * through the operating system's page cache, multiple JVMs using the same file only need a single copy in memory
+ * and no parsing is needed at startup.
+ *
+ * Only absolute reads are done on the mapped buffers, so an instance can be used by multiple threads concurrently.
+ */
+public class MappedOntologyHierarchy implements OntologyIndex {
+    private int size;
+    private int edgeCount;
+
+    private IntBuffer parentOffsets;
+    private IntBuffer parents;
+    private IntBuffer childOffsets;
+    private IntBuffer children;
+    private IntBuffer uriOffsets;
+
+    /**
+     * The class indices ordered by their UTF-8 encoded URI.
+     */
+    private IntBuffer orderedIndices;
+
+    private ByteBuffer flags;
+    private ByteBuffer uriBytes;
+
+    /**
+     * @param file the file containing the serialized hierarchy
+     * @param position the position within {@code file} where the serialized hierarchy starts (the hierarchy is
+     *                 expected to continue till the end of the file)
+     * @throws IOException if the file could not be mapped or does not contain a valid hierarchy
+     */
+    public MappedOntologyHierarchy(Path file, long position) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(requireNonNull(file), StandardOpenOption.READ)) {
+            if(position < 0 || position > channel.size()) {
+                throw new IOException("Position " + position + " is outside of " + file.getFileName());
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, channel.size() - position);
+        }
+        map(buffer);
+    }
+
+    private void map(ByteBuffer buffer) throws IOException {
+        if(buffer.remaining() < 8) {
+            throw new IOException("Corrupt ontology hierarchy: too small.");
+        }
+        size = buffer.getInt(0);
+        edgeCount = buffer.getInt(4);
+        if(size < 0 || edgeCount < 0) {
+            throw new IOException("Invalid number of classes or relations.");
+        }
+
+        long fixedLength = 8L + 4L * (3L * (size + 1) + 2L * edgeCount + size) + size;
+        if(buffer.remaining() < fixedLength) {
+            throw new IOException("Corrupt ontology hierarchy: file is truncated.");
+        }
+
+        int position = 8;
+        parentOffsets = slice(buffer, position, size + 1).asIntBuffer();
+        position += 4 * (size + 1);
+        parents = slice(buffer, position, edgeCount).asIntBuffer();
+        position += 4 * edgeCount;
+        childOffsets = slice(buffer, position, size + 1).asIntBuffer();
+        position += 4 * (size + 1);
+        children = slice(buffer, position, edgeCount).asIntBuffer();
+        position += 4 * edgeCount;
+        uriOffsets = slice(buffer, position, size + 1).asIntBuffer();
+        position += 4 * (size + 1);
+        orderedIndices = slice(buffer, position, size).asIntBuffer();
+        position += 4 * size;
+        flags = sliceBytes(buffer, position, size);
+        position += size;
+
+        if(parentOffsets.get(size) != edgeCount || childOffsets.get(size) != edgeCount ||
+                buffer.remaining() - position != uriOffsets.get(size)) {
+            throw new IOException("Corrupt ontology hierarchy: sizes do not match with each other.");
+        }
+        uriBytes = sliceBytes(buffer, position, uriOffsets.get(size));
+    }
+
+    /**
+     * @param buffer the buffer to slice
+     * @param position the start position
+     * @param intCount the number of {@code int}{@code s} the slice should contain
+     * @return a slice of {@code buffer}
+     */
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int intCount) {
+        return sliceBytes(buffer, position, intCount * 4);
+    }
+
+    private static ByteBuffer sliceBytes(ByteBuffer buffer, int position, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(position);
+        duplicate.limit(position + length);
+        return duplicate.slice();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Looks up a URI through a binary search over the class indices ordered by URI.
+     * @param uri the URI of a class
+     * @return the index of the class, or {@code -1} if the URI is not present
+     */
+    @Override
+    public int getIndex(String uri) {
+        byte[] bytes = uri.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = size - 1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            int index = orderedIndices.get(middle);
+            int comparison = compareUri(index, bytes);
+            if(comparison < 0) {
+                low = middle + 1;
+            } else if(comparison > 0) {
+                high = middle - 1;
+            } else {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the URI of a class with the given bytes without decoding the URI (equal to
+     * {@link OntologyHierarchySerializer#compareUnsigned(byte[], byte[])}).
+     * @param index the class
+     * @param bytes the UTF-8 encoded URI to compare with
+     * @return a negative number, zero or a positive number if the URI of {@code index} is less than, equal to or
+     * greater than {@code bytes}
+     */
+    private int compareUri(int index, byte[] bytes) {
+        int start = uriOffsets.get(index);
+        int length = uriOffsets.get(index + 1) - start;
+        int compareLength = Math.min(length, bytes.length);
+        for(int i = 0; i < compareLength; i++) {
+            byte current = uriBytes.get(start + i);
+            if(current != bytes[i]) {
+                return (current & 0xFF) - (bytes[i] & 0xFF);
+            }
+        }
+        return length - bytes.length;
+    }
+
+    @Override
+    public String getUri(int index) {
+        int start = uriOffsets.get(index);
+        byte[] bytes = new byte[uriOffsets.get(index + 1) - start];
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = uriBytes.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean isSkippable(int index) {
+        return (flags.get(index) & OntologyHierarchySerializer.FLAG_SKIPPABLE) != 0;
+    }
+
+    @Override
+    public int getParentCount(int index) {
+        return parentOffsets.get(index + 1) - parentOffsets.get(index);
+    }
+
+    @Override
+    public int getParent(int index, int n) {
+        return parents.get(parentOffsets.get(index) + n);
+    }
+
+    @Override
+    public int getChildCount(int index) {
+        return childOffsets.get(index + 1) - childOffsets.get(index);
+    }
+
+    @Override
+    public int getChild(int index, int n) {
+        return children.get(childOffsets.get(index) + n);
+    }
+}
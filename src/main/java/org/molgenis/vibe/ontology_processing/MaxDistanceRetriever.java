@@ -6,7 +6,11 @@ import org.apache.jena.util.iterator.ExtendedIterator;
 import org.molgenis.vibe.formats.Phenotype;
 import org.molgenis.vibe.formats.PhenotypeNetwork;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * {@link PhenotypesRetriever} implementation that retrieves {@link Phenotype}{@code s} based on a maximum distance from
@@ -21,41 +25,56 @@ public class MaxDistanceRetriever extends PhenotypesRetriever {
     public void run() {
         for(Phenotype phenotype:getInputPhenotypes()) {
             PhenotypeNetwork network = new PhenotypeNetwork(phenotype);
-            traverse(retrievePhenotypeFromModel(phenotype), network, 0);
+            traverse(retrievePhenotypeFromModel(phenotype), network);
             getPhenotypeNetworkCollection().add(network);
         }
     }
 
     /**
-     * Traverses the {@link OntModel}.
-     * @param phenotypeOC current item being traversed
+     * Traverses the {@link OntModel} level by level (breadth-first), starting at {@code sourceOC}. Each class is only
+     * visited once: the first time it is reached is through a shortest path, so later routes can never result in a
+     * closer distance. This keeps the costs linear to the number of relations within {@code maxDistance} (instead of
+     * the number of paths) and avoids deep recursion.
+     * @param sourceOC the {@link OntClass} belonging to the {@code network source} (see {@link PhenotypeNetwork#getSource()})
      * @param network stores the {@link Phenotype}{@code s} based on traversal
-     * @param distance current distance from the {@code network source} (see {@link PhenotypeNetwork#getSource()})
      */
-    private void traverse(OntClass phenotypeOC, PhenotypeNetwork network, int distance) {
+    private void traverse(OntClass sourceOC, PhenotypeNetwork network) {
         // Skips certain URIs.
-        if(skippableUri(phenotypeOC)) {
+        if(skippableUri(sourceOC)) {
             return;
         }
 
-        addPhenotypeToNetwork(phenotypeOC, network, distance);
+        Set<OntClass> visited = new HashSet<>();
+        Deque<OntClass> queue = new ArrayDeque<>();
+        visited.add(sourceOC);
+        queue.add(sourceOC);
 
-        // Checks if maximum distance is achieved. If so, returns. If not, continues.
-        if(distance >= getMaxDistance()) {
-            return;
-        } else {
-            // Calculates distance for next recursion step.
-            int nextDistance = distance + 1;
+        // Each iteration processes all phenotypes with the current distance (which add the ones for "distance + 1").
+        for(int distance = 0; !queue.isEmpty(); distance++) {
+            int levelSize = queue.size();
+            for(int i = 0; i < levelSize; i++) {
+                OntClass phenotypeOC = queue.poll();
+                addPhenotypeToNetwork(phenotypeOC, network, distance);
 
-            // Goes through the parents.
-            for (ExtendedIterator<OntClass> it = phenotypeOC.listSuperClasses(); it.hasNext(); ) {
-                traverse(it.next(), network, nextDistance);
-            }
+                // Only queues the next level if maximum distance is not achieved yet.
+                if(distance < getMaxDistance()) {
+                    // Goes through the parents.
+                    for (ExtendedIterator<OntClass> it = phenotypeOC.listSuperClasses(); it.hasNext(); ) {
+                        enqueue(it.next(), visited, queue);
+                    }
 
-            // Goes through the children.
-            for (ExtendedIterator<OntClass> it = phenotypeOC.listSubClasses(); it.hasNext(); ) {
-                traverse(it.next(), network, nextDistance);
+                    // Goes through the children.
+                    for (ExtendedIterator<OntClass> it = phenotypeOC.listSubClasses(); it.hasNext(); ) {
+                        enqueue(it.next(), visited, queue);
+                    }
+                }
             }
         }
     }
+
+    private void enqueue(OntClass phenotypeOC, Set<OntClass> visited, Deque<OntClass> queue) {
+        if(!skippableUri(phenotypeOC) && visited.add(phenotypeOC)) {
+            queue.add(phenotypeOC);
+        }
+    }
 }
@@ -18,18 +18,40 @@ public class MaxDistanceRetriever2 extends PhenotypesRetriever {
     @Override
     public void run() {
         for(Phenotype phenotype:getInputPhenotypes()) {
-            PhenotypeNetwork network = new PhenotypeNetwork(phenotype);
+            PhenotypeNetwork network = retrievePreviousNetwork(phenotype);
 
-            // previousPhenotypeOCs is an empty Set
-            // currentPhenotypeOCs is a single inputPhenotype
-            Set<OntClass> startOC = new HashSet<>();
-            startOC.add(retrievePhenotypeFromModel(phenotype));
-            traverse(new HashSet<>(), startOC, network, 0);
+            if(network == null) {
+                network = new PhenotypeNetwork(phenotype);
 
+                // previousPhenotypeOCs is an empty Set
+                // currentPhenotypeOCs is a single inputPhenotype
+                Set<OntClass> startOC = new HashSet<>();
+                startOC.add(retrievePhenotypeFromModel(phenotype));
+                traverse(new HashSet<>(), startOC, network, 0);
+            } else if(network.getExpandedDistance() < getMaxDistance() && !network.getFrontier().isEmpty()) {
+                // Continues from the last frontier of the previous network (with the distance before it as previous).
+                int distance = network.getExpandedDistance();
+                traverse(distance == 0 ? new HashSet<>() : retrievePhenotypesFromModel(network.getByDistance(distance - 1)),
+                        retrievePhenotypesFromModel(network.getFrontier()), network, distance);
+            }
+
+            network.markExpanded(getMaxDistance());
             getPhenotypeNetworkCollection().add(network);
         }
     }
 
+    /**
+     * @param phenotypes the {@link Phenotype}{@code s} to retrieve
+     * @return the {@link OntClass}{@code es} representing {@code phenotypes}
+     */
+    private Set<OntClass> retrievePhenotypesFromModel(Set<Phenotype> phenotypes) {
+        Set<OntClass> phenotypeOCs = new HashSet<>();
+        for(Phenotype phenotype : phenotypes) {
+            phenotypeOCs.add(retrievePhenotypeFromModel(phenotype));
+        }
+        return phenotypeOCs;
+    }
+
     /**
      * Traverses the {@link OntModel}.
      * @param previousPhenotypeOCs all {@link Phenotype}{@code s} for {@code distance - 1}
@@ -0,0 +1,183 @@
+package org.molgenis.vibe.ontology_processing;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A breadth-first traversal over an {@link OntologyIndex} that expands up to {@link #MAX_SOURCES} sources in a single
+ * sweep. Each class is labeled with a bitmask of the sources that reached it (bit {@code i} belongs to
+ * {@code sources[i]}), so classes shared by multiple sources (such as common ancestors) are only expanded once per
+ * distance instead of once per source. Per source, each class is reported once with its shortest distance (equal to
+ * running an {@link IndexTraversal} for each source separately).
+ *
+ * All state is stored in arrays that are allocated once and reused for every
+ * {@link #run(int[], int, Visitor)}. Not thread-safe: each thread should use its own instance.
+ */
+public class MultiSourceIndexTraversal {
+    /**
+     * The maximum number of sources per {@link #run(int[], int, Visitor)} (the number of bits in a {@code long}).
+     */
+    public static final int MAX_SOURCES = Long.SIZE;
+
+    private OntologyIndex index;
+
+    private IndexTraversal.Direction direction;
+
+    /**
+     * Per class the sources that already reached it.
+     */
+    private long[] seen;
+
+    /**
+     * Per class the sources that reached it at the current distance.
+     */
+    private long[] frontierMasks;
+
+    /**
+     * Per class the sources that reached it at the next distance.
+     */
+    private long[] nextMasks;
+
+    /**
+     * The classes with a non-empty {@link #frontierMasks} (first {@link #frontierSize} items).
+     */
+    private int[] frontier;
+    private int frontierSize;
+
+    /**
+     * The classes with a non-empty {@link #nextMasks} (first {@link #nextSize} items).
+     */
+    private int[] next;
+    private int nextSize;
+
+    /**
+     * The classes with a non-empty {@link #seen} (so only those need to be cleared before the next run).
+     */
+    private int[] touched;
+    private int touchedSize;
+
+    /**
+     * Receives the classes reached during a {@link #run(int[], int, Visitor)}.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * @param node the class that was reached
+         * @param sources the sources (as bitmask of positions within the given sources) that reached {@code node} for
+         *                the first time
+         * @param distance the distance from these sources
+         */
+        void visit(int node, long sources, int distance);
+    }
+
+    public MultiSourceIndexTraversal(OntologyIndex index, IndexTraversal.Direction direction) {
+        this.index = requireNonNull(index);
+        this.direction = requireNonNull(direction);
+        seen = new long[index.size()];
+        frontierMasks = new long[index.size()];
+        nextMasks = new long[index.size()];
+        frontier = new int[index.size()];
+        next = new int[index.size()];
+        touched = new int[index.size()];
+    }
+
+    /**
+     * Traverses the index starting from all {@code sources} at once. Skippable classes (see
+     * {@link OntologyIndex#isSkippable(int)}) are neither visited nor traversed through. The sources themselves are
+     * reported with distance {@code 0}.
+     * @param sources the classes to start from (duplicates are allowed)
+     * @param maxDistance the maximum distance from each source
+     * @param visitor receives the reached classes (ordered by distance)
+     * @throws IllegalArgumentException if more than {@link #MAX_SOURCES} sources are given
+     */
+    public void run(int[] sources, int maxDistance, Visitor visitor) {
+        if(sources.length > MAX_SOURCES) {
+            throw new IllegalArgumentException("At most " + MAX_SOURCES + " sources can be traversed at once.");
+        }
+        clear();
+
+        for(int i = 0; i < sources.length; i++) {
+            long bit = 1L << i;
+            markSeen(sources[i], bit);
+            if(frontierMasks[sources[i]] == 0) {
+                frontier[frontierSize++] = sources[i];
+            }
+            frontierMasks[sources[i]] |= bit;
+        }
+        report(frontier, frontierSize, frontierMasks, 0, visitor);
+
+        for(int distance = 1; distance <= maxDistance && frontierSize > 0; distance++) {
+            for(int i = 0; i < frontierSize; i++) {
+                int node = frontier[i];
+                long mask = frontierMasks[node];
+                frontierMasks[node] = 0;
+
+                if(direction == IndexTraversal.Direction.PARENTS_AND_CHILDREN) {
+                    for(int j = 0; j < index.getParentCount(node); j++) {
+                        expand(index.getParent(node, j), mask);
+                    }
+                }
+                for(int j = 0; j < index.getChildCount(node); j++) {
+                    expand(index.getChild(node, j), mask);
+                }
+            }
+            report(next, nextSize, nextMasks, distance, visitor);
+            swap();
+        }
+
+        // The last frontier is not expanded, so its masks still need to be reset.
+        for(int i = 0; i < frontierSize; i++) {
+            frontierMasks[frontier[i]] = 0;
+        }
+        frontierSize = 0;
+    }
+
+    /**
+     * Adds the sources in {@code mask} that did not reach {@code node} yet to the next frontier.
+     */
+    private void expand(int node, long mask) {
+        long newSources = mask & ~seen[node];
+        if(newSources == 0 || index.isSkippable(node)) {
+            return;
+        }
+        markSeen(node, newSources);
+        if(nextMasks[node] == 0) {
+            next[nextSize++] = node;
+        }
+        nextMasks[node] |= newSources;
+    }
+
+    private void markSeen(int node, long mask) {
+        if(seen[node] == 0) {
+            touched[touchedSize++] = node;
+        }
+        seen[node] |= mask;
+    }
+
+    private void report(int[] nodes, int size, long[] masks, int distance, Visitor visitor) {
+        for(int i = 0; i < size; i++) {
+            visitor.visit(nodes[i], masks[nodes[i]], distance);
+        }
+    }
+
+    /**
+     * Makes the next frontier the current one (the current frontier masks were already reset while expanding).
+     */
+    private void swap() {
+        int[] nodes = frontier;
+        frontier = next;
+        next = nodes;
+        frontierSize = nextSize;
+        nextSize = 0;
+
+        long[] masks = frontierMasks;
+        frontierMasks = nextMasks;
+        nextMasks = masks;
+    }
+
+    private void clear() {
+        for(int i = 0; i < touchedSize; i++) {
+            seen[touched[i]] = 0;
+        }
+        touchedSize = 0;
+    }
+}
@@ -0,0 +1,136 @@
+package org.molgenis.vibe.ontology_processing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The precomputed neighborhood of each class of an {@link OntologyIndex}: all classes within a fixed maximum distance
+ * when following both parents and children (equal to an {@link IndexTraversal} using
+ * {@link IndexTraversal.Direction#PARENTS_AND_CHILDREN}). Used from a read-only memory-mapped file, so retrieving the
+ * neighborhood of a class is a lookup instead of a traversal.
+ *
+ * The neighborhoods are stored in big-endian format with the following layout:
+ * <ul>
+ *     <li>{@code int} number of classes ({@code n})</li>
+ *     <li>{@code int} maximum distance ({@code k})</li>
+ *     <li>{@code int[n+1]} offsets of the neighborhood per class (within the neighborhood bytes)</li>
+ *     <li>{@code byte[]} the neighborhoods</li>
+ * </ul>
+ * The neighborhood of a class consists of {@code k} levels (distance 1 up to {@code k}). Each level starts with the
+ * number of classes at that distance, followed by these classes in ascending order as the difference with the previous
+ * class within the level (the first one as the difference with {@code 0}). All numbers within the neighborhood bytes
+ * are unsigned variable-length integers (7 bits per byte, least significant group first, high bit set if more bytes
+ * follow).
+ */
+public class NeighborhoodIndex {
+    private int size;
+    private int maxDistance;
+    private IntBuffer offsets;
+    private ByteBuffer neighborhoods;
+
+    /**
+     * Receives the classes within the neighborhood of a class.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * @param node a class within the neighborhood
+         * @param distance the distance to the class the neighborhood belongs to
+         */
+        void visit(int node, int distance);
+    }
+
+    /**
+     * @param file the file containing the neighborhoods
+     * @param position the position within {@code file} where the neighborhoods start (expected to continue till the end
+     *                 of the file)
+     * @throws IOException if the file could not be mapped or does not contain valid neighborhoods
+     */
+    public NeighborhoodIndex(Path file, long position) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(requireNonNull(file), StandardOpenOption.READ)) {
+            if(position < 0 || position > channel.size()) {
+                throw new IOException("Position " + position + " is outside of " + file.getFileName());
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, channel.size() - position);
+        }
+
+        if(buffer.remaining() < 8) {
+            throw new IOException("Corrupt neighborhood index: too small.");
+        }
+        size = buffer.getInt(0);
+        maxDistance = buffer.getInt(4);
+        if(size < 0 || maxDistance < 0 || buffer.remaining() < 8L + 4L * (size + 1)) {
+            throw new IOException("Corrupt neighborhood index: invalid size.");
+        }
+
+        ByteBuffer offsetBytes = buffer.duplicate();
+        offsetBytes.position(8);
+        offsetBytes.limit(8 + 4 * (size + 1));
+        offsets = offsetBytes.slice().asIntBuffer();
+
+        ByteBuffer neighborhoodBytes = buffer.duplicate();
+        neighborhoodBytes.position(8 + 4 * (size + 1));
+        neighborhoods = neighborhoodBytes.slice();
+        if(offsets.get(size) != neighborhoods.remaining()) {
+            throw new IOException("Corrupt neighborhood index: sizes do not match with each other.");
+        }
+    }
+
+    /**
+     * @return the number of classes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the maximum distance stored per class
+     */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Retrieves the neighborhood of {@code node} ordered by distance. Only does absolute reads on the mapped file, so
+     * can be used by multiple threads concurrently.
+     * @param node the class to retrieve the neighborhood for
+     * @param distance the maximum distance (at most {@link #getMaxDistance()})
+     * @param visitor receives the classes within the neighborhood (excluding {@code node} itself)
+     * @throws IllegalArgumentException if {@code distance} is greater than {@link #getMaxDistance()}
+     */
+    public void visit(int node, int distance, Visitor visitor) {
+        if(distance > maxDistance) {
+            throw new IllegalArgumentException("Neighborhoods are only stored up to distance " + maxDistance + ".");
+        }
+
+        // position[0] is the current read position (passed as array so readVarInt can update it).
+        int[] position = {offsets.get(node)};
+        for(int level = 1; level <= distance; level++) {
+            int count = readVarInt(position);
+            int neighbor = 0;
+            for(int i = 0; i < count; i++) {
+                neighbor += readVarInt(position);
+                visitor.visit(neighbor, level);
+            }
+        }
+    }
+
+    private int readVarInt(int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = neighborhoods.get(position[0]++);
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while((current & 0x80) != 0);
+        return value;
+    }
+}
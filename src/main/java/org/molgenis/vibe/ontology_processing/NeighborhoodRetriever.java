@@ -0,0 +1,63 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+
+import java.util.Collection;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Gives the same results as {@link IndexedMaxDistanceRetriever}, but retrieves the {@link Phenotype}{@code s} from a
+ * {@link NeighborhoodIndex} instead of traversing the {@link OntologyIndex}. If an {@link ExpansionBudget} is set, the
+ * {@link OntologyIndex} is traversed one distance at a time instead (see {@link IndexedPhenotypesRetriever}), as a
+ * neighborhood can only be retrieved as a whole.
+ */
+public class NeighborhoodRetriever extends IndexedPhenotypesRetriever {
+    /**
+     * The precomputed neighborhoods belonging to the {@link OntologyIndex}.
+     */
+    private NeighborhoodIndex neighborhoods;
+
+    /**
+     * @param index the {@link OntologyIndex} storing the phenotype hierarchy
+     * @param neighborhoods the {@link NeighborhoodIndex} created from {@code index}
+     * @param inputPhenotypes the {@link Phenotype}{@code s} for which linked {@link Phenotype}{@code s} need to be found
+     * @param maxDistance the maximum distance
+     * @throws IllegalArgumentException if {@code neighborhoods} does not contain {@code maxDistance}
+     */
+    public NeighborhoodRetriever(OntologyIndex index, NeighborhoodIndex neighborhoods, Collection<Phenotype> inputPhenotypes, int maxDistance) {
+        super(index, inputPhenotypes, maxDistance);
+        this.neighborhoods = requireNonNull(neighborhoods);
+        if(maxDistance > neighborhoods.getMaxDistance()) {
+            throw new IllegalArgumentException("Neighborhoods are only stored up to distance " + neighborhoods.getMaxDistance() + ".");
+        }
+    }
+
+    @Override
+    protected IndexTraversal.Direction getDirection() {
+        return IndexTraversal.Direction.PARENTS_AND_CHILDREN;
+    }
+
+    @Override
+    public void run() {
+        if(getExpansionBudget() != null) {
+            super.run();
+            return;
+        }
+
+        for(Phenotype phenotype:getInputPhenotypes()) {
+            PhenotypeNetwork network = new PhenotypeNetwork(phenotype);
+
+            // A phenotype that is not present in the index only has itself in the network.
+            int phenotypeIndex = retrievePhenotypeFromIndex(phenotype);
+            if(phenotypeIndex != -1) {
+                neighborhoods.visit(phenotypeIndex, getMaxDistance(),
+                        (node, distance) -> addPhenotypeToNetwork(node, network, distance));
+            }
+
+            network.markExpanded(getMaxDistance());
+            getPhenotypeNetworkCollection().add(network);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.system.StreamOps;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link OntologyIndex} stored on the heap. The parents and children of each class are stored in compressed sparse
+ * row format: the parents of class {@code i} can be found in {@code parents[parentOffsets[i]]} up to (but excluding)
+ * {@code parents[parentOffsets[i+1]]} (and similar for the children).
+ */
+public class OntologyHierarchy implements OntologyIndex {
+    /**
+     * The URIs of the classes (the array index is the index of the class).
+     */
+    private String[] uris;
+
+    /**
+     * Whether a class should be skipped during traversal (see {@link PhenotypesRetriever#skippableUri(String)}).
+     */
+    private boolean[] skippable;
+
+    /**
+     * Start position of the parents per class within {@link #parents} (length is number of classes + 1).
+     */
+    private int[] parentOffsets;
+
+    /**
+     * The parents of all classes.
+     */
+    private int[] parents;
+
+    /**
+     * Start position of the children per class within {@link #children} (length is number of classes + 1).
+     */
+    private int[] childOffsets;
+
+    /**
+     * The children of all classes.
+     */
+    private int[] children;
+
+    /**
+     * Allows retrieval of the index belonging to a URI.
+     */
+    private Map<String, Integer> indexByUri;
+
+    /**
+     * @param uris the URIs of the classes
+     * @param skippable per class whether it should be skipped during traversal
+     * @param parentOffsets start positions of the parents per class within {@code parents}
+     * @param parents the parents of all classes
+     * @param childOffsets start positions of the children per class within {@code children}
+     * @param children the children of all classes
+     * @throws IllegalArgumentException if the array lengths do not match with each other
+     */
+    public OntologyHierarchy(String[] uris, boolean[] skippable, int[] parentOffsets, int[] parents,
+                             int[] childOffsets, int[] children) {
+        this.uris = requireNonNull(uris);
+        this.skippable = requireNonNull(skippable);
+        this.parentOffsets = requireNonNull(parentOffsets);
+        this.parents = requireNonNull(parents);
+        this.childOffsets = requireNonNull(childOffsets);
+        this.children = requireNonNull(children);
+
+        if(skippable.length != uris.length || parentOffsets.length != uris.length + 1 || childOffsets.length != uris.length + 1 ||
+                parentOffsets[uris.length] != parents.length || childOffsets[uris.length] != children.length) {
+            throw new IllegalArgumentException("The sizes of the given arrays do not match with each other.");
+        }
+
+        indexByUri = new HashMap<>(uris.length * 2);
+        for(int i = 0; i < uris.length; i++) {
+            indexByUri.put(uris[i], i);
+        }
+    }
+
+    /**
+     * @param uris the URIs of the classes
+     * @param subClasses per edge the index of the subclass
+     * @param superClasses per edge the index of the superclass (same position as in {@code subClasses})
+     * @throws IllegalArgumentException if {@code subClasses} and {@code superClasses} are not of equal length
+     */
+    public OntologyHierarchy(String[] uris, int[] subClasses, int[] superClasses) {
+        this(uris, createSkippable(uris), createOffsets(uris.length, subClasses), createEdges(uris.length, subClasses, superClasses),
+                createOffsets(uris.length, superClasses), createEdges(uris.length, superClasses, subClasses));
+    }
+
+    /**
+     * Extracts the hierarchy from a {@link Model}. All classes with a URI are included (both the ones explicitly
+     * defined as {@code owl:Class} as well as the ones used within an {@code rdfs:subClassOf} relation). Relations
+     * with anonymous classes (such as restrictions) are ignored.
+     * @param model the {@link Model} to extract the hierarchy from
+     * @return an {@link OntologyHierarchy}
+     * @see OntologyHierarchyStreamRDF
+     */
+    public static OntologyHierarchy fromModel(Model model) {
+        OntologyHierarchyStreamRDF stream = new OntologyHierarchyStreamRDF();
+        StreamOps.sendGraphToStream(model.getGraph(), stream);
+        return stream.getHierarchy();
+    }
+
+    private static boolean[] createSkippable(String[] uris) {
+        boolean[] skippable = new boolean[uris.length];
+        for(int i = 0; i < uris.length; i++) {
+            skippable[i] = PhenotypesRetriever.skippableUri(uris[i]);
+        }
+        return skippable;
+    }
+
+    /**
+     * Generates the offsets for a compressed sparse row array.
+     * @param size the number of classes
+     * @param from per edge the class the edge belongs to
+     * @return the offsets ({@code size + 1} items)
+     */
+    private static int[] createOffsets(int size, int[] from) {
+        int[] offsets = new int[size + 1];
+        for(int index : from) {
+            offsets[index + 1]++;
+        }
+        for(int i = 0; i < size; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        return offsets;
+    }
+
+    /**
+     * Generates the edges for a compressed sparse row array (see {@link #createOffsets(int, int[])}).
+     * @param size the number of classes
+     * @param from per edge the class the edge belongs to
+     * @param to per edge the class the edge refers to
+     * @return the edges ordered by {@code from}
+     */
+    private static int[] createEdges(int size, int[] from, int[] to) {
+        if(from.length != to.length) {
+            throw new IllegalArgumentException("Each edge should have a start and an end.");
+        }
+        int[] positions = createOffsets(size, from);
+        int[] edges = new int[to.length];
+        for(int i = 0; i < from.length; i++) {
+            edges[positions[from[i]]++] = to[i];
+        }
+        return edges;
+    }
+
+    @Override
+    public int size() {
+        return uris.length;
+    }
+
+    @Override
+    public int edgeCount() {
+        return parents.length;
+    }
+
+    @Override
+    public int getIndex(String uri) {
+        Integer index = indexByUri.get(uri);
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    public String getUri(int index) {
+        return uris[index];
+    }
+
+    @Override
+    public boolean isSkippable(int index) {
+        return skippable[index];
+    }
+
+    @Override
+    public int getParentCount(int index) {
+        return parentOffsets[index + 1] - parentOffsets[index];
+    }
+
+    @Override
+    public int getParent(int index, int n) {
+        return parents[parentOffsets[index] + n];
+    }
+
+    @Override
+    public int getChildCount(int index) {
+        return childOffsets[index + 1] - childOffsets[index];
+    }
+
+    @Override
+    public int getChild(int index, int n) {
+        return children[childOffsets[index] + n];
+    }
+
+    @Override
+    public int[] getParents(int index) {
+        return Arrays.copyOfRange(parents, parentOffsets[index], parentOffsets[index + 1]);
+    }
+
+    @Override
+    public int[] getChildren(int index) {
+        return Arrays.copyOfRange(children, childOffsets[index], childOffsets[index + 1]);
+    }
+}
@@ -0,0 +1,90 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link org.apache.jena.riot.system.StreamRDF} that only keeps the information needed for an {@link OntologyHierarchy}
+ * (the named classes and the {@code rdfs:subClassOf} relations between them). All other triples are discarded directly,
+ * so that no complete model of the ontology needs to be stored in memory.
+ */
+public class OntologyHierarchyStreamRDF extends StreamRDFBase {
+    private static final Node SUBCLASS_OF = RDFS.subClassOf.asNode();
+    private static final Node TYPE = RDF.type.asNode();
+    private static final Node CLASS = OWL.Class.asNode();
+
+    /**
+     * The found classes with their index.
+     */
+    private Map<String, Integer> indices = new LinkedHashMap<>();
+
+    /**
+     * Per relation the index of the subclass.
+     */
+    private int[] subClasses = new int[1024];
+
+    /**
+     * Per relation the index of the superclass.
+     */
+    private int[] superClasses = new int[1024];
+
+    /**
+     * The number of stored relations.
+     */
+    private int edgeCount = 0;
+
+    @Override
+    public void triple(Triple triple) {
+        if(!triple.getSubject().isURI()) {
+            return;
+        }
+
+        if(triple.getPredicate().equals(SUBCLASS_OF)) {
+            if(triple.getObject().isURI()) {
+                addEdge(retrieveIndex(triple.getSubject().getURI()), retrieveIndex(triple.getObject().getURI()));
+            }
+        } else if(triple.getPredicate().equals(TYPE) && triple.getObject().equals(CLASS)) {
+            retrieveIndex(triple.getSubject().getURI());
+        }
+    }
+
+    /**
+     * Retrieves the index belonging to a URI. If the URI is not present yet, it is added first.
+     * @param uri the URI to retrieve the index for
+     * @return the index of {@code uri}
+     */
+    private int retrieveIndex(String uri) {
+        Integer index = indices.get(uri);
+        if(index == null) {
+            index = indices.size();
+            indices.put(uri, index);
+        }
+        return index;
+    }
+
+    private void addEdge(int subClass, int superClass) {
+        if(edgeCount == subClasses.length) {
+            subClasses = Arrays.copyOf(subClasses, edgeCount * 2);
+            superClasses = Arrays.copyOf(superClasses, edgeCount * 2);
+        }
+        subClasses[edgeCount] = subClass;
+        superClasses[edgeCount] = superClass;
+        edgeCount++;
+    }
+
+    /**
+     * @return an {@link OntologyHierarchy} of all the triples that were sent to this stream
+     */
+    public OntologyHierarchy getHierarchy() {
+        return new OntologyHierarchy(indices.keySet().toArray(new String[indices.size()]),
+                Arrays.copyOf(subClasses, edgeCount), Arrays.copyOf(superClasses, edgeCount));
+    }
+}
@@ -0,0 +1,117 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+/**
+ * The subclass hierarchy of an ontology, reduced to the named classes and the {@code rdfs:subClassOf} relations between
+ * them. Each class is identified by an {@code int} index from {@code 0} up to (but excluding) {@link #size()} (only
+ * valid within the same {@link OntologyIndex}), so that it can be traversed without creating objects per class.
+ */
+public interface OntologyIndex {
+    /**
+     * @return the number of classes
+     */
+    int size();
+
+    /**
+     * @return the number of {@code rdfs:subClassOf} relations
+     */
+    int edgeCount();
+
+    /**
+     * @param uri the URI of a class
+     * @return the index of the class, or {@code -1} if the URI is not present
+     */
+    int getIndex(String uri);
+
+    String getUri(int index);
+
+    /**
+     * @param index a class
+     * @return whether the class should be skipped during traversal (see {@link PhenotypesRetriever#skippableUri(String)})
+     */
+    boolean isSkippable(int index);
+
+    /**
+     * @param index a class
+     * @return the number of direct parents of {@code index}
+     */
+    int getParentCount(int index);
+
+    /**
+     * @param index a class
+     * @param n a number from {@code 0} up to (but excluding) {@link #getParentCount(int)}
+     * @return the {@code n}th parent of {@code index}
+     */
+    int getParent(int index, int n);
+
+    /**
+     * @param index a class
+     * @return the number of direct children of {@code index}
+     */
+    int getChildCount(int index);
+
+    /**
+     * @param index a class
+     * @param n a number from {@code 0} up to (but excluding) {@link #getChildCount(int)}
+     * @return the {@code n}th child of {@code index}
+     */
+    int getChild(int index, int n);
+
+    /**
+     * @param index the class for which the parents should be retrieved
+     * @return the indices of the direct parents of {@code index} (a copy, so changes do not affect the index)
+     */
+    default int[] getParents(int index) {
+        int[] parents = new int[getParentCount(index)];
+        for(int i = 0; i < parents.length; i++) {
+            parents[i] = getParent(index, i);
+        }
+        return parents;
+    }
+
+    /**
+     * @param index the class for which the children should be retrieved
+     * @return the indices of the direct children of {@code index} (a copy, so changes do not affect the index)
+     */
+    default int[] getChildren(int index) {
+        int[] children = new int[getChildCount(index)];
+        for(int i = 0; i < children.length; i++) {
+            children[i] = getChild(index, i);
+        }
+        return children;
+    }
+
+    /**
+     * Generates an {@link OntModel} (using {@link OntModelSpec#OWL_MEM}) that only contains the classes (as
+     * {@code owl:Class}) and their {@code rdfs:subClassOf} relations. This model is much smaller than a model containing
+     * the complete ontology while still being usable by the {@link OntModel} based {@link PhenotypesRetriever}{@code s}.
+     * @return an {@link OntModel}
+     */
+    default OntModel toModel() {
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+        Graph graph = model.getBaseModel().getGraph();
+
+        Node[] nodes = new Node[size()];
+        for(int i = 0; i < nodes.length; i++) {
+            nodes[i] = NodeFactory.createURI(getUri(i));
+            graph.add(Triple.create(nodes[i], RDF.type.asNode(), OWL.Class.asNode()));
+        }
+        for(int i = 0; i < nodes.length; i++) {
+            for(int j = 0; j < getParentCount(i); j++) {
+                graph.add(Triple.create(nodes[i], RDFS.subClassOf.asNode(), nodes[getParent(i, j)]));
+            }
+        }
+
+        return model;
+    }
+}
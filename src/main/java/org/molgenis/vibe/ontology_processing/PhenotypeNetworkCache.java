@@ -0,0 +1,173 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A size-bounded cache of {@link PhenotypeNetwork}{@code s}, so that expanding the same {@link Phenotype} multiple times
+ * (such as when processing many patients sharing common phenotypes within a single JVM) only requires a single
+ * expansion. Networks are stored per {@link Phenotype}, {@link PhenotypesRetrieverFactory} and maximum distance. When
+ * full, the least recently used network is evicted.
+ *
+ * Stored networks are frozen (see {@link PhenotypeNetwork#freeze()}), as they are shared by everyone retrieving them.
+ * Thread-safe.
+ *
+ * @see CachingPhenotypesRetriever
+ */
+public class PhenotypeNetworkCache {
+    /**
+     * The maximum number of {@link PhenotypeNetwork}{@code s} stored.
+     */
+    private int maxSize;
+
+    /**
+     * The stored {@link PhenotypeNetwork}{@code s} ordered from least to most recently used.
+     */
+    private Map<Key, PhenotypeNetwork> networks;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * @param maxSize the maximum number of {@link PhenotypeNetwork}{@code s} to store
+     * @throws IllegalArgumentException if {@code maxSize} is less than 1
+     */
+    public PhenotypeNetworkCache(int maxSize) {
+        if(maxSize < 1) {
+            throw new IllegalArgumentException("Cache size should be at least 1.");
+        }
+        this.maxSize = maxSize;
+        networks = new LinkedHashMap<Key, PhenotypeNetwork>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PhenotypeNetwork> eldest) {
+                if(size() > PhenotypeNetworkCache.this.maxSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of {@link PhenotypeNetwork}{@code s} currently stored
+     */
+    public synchronized int size() {
+        return networks.size();
+    }
+
+    /**
+     * @param source the source of the {@link PhenotypeNetwork}
+     * @param factory the algorithm used to create the {@link PhenotypeNetwork}
+     * @param maxDistance the maximum distance used to create the {@link PhenotypeNetwork}
+     * @return the stored (frozen) {@link PhenotypeNetwork}, or {@code null} if not present
+     */
+    public synchronized PhenotypeNetwork get(Phenotype source, PhenotypesRetrieverFactory factory, int maxDistance) {
+        PhenotypeNetwork network = networks.get(new Key(source, factory, maxDistance));
+        if(network == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return network;
+    }
+
+    /**
+     * Stores a {@link PhenotypeNetwork} (replacing a previously stored one with the same key). The {@code network} is
+     * frozen, so it cannot be changed afterwards.
+     * @param network the {@link PhenotypeNetwork} to store (its {@link PhenotypeNetwork#getSource()} is used as key)
+     * @param factory the algorithm used to create {@code network}
+     * @param maxDistance the maximum distance used to create {@code network}
+     */
+    public synchronized void put(PhenotypeNetwork network, PhenotypesRetrieverFactory factory, int maxDistance) {
+        networks.put(new Key(network.getSource(), factory, maxDistance), network.freeze());
+    }
+
+    /**
+     * Removes all stored {@link PhenotypeNetwork}{@code s} (the statistics are kept).
+     */
+    public synchronized void clear() {
+        networks.clear();
+    }
+
+    /**
+     * @return the number of {@link #get(Phenotype, PhenotypesRetrieverFactory, int)} calls that found a
+     * {@link PhenotypeNetwork}
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of {@link #get(Phenotype, PhenotypesRetrieverFactory, int)} calls that did not find a
+     * {@link PhenotypeNetwork}
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of {@link PhenotypeNetwork}{@code s} removed because the cache was full
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the fraction of {@link #get(Phenotype, PhenotypesRetrieverFactory, int)} calls that found a
+     * {@link PhenotypeNetwork} ({@code 0} if nothing was requested yet)
+     */
+    public synchronized double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PhenotypeNetworkCache{" +
+                "size=" + networks.size() +
+                ", maxSize=" + maxSize +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+
+    private static class Key {
+        private Phenotype source;
+        private PhenotypesRetrieverFactory factory;
+        private int maxDistance;
+
+        Key(Phenotype source, PhenotypesRetrieverFactory factory, int maxDistance) {
+            this.source = requireNonNull(source);
+            this.factory = requireNonNull(factory);
+            this.maxDistance = maxDistance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return maxDistance == key.maxDistance &&
+                    Objects.equals(source, key.source) &&
+                    factory == key.factory;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, factory, maxDistance);
+        }
+    }
+}
@@ -2,21 +2,22 @@ package org.molgenis.vibe.ontology_processing;
 
 import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModel;
+import org.molgenis.vibe.formats.BiologicalEntityRegistry;
 import org.molgenis.vibe.formats.Phenotype;
 import org.molgenis.vibe.formats.PhenotypeNetwork;
 import org.molgenis.vibe.formats.PhenotypeNetworkCollection;
 
-import java.net.URI;
 import java.util.*;
 
 import static java.util.Objects.requireNonNull;
 
 /**
- * For one or more {@link Phenotype}{@code s} within an {@link OntModel}, retrieves other {@link Phenotype}{@code s} that are linked to it.
+ * For one or more {@link Phenotype}{@code s} within an {@link OntModel} (or an {@link OntologyIndex}, see
+ * {@link IndexedPhenotypesRetriever}), retrieves other {@link Phenotype}{@code s} that are linked to it.
  */
 public abstract class PhenotypesRetriever {
     /**
-     * The model that stores the {@link Phenotype}{@code s}.
+     * The model that stores the {@link Phenotype}{@code s} ({@code null} if the subclass does not use an {@link OntModel}).
      */
     private OntModel model;
 
@@ -31,11 +32,21 @@ public abstract class PhenotypesRetriever {
      */
     private int maxDistance;
 
+    /**
+     * The number of threads that may be used for retrieving the linked {@link Phenotype}{@code s}.
+     */
+    private int parallelism = 1;
+
     /**
      * The found linked {@link Phenotype}{@code s} for the {@code inputPhenotypes} (stored per {@code inputPhenotype}).
      */
     private PhenotypeNetworkCollection phenotypeNetworkCollection = new PhenotypeNetworkCollection();
 
+    /**
+     * The networks of a previous run to continue from ({@code null} if every network should be created from scratch).
+     */
+    private PhenotypeNetworkCollection previousNetworkCollection;
+
     public Collection<Phenotype> getInputPhenotypes() {
         return inputPhenotypes;
     }
@@ -48,12 +59,69 @@ public abstract class PhenotypesRetriever {
         return maxDistance;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads that may be used by {@link #run()}. Only subclasses that can read their source
+     * concurrently use multiple threads (see {@link IndexedPhenotypesRetriever}). An {@link OntModel} is not safe for
+     * concurrent reading, so {@link OntModel} based subclasses always use a single thread.
+     * @param parallelism the number of threads
+     * @throws IllegalArgumentException if {@code parallelism} is less than 1
+     */
+    public void setParallelism(int parallelism) {
+        if(parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be at least 1.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the {@link PhenotypeNetwork}{@code s} of a previous run (of the same type of {@link PhenotypesRetriever} on the
+     * same ontology), so that subclasses supporting it can continue the expansion from the last frontier (see
+     * {@link PhenotypeNetwork#getFrontier()}) instead of starting from the input {@link Phenotype}{@code s} again. This
+     * allows increasing the distance step by step (such as first 1, then 2, then 3) without redoing earlier steps. The
+     * previous {@link PhenotypeNetwork}{@code s} themselves are not changed.
+     * @param previousNetworkCollection the result of a previous run
+     */
+    public void setPreviousNetworkCollection(PhenotypeNetworkCollection previousNetworkCollection) {
+        this.previousNetworkCollection = requireNonNull(previousNetworkCollection);
+    }
+
     public PhenotypesRetriever(OntModel model, Collection<Phenotype> inputPhenotypes, int maxDistance) {
+        this(inputPhenotypes, maxDistance);
         this.model = requireNonNull(model);
+    }
+
+    /**
+     * For subclasses that do not use an {@link OntModel} to retrieve the {@link Phenotype}{@code s} from.
+     * @param inputPhenotypes the {@link Phenotype}{@code s} for which linked {@link Phenotype}{@code s} need to be found
+     * @param maxDistance the maximum distance
+     */
+    protected PhenotypesRetriever(Collection<Phenotype> inputPhenotypes, int maxDistance) {
         this.inputPhenotypes = requireNonNull(inputPhenotypes);
         this.maxDistance = requireNonNull(maxDistance);
     }
 
+    /**
+     * @param source an input {@link Phenotype}
+     * @return a new (not frozen) copy of the previous {@link PhenotypeNetwork} of {@code source} within
+     * {@link #getMaxDistance()}, or {@code null} if there is no resumable previous {@link PhenotypeNetwork} (see
+     * {@link #setPreviousNetworkCollection(PhenotypeNetworkCollection)}). If the copy is not expanded up to
+     * {@link #getMaxDistance()} yet, the expansion should be continued from its frontier.
+     */
+    protected PhenotypeNetwork retrievePreviousNetwork(Phenotype source) {
+        if(previousNetworkCollection == null) {
+            return null;
+        }
+        PhenotypeNetwork previousNetwork = previousNetworkCollection.getPhenotypeNetworkBySource(source);
+        if(previousNetwork == null || !previousNetwork.isResumable()) {
+            return null;
+        }
+        return previousNetwork.copyWithin(Math.min(maxDistance, previousNetwork.getExpandedDistance()));
+    }
+
     protected OntClass retrievePhenotypeFromModel(Phenotype phenotype) {
         return model.getOntClass(phenotype.getUri().toString());
     }
@@ -70,7 +138,15 @@ public abstract class PhenotypesRetriever {
      * if not (can either be a valid or an unexpected non-valid {@link Phenotype#uri})
      */
     protected boolean skippableUri(OntClass phenotypeOC) {
-        String uriString = phenotypeOC.getURI();
+        return skippableUri(phenotypeOC.getURI());
+    }
+
+    /**
+     * Checks whether an URI is skippable (see {@link #skippableUri(OntClass)}).
+     * @param uriString the URI that needs to be checked
+     * @return {@code true} if URI can be skipped, {@code false} if not
+     */
+    public static boolean skippableUri(String uriString) {
         if(uriString.startsWith("http://purl.obolibrary.org/obo/UPHENO_")) {
             return true;
         }
@@ -86,7 +162,7 @@ public abstract class PhenotypesRetriever {
      */
     protected void addPhenotypeToNetwork(OntClass phenotypeOC, PhenotypeNetwork network, int distance) {
         // Converts URI to Phenotype and tries to add it to the network.
-        Phenotype currentPhenotype = new Phenotype(URI.create(phenotypeOC.getURI()));
+        Phenotype currentPhenotype = BiologicalEntityRegistry.getPhenotypeByUri(phenotypeOC.getURI());
         network.add(currentPhenotype, distance);
     }
 }
@@ -1,6 +1,7 @@
 package org.molgenis.vibe.ontology_processing;
 
-import org.apache.jena.ontology.OntModel;
+import static java.util.Objects.requireNonNull;
+
 import org.molgenis.vibe.formats.EnumTypeDefiner;
 import org.molgenis.vibe.formats.Phenotype;
 
@@ -9,14 +10,35 @@ import java.util.Collection;
 public enum PhenotypesRetrieverFactory implements EnumTypeDefiner {
     CHILDREN("children", "Retrieving HPO children.") {
         @Override
-        public PhenotypesRetriever create(OntModel model, Collection<Phenotype> inputPhenotypes, int distance) {
-            return new ChildrenRetriever(model, inputPhenotypes, distance);
+        public IndexedPhenotypesRetriever create(OntologyIndex index, NeighborhoodIndex neighborhoods,
+                                                 InformationContent informationContent, double minInformationContent,
+                                                 Collection<Phenotype> inputPhenotypes, int distance) {
+            return new IndexedChildrenRetriever(index, inputPhenotypes, distance);
         }
     },
     DISTANCE("distance", "Retrieving connected HPOs.") {
         @Override
-        public PhenotypesRetriever create(OntModel model, Collection<Phenotype> inputPhenotypes, int distance) {
-            return new MaxDistanceRetriever2(model, inputPhenotypes, distance);
+        public IndexedPhenotypesRetriever create(OntologyIndex index, NeighborhoodIndex neighborhoods,
+                                                 InformationContent informationContent, double minInformationContent,
+                                                 Collection<Phenotype> inputPhenotypes, int distance) {
+            if(neighborhoods != null && distance <= neighborhoods.getMaxDistance()) {
+                return new NeighborhoodRetriever(index, neighborhoods, inputPhenotypes, distance);
+            }
+            return new IndexedMaxDistanceRetriever(index, inputPhenotypes, distance);
+        }
+    },
+    INFORMATION_CONTENT("ic", "Retrieving connected HPOs through specific HPOs.") {
+        @Override
+        public IndexedPhenotypesRetriever create(OntologyIndex index, NeighborhoodIndex neighborhoods,
+                                                 InformationContent informationContent, double minInformationContent,
+                                                 Collection<Phenotype> inputPhenotypes, int distance) {
+            return new InformationContentRetriever(index, requireNonNull(informationContent), minInformationContent,
+                    inputPhenotypes, distance);
+        }
+
+        @Override
+        public boolean usesInformationContent() {
+            return true;
         }
     };
 
@@ -38,7 +60,53 @@ public enum PhenotypesRetrieverFactory implements EnumTypeDefiner {
         this.description = description;
     }
 
-    public abstract PhenotypesRetriever create(OntModel model, Collection<Phenotype> inputPhenotypes, int distance);
+    /**
+     * Creates a {@link PhenotypesRetriever} that traverses an {@link OntologyIndex} directly. Every factory accepts the
+     * same arguments, each only using those it needs: {@link #DISTANCE} looks up the precomputed {@code neighborhoods}
+     * if {@code distance} is within {@link NeighborhoodIndex#getMaxDistance()}, while {@link #INFORMATION_CONTENT}
+     * prefers specific {@link Phenotype}{@code s} (see {@link InformationContentRetriever}).
+     * @param index the {@link OntologyIndex} storing the phenotype hierarchy
+     * @param neighborhoods the {@link NeighborhoodIndex} created from {@code index} ({@code null} if not available)
+     * @param informationContent the {@link InformationContent} belonging to {@code index} (may only be {@code null} if
+     *                           not {@link #usesInformationContent()})
+     * @param minInformationContent classes with a lower information content are neither added nor traversed through
+     *                              (only used if {@link #usesInformationContent()})
+     * @param inputPhenotypes the {@link Phenotype}{@code s} for which linked {@link Phenotype}{@code s} need to be found
+     * @param distance the maximum distance
+     * @return an {@link IndexedPhenotypesRetriever}
+     */
+    public abstract IndexedPhenotypesRetriever create(OntologyIndex index, NeighborhoodIndex neighborhoods,
+                                                      InformationContent informationContent, double minInformationContent,
+                                                      Collection<Phenotype> inputPhenotypes, int distance);
+
+    /**
+     * @return {@code true} if {@link #create(OntologyIndex, NeighborhoodIndex, InformationContent, double, Collection, int)}
+     * requires an {@link InformationContent}
+     */
+    public boolean usesInformationContent() {
+        return false;
+    }
+
+    /**
+     * Creates a {@link PhenotypesRetriever} that reuses the {@link org.molgenis.vibe.formats.PhenotypeNetwork}{@code s}
+     * stored in {@code cache} and only expands the other {@link Phenotype}{@code s} (using
+     * {@link #create(OntologyIndex, NeighborhoodIndex, InformationContent, double, Collection, int)}).
+     * @param cache the cache to use
+     * @param index the {@link OntologyIndex} storing the phenotype hierarchy
+     * @param neighborhoods the {@link NeighborhoodIndex} created from {@code index} ({@code null} if not available)
+     * @param informationContent the {@link InformationContent} belonging to {@code index} (may only be {@code null} if
+     *                           not {@link #usesInformationContent()})
+     * @param minInformationContent classes with a lower information content are neither added nor traversed through
+     * @param inputPhenotypes the {@link Phenotype}{@code s} for which linked {@link Phenotype}{@code s} need to be found
+     * @param distance the maximum distance
+     * @return a {@link CachingPhenotypesRetriever}
+     */
+    public PhenotypesRetriever createCached(PhenotypeNetworkCache cache, OntologyIndex index, NeighborhoodIndex neighborhoods,
+                                            InformationContent informationContent, double minInformationContent,
+                                            Collection<Phenotype> inputPhenotypes, int distance) {
+        return new CachingPhenotypesRetriever(cache, this, phenotypes -> create(index, neighborhoods, informationContent,
+                minInformationContent, phenotypes, distance), inputPhenotypes, distance);
+    }
 
     public static PhenotypesRetrieverFactory retrieve(String name) {
         return EnumTypeDefiner.retrieve(name, PhenotypesRetrieverFactory.class);
@@ -0,0 +1,309 @@
+package org.molgenis.vibe.ontology_processing;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A reachability labeling of the subclass hierarchy of an {@link OntologyIndex}, answering whether a class is a
+ * descendant of another class without traversing the hierarchy.
+ *
+ * The classes are numbered in post-order of a depth-first spanning forest of the hierarchy (starting from the classes
+ * without parents). This gives each class a position such that all its descendants within the spanning tree form the
+ * contiguous range of positions directly preceding (and including) its own position. Descendants that are only
+ * reachable through a non-tree relation (classes with multiple parents) lie outside this range, so per class the
+ * positions of all descendants are stored as a sorted list of non-overlapping ranges (the tree range merged with the
+ * ranges of all children). As most classes have a single parent, this list usually consists of only a few ranges.
+ *
+ * A subsumption test first checks the tree range (constant time, which covers all descendants within the spanning tree)
+ * and only falls back to a binary search over the remaining ranges otherwise. Skippable classes (see
+ * {@link OntologyIndex#isSkippable(int)}) are neither labeled nor traversed through (equal to an {@link IndexTraversal}
+ * using {@link IndexTraversal.Direction#CHILDREN}).
+ *
+ * Expects the hierarchy to be acyclic (as subclass hierarchies are). Immutable after construction, so can be used by
+ * multiple threads concurrently.
+ */
+public class ReachabilityIndex {
+    private OntologyIndex index;
+
+    /**
+     * The post-order position per class ({@code -1} for skippable classes).
+     */
+    private int[] positions;
+
+    /**
+     * The class per post-order position (first {@link #labeledCount} items).
+     */
+    private int[] nodes;
+
+    /**
+     * The number of labeled (non-skippable) classes.
+     */
+    private int labeledCount;
+
+    /**
+     * The lowest position within the spanning tree below each class.
+     */
+    private int[] treeStarts;
+
+    /**
+     * Start positions of the ranges per class within {@link #ranges} (as number of ranges, so a range {@code i} is stored
+     * at {@code ranges[2*i]} and {@code ranges[2*i+1]}).
+     */
+    private int[] rangeOffsets;
+
+    /**
+     * The first and last (inclusive) position of all ranges.
+     */
+    private int[] ranges;
+
+    /**
+     * @param index the hierarchy to label
+     */
+    public ReachabilityIndex(OntologyIndex index) {
+        this.index = requireNonNull(index);
+        positions = new int[index.size()];
+        Arrays.fill(positions, -1);
+        nodes = new int[index.size()];
+        treeStarts = new int[index.size()];
+
+        // Starts from the roots, so that the spanning trees (and therefore the tree ranges) are as large as possible.
+        int[] stack = new int[index.size()];
+        int[] cursors = new int[index.size()];
+        for(int i = 0; i < index.size(); i++) {
+            if(!index.isSkippable(i) && !hasLabeledParent(i)) {
+                label(i, stack, cursors);
+            }
+        }
+        // Classes only reachable through a cycle (not expected within a subclass hierarchy).
+        for(int i = 0; i < index.size(); i++) {
+            if(!index.isSkippable(i) && positions[i] == -1) {
+                label(i, stack, cursors);
+            }
+        }
+
+        createRanges();
+    }
+
+    private boolean hasLabeledParent(int node) {
+        for(int j = 0; j < index.getParentCount(node); j++) {
+            if(!index.isSkippable(index.getParent(node, j))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Assigns post-order positions to all unlabeled classes below {@code root} through an iterative depth-first search.
+     * @param root the class to start from
+     * @param stack reusable array to store the current path
+     * @param cursors reusable array to store per class on the path the next child to visit
+     */
+    private void label(int root, int[] stack, int[] cursors) {
+        int depth = 0;
+        stack[depth] = root;
+        cursors[depth] = 0;
+        treeStarts[root] = labeledCount;
+        // Marks the class as being visited (the actual position is assigned once all its children are done).
+        positions[root] = Integer.MAX_VALUE;
+
+        while(depth >= 0) {
+            int node = stack[depth];
+            if(cursors[depth] < index.getChildCount(node)) {
+                int child = index.getChild(node, cursors[depth]++);
+                if(!index.isSkippable(child) && positions[child] == -1) {
+                    depth++;
+                    stack[depth] = child;
+                    cursors[depth] = 0;
+                    treeStarts[child] = labeledCount;
+                    positions[child] = Integer.MAX_VALUE;
+                }
+            } else {
+                positions[node] = labeledCount;
+                nodes[labeledCount] = node;
+                labeledCount++;
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Creates the ranges per class in post-order, so the ranges of all children are available when a class is processed.
+     */
+    private void createRanges() {
+        int[][] rangesPerNode = new int[index.size()][];
+        int totalRanges = 0;
+
+        for(int position = 0; position < labeledCount; position++) {
+            int node = nodes[position];
+
+            // Collects the ranges as longs (start in the upper bits) so they can be sorted directly.
+            int count = 1;
+            for(int j = 0; j < index.getChildCount(node); j++) {
+                int[] childRanges = rangesPerNode[index.getChild(node, j)];
+                if(childRanges != null) {
+                    count += childRanges.length / 2;
+                }
+            }
+            long[] collected = new long[count];
+            collected[0] = pack(treeStarts[node], position);
+            count = 1;
+            for(int j = 0; j < index.getChildCount(node); j++) {
+                int[] childRanges = rangesPerNode[index.getChild(node, j)];
+                if(childRanges != null) {
+                    for(int k = 0; k < childRanges.length; k += 2) {
+                        collected[count++] = pack(childRanges[k], childRanges[k + 1]);
+                    }
+                }
+            }
+
+            rangesPerNode[node] = merge(collected);
+            totalRanges += rangesPerNode[node].length / 2;
+        }
+
+        rangeOffsets = new int[index.size() + 1];
+        ranges = new int[totalRanges * 2];
+        int offset = 0;
+        for(int i = 0; i < index.size(); i++) {
+            rangeOffsets[i] = offset;
+            if(rangesPerNode[i] != null) {
+                System.arraycopy(rangesPerNode[i], 0, ranges, offset * 2, rangesPerNode[i].length);
+                offset += rangesPerNode[i].length / 2;
+            }
+        }
+        rangeOffsets[index.size()] = offset;
+    }
+
+    private static long pack(int start, int end) {
+        return ((long) start << 32) | end;
+    }
+
+    /**
+     * @param packed ranges created through {@link #pack(int, int)}
+     * @return the union of the ranges as sorted, non-overlapping and non-adjacent ranges
+     */
+    private static int[] merge(long[] packed) {
+        Arrays.sort(packed);
+        int[] merged = new int[packed.length * 2];
+        int size = 0;
+        for(long range : packed) {
+            int start = (int) (range >>> 32);
+            int end = (int) range;
+            if(size > 0 && start <= merged[size - 1] + 1) {
+                merged[size - 1] = Math.max(merged[size - 1], end);
+            } else {
+                merged[size++] = start;
+                merged[size++] = end;
+            }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * @return the {@link OntologyIndex} that was labeled
+     */
+    public OntologyIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @param descendant a class
+     * @param ancestor a class
+     * @return whether {@code descendant} equals {@code ancestor} or can be reached from {@code ancestor} by following
+     * the children ({@code false} if either class is skippable)
+     */
+    public boolean isSubsumedBy(int descendant, int ancestor) {
+        int position = positions[descendant];
+        if(position == -1 || positions[ancestor] == -1) {
+            return false;
+        }
+        if(position >= treeStarts[ancestor] && position <= positions[ancestor]) {
+            return true;
+        }
+
+        int low = rangeOffsets[ancestor];
+        int high = rangeOffsets[ancestor + 1] - 1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            if(position < ranges[middle * 2]) {
+                high = middle - 1;
+            } else if(position > ranges[middle * 2 + 1]) {
+                low = middle + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param node a class
+     * @return the post-order position of {@code node}, or {@code -1} if it is skippable
+     */
+    public int getPosition(int node) {
+        return positions[node];
+    }
+
+    /**
+     * @param position a post-order position (see {@link #getPosition(int)})
+     * @return the class at {@code position}
+     */
+    public int getNode(int position) {
+        return nodes[position];
+    }
+
+    /**
+     * @param node a class
+     * @return the number of ranges containing the positions of {@code node} and its descendants ({@code 0} if
+     * {@code node} is skippable)
+     */
+    public int getRangeCount(int node) {
+        return rangeOffsets[node + 1] - rangeOffsets[node];
+    }
+
+    /**
+     * @param node a class
+     * @param n a number from {@code 0} up to (but excluding) {@link #getRangeCount(int)}
+     * @return the first position of the {@code n}th range of {@code node} (ranges are ordered by position)
+     */
+    public int getRangeStart(int node, int n) {
+        return ranges[(rangeOffsets[node] + n) * 2];
+    }
+
+    /**
+     * @param node a class
+     * @param n a number from {@code 0} up to (but excluding) {@link #getRangeCount(int)}
+     * @return the last position (inclusive) of the {@code n}th range of {@code node}
+     */
+    public int getRangeEnd(int node, int n) {
+        return ranges[(rangeOffsets[node] + n) * 2 + 1];
+    }
+
+    /**
+     * @param node a class
+     * @return the number of descendants of {@code node} (excluding {@code node} itself)
+     */
+    public int getDescendantCount(int node) {
+        int count = 0;
+        for(int n = 0; n < getRangeCount(node); n++) {
+            count += getRangeEnd(node, n) - getRangeStart(node, n) + 1;
+        }
+        return Math.max(0, count - 1);
+    }
+
+    /**
+     * @param node a class
+     * @param consumer receives all descendants of {@code node} (excluding {@code node} itself) in post-order
+     */
+    public void forEachDescendant(int node, IntConsumer consumer) {
+        for(int n = 0; n < getRangeCount(node); n++) {
+            for(int position = getRangeStart(node, n); position <= getRangeEnd(node, n); position++) {
+                if(nodes[position] != node) {
+                    consumer.accept(nodes[position]);
+                }
+            }
+        }
+    }
+}
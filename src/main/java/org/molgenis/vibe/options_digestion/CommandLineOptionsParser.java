@@ -7,6 +7,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.molgenis.vibe.exceptions.InvalidStringFormatException;
 import org.molgenis.vibe.io.output.FileOutputWriterFactory;
 import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerFactory;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetAssociationType;
 
 import java.io.IOException;
 import java.nio.file.FileAlreadyExistsException;
@@ -79,16 +80,33 @@ public class CommandLineOptionsParser extends OptionsParser {
 
         options.addOption(Option.builder("w")
                 .longOpt("ontology")
-                .desc("The Human Phenotype Ontology file (.owl).")
+                .desc("The Human Phenotype Ontology file (.owl, optionally gzip, bzip2 or xz compressed).")
                 .hasArg()
                 .argName("FILE")
                 .build());
 
+        options.addOption(Option.builder("c")
+                .longOpt("compile")
+                .desc("Compiles the Human Phenotype Ontology file (-w) into a binary snapshot (<FILE>.hierarchy) " +
+                        "which is used instead of the .owl file by later runs (as long as the .owl file is not changed). " +
+                        "Only -w is needed when using this option.")
+                .build());
+
+        options.addOption(Option.builder()
+                .longOpt("neighborhood-distance")
+                .desc("When compiling (-c), also precomputes for each HPO term all terms within this distance " +
+                        "(<FILE>.neighborhood). Later runs using the distance algorithm with a -m up to this distance " +
+                        "look these up instead of traversing the ontology.")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
         options.addOption(Option.builder("n")
                 .longOpt("ontology")
                 .desc("The ontology algorithm to be used for related HPO retrieval:" + System.lineSeparator() +
                         String.format(argumentOptionsFormat, "children", "Uses child algorithm.") +
-                        String.format(argumentOptionsFormat, "distance", "Uses distance algorithm."))
+                        String.format(argumentOptionsFormat, "distance", "Uses distance algorithm.") +
+                        String.format(argumentOptionsFormat, "ic", "Uses distance algorithm through specific terms only."))
                 .hasArg()
                 .argName("NAME")
                 .build());
@@ -100,6 +118,39 @@ public class CommandLineOptionsParser extends OptionsParser {
                 .argName("NUMBER")
                 .build());
 
+        options.addOption(Option.builder()
+                .longOpt("ontology-threads")
+                .desc("The number of threads to be used for the ontology algorithm (DEFAULT: 1). Input phenotypes " +
+                        "are divided among the threads.")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder()
+                .longOpt("max-phenotypes-per-input")
+                .desc("The maximum number of phenotypes retrieved per input phenotype (including itself). Phenotypes " +
+                        "are kept nearest-first: the ontology algorithm is cut off after the largest distance that fits.")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder()
+                .longOpt("max-phenotypes")
+                .desc("The maximum number of phenotypes retrieved for all input phenotypes together (including " +
+                        "themselves). Phenotypes are kept nearest-first (see --max-phenotypes-per-input).")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder()
+                .longOpt("min-information-content")
+                .desc("The minimum information content of the HPO terms traversed by the ic algorithm (DEFAULT: 0). The " +
+                        "information content is based on the number of diseases annotated with each term within " +
+                        "DisGeNET: more general terms have a lower information content.")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
         options.addOption(Option.builder("t")
                 .longOpt("tdb")
                 .desc("The directory containing the DisGeNET RDF model as a Apache Jena TDB.")
@@ -107,6 +158,40 @@ public class CommandLineOptionsParser extends OptionsParser {
                 .argName("DIR")
                 .build());
 
+        options.addOption(Option.builder()
+                .longOpt("query-threads")
+                .desc("The number of threads to be used for querying the TDB (DEFAULT: 1). Each thread queries its " +
+                        "own chunks of phenotypes or genes (see --query-chunk-size).")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder()
+                .longOpt("query-chunk-size")
+                .desc("The maximum number of phenotypes or genes per TDB query (DEFAULT: " +
+                        OptionsParser.DEFAULT_QUERY_CHUNK_SIZE + "). Larger inputs are split into multiple queries.")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder()
+                .longOpt("query-engine")
+                .desc("The way the data is retrieved from the TDB:" + System.lineSeparator() +
+                        String.format(argumentOptionsFormat, "sparql", "Uses SPARQL queries (DEFAULT).") +
+                        String.format(argumentOptionsFormat, "native", "Looks up the triples directly.") +
+                        String.format(argumentOptionsFormat, "", "Gives the same results as sparql."))
+                .hasArg()
+                .argName("NAME")
+                .build());
+
+        options.addOption(Option.builder()
+                .longOpt("association-type")
+                .desc("The SIO ID of the gene-disease association type to be used (DEFAULT: " +
+                        DisgenetAssociationType.ROOT.getFormattedId() + "). Associations of its subtypes are used as well.")
+                .hasArg()
+                .argName("SIO ID")
+                .build());
+
         options.addOption(Option.builder("o")
                 .longOpt("output")
                 .desc("The file to write output to.")
@@ -123,7 +208,12 @@ public class CommandLineOptionsParser extends OptionsParser {
                         String.format(argumentOptionsFormat, "dsi", "Sorts genes based on highest Disease") +
                         String.format(argumentOptionsFormat, "", "Specificity Index.") +
                         String.format(argumentOptionsFormat, "dpi", "Sorts genes based on lowest Disease") +
-                        String.format(argumentOptionsFormat, "", "Pleiotropy Index."))
+                        String.format(argumentOptionsFormat, "", "Pleiotropy Index.") +
+                        String.format(argumentOptionsFormat, "resnik", "Sorts genes based on highest Resnik") +
+                        String.format(argumentOptionsFormat, "", "similarity between the input phenotypes") +
+                        String.format(argumentOptionsFormat, "", "and the phenotypes of a disease") +
+                        String.format(argumentOptionsFormat, "", "(requires -w).") +
+                        String.format(argumentOptionsFormat, "lin", "As resnik, but using Lin similarity."))
                 .hasArg()
                 .argName("NAME")
                 .build());
@@ -132,13 +222,30 @@ public class CommandLineOptionsParser extends OptionsParser {
                 .longOpt("simple-output")
                 .desc("Simple output format (file only contains separated gene symbols)")
                 .build());
+
+        options.addOption(Option.builder("k")
+                .longOpt("cache")
+                .desc("A directory for caching derived data (such as the parsed HPO ontology) so that it can be " +
+                        "reused by later runs. Cached data is automatically invalidated if the input files change.")
+                .hasArg()
+                .argName("DIR")
+                .build());
+
+        options.addOption(Option.builder()
+                .longOpt("cache-size")
+                .desc("The maximum size of the cache in megabytes (DEFAULT: " +
+                        OptionsParser.DEFAULT_CACHE_MAX_SIZE / 1024 / 1024 + "). Least recently used data is removed first.")
+                .hasArg()
+                .argName("MB")
+                .build());
     }
 
     /**
      * Prints the help message to stdout.
      */
     public static void printHelpMessage() {
-        String cmdSyntax = "java -jar vibe-with-dependencies.jar [-h] [-v] -t <FILE> [-w <FILE> -n <NAME> -m <NUMBER>] -o <FILE> [-s <NAME>] [-l] -p <HPO ID> [-p <HPO ID>]...";
+        String cmdSyntax = "java -jar vibe-with-dependencies.jar [-h] [-v] -t <FILE> [--query-threads <NUMBER>] [--query-chunk-size <NUMBER>] [--query-engine <NAME>] [--association-type <SIO ID>] [-w <FILE> -n <NAME> -m <NUMBER> [--ontology-threads <NUMBER>] [--max-phenotypes-per-input <NUMBER>] [--max-phenotypes <NUMBER>] [--min-information-content <NUMBER>]] -o <FILE> [-s <NAME>] [-l] [-k <DIR> [--cache-size <MB>]] -p <HPO ID> [-p <HPO ID>]..." +
+                System.lineSeparator() + "java -jar vibe-with-dependencies.jar [-v] -c -w <FILE> [--neighborhood-distance <NUMBER>]";
         String helpHeader = "";
         String helpFooter = "Molgenis VIBE";
 
@@ -190,6 +297,36 @@ public class CommandLineOptionsParser extends OptionsParser {
             setVerbose(true);
         }
 
+        // OPTIONAL: Only compile the HPO ontology (set RunMode to COMPILE_PHENOTYPE_ONTOLOGY).
+        if(commandLine.hasOption("c")) {
+            setRunMode(RunMode.COMPILE_PHENOTYPE_ONTOLOGY);
+
+            // REQUIRED if -c set: HPO ontology file.
+            if(commandLine.hasOption("w")) {
+                try {
+                    setHpoOntology(commandLine.getOptionValue("w"));
+                } catch(InvalidPathException | IOException e) {
+                    errors.add(e.getMessage());
+                }
+            } else {
+                missing.add("-w");
+            }
+
+            // OPTIONAL if -c set: Also precompute the neighborhoods up to the given distance.
+            if(commandLine.hasOption("neighborhood-distance")) {
+                try {
+                    setNeighborhoodMaxDistance(commandLine.getOptionValue("neighborhood-distance"));
+                } catch (NumberFormatException e) {
+                    errors.add(e.getMessage());
+                }
+            }
+
+            throwExceptionIfInvalid(missing, errors);
+            return; // IMPORTANT: Does not process any other arguments from this point.
+        } else if(commandLine.hasOption("neighborhood-distance")) {
+            errors.add("Missing -c: --neighborhood-distance requires -c.");
+        }
+
         // REQUIRED: DisGeNET TDB.
         if(commandLine.hasOption("t")) {
             try {
@@ -201,6 +338,40 @@ public class CommandLineOptionsParser extends OptionsParser {
             missing.add("-t");
         }
 
+        // OPTIONAL: Number of threads and chunk size for querying the DisGeNET TDB.
+        if(commandLine.hasOption("query-threads")) {
+            try {
+                setQueryThreads(commandLine.getOptionValue("query-threads"));
+            } catch (NumberFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+        if(commandLine.hasOption("query-chunk-size")) {
+            try {
+                setQueryChunkSize(commandLine.getOptionValue("query-chunk-size"));
+            } catch (NumberFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: The gene-disease association type to be used.
+        if(commandLine.hasOption("association-type")) {
+            try {
+                setAssociationType(commandLine.getOptionValue("association-type"));
+            } catch (InvalidStringFormatException | EnumConstantNotPresentException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        // OPTIONAL: The way the data is retrieved from the DisGeNET TDB.
+        if(commandLine.hasOption("query-engine")) {
+            try {
+                setQueryEngine(commandLine.getOptionValue("query-engine"));
+            } catch (EnumConstantNotPresentException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
         // OPTIONAL: HPO ontology file.
         if(commandLine.hasOption("w")) {
             // -w defines RunMode.
@@ -232,6 +403,40 @@ public class CommandLineOptionsParser extends OptionsParser {
             } else {
                 missing.add("-m");
             }
+
+            // OPTIONAL if -w set: Number of threads for HPO ontology related retrieval.
+            if(commandLine.hasOption("ontology-threads")) {
+                try {
+                    setOntologyThreads(commandLine.getOptionValue("ontology-threads"));
+                } catch (NumberFormatException e) {
+                    errors.add(e.getMessage());
+                }
+            }
+
+            // OPTIONAL if -w set: Expansion budgets for HPO ontology related retrieval.
+            if(commandLine.hasOption("max-phenotypes-per-input")) {
+                try {
+                    setMaxPhenotypesPerInput(commandLine.getOptionValue("max-phenotypes-per-input"));
+                } catch (NumberFormatException e) {
+                    errors.add(e.getMessage());
+                }
+            }
+            if(commandLine.hasOption("max-phenotypes")) {
+                try {
+                    setMaxPhenotypes(commandLine.getOptionValue("max-phenotypes"));
+                } catch (NumberFormatException e) {
+                    errors.add(e.getMessage());
+                }
+            }
+
+            // OPTIONAL if -w set: Minimum information content for HPO ontology related retrieval.
+            if(commandLine.hasOption("min-information-content")) {
+                try {
+                    setMinInformationContent(commandLine.getOptionValue("min-information-content"));
+                } catch (NumberFormatException e) {
+                    errors.add(e.getMessage());
+                }
+            }
         } else { // If no -w was given.
             // -w defines RunMode.
             setRunMode(RunMode.GENES_FOR_PHENOTYPES);
@@ -243,6 +448,18 @@ public class CommandLineOptionsParser extends OptionsParser {
             if(commandLine.hasOption("m")) {
                 errors.add("Missing -w: -m requires -w.");
             }
+            if(commandLine.hasOption("ontology-threads")) {
+                errors.add("Missing -w: --ontology-threads requires -w.");
+            }
+            if(commandLine.hasOption("max-phenotypes-per-input")) {
+                errors.add("Missing -w: --max-phenotypes-per-input requires -w.");
+            }
+            if(commandLine.hasOption("max-phenotypes")) {
+                errors.add("Missing -w: --max-phenotypes requires -w.");
+            }
+            if(commandLine.hasOption("min-information-content")) {
+                errors.add("Missing -w: --min-information-content requires -w.");
+            }
         }
 
         // REQUIRED: Phenotypes.
@@ -272,10 +489,33 @@ public class CommandLineOptionsParser extends OptionsParser {
             missing.add("-o");
         }
 
+        // OPTIONAL: Cache directory.
+        if(commandLine.hasOption("k")) {
+            try {
+                setCacheDir(commandLine.getOptionValue("k"));
+            } catch(InvalidPathException | IOException e) {
+                errors.add(e.getMessage());
+            }
+
+            // OPTIONAL if -k set: Cache size.
+            if(commandLine.hasOption("cache-size")) {
+                try {
+                    setCacheMaxSizeInMegabytes(commandLine.getOptionValue("cache-size"));
+                } catch(NumberFormatException e) {
+                    errors.add(e.getMessage());
+                }
+            }
+        } else if(commandLine.hasOption("cache-size")) {
+            errors.add("Missing -k: --cache-size requires -k.");
+        }
+
         // OPTIONAL: Sorting algorithm.
         if(commandLine.hasOption("s")) {
             try {
                 setGenePrioritizerFactory(commandLine.getOptionValue("s"));
+                if(getGenePrioritizerFactory().usesSemanticSimilarity() && !commandLine.hasOption("w")) {
+                    errors.add("Missing -w: -s " + getGenePrioritizerFactory().getId() + " requires -w.");
+                }
             } catch(EnumConstantNotPresentException e) {
                 errors.add(e.getMessage());
             }
@@ -283,7 +523,16 @@ public class CommandLineOptionsParser extends OptionsParser {
             setGenePrioritizerFactory(GenePrioritizerFactory.HIGHEST_DISGENET_SCORE);
         }
 
-        // Processes missing and errors and throws an Exception if any errors were present.
+        throwExceptionIfInvalid(missing, errors);
+    }
+
+    /**
+     * Processes missing arguments and errors and throws an {@link IOException} if any were present.
+     * @param missing the missing arguments
+     * @param errors the errors that occurred during digestion of the arguments
+     * @throws IOException if {@code missing} or {@code errors} is not empty
+     */
+    private void throwExceptionIfInvalid(List<String> missing, List<String> errors) throws IOException {
         if(missing.size() > 0) {
             errors.add(0, "Missing arguments: " + StringUtils.join(missing, ", "));
         }
@@ -1,10 +1,14 @@
 package org.molgenis.vibe.options_digestion;
 
 import org.molgenis.vibe.exceptions.InvalidStringFormatException;
+import org.molgenis.vibe.formats.BiologicalEntityRegistry;
 import org.molgenis.vibe.formats.Phenotype;
 import org.molgenis.vibe.io.output.FileOutputWriterFactory;
+import org.molgenis.vibe.ontology_processing.ExpansionBudget;
 import org.molgenis.vibe.ontology_processing.PhenotypesRetrieverFactory;
 import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizerFactory;
+import org.molgenis.vibe.rdf_processing.DisgenetQueryEngine;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetAssociationType;
 
 import java.io.IOException;
 import java.nio.file.*;
@@ -70,11 +74,84 @@ public abstract class OptionsParser {
      */
     private Integer ontologyMaxDistance;
 
+    /**
+     * The number of threads used for retrieving the Phenotypes connected to the input Phenotypes (see
+     * {@link org.molgenis.vibe.ontology_processing.PhenotypesRetriever#setParallelism(int)}).
+     */
+    private int ontologyThreads = 1;
+
+    /**
+     * The maximum number of Phenotypes per input Phenotype (see
+     * {@link org.molgenis.vibe.ontology_processing.ExpansionBudget}).
+     */
+    private int maxPhenotypesPerInput = ExpansionBudget.UNLIMITED;
+
+    /**
+     * The maximum number of Phenotypes among all input Phenotypes together (see
+     * {@link org.molgenis.vibe.ontology_processing.ExpansionBudget}).
+     */
+    private int maxPhenotypes = ExpansionBudget.UNLIMITED;
+
+    /**
+     * The minimum information content of the Phenotypes traversed by the information content based ontology algorithm
+     * (see {@link org.molgenis.vibe.ontology_processing.InformationContentRetriever}).
+     */
+    private double minInformationContent = 0;
+
+    /**
+     * If set, the maximum distance of the neighborhoods to be precomputed when compiling the HPO ontology (see
+     * {@link org.molgenis.vibe.ontology_processing.NeighborhoodIndex}).
+     */
+    private Integer neighborhoodMaxDistance;
+
     /**
      * Sets the gene prioritizer to be used.
      */
     private GenePrioritizerFactory genePrioritizerFactory;
 
+    /**
+     * The number of threads used for querying the DisGeNET data (see
+     * {@link org.molgenis.vibe.rdf_processing.GenesForPhenotypeRetriever#setExecutor(java.util.concurrent.ExecutorService)}).
+     */
+    private int queryThreads = 1;
+
+    /**
+     * The maximum number of values per DisGeNET query (see
+     * {@link org.molgenis.vibe.rdf_processing.GenesForPhenotypeRetriever#setChunkSize(int)}).
+     */
+    private int queryChunkSize = DEFAULT_QUERY_CHUNK_SIZE;
+
+    /**
+     * The default maximum number of values per DisGeNET query.
+     */
+    public static final int DEFAULT_QUERY_CHUNK_SIZE = 500;
+
+    /**
+     * The way the DisGeNET data is retrieved (see
+     * {@link org.molgenis.vibe.rdf_processing.GenesForPhenotypeRetriever#setQueryEngine(DisgenetQueryEngine)}).
+     */
+    private DisgenetQueryEngine queryEngine = DisgenetQueryEngine.SPARQL;
+
+    /**
+     * The gene-disease association type of which the associations (including those of its subclasses) are used.
+     */
+    private DisgenetAssociationType associationType = DisgenetAssociationType.ROOT;
+
+    /**
+     * If set, the directory used for caching derived data between runs (see {@link org.molgenis.vibe.io.cache.ArtifactCache}).
+     */
+    private Path cacheDir;
+
+    /**
+     * The maximum size (in bytes) of the cache.
+     */
+    private long cacheMaxSize = DEFAULT_CACHE_MAX_SIZE;
+
+    /**
+     * The default maximum size (in bytes) of the cache (512 MB).
+     */
+    public static final long DEFAULT_CACHE_MAX_SIZE = 512L * 1024 * 1024;
+
     public boolean isVerbose() {
         return verbose;
     }
@@ -150,6 +227,69 @@ public abstract class OptionsParser {
         }
     }
 
+    public int getQueryThreads() {
+        return queryThreads;
+    }
+
+    protected void setQueryThreads(String queryThreads) throws NumberFormatException {
+        setQueryThreads(Integer.parseInt(queryThreads));
+    }
+
+    /**
+     * @param queryThreads the number of threads to be used for querying the DisGeNET data
+     * @throws NumberFormatException if {@code queryThreads} is less than 1
+     */
+    protected void setQueryThreads(int queryThreads) throws NumberFormatException {
+        if(queryThreads < 1) {
+            throw new NumberFormatException("The number of query threads should be at least 1.");
+        }
+        this.queryThreads = queryThreads;
+    }
+
+    public int getQueryChunkSize() {
+        return queryChunkSize;
+    }
+
+    protected void setQueryChunkSize(String queryChunkSize) throws NumberFormatException {
+        setQueryChunkSize(Integer.parseInt(queryChunkSize));
+    }
+
+    /**
+     * @param queryChunkSize the maximum number of values per DisGeNET query
+     * @throws NumberFormatException if {@code queryChunkSize} is less than 1
+     */
+    protected void setQueryChunkSize(int queryChunkSize) throws NumberFormatException {
+        if(queryChunkSize < 1) {
+            throw new NumberFormatException("The query chunk size should be at least 1.");
+        }
+        this.queryChunkSize = queryChunkSize;
+    }
+
+    public DisgenetQueryEngine getQueryEngine() {
+        return queryEngine;
+    }
+
+    /**
+     * @param name the {@link String} describing the {@link DisgenetQueryEngine} to be used
+     * @throws EnumConstantNotPresentException if {@code name} does not match a {@link DisgenetQueryEngine}
+     */
+    protected void setQueryEngine(String name) throws EnumConstantNotPresentException {
+        this.queryEngine = DisgenetQueryEngine.retrieve(name);
+    }
+
+    public DisgenetAssociationType getAssociationType() {
+        return associationType;
+    }
+
+    /**
+     * @param sio the SIO ID of the {@link DisgenetAssociationType} to be used (see {@link DisgenetAssociationType#retrieve(String)})
+     * @throws InvalidStringFormatException if {@code sio} is not a valid SIO ID
+     * @throws EnumConstantNotPresentException if {@code sio} is not a gene-disease association type
+     */
+    protected void setAssociationType(String sio) throws InvalidStringFormatException, EnumConstantNotPresentException {
+        this.associationType = DisgenetAssociationType.retrieve(sio);
+    }
+
     public DisgenetRdfVersion getDisgenetRdfVersion() {
         return disgenetRdfVersion;
     }
@@ -210,10 +350,10 @@ public abstract class OptionsParser {
     /**
      * @param phenotype {@link String}
      * @throws InvalidStringFormatException if the {@code phenotype} failed to be converted into a {@link Phenotype} using
-     * {@link Phenotype#Phenotype(String)}
+     * {@link BiologicalEntityRegistry#getPhenotype(String)}
      */
     protected void addPhenotype(String phenotype) throws InvalidStringFormatException {
-        addPhenotype(new Phenotype(phenotype));
+        addPhenotype(BiologicalEntityRegistry.getPhenotype(phenotype));
     }
 
     public Path getOutputFile() {
@@ -267,6 +407,103 @@ public abstract class OptionsParser {
         this.ontologyMaxDistance = ontologyMaxDistance;
     }
 
+    public int getOntologyThreads() {
+        return ontologyThreads;
+    }
+
+    protected void setOntologyThreads(String ontologyThreads) throws NumberFormatException {
+        setOntologyThreads(Integer.parseInt(ontologyThreads));
+    }
+
+    /**
+     * @param ontologyThreads the number of threads to be used for retrieving connected Phenotypes
+     * @throws NumberFormatException if {@code ontologyThreads} is less than 1
+     */
+    protected void setOntologyThreads(int ontologyThreads) throws NumberFormatException {
+        if(ontologyThreads < 1) {
+            throw new NumberFormatException("The number of ontology threads should be at least 1.");
+        }
+        this.ontologyThreads = ontologyThreads;
+    }
+
+    /**
+     * @return the {@link ExpansionBudget} to be enforced while retrieving the Phenotypes, or {@code null} if no budget was set
+     */
+    public ExpansionBudget getExpansionBudget() {
+        if(maxPhenotypesPerInput == ExpansionBudget.UNLIMITED && maxPhenotypes == ExpansionBudget.UNLIMITED) {
+            return null;
+        }
+        return new ExpansionBudget(maxPhenotypesPerInput, maxPhenotypes);
+    }
+
+    protected void setMaxPhenotypesPerInput(String maxPhenotypesPerInput) throws NumberFormatException {
+        setMaxPhenotypesPerInput(Integer.parseInt(maxPhenotypesPerInput));
+    }
+
+    /**
+     * @param maxPhenotypesPerInput the maximum number of Phenotypes per input Phenotype
+     * @throws NumberFormatException if {@code maxPhenotypesPerInput} is less than 1
+     */
+    protected void setMaxPhenotypesPerInput(int maxPhenotypesPerInput) throws NumberFormatException {
+        if(maxPhenotypesPerInput < 1) {
+            throw new NumberFormatException("The maximum number of phenotypes per input should be at least 1.");
+        }
+        this.maxPhenotypesPerInput = maxPhenotypesPerInput;
+    }
+
+    protected void setMaxPhenotypes(String maxPhenotypes) throws NumberFormatException {
+        setMaxPhenotypes(Integer.parseInt(maxPhenotypes));
+    }
+
+    /**
+     * @param maxPhenotypes the maximum number of Phenotypes among all input Phenotypes together
+     * @throws NumberFormatException if {@code maxPhenotypes} is less than 1
+     */
+    protected void setMaxPhenotypes(int maxPhenotypes) throws NumberFormatException {
+        if(maxPhenotypes < 1) {
+            throw new NumberFormatException("The maximum number of phenotypes should be at least 1.");
+        }
+        this.maxPhenotypes = maxPhenotypes;
+    }
+
+    public double getMinInformationContent() {
+        return minInformationContent;
+    }
+
+    protected void setMinInformationContent(String minInformationContent) throws NumberFormatException {
+        setMinInformationContent(Double.parseDouble(minInformationContent));
+    }
+
+    /**
+     * @param minInformationContent the minimum information content of the traversed Phenotypes
+     * @throws NumberFormatException if {@code minInformationContent} is negative (or not a number)
+     */
+    protected void setMinInformationContent(double minInformationContent) throws NumberFormatException {
+        if(!(minInformationContent >= 0)) {
+            throw new NumberFormatException("The minimum information content should not be negative.");
+        }
+        this.minInformationContent = minInformationContent;
+    }
+
+    public Integer getNeighborhoodMaxDistance() {
+        return neighborhoodMaxDistance;
+    }
+
+    protected void setNeighborhoodMaxDistance(String neighborhoodMaxDistance) throws NumberFormatException {
+        setNeighborhoodMaxDistance(Integer.parseInt(neighborhoodMaxDistance));
+    }
+
+    /**
+     * @param neighborhoodMaxDistance the maximum distance of the neighborhoods to be precomputed
+     * @throws NumberFormatException if {@code neighborhoodMaxDistance} is negative
+     */
+    protected void setNeighborhoodMaxDistance(int neighborhoodMaxDistance) throws NumberFormatException {
+        if(neighborhoodMaxDistance < 0) {
+            throw new NumberFormatException("The neighborhood distance cannot be negative.");
+        }
+        this.neighborhoodMaxDistance = neighborhoodMaxDistance;
+    }
+
     public GenePrioritizerFactory getGenePrioritizerFactory() {
         return genePrioritizerFactory;
     }
@@ -284,12 +521,59 @@ public abstract class OptionsParser {
         this.genePrioritizerFactory = GenePrioritizerFactory.retrieve(name);
     }
 
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    protected void setCacheDir(String cacheDir) throws InvalidPathException, IOException {
+        setCacheDir(Paths.get(cacheDir));
+    }
+
+    /**
+     * @param cacheDir {@link Path} to the cache directory (created if it does not exist yet)
+     * @throws IOException if {@code cacheDir} exists but is not a directory
+     */
+    protected void setCacheDir(Path cacheDir) throws IOException {
+        if(Files.exists(cacheDir) && !checkIfPathIsDir(cacheDir)) {
+            throw new IOException(cacheDir.getFileName() + " is not a directory.");
+        }
+        this.cacheDir = cacheDir;
+    }
+
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    /**
+     * @param cacheMaxSize a {@link String} containing the maximum cache size in megabytes
+     * @throws NumberFormatException if {@code cacheMaxSize} is not a valid number
+     */
+    protected void setCacheMaxSizeInMegabytes(String cacheMaxSize) throws NumberFormatException {
+        setCacheMaxSize(Long.parseLong(cacheMaxSize) * 1024 * 1024);
+    }
+
+    /**
+     * @param cacheMaxSize the maximum cache size in bytes
+     * @throws NumberFormatException if {@code cacheMaxSize} is negative
+     */
+    protected void setCacheMaxSize(long cacheMaxSize) throws NumberFormatException {
+        if(cacheMaxSize < 0) {
+            throw new NumberFormatException("The cache size cannot be negative.");
+        }
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
     /**
      * Checks whether the set variables adhere to the selected {@link RunMode}. Can be used after processing of
      * user input if variables are set correctly (based on the specified {@link RunMode}.
      * @return {@code true} if available variables adhere to {@link RunMode}, {@code false} if not
      */
     protected boolean checkConfig() {
+        // With RunMode.COMPILE_PHENOTYPE_ONTOLOGY only the HPO ontology is required.
+        if(runMode.equals(RunMode.COMPILE_PHENOTYPE_ONTOLOGY)) {
+            return hpoOntology != null;
+        }
+
         // With RunMode.NONE there are no requirements.
         if(!runMode.equals(RunMode.NONE)) {
             // Check if DisGeNET data is set.
@@ -1,22 +1,56 @@
 package org.molgenis.vibe.options_digestion;
 
-import org.apache.jena.ext.com.google.common.base.Stopwatch;
+import org.apache.jena.system.JenaSystem;
+import org.molgenis.vibe.formats.BiologicalEntityRegistry;
+import org.molgenis.vibe.formats.Disease;
 import org.molgenis.vibe.formats.GeneDiseaseCollection;
 import org.molgenis.vibe.formats.Phenotype;
-import org.molgenis.vibe.io.OntologyModelFilesReader;
+import org.molgenis.vibe.formats.PhenotypeDiseaseCollection;
+import org.molgenis.vibe.formats.Source;
+import org.molgenis.vibe.io.OntologyHierarchyReader;
+import org.molgenis.vibe.io.OntologyHierarchySnapshotReader;
+import org.molgenis.vibe.io.OntologyHierarchyStreamReader;
 import org.molgenis.vibe.io.output.FileOutputWriter;
 import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.io.NeighborhoodIndexReader;
 import org.molgenis.vibe.io.TripleStoreDbReader;
+import org.molgenis.vibe.io.cache.AnnotationCountsSerializer;
+import org.molgenis.vibe.io.cache.ArtifactCache;
+import org.molgenis.vibe.io.cache.Fingerprint;
+import org.molgenis.vibe.io.cache.OntologyHierarchySerializer;
+import org.molgenis.vibe.io.cache.SourcesSerializer;
+import org.molgenis.vibe.io.output.NeighborhoodIndexWriter;
+import org.molgenis.vibe.io.output.OntologyHierarchySnapshotWriter;
+import org.molgenis.vibe.ontology_processing.ExpansionBudget;
+import org.molgenis.vibe.ontology_processing.IndexedPhenotypesRetriever;
+import org.molgenis.vibe.ontology_processing.InformationContent;
+import org.molgenis.vibe.ontology_processing.NeighborhoodIndex;
+import org.molgenis.vibe.ontology_processing.OntologyIndex;
 import org.molgenis.vibe.ontology_processing.PhenotypesRetriever;
+import org.molgenis.vibe.ontology_processing.ReachabilityIndex;
 import org.molgenis.vibe.query_output_digestion.prioritization.GenePrioritizer;
 import org.molgenis.vibe.query_output_digestion.prioritization.Prioritizer;
+import org.molgenis.vibe.options_digestion.StageScheduler.Stage;
+import org.molgenis.vibe.rdf_processing.AssociationTypesRetriever;
 import org.molgenis.vibe.rdf_processing.GenesForPhenotypeRetriever;
+import org.molgenis.vibe.rdf_processing.PhenotypeAnnotationCountsRetriever;
+import org.molgenis.vibe.rdf_processing.PhenotypesForDiseasesRetriever;
+import org.molgenis.vibe.rdf_processing.SourcesRetriever;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator;
+import org.molgenis.vibe.rdf_processing.query_string_creation.QueryString;
+import org.molgenis.vibe.similarity.MicaIndex;
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 /**
- * Describes what the application should do.
+ * Describes what the application should do. The steps of a mode are run as stages of a {@link StageScheduler}, so that
+ * independent steps (such as loading the HPO ontology and preparing the DisGeNET TDB) run concurrently.
  */
 public enum RunMode {
     NONE("none") {
@@ -26,68 +60,417 @@ public enum RunMode {
         }
     }, GENES_FOR_PHENOTYPES_WITH_ASSOCIATED_PHENOTYPES("Retrieves genes for input phenotypes and phenotypes associated to input phenotypes.") {
         @Override
-        protected void runMode() throws IOException {
-            OntologyModelFilesReader ontologyReader = loadPhenotypeOntology();
-            PhenotypesRetriever hpoRetriever = retrieveAssociatedPhenotypes(ontologyReader);
-            ModelReader disgenetReader = loadDisgenetDatabase();
-            GeneDiseaseCollection geneDiseaseCollection = retrieveDisgenetData(disgenetReader, hpoRetriever.getPhenotypeNetworkCollection().getPhenotypes());
-            Prioritizer prioritizer = orderGenes(geneDiseaseCollection);
-            writeToFile(geneDiseaseCollection, prioritizer);
+        protected void runMode() throws Exception {
+            StageScheduler scheduler = createScheduler();
+            ExecutorService tdbLane = scheduler.createLane("tdb");
+            ExecutorService queryPool = createQueryPool(scheduler);
+
+            // HPO runs concurrently with preparing the DisGeNET TDB (TDB read transactions are thread-bound, so all
+            // stages using the TDB are run on the same lane).
+            Stage<OntologyHierarchyReader> ontology = scheduler.addStage("load HPO", this::loadPhenotypeOntology);
+            Stage<ModelReader> disgenet = scheduler.addStage("load DisGeNET", tdbLane, this::loadDisgenetDatabase);
+
+            // The information content is derived from the DisGeNET annotations, so stages using it have to wait.
+            boolean retrieverUsesInformationContent = getAppOptions().getPhenotypesRetrieverFactory().usesInformationContent();
+            boolean prioritizerUsesInformationContent = getAppOptions().getGenePrioritizerFactory().usesSemanticSimilarity();
+            Stage<InformationContent> informationContent = retrieverUsesInformationContent || prioritizerUsesInformationContent ?
+                    addInformationContentStages(scheduler, tdbLane, ontology, disgenet) : null;
+
+            Stage<PhenotypesRetriever> hpoRetriever;
+            if(retrieverUsesInformationContent) {
+                hpoRetriever = scheduler.addStage("retrieve associated phenotypes",
+                        () -> retrieveAssociatedPhenotypes(ontology.get(), informationContent.get()), ontology, informationContent);
+            } else {
+                hpoRetriever = scheduler.addStage("retrieve associated phenotypes",
+                        () -> retrieveAssociatedPhenotypes(ontology.get(), null), ontology);
+            }
+
+            Stage<Map<URI, Source>> sources = scheduler.addStage("retrieve sources", tdbLane,
+                    () -> retrieveDisgenetSources(disgenet.get()), disgenet);
+            Stage<Set<URI>> associationTypes = scheduler.addStage("retrieve association types", tdbLane,
+                    () -> retrieveAssociationTypes(disgenet.get()), disgenet);
+            Stage<GeneDiseaseCollection> geneDiseaseCollection = scheduler.addStage("retrieve DisGeNET data", tdbLane,
+                    () -> retrieveDisgenetData(disgenet.get(), sources.get(), associationTypes.get(),
+                            hpoRetriever.get().getPhenotypeNetworkCollection().getPhenotypes(), queryPool),
+                    disgenet, sources, associationTypes, hpoRetriever);
+
+            if(prioritizerUsesInformationContent) {
+                Stage<PhenotypeDiseaseCollection> phenotypeDiseaseCollection = scheduler.addStage("retrieve disease phenotypes", tdbLane,
+                        () -> retrieveDiseasePhenotypes(disgenet.get(), geneDiseaseCollection.get().getDiseases()),
+                        disgenet, geneDiseaseCollection);
+                Stage<Prioritizer> prioritizer = scheduler.addStage("order genes",
+                        () -> orderGenes(geneDiseaseCollection.get(), phenotypeDiseaseCollection.get(), informationContent.get()),
+                        geneDiseaseCollection, phenotypeDiseaseCollection, informationContent);
+                addOutputStages(scheduler, geneDiseaseCollection, prioritizer);
+            } else {
+                addOutputStages(scheduler, geneDiseaseCollection);
+            }
+            scheduler.run();
         }
     }, GENES_FOR_PHENOTYPES("Retrieves genes for input phenotypes.") {
         @Override
         protected void runMode() throws Exception {
-            ModelReader disgenetReader = loadDisgenetDatabase();
-            GeneDiseaseCollection geneDiseaseCollection = retrieveDisgenetData(disgenetReader, getAppOptions().getPhenotypes());
-            Prioritizer prioritizer = orderGenes(geneDiseaseCollection);
-            writeToFile(geneDiseaseCollection, prioritizer);
+            StageScheduler scheduler = createScheduler();
+            ExecutorService tdbLane = scheduler.createLane("tdb");
+            ExecutorService queryPool = createQueryPool(scheduler);
+
+            Stage<ModelReader> disgenet = scheduler.addStage("load DisGeNET", tdbLane, this::loadDisgenetDatabase);
+            Stage<Map<URI, Source>> sources = scheduler.addStage("retrieve sources", tdbLane,
+                    () -> retrieveDisgenetSources(disgenet.get()), disgenet);
+            Stage<Set<URI>> associationTypes = scheduler.addStage("retrieve association types", tdbLane,
+                    () -> retrieveAssociationTypes(disgenet.get()), disgenet);
+            Stage<GeneDiseaseCollection> geneDiseaseCollection = scheduler.addStage("retrieve DisGeNET data", tdbLane,
+                    () -> retrieveDisgenetData(disgenet.get(), sources.get(), associationTypes.get(),
+                            getAppOptions().getPhenotypes(), queryPool),
+                    disgenet, sources, associationTypes);
+
+            addOutputStages(scheduler, geneDiseaseCollection);
+            scheduler.run();
+        }
+    }, COMPILE_PHENOTYPE_ONTOLOGY("Compiles the HPO ontology into a binary snapshot.") {
+        @Override
+        protected void runMode() throws Exception {
+            StageScheduler scheduler = createScheduler();
+            Stage<OntologyIndex> hierarchy = scheduler.addStage("parse HPO", this::parsePhenotypeOntology);
+            scheduler.addStage("write HPO snapshot", () -> {
+                writeOntologySnapshot(hierarchy.get());
+                return null;
+            }, hierarchy);
+            if(getAppOptions().getNeighborhoodMaxDistance() != null) {
+                scheduler.addStage("write HPO neighborhoods", () -> {
+                    writeNeighborhoodIndex(hierarchy.get(), getAppOptions().getNeighborhoodMaxDistance());
+                    return null;
+                }, hierarchy);
+            }
+            scheduler.run();
         }
     };
 
-    protected OntologyModelFilesReader loadPhenotypeOntology() {
+    /**
+     * @return a new {@link StageScheduler} which prints its progress if verbose
+     */
+    protected StageScheduler createScheduler() {
+        return new StageScheduler(getAppOptions()::printVerbose);
+    }
+
+    /**
+     * @param scheduler the {@link StageScheduler} owning the pool
+     * @return a pool for querying the DisGeNET chunks concurrently, or {@code null} if only a single query thread is
+     * used (see {@link OptionsParser#getQueryThreads()})
+     */
+    protected ExecutorService createQueryPool(StageScheduler scheduler) {
+        int queryThreads = getAppOptions().getQueryThreads();
+        return queryThreads > 1 ? scheduler.createPool("query", queryThreads) : null;
+    }
+
+    /**
+     * Adds the stages for calculating the {@link InformationContent} of the HPO ontology.
+     * @param scheduler the {@link StageScheduler} to add the stages to
+     * @param tdbLane the lane on which the DisGeNET TDB is used
+     * @param ontology the stage that loads the HPO ontology
+     * @param disgenet the stage that loads the DisGeNET TDB
+     * @return the stage that calculates the {@link InformationContent}
+     */
+    protected Stage<InformationContent> addInformationContentStages(StageScheduler scheduler, ExecutorService tdbLane,
+                                                                    Stage<OntologyHierarchyReader> ontology, Stage<ModelReader> disgenet) {
+        Stage<Map<String, Integer>> annotationCounts = scheduler.addStage("retrieve phenotype annotation counts",
+                tdbLane, () -> retrievePhenotypeAnnotationCounts(disgenet.get()), disgenet);
+        return scheduler.addStage("calculate information content",
+                () -> calculateInformationContent(ontology.get(), annotationCounts.get()), ontology, annotationCounts);
+    }
+
+    /**
+     * Adds the stages for ordering the genes and writing them to a file.
+     * @param scheduler the {@link StageScheduler} to add the stages to
+     * @param geneDiseaseCollection the stage that generates the {@link GeneDiseaseCollection}
+     */
+    protected void addOutputStages(StageScheduler scheduler, Stage<GeneDiseaseCollection> geneDiseaseCollection) {
+        Stage<Prioritizer> prioritizer = scheduler.addStage("order genes",
+                () -> orderGenes(geneDiseaseCollection.get()), geneDiseaseCollection);
+        addOutputStages(scheduler, geneDiseaseCollection, prioritizer);
+    }
+
+    /**
+     * Adds the stage for writing the ordered genes to a file.
+     * @param scheduler the {@link StageScheduler} to add the stage to
+     * @param geneDiseaseCollection the stage that generates the {@link GeneDiseaseCollection}
+     * @param prioritizer the stage that orders the genes
+     */
+    protected void addOutputStages(StageScheduler scheduler, Stage<GeneDiseaseCollection> geneDiseaseCollection,
+                                   Stage<Prioritizer> prioritizer) {
+        scheduler.addStage("write output", () -> {
+            writeToFile(geneDiseaseCollection.get(), prioritizer.get());
+            return null;
+        }, geneDiseaseCollection, prioritizer);
+    }
+
+    /**
+     * Loads the HPO ontology. If an up-to-date snapshot (see {@link #COMPILE_PHENOTYPE_ONTOLOGY}) is available, this is
+     * used instead of parsing the ontology file itself. Otherwise, the hierarchy is retrieved from the
+     * {@link ArtifactCache} (if enabled) or parsed from the ontology file (and stored in the cache afterwards).
+     * @return an {@link OntologyHierarchyReader} containing the HPO ontology
+     * @throws IOException if the snapshot or ontology file could not be read
+     */
+    protected OntologyHierarchyReader loadPhenotypeOntology() throws IOException {
         getAppOptions().printVerbose("# Preparing HPO dataset.");
-        OntologyModelFilesReader ontologyReader = new OntologyModelFilesReader(getAppOptions().getHpoOntology().toString());
-        printElapsedTime();
+        Path snapshot = OntologyHierarchySnapshotReader.getSnapshotPath(getAppOptions().getHpoOntology());
+
+        OntologyHierarchyReader ontologyReader;
+        if(OntologyHierarchySnapshotReader.isUpToDate(snapshot, getAppOptions().getHpoOntology())) {
+            getAppOptions().printVerbose("Using snapshot: " + snapshot);
+            ontologyReader = new OntologyHierarchySnapshotReader(snapshot);
+        } else if(artifactCache != null) {
+            Fingerprint fingerprint = new Fingerprint("hpo-hierarchy").add(OntologyHierarchySerializer.VERSION)
+                    .addFile(getAppOptions().getHpoOntology());
+            OntologyIndex hierarchy = artifactCache.get(fingerprint, new OntologyHierarchySerializer());
+            if(hierarchy != null) {
+                getAppOptions().printVerbose("Using cached hierarchy: " + artifactCache.getPath(fingerprint));
+            } else {
+                hierarchy = new OntologyHierarchyStreamReader(getAppOptions().getHpoOntology().toString()).getHierarchy();
+                artifactCache.put(fingerprint, new OntologyHierarchySerializer(), hierarchy);
+            }
+            ontologyReader = new OntologyHierarchyReader(hierarchy);
+        } else {
+            ontologyReader = new OntologyHierarchyStreamReader(getAppOptions().getHpoOntology().toString());
+        }
 
         return ontologyReader;
     }
 
-    protected PhenotypesRetriever retrieveAssociatedPhenotypes(OntologyModelFilesReader ontologyReader) {
+    protected OntologyIndex parsePhenotypeOntology() {
+        getAppOptions().printVerbose("# Parsing HPO dataset.");
+        OntologyIndex hierarchy = new OntologyHierarchyStreamReader(getAppOptions().getHpoOntology().toString()).getHierarchy();
+        getAppOptions().printVerbose("Number of classes: " + hierarchy.size());
+
+        return hierarchy;
+    }
+
+    protected void writeOntologySnapshot(OntologyIndex hierarchy) throws IOException {
+        getAppOptions().printVerbose("# Writing HPO snapshot.");
+        OntologyHierarchySnapshotWriter snapshotWriter = new OntologyHierarchySnapshotWriter(
+                OntologyHierarchySnapshotReader.getSnapshotPath(getAppOptions().getHpoOntology()),
+                hierarchy, getAppOptions().getHpoOntology()
+        );
+        snapshotWriter.run();
+        getAppOptions().printVerbose("Snapshot written to: " + snapshotWriter.getPath());
+    }
+
+    protected void writeNeighborhoodIndex(OntologyIndex hierarchy, int maxDistance) throws IOException {
+        getAppOptions().printVerbose("# Writing HPO neighborhoods.");
+        NeighborhoodIndexWriter neighborhoodWriter = new NeighborhoodIndexWriter(
+                NeighborhoodIndexReader.getNeighborhoodIndexPath(getAppOptions().getHpoOntology()),
+                hierarchy, maxDistance
+        );
+        neighborhoodWriter.run();
+        getAppOptions().printVerbose("Neighborhoods written to: " + neighborhoodWriter.getPath());
+    }
+
+    /**
+     * Loads the precomputed neighborhoods (see {@link #COMPILE_PHENOTYPE_ONTOLOGY}) if they are available, up-to-date
+     * and belong to {@code hierarchy}.
+     * @param hierarchy the {@link OntologyIndex} the neighborhoods should belong to
+     * @return the {@link NeighborhoodIndex}, or {@code null} if not available
+     * @throws IOException if the neighborhoods could not be read
+     */
+    protected NeighborhoodIndex loadNeighborhoodIndex(OntologyIndex hierarchy) throws IOException {
+        Path path = NeighborhoodIndexReader.getNeighborhoodIndexPath(getAppOptions().getHpoOntology());
+        if(!Files.exists(path)) {
+            return null;
+        }
+        if(!NeighborhoodIndexReader.isUpToDate(path, hierarchy)) {
+            getAppOptions().printVerbose("Ignoring neighborhoods not belonging to the HPO ontology: " + path);
+            return null;
+        }
+
+        NeighborhoodIndexReader reader = new NeighborhoodIndexReader(path);
+        getAppOptions().printVerbose("Using neighborhoods (up to distance " + reader.getNeighborhoods().getMaxDistance() + "): " + path);
+        return reader.getNeighborhoods();
+    }
+
+    /**
+     * Retrieves the phenotypes associated with the input phenotypes by traversing the {@link OntologyIndex} directly
+     * (so no {@link org.apache.jena.ontology.OntModel} is created), or by looking them up in the precomputed
+     * neighborhoods if possible (see {@link #loadNeighborhoodIndex(OntologyIndex)}).
+     * @param ontologyReader the {@link OntologyHierarchyReader} containing the HPO ontology
+     * @param informationContent the {@link InformationContent} of the HPO ontology ({@code null} if the
+     *                           {@link PhenotypesRetriever} does not use it)
+     * @return the {@link PhenotypesRetriever} that was run
+     * @throws IOException if the precomputed neighborhoods could not be read
+     */
+    protected PhenotypesRetriever retrieveAssociatedPhenotypes(OntologyHierarchyReader ontologyReader,
+                                                               InformationContent informationContent) throws IOException {
         getAppOptions().printVerbose("# " + getAppOptions().getPhenotypesRetrieverFactory().getDescription());
-        PhenotypesRetriever hpoRetriever = getAppOptions().getPhenotypesRetrieverFactory().create(
-                ontologyReader.getModel(), getAppOptions().getPhenotypes(), getAppOptions().getOntologyMaxDistance()
+        OntologyIndex hierarchy = ontologyReader.getHierarchy();
+        // The precomputed neighborhoods are not used when expanding through specific phenotypes.
+        NeighborhoodIndex neighborhoods = informationContent == null ? loadNeighborhoodIndex(hierarchy) : null;
+        IndexedPhenotypesRetriever hpoRetriever = getAppOptions().getPhenotypesRetrieverFactory().create(
+                hierarchy, neighborhoods, informationContent, getAppOptions().getMinInformationContent(),
+                getAppOptions().getPhenotypes(), getAppOptions().getOntologyMaxDistance()
         );
+        hpoRetriever.setParallelism(getAppOptions().getOntologyThreads());
+        ExpansionBudget budget = getAppOptions().getExpansionBudget();
+        if(budget != null) {
+            hpoRetriever.setExpansionBudget(budget);
+        }
         hpoRetriever.run();
+
+        for(ExpansionBudget.Cutoff cutoff : hpoRetriever.getCutoffs()) {
+            getAppOptions().printVerbose(cutoff.toString());
+        }
         getAppOptions().printVerbose("Retrieved number of phenotypes: " + hpoRetriever.getPhenotypeNetworkCollection().getPhenotypes().size());
-        printElapsedTime();
 
         return hpoRetriever;
     }
 
+    /**
+     * @param ontologyReader the {@link OntologyHierarchyReader} containing the HPO ontology
+     * @param annotationCounts the number of annotations per phenotype URI (see {@link #retrievePhenotypeAnnotationCounts(ModelReader)})
+     * @return the {@link InformationContent} of the HPO ontology
+     * @throws IOException if the HPO ontology could not be read
+     */
+    protected InformationContent calculateInformationContent(OntologyHierarchyReader ontologyReader,
+                                                             Map<String, Integer> annotationCounts) throws IOException {
+        getAppOptions().printVerbose("# Calculating information content of HPO phenotypes.");
+        return InformationContent.fromAnnotationCounts(new ReachabilityIndex(ontologyReader.getHierarchy()), annotationCounts);
+    }
+
     protected ModelReader loadDisgenetDatabase() throws IOException {
         getAppOptions().printVerbose("# Preparing DisGeNET TDB.");
         ModelReader disgenetReader = new TripleStoreDbReader(getAppOptions().getDisgenetDataDir());
-        printElapsedTime();
 
         return disgenetReader;
     }
 
-    protected GeneDiseaseCollection retrieveDisgenetData(ModelReader disgenetReader, Set<Phenotype> phenotypes) {
+    /**
+     * Retrieves the sources from the DisGeNET dataset. If the {@link ArtifactCache} is enabled, the sources are
+     * retrieved from (or stored in) the cache.
+     * @param disgenetReader the {@link ModelReader} containing the DisGeNET dataset
+     * @return the {@link Source}{@code s} by {@link URI}
+     * @throws IOException if the cache could not be used
+     */
+    protected Map<URI, Source> retrieveDisgenetSources(ModelReader disgenetReader) throws IOException {
+        getAppOptions().printVerbose("# Retrieving sources from DisGeNET dataset.");
+        Fingerprint fingerprint = null;
+        if(artifactCache != null) {
+            QueryString query = DisgenetQueryStringGenerator.getSources();
+            fingerprint = new Fingerprint("disgenet-sources")
+                    .add(getAppOptions().getDisgenetRdfVersion().getId())
+                    .addDirectory(getAppOptions().getDisgenetDataDir(), "tdb.lock")
+                    .add(query.getQuery());
+            Map<URI, Source> sources = artifactCache.get(fingerprint, new SourcesSerializer());
+            if(sources != null) {
+                getAppOptions().printVerbose("Using cached sources: " + artifactCache.getPath(fingerprint));
+                return sources;
+            }
+        }
+
+        SourcesRetriever sourcesRetriever = new SourcesRetriever(disgenetReader);
+        sourcesRetriever.run();
+        if(artifactCache != null) {
+            artifactCache.put(fingerprint, new SourcesSerializer(), sourcesRetriever.getSources());
+        }
+
+        return sourcesRetriever.getSources();
+    }
+
+    /**
+     * Retrieves the number of diseases annotated with each phenotype from the DisGeNET dataset. If the
+     * {@link ArtifactCache} is enabled, the counts are retrieved from (or stored in) the cache.
+     * @param disgenetReader the {@link ModelReader} containing the DisGeNET dataset
+     * @return the number of annotated diseases per phenotype URI
+     * @throws IOException if the cache could not be used
+     */
+    protected Map<String, Integer> retrievePhenotypeAnnotationCounts(ModelReader disgenetReader) throws IOException {
+        getAppOptions().printVerbose("# Retrieving phenotype annotation counts from DisGeNET dataset.");
+        Fingerprint fingerprint = null;
+        if(artifactCache != null) {
+            fingerprint = new Fingerprint("disgenet-phenotype-annotation-counts")
+                    .add(getAppOptions().getDisgenetRdfVersion().getId())
+                    .addDirectory(getAppOptions().getDisgenetDataDir(), "tdb.lock")
+                    .add(DisgenetQueryStringGenerator.getPhenotypeDiseaseCounts().getQuery());
+            Map<String, Integer> annotationCounts = artifactCache.get(fingerprint, new AnnotationCountsSerializer());
+            if(annotationCounts != null) {
+                getAppOptions().printVerbose("Using cached phenotype annotation counts: " + artifactCache.getPath(fingerprint));
+                return annotationCounts;
+            }
+        }
+
+        PhenotypeAnnotationCountsRetriever annotationCountsRetriever = new PhenotypeAnnotationCountsRetriever(disgenetReader);
+        annotationCountsRetriever.run();
+        if(artifactCache != null) {
+            artifactCache.put(fingerprint, new AnnotationCountsSerializer(), annotationCountsRetriever.getAnnotationCounts());
+        }
+
+        return annotationCountsRetriever.getAnnotationCounts();
+    }
+
+    /**
+     * @param disgenetReader the {@link ModelReader} containing the DisGeNET dataset
+     * @return the URIs of the chosen gene-disease association type and all its subclasses
+     */
+    protected Set<URI> retrieveAssociationTypes(ModelReader disgenetReader) {
+        getAppOptions().printVerbose("# Retrieving association types from DisGeNET dataset.");
+        AssociationTypesRetriever associationTypesRetriever = new AssociationTypesRetriever(
+                disgenetReader, getAppOptions().getAssociationType()
+        );
+        associationTypesRetriever.run();
+        getAppOptions().printVerbose("Retrieved number of association types: " + associationTypesRetriever.getAssociationTypes().size());
+
+        return associationTypesRetriever.getAssociationTypes();
+    }
+
+    protected GeneDiseaseCollection retrieveDisgenetData(ModelReader disgenetReader, Map<URI, Source> sources,
+                                                         Set<URI> associationTypes, Set<Phenotype> phenotypes,
+                                                         ExecutorService queryPool) {
         getAppOptions().printVerbose("# Retrieving data from DisGeNET dataset.");
         GenesForPhenotypeRetriever genesForPhenotypeRetriever = new GenesForPhenotypeRetriever(
-                disgenetReader, phenotypes
+                disgenetReader, phenotypes, sources
         );
+        genesForPhenotypeRetriever.setAssociationTypes(associationTypes);
+        genesForPhenotypeRetriever.setChunkSize(getAppOptions().getQueryChunkSize());
+        genesForPhenotypeRetriever.setExecutor(queryPool);
+        genesForPhenotypeRetriever.setQueryEngine(getAppOptions().getQueryEngine());
         genesForPhenotypeRetriever.run();
-        printElapsedTime();
 
         return genesForPhenotypeRetriever.getGeneDiseaseCollection();
     }
 
     protected Prioritizer orderGenes(GeneDiseaseCollection geneDiseaseCollection) {
         getAppOptions().printVerbose("# Ordering genes based on priority.");
-        GenePrioritizer prioritizer = getAppOptions().getGenePrioritizerFactory().create(geneDiseaseCollection);
+        GenePrioritizer prioritizer = getAppOptions().getGenePrioritizerFactory().create(geneDiseaseCollection,
+                null, null, getAppOptions().getPhenotypes());
+        prioritizer.run();
+
+        return prioritizer;
+    }
+
+    /**
+     * Retrieves the phenotypes annotated to the diseases from the DisGeNET dataset.
+     * @param disgenetReader the {@link ModelReader} containing the DisGeNET dataset
+     * @param diseases the {@link Disease}{@code s} to retrieve the phenotypes for
+     * @return the {@link PhenotypeDiseaseCollection}
+     */
+    protected PhenotypeDiseaseCollection retrieveDiseasePhenotypes(ModelReader disgenetReader, Set<Disease> diseases) {
+        getAppOptions().printVerbose("# Retrieving disease phenotypes from DisGeNET dataset.");
+        PhenotypesForDiseasesRetriever phenotypesForDiseasesRetriever = new PhenotypesForDiseasesRetriever(disgenetReader, diseases);
+        phenotypesForDiseasesRetriever.run();
+
+        return phenotypesForDiseasesRetriever.getPhenotypeDiseaseCollection();
+    }
+
+    /**
+     * Orders the genes by the semantic similarity between the input phenotypes and the phenotypes of their diseases.
+     * @param geneDiseaseCollection the {@link GeneDiseaseCollection} to be ordered
+     * @param phenotypeDiseaseCollection the phenotypes annotated to the diseases of {@code geneDiseaseCollection}
+     * @param informationContent the {@link InformationContent} of the HPO ontology
+     * @return the {@link Prioritizer} that was run
+     */
+    protected Prioritizer orderGenes(GeneDiseaseCollection geneDiseaseCollection, PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                     InformationContent informationContent) {
+        getAppOptions().printVerbose("# Ordering genes based on priority.");
+        GenePrioritizer prioritizer = getAppOptions().getGenePrioritizerFactory().create(geneDiseaseCollection,
+                phenotypeDiseaseCollection, new MicaIndex(informationContent), getAppOptions().getPhenotypes());
         prioritizer.run();
-        printElapsedTime();
 
         return prioritizer;
     }
@@ -96,14 +479,16 @@ public enum RunMode {
         getAppOptions().printVerbose("# Writing genes to file.");
         FileOutputWriter outputWriter = getAppOptions().getFileOutputWriterFactory().create(getAppOptions().getOutputFile(), geneDiseaseCollection, prioritizer);
         outputWriter.run();
-        printElapsedTime();
     }
 
     private OptionsParser appOptions;
 
     private String description;
 
-    private Stopwatch stopwatch;
+    /**
+     * The cache for derived data (or {@code null} if no cache should be used).
+     */
+    private ArtifactCache artifactCache;
 
     protected OptionsParser getAppOptions() {
         return appOptions;
@@ -119,7 +504,6 @@ public enum RunMode {
 
     RunMode(String description) {
         this.description = description;
-        stopwatch = Stopwatch.createStarted();
     }
 
     public final void run(OptionsParser appOptions) throws Exception {
@@ -127,13 +511,19 @@ public enum RunMode {
         setAppOptions(appOptions);
         // Prints the RunMode description if verbose.
         getAppOptions().printVerbose(getDescription());
+        // Initializes Jena before any stages run, as concurrent initialization from multiple threads can fail.
+        JenaSystem.init();
+        // Prepares the cache (if enabled).
+        artifactCache = getAppOptions().getCacheDir() == null ? null :
+                new ArtifactCache(getAppOptions().getCacheDir(), getAppOptions().getCacheMaxSize());
         // Runs mode-specific code.
-        runMode();
+        try {
+            runMode();
+        } finally {
+            // The interned entities are only shared within a run.
+            BiologicalEntityRegistry.clear();
+        }
     }
 
     protected abstract void runMode() throws Exception;
-
-    protected void printElapsedTime() {
-        getAppOptions().printVerbose("Elapsed time: " + stopwatch.toString());
-    }
 }
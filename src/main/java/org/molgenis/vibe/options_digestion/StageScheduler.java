@@ -0,0 +1,236 @@
+package org.molgenis.vibe.options_digestion;
+
+import org.apache.jena.ext.com.google.common.base.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs the stages of a {@link RunMode} as a dependency graph. Each stage starts as soon as all the stages it depends on
+ * are finished, so independent stages run concurrently. Stages that use a thread-bound resource (such as a TDB read
+ * transaction) can be assigned to a lane (see {@link #createLane(String)}), causing them to always be run on the same
+ * thread.
+ */
+public class StageScheduler {
+    /**
+     * Used for printing the progress.
+     */
+    private Consumer<String> log;
+
+    /**
+     * Executes the stages that are not assigned to a specific lane.
+     */
+    private ExecutorService executor = Executors.newCachedThreadPool(new StageThreadFactory("vibe-stage"));
+
+    /**
+     * All executors used by this scheduler (so they can be shut down afterwards).
+     */
+    private List<ExecutorService> executors = new ArrayList<>();
+
+    /**
+     * All stages in the order they were added.
+     */
+    private List<Stage<?>> stages = new ArrayList<>();
+
+    /**
+     * Completed exceptionally as soon as any stage fails.
+     */
+    private CompletableFuture<Void> failure = new CompletableFuture<>();
+
+    /**
+     * The wall-clock time of the complete {@link #run()}.
+     */
+    private Stopwatch stopwatch = Stopwatch.createUnstarted();
+
+    public List<Stage<?>> getStages() {
+        return stages;
+    }
+
+    public Stopwatch getStopwatch() {
+        return stopwatch;
+    }
+
+    /**
+     * @param log used for printing the progress (such as {@link OptionsParser#printVerbose(String)})
+     */
+    public StageScheduler(Consumer<String> log) {
+        this.log = requireNonNull(log);
+        executors.add(executor);
+    }
+
+    /**
+     * Creates a lane: all stages added to the same lane are run (one at a time) on a single thread.
+     * @param name the name of the lane
+     * @return an {@link ExecutorService} to be used with {@link #addStage(String, ExecutorService, StageTask, Stage[])}
+     */
+    public ExecutorService createLane(String name) {
+        ExecutorService lane = Executors.newSingleThreadExecutor(new StageThreadFactory("vibe-" + name));
+        executors.add(lane);
+        return lane;
+    }
+
+    /**
+     * Creates a pool of threads for work that is split up within a single stage (such as querying the chunks of a
+     * large input). The pool is shut down together with the lanes once the scheduler is finished.
+     * @param name the name of the pool
+     * @param threads the number of threads
+     * @return an {@link ExecutorService} with {@code threads} threads
+     */
+    public ExecutorService createPool(String name, int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, new StageThreadFactory("vibe-" + name));
+        executors.add(pool);
+        return pool;
+    }
+
+    /**
+     * Adds a stage which is not bound to a specific thread.
+     * @param name the name of the stage (used for reporting)
+     * @param task the work to be done
+     * @param dependencies the stages that should be finished before this stage can start
+     * @param <T> the type of the stage result
+     * @return the added {@link Stage} (can be used as a dependency of other stages)
+     */
+    public <T> Stage<T> addStage(String name, StageTask<T> task, Stage<?>... dependencies) {
+        return addStage(name, executor, task, dependencies);
+    }
+
+    /**
+     * Adds a stage which is run on a specific lane.
+     * @param name the name of the stage (used for reporting)
+     * @param lane the lane to run the stage on (see {@link #createLane(String)})
+     * @param task the work to be done
+     * @param dependencies the stages that should be finished before this stage can start
+     * @param <T> the type of the stage result
+     * @return the added {@link Stage} (can be used as a dependency of other stages)
+     */
+    public <T> Stage<T> addStage(String name, ExecutorService lane, StageTask<T> task, Stage<?>... dependencies) {
+        CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[dependencies.length];
+        for(int i = 0; i < dependencies.length; i++) {
+            dependencyFutures[i] = dependencies[i].future;
+        }
+
+        Stage<T> stage = new Stage<>(name);
+        stage.future = CompletableFuture.allOf(dependencyFutures).thenApplyAsync(ignored -> {
+            stage.stopwatch.start();
+            try {
+                return task.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                stage.stopwatch.stop();
+                log.accept("Elapsed time (" + name + "): " + stage.stopwatch);
+            }
+        }, lane);
+        stage.future.whenComplete((result, throwable) -> {
+            if(throwable != null) {
+                failure.completeExceptionally(throwable);
+            }
+        });
+
+        stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * Waits till all stages are finished (or till the first stage fails) and prints the total elapsed time afterwards
+     * (the elapsed time of each stage is printed as soon as that stage is finished). Can only be called once.
+     * @throws Exception the exception thrown by the first failing stage
+     */
+    public void run() throws Exception {
+        stopwatch.start();
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[stages.size()];
+            for(int i = 0; i < stages.size(); i++) {
+                futures[i] = stages.get(i).future;
+            }
+            CompletableFuture.anyOf(CompletableFuture.allOf(futures), failure).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if(cause instanceof Exception) {
+                throw (Exception) cause;
+            } else if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        } finally {
+            stopwatch.stop();
+            for(ExecutorService executorService : executors) {
+                executorService.shutdownNow();
+            }
+        }
+        log.accept("Total elapsed time: " + stopwatch);
+    }
+
+    /**
+     * A single stage within a {@link StageScheduler}.
+     * @param <T> the type of the stage result
+     */
+    public static class Stage<T> {
+        private String name;
+
+        private CompletableFuture<T> future;
+
+        /**
+         * The time spent on the stage itself (excluding the time waiting for other stages).
+         */
+        private Stopwatch stopwatch = Stopwatch.createUnstarted();
+
+        public String getName() {
+            return name;
+        }
+
+        public Stopwatch getStopwatch() {
+            return stopwatch;
+        }
+
+        private Stage(String name) {
+            this.name = requireNonNull(name);
+        }
+
+        /**
+         * Should only be used within stages that depend on this stage (as it blocks till this stage is finished).
+         * @return the result of this stage
+         */
+        public T get() {
+            return future.join();
+        }
+    }
+
+    /**
+     * The work done by a {@link Stage}.
+     * @param <T> the type of the stage result
+     */
+    @FunctionalInterface
+    public interface StageTask<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Creates daemon threads, so that a failing stage does not keep the application alive due to other stages still
+     * running.
+     */
+    private static class StageThreadFactory implements ThreadFactory {
+        private String prefix;
+        private AtomicInteger count = new AtomicInteger();
+
+        StageThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
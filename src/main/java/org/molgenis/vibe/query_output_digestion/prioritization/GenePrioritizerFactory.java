@@ -2,39 +2,103 @@ package org.molgenis.vibe.query_output_digestion.prioritization;
 
 import org.molgenis.vibe.formats.EnumTypeDefiner;
 import org.molgenis.vibe.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeDiseaseCollection;
+import org.molgenis.vibe.similarity.MicaIndex;
+import org.molgenis.vibe.similarity.PhenotypeSetSimilarity;
+import org.molgenis.vibe.similarity.SimilarityMeasure;
+
+import java.util.Collection;
+
+import static java.util.Objects.requireNonNull;
 
 public enum GenePrioritizerFactory implements EnumTypeDefiner{
     HIGHEST_DISGENET_SCORE("gda_max") {
         @Override
-        public GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection) {
+        public GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection, PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                      MicaIndex micaIndex, Collection<Phenotype> inputPhenotypes) {
              return new HighestSingleDisgenetScoreGenePrioritizer(geneDiseaseCollection);
         }
     },
     DISEASE_SPECIFICITY_INDEX("dsi") {
         @Override
-        public GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection) {
+        public GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection, PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                      MicaIndex micaIndex, Collection<Phenotype> inputPhenotypes) {
             return new DiseaseSpecificityIndexGenePrioritizer(geneDiseaseCollection.getGenes());
         }
     },
     DISEASE_PLEIOTROPY_INDEX("dpi") {
         @Override
-        public GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection) {
+        public GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection, PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                      MicaIndex micaIndex, Collection<Phenotype> inputPhenotypes) {
             return new DiseasePleiotropyIndexGenePrioritizer(geneDiseaseCollection.getGenes());
         }
+    },
+    RESNIK_SIMILARITY("resnik", SimilarityMeasure.RESNIK) {
+        @Override
+        public GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection, PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                      MicaIndex micaIndex, Collection<Phenotype> inputPhenotypes) {
+            return createSemanticSimilarity(geneDiseaseCollection, phenotypeDiseaseCollection, micaIndex, inputPhenotypes);
+        }
+    },
+    LIN_SIMILARITY("lin", SimilarityMeasure.LIN) {
+        @Override
+        public GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection, PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                      MicaIndex micaIndex, Collection<Phenotype> inputPhenotypes) {
+            return createSemanticSimilarity(geneDiseaseCollection, phenotypeDiseaseCollection, micaIndex, inputPhenotypes);
+        }
     };
 
     private String id;
 
+    /**
+     * The {@link SimilarityMeasure} used for ordering (or {@code null} if semantic similarity is not used).
+     */
+    private SimilarityMeasure similarityMeasure;
+
     @Override
     public String getId() {
         return id;
     }
 
     GenePrioritizerFactory(String id) {
+        this(id, null);
+    }
+
+    GenePrioritizerFactory(String id, SimilarityMeasure similarityMeasure) {
         this.id = id;
+        this.similarityMeasure = similarityMeasure;
     }
 
-    public abstract GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection);
+    /**
+     * @return whether the {@link PhenotypeDiseaseCollection} and {@link MicaIndex} are required by
+     * {@link #create(GeneDiseaseCollection, PhenotypeDiseaseCollection, MicaIndex, Collection)}
+     */
+    public boolean usesSemanticSimilarity() {
+        return similarityMeasure != null;
+    }
+
+    /**
+     * @param geneDiseaseCollection the {@link GeneDiseaseCollection} to be ordered
+     * @param phenotypeDiseaseCollection the {@link Phenotype}{@code s} annotated to the diseases of {@code geneDiseaseCollection}
+     *                                   (only required if {@link #usesSemanticSimilarity()}, otherwise may be {@code null})
+     * @param micaIndex the {@link MicaIndex} of the phenotype ontology (only required if {@link #usesSemanticSimilarity()},
+     *                  otherwise may be {@code null})
+     * @param inputPhenotypes the {@link Phenotype}{@code s} the diseases are compared with
+     * @return a {@link GenePrioritizer}
+     */
+    public abstract GenePrioritizer create(GeneDiseaseCollection geneDiseaseCollection, PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                           MicaIndex micaIndex, Collection<Phenotype> inputPhenotypes);
+
+    /**
+     * @return a {@link SemanticSimilarityGenePrioritizer} using the {@link #similarityMeasure}
+     * @see #create(GeneDiseaseCollection, PhenotypeDiseaseCollection, MicaIndex, Collection)
+     */
+    GenePrioritizer createSemanticSimilarity(GeneDiseaseCollection geneDiseaseCollection, PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                             MicaIndex micaIndex, Collection<Phenotype> inputPhenotypes) {
+        return new SemanticSimilarityGenePrioritizer(geneDiseaseCollection, requireNonNull(phenotypeDiseaseCollection),
+                new PhenotypeSetSimilarity(requireNonNull(micaIndex), similarityMeasure), inputPhenotypes);
+    }
 
     public static GenePrioritizerFactory retrieve(String name) {
         return EnumTypeDefiner.retrieve(name, GenePrioritizerFactory.class);
@@ -0,0 +1,109 @@
+package org.molgenis.vibe.query_output_digestion.prioritization;
+
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.similarity.PhenotypeSetSimilarity;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Generates a priority order for the {@link Gene}{@code s} of a {@link GeneDiseaseCollection}. The priority order is
+ * based on the highest semantic similarity (see {@link PhenotypeSetSimilarity}) between the input {@link Phenotype}{@code s}
+ * and the {@link Phenotype}{@code s} annotated to a {@link Disease} of the {@link Gene}. Ties are ordered by the highest
+ * {@link GeneDiseaseCombination#getDisgenetScore()}.
+ */
+public class SemanticSimilarityGenePrioritizer extends GenePrioritizer {
+    private GeneDiseaseCollection geneDiseaseCollection;
+
+    /**
+     * The {@link Phenotype}{@code s} annotated per {@link Disease}.
+     */
+    private PhenotypeDiseaseCollection phenotypeDiseaseCollection;
+
+    private PhenotypeSetSimilarity similarity;
+
+    /**
+     * The {@link Phenotype}{@code s} the {@link Disease}{@code s} are compared to.
+     */
+    private Collection<Phenotype> inputPhenotypes;
+
+    /**
+     * The similarity per {@link Disease} (filled by {@link #run()}).
+     */
+    private Map<Disease, Double> diseaseScores = new HashMap<>();
+
+    /**
+     * The highest similarity per {@link Gene} (filled by {@link #run()}).
+     */
+    private Map<Gene, Double> geneScores = new HashMap<>();
+
+    /**
+     * @param geneDiseaseCollection the {@link Gene}{@code s} to be ordered with their {@link Disease}{@code s}
+     * @param phenotypeDiseaseCollection the {@link Phenotype}{@code s} annotated to the {@link Disease}{@code s} (a
+     *                                   {@link Disease} without any has a similarity of {@code 0})
+     * @param similarity the {@link PhenotypeSetSimilarity} to compare the {@link Phenotype}{@code s} with
+     * @param inputPhenotypes the {@link Phenotype}{@code s} to compare each {@link Disease} with
+     */
+    public SemanticSimilarityGenePrioritizer(GeneDiseaseCollection geneDiseaseCollection, PhenotypeDiseaseCollection phenotypeDiseaseCollection,
+                                             PhenotypeSetSimilarity similarity, Collection<Phenotype> inputPhenotypes) {
+        super(geneDiseaseCollection.getGenes());
+        this.geneDiseaseCollection = requireNonNull(geneDiseaseCollection);
+        this.phenotypeDiseaseCollection = requireNonNull(phenotypeDiseaseCollection);
+        this.similarity = requireNonNull(similarity);
+        this.inputPhenotypes = requireNonNull(inputPhenotypes);
+    }
+
+    /**
+     * Requires {@link #run()} to be run first!
+     * @param gene a {@link Gene}
+     * @return the highest similarity of the {@link Disease}{@code s} of {@code gene}, or {@code null} if not present
+     */
+    public Double getScore(Gene gene) {
+        return geneScores.get(gene);
+    }
+
+    /**
+     * Requires {@link #run()} to be run first!
+     * @param disease a {@link Disease}
+     * @return the similarity of {@code disease}, or {@code null} if not present
+     */
+    public Double getScore(Disease disease) {
+        return diseaseScores.get(disease);
+    }
+
+    @Override
+    public void run() {
+        int[] query = similarity.toClasses(inputPhenotypes);
+
+        // Each disease is compared once (a disease can belong to multiple genes).
+        for(Disease disease : geneDiseaseCollection.getDiseases()) {
+            double score = 0;
+            if(phenotypeDiseaseCollection.getDiseases().contains(disease)) {
+                List<Phenotype> diseasePhenotypes = new ArrayList<>();
+                for(PhenotypeDiseaseCombination combination : phenotypeDiseaseCollection.getByDisease(disease)) {
+                    diseasePhenotypes.add(combination.getPhenotype());
+                }
+                score = similarity.calculate(query, similarity.toClasses(diseasePhenotypes));
+            }
+            diseaseScores.put(disease, score);
+        }
+
+        List<Gene> genes = getPriority();
+        Map<Gene, Double> highestDisgenetScores = new HashMap<>();
+        for(Gene gene : genes) {
+            double scoreForGene = 0;
+            double disgenetScoreForGene = 0;
+            for(GeneDiseaseCombination combination : geneDiseaseCollection.getByGene(gene)) {
+                scoreForGene = Math.max(scoreForGene, diseaseScores.get(combination.getDisease()));
+                disgenetScoreForGene = Math.max(disgenetScoreForGene, combination.getDisgenetScore());
+            }
+            geneScores.put(gene, scoreForGene);
+            highestDisgenetScores.put(gene, disgenetScoreForGene);
+        }
+
+        genes.sort(Comparator.comparingDouble((Gene gene) -> geneScores.get(gene))
+                .thenComparingDouble(highestDisgenetScores::get).reversed());
+        setPriority(genes);
+    }
+}
@@ -0,0 +1,59 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetAssociationType;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator;
+import org.molgenis.vibe.rdf_processing.querying.QueryRunner;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Retrieves a {@link DisgenetAssociationType} and all its (indirect) subclasses from the DisGeNET database. These do
+ * not depend on the input, so they can be retrieved once and be supplied to the {@link GenesForPhenotypeRetriever}
+ * (which then only checks whether a gene-disease association has one of these types).
+ */
+public class AssociationTypesRetriever extends DisgenetRdfDataRetriever {
+    /**
+     * The association type for which the subclasses are retrieved.
+     */
+    private DisgenetAssociationType root;
+
+    /**
+     * The root and all its subclasses.
+     */
+    private Set<URI> associationTypes = new HashSet<>();
+
+    /**
+     * Requires {@link #run()} to be run first!
+     * @return the URIs of the root and all its subclasses (unmodifiable)
+     */
+    public Set<URI> getAssociationTypes() {
+        return Collections.unmodifiableSet(associationTypes);
+    }
+
+    /**
+     * @param modelReader the {@link ModelReader} to retrieve the data from
+     * @param root the association type for which the subclasses are retrieved
+     */
+    public AssociationTypesRetriever(ModelReader modelReader, DisgenetAssociationType root) {
+        super(modelReader);
+        this.root = requireNonNull(root);
+    }
+
+    @Override
+    public void run() {
+        QueryRunner query = new QueryRunner(getModelReader().getModel(),
+                DisgenetQueryStringGenerator.getAssociationTypes(root));
+
+        while(query.hasNext()) {
+            associationTypes.add(URI.create(query.next().get("type").asResource().getURI()));
+        }
+
+        query.close();
+    }
+}
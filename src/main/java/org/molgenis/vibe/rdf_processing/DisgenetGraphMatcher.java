@@ -0,0 +1,313 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.vocabulary.RDF;
+import org.molgenis.vibe.formats.*;
+
+import java.net.URI;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Answers the queries used by the {@link GenesForPhenotypeRetriever} (see
+ * {@link org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator#getGenesForPhenotypes(Set, Collection)}
+ * and {@link org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator#getGdasWithDiseasesForGenes(Set, Collection)})
+ * directly on a {@link Graph}. Each triple pattern is a {@link Graph#find(Node, Node, Node)} lookup from an already
+ * bound node, and the intermediate results are joined through hash sets/maps, so no SPARQL is parsed or evaluated and
+ * no {@link org.apache.jena.query.QuerySolution}{@code s} are created.
+ *
+ * The results are equal to those of the SPARQL queries. This includes the number of query results per gene-disease
+ * combination, as each result adds its source to the {@link GeneDiseaseCombination} (see
+ * {@link GeneDiseaseCombination#getCountForSource(Source)}).
+ *
+ * Gene-disease associations are only used if they have one of the given association types (see
+ * {@link AssociationTypesRetriever}). The {@link Graph} is only read, so it can be used by multiple threads concurrently
+ * (each within its own read transaction when using a TDB).
+ */
+public class DisgenetGraphMatcher {
+    private static final String SIO = "http://semanticscience.org/resource/";
+    private static final String NCIT = "http://ncicb.nci.nih.gov/xml/owl/EVS/Thesaurus.owl#";
+    private static final String DCTERMS = "http://purl.org/dc/terms/";
+
+    private static final Node TYPE = RDF.Nodes.type;
+    private static final Node EXACT_MATCH = NodeFactory.createURI("http://www.w3.org/2004/02/skos/core#exactMatch");
+    private static final Node IDENTIFIER = NodeFactory.createURI(DCTERMS + "identifier");
+    private static final Node TITLE = NodeFactory.createURI(DCTERMS + "title");
+
+    private static final Node REFERS_TO = NodeFactory.createURI(SIO + "SIO_000628");
+    private static final Node HAS_ATTRIBUTE = NodeFactory.createURI(SIO + "SIO_000216");
+    private static final Node HAS_VALUE = NodeFactory.createURI(SIO + "SIO_000300");
+    private static final Node HAS_SOURCE = NodeFactory.createURI(SIO + "SIO_000253");
+    private static final Node HAS_SYMBOL = NodeFactory.createURI(SIO + "SIO_000205");
+    private static final Node HAS_EVIDENCE = NodeFactory.createURI(SIO + "SIO_000772");
+
+    private static final Node PHENOTYPE = NodeFactory.createURI(SIO + "SIO_010056");
+    private static final Node PHENOTYPE_DISEASE_ASSOCIATION = NodeFactory.createURI(SIO + "SIO_000897");
+    private static final Node DISEASE_SPECIFICITY_INDEX = NodeFactory.createURI(SIO + "SIO_001351");
+    private static final Node DISEASE_PLEIOTROPY_INDEX = NodeFactory.createURI(SIO + "SIO_001352");
+    private static final Node DISEASE = NodeFactory.createURI(NCIT + "C7057");
+    private static final Node GENE = NodeFactory.createURI(NCIT + "C16612");
+    private static final Node GENE_SYMBOL = NodeFactory.createURI(NCIT + "C43568");
+    private static final Node SCORE = NodeFactory.createURI(NCIT + "C25338");
+
+    private Graph graph;
+
+    /**
+     * The gene-disease association types to be used.
+     */
+    private Set<Node> associationTypes = new HashSet<>();
+
+    /**
+     * @param graph the {@link Graph} containing the DisGeNET dataset
+     * @param associationTypes the URIs of the gene-disease association types to be used
+     */
+    public DisgenetGraphMatcher(Graph graph, Collection<URI> associationTypes) {
+        this.graph = requireNonNull(graph);
+        for(URI associationType : associationTypes) {
+            this.associationTypes.add(NodeFactory.createURI(associationType.toString()));
+        }
+    }
+
+    /**
+     * Equal to {@link org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator#getGenesForPhenotypes(Set, Collection)}.
+     * @param phenotypes the {@link Phenotype}{@code s} to retrieve the genes for
+     * @return the {@link Gene}{@code s} (registered through the {@link BiologicalEntityRegistry})
+     */
+    public Set<Gene> findGenes(Collection<Phenotype> phenotypes) {
+        // Phenotype -> disease (through skos:exactMatch or a phenotype-disease association).
+        Set<Node> diseases = new HashSet<>();
+        for(Phenotype phenotype : phenotypes) {
+            Node hpo = toNode(phenotype);
+            if(!graph.contains(hpo, TYPE, PHENOTYPE)) {
+                continue;
+            }
+            diseases.addAll(objects(hpo, EXACT_MATCH));
+            for(Node pda : subjects(REFERS_TO, hpo)) {
+                if(graph.contains(pda, TYPE, PHENOTYPE_DISEASE_ASSOCIATION)) {
+                    diseases.addAll(objects(pda, REFERS_TO));
+                }
+            }
+        }
+
+        // Disease -> gene-disease association -> gene.
+        Set<Node> gdas = new HashSet<>();
+        Set<Node> geneNodes = new LinkedHashSet<>();
+        for(Node disease : diseases) {
+            if(!graph.contains(disease, TYPE, DISEASE)) {
+                continue;
+            }
+            for(Node gda : subjects(REFERS_TO, disease)) {
+                if(gdas.add(gda) && countAssociationTypes(gda) > 0) {
+                    geneNodes.addAll(objects(gda, REFERS_TO));
+                }
+            }
+        }
+
+        Set<Gene> genes = new HashSet<>();
+        for(Node geneNode : geneNodes) {
+            Gene gene = toGene(geneNode);
+            if(gene != null) {
+                genes.add(gene);
+            }
+        }
+        return genes;
+    }
+
+    /**
+     * Equal to {@link org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator#getGdasWithDiseasesForGenes(Set, Collection)}.
+     * @param genes the {@link Gene}{@code s} to retrieve the gene-disease associations for (as registered through the
+     *              {@link BiologicalEntityRegistry})
+     * @param sources the {@link Source}{@code s} by {@link URI} (see {@link SourcesRetriever})
+     * @return the {@link GeneDiseaseCombination}{@code s} belonging to {@code genes}
+     */
+    public Collection<GeneDiseaseCombination> findGdasWithDiseases(Collection<Gene> genes, Map<URI, Source> sources) {
+        Map<GeneDiseaseCombination, GeneDiseaseCombination> gdcs = new LinkedHashMap<>();
+        Map<Node, DiseaseMatch> diseases = new HashMap<>();
+
+        for(Gene gene : genes) {
+            for(Node gda : subjects(REFERS_TO, toNode(gene))) {
+                int typeCount = countAssociationTypes(gda);
+                if(typeCount == 0) {
+                    continue;
+                }
+                List<Node> scores = new ArrayList<>();
+                for(Node score : objects(gda, HAS_ATTRIBUTE)) {
+                    if(graph.contains(score, TYPE, SCORE)) {
+                        scores.addAll(objects(score, HAS_VALUE));
+                    }
+                }
+                List<Node> gdaSources = objects(gda, HAS_SOURCE);
+                if(scores.isEmpty() || gdaSources.isEmpty()) {
+                    continue;
+                }
+                List<URI> evidence = new ArrayList<>();
+                for(Node evidenceNode : objects(gda, HAS_EVIDENCE)) {
+                    evidence.add(URI.create(evidenceNode.getURI()));
+                }
+
+                for(Node diseaseNode : objects(gda, REFERS_TO)) {
+                    DiseaseMatch disease = diseases.computeIfAbsent(diseaseNode, this::toDisease);
+                    if(disease.count == 0) {
+                        continue;
+                    }
+
+                    GeneDiseaseCombination comparisonGdc = new GeneDiseaseCombination(gene, disease.disease, toDouble(scores.get(0)));
+                    GeneDiseaseCombination gdc = gdcs.computeIfAbsent(comparisonGdc, key -> key);
+
+                    // Each combination of values results in a separate query result.
+                    int repeats = typeCount * scores.size() * disease.count;
+                    for(Node gdaSource : gdaSources) {
+                        Source source = toSource(gdaSource, sources);
+                        if(evidence.isEmpty()) {
+                            gdc.add(source, repeats);
+                        } else {
+                            gdc.add(source, evidence, repeats);
+                        }
+                    }
+                }
+            }
+        }
+        return gdcs.values();
+    }
+
+    /**
+     * @return the {@link Source} belonging to {@code sourceNode}
+     * @throws IllegalStateException if {@code sourceNode} is not one of {@code sources} (which might indicate a corrupt
+     * database, as {@link SourcesRetriever} should retrieve all sources available)
+     */
+    private Source toSource(Node sourceNode, Map<URI, Source> sources) {
+        Source source = sources.get(URI.create(sourceNode.getURI()));
+        if(source == null) {
+            throw new IllegalStateException("Unknown source for gene-disease association: " + sourceNode.getURI());
+        }
+        return source;
+    }
+
+    /**
+     * @return the number of types of {@code gda} that are a gene-disease association type
+     */
+    private int countAssociationTypes(Node gda) {
+        int count = 0;
+        for(Node type : objects(gda, TYPE)) {
+            if(associationTypes.contains(type)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the {@link Gene} (only created if it was not registered yet), or {@code null} if {@code geneNode} is not
+     * a gene with all required data
+     */
+    private Gene toGene(Node geneNode) {
+        if(!graph.contains(geneNode, TYPE, GENE)) {
+            return null;
+        }
+        Node id = firstObject(geneNode, IDENTIFIER);
+        Node title = firstObject(geneNode, TITLE);
+        Node symbolTitle = null;
+        for(Node symbol : objects(geneNode, HAS_SYMBOL)) {
+            if(graph.contains(symbol, TYPE, GENE_SYMBOL) && (symbolTitle = firstObject(symbol, TITLE)) != null) {
+                break;
+            }
+        }
+        Node dsiValue = findAttributeValue(geneNode, DISEASE_SPECIFICITY_INDEX);
+        Node dpiValue = findAttributeValue(geneNode, DISEASE_PLEIOTROPY_INDEX);
+        if(id == null || title == null || symbolTitle == null || dsiValue == null || dpiValue == null) {
+            return null;
+        }
+
+        String geneUri = geneNode.getURI();
+        Node finalSymbolTitle = symbolTitle;
+        return BiologicalEntityRegistry.getGeneByUri(geneUri, () -> new Gene(
+                id.getLiteralLexicalForm(),
+                title.getLiteralLexicalForm(),
+                finalSymbolTitle.getLiteralLexicalForm(),
+                toDouble(dsiValue),
+                toDouble(dpiValue),
+                URI.create(geneUri)));
+    }
+
+    /**
+     * @return the value of the first attribute of {@code subject} with type {@code type} (or {@code null} if none)
+     */
+    private Node findAttributeValue(Node subject, Node type) {
+        for(Node attribute : objects(subject, HAS_ATTRIBUTE)) {
+            if(graph.contains(attribute, TYPE, type)) {
+                Node value = firstObject(attribute, HAS_VALUE);
+                if(value != null) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the {@link Disease} (only created if it was not registered yet) with the number of identifier/title
+     * combinations (0 if {@code diseaseNode} is not a disease with all required data)
+     */
+    private DiseaseMatch toDisease(Node diseaseNode) {
+        if(!graph.contains(diseaseNode, TYPE, DISEASE)) {
+            return new DiseaseMatch(null, 0);
+        }
+        List<Node> ids = objects(diseaseNode, IDENTIFIER);
+        List<Node> titles = objects(diseaseNode, TITLE);
+        if(ids.isEmpty() || titles.isEmpty()) {
+            return new DiseaseMatch(null, 0);
+        }
+
+        String diseaseUri = diseaseNode.getURI();
+        Disease disease = BiologicalEntityRegistry.getDiseaseByUri(diseaseUri, () -> new Disease(
+                ids.get(0).getLiteralLexicalForm(),
+                titles.get(0).getLiteralLexicalForm(),
+                URI.create(diseaseUri)));
+        return new DiseaseMatch(disease, ids.size() * titles.size());
+    }
+
+    private List<Node> objects(Node subject, Node predicate) {
+        return graph.find(subject, predicate, Node.ANY).mapWith(Triple::getObject).toList();
+    }
+
+    private List<Node> subjects(Node predicate, Node object) {
+        return graph.find(Node.ANY, predicate, object).mapWith(Triple::getSubject).toList();
+    }
+
+    private Node firstObject(Node subject, Node predicate) {
+        List<Node> objects = objects(subject, predicate);
+        return objects.isEmpty() ? null : objects.get(0);
+    }
+
+    private static Node toNode(ResourceUri resource) {
+        return NodeFactory.createURI(resource.getUri().toString());
+    }
+
+    /**
+     * @return the value of a numeric literal (equal to {@link org.apache.jena.rdf.model.Literal#getDouble()})
+     */
+    private static double toDouble(Node literal) {
+        Object value = literal.getLiteralValue();
+        if(value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble(literal.getLiteralLexicalForm());
+    }
+
+    /**
+     * A disease with the number of query results it causes per gene-disease association.
+     */
+    private static class DiseaseMatch {
+        private final Disease disease;
+        private final int count;
+
+        DiseaseMatch(Disease disease, int count) {
+            this.disease = disease;
+            this.count = count;
+        }
+    }
+}
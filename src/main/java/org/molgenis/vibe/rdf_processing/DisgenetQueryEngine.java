@@ -0,0 +1,33 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.molgenis.vibe.formats.EnumTypeDefiner;
+
+/**
+ * The way the {@link GenesForPhenotypeRetriever} retrieves its data from the DisGeNET dataset.
+ */
+public enum DisgenetQueryEngine implements EnumTypeDefiner {
+    /**
+     * Runs the SPARQL queries of {@link org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator}.
+     */
+    SPARQL("sparql"),
+
+    /**
+     * Looks up the same data directly within the graph (see {@link DisgenetGraphMatcher}).
+     */
+    NATIVE("native");
+
+    private String id;
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    DisgenetQueryEngine(String id) {
+        this.id = id;
+    }
+
+    public static DisgenetQueryEngine retrieve(String id) {
+        return EnumTypeDefiner.retrieve(id, DisgenetQueryEngine.class);
+    }
+}
@@ -45,6 +45,15 @@ public abstract class DisgenetRdfDataRetriever {
         this.modelReader = requireNonNull(modelReader);
     }
 
+    /**
+     * @param modelReader the {@link ModelReader} to retrieve the data from
+     * @param sources the {@link Source}{@code s} that were already retrieved from the database (see {@link SourcesRetriever})
+     */
+    public DisgenetRdfDataRetriever(ModelReader modelReader, Map<URI, Source> sources) {
+        this.modelReader = requireNonNull(modelReader);
+        this.sources = requireNonNull(sources);
+    }
+
     public abstract void run() throws IOException;
 
     /**
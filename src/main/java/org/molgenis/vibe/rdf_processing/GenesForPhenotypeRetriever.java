@@ -5,14 +5,31 @@ import static java.util.Objects.requireNonNull;
 import org.apache.jena.query.QuerySolution;
 import org.molgenis.vibe.formats.*;
 import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetAssociationType;
 import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator;
+import org.molgenis.vibe.rdf_processing.querying.PreparedQuery;
 import org.molgenis.vibe.rdf_processing.querying.QueryRunner;
 
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 /**
  * Retrieves all required information for further processing regarding the genes belonging to a given phenotype.
+ *
+ * Large inputs can be split into chunks (see {@link #setChunkSize(int)}), each of which is queried separately. If the
+ * {@link ModelReader} supports concurrent reads (see {@link ModelReader#supportsConcurrentReads()}), the chunks can be
+ * queried concurrently on an {@link ExecutorService} provided by the caller (see {@link #setExecutor(ExecutorService)}),
+ * each within its own {@link ModelReader#read(java.util.function.Supplier)}.
+ * The results of the chunks are merged on the thread calling {@link #run()}.
+ *
+ * The data is retrieved through SPARQL by default, or directly from the graph (see {@link #setQueryEngine(DisgenetQueryEngine)}).
+ *
+ * Only gene-disease associations with one of the given association types are used (see
+ * {@link #setAssociationTypes(Set)}), so the association type hierarchy is not traversed per association.
  */
 public class GenesForPhenotypeRetriever extends DisgenetRdfDataRetriever {
     /**
@@ -26,80 +43,284 @@ public class GenesForPhenotypeRetriever extends DisgenetRdfDataRetriever {
     private Set<Gene> genes = new HashSet<>();
 
     /**
-     * {@link Gene}{@code s} storage for easy retrieval.
+     * The final output to be retrieved for further usage after querying.
      */
-    private Map<URI, Gene> genesByUri = new HashMap<>();
+    private GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection();
 
     /**
-     * {@link Disease}{@code s} storage for easy retrieval.
+     * The maximum number of values within the VALUES block of a single query.
      */
-    private Map<URI, Disease> diseasesByUri = new HashMap<>();
+    private int chunkSize = Integer.MAX_VALUE;
 
     /**
-     * The final output to be retrieved for further usage after querying.
+     * Used for querying the chunks concurrently ({@code null} if they should be queried one after another).
      */
-    private GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection();
+    private ExecutorService executor;
+
+    /**
+     * The way the data is retrieved.
+     */
+    private DisgenetQueryEngine queryEngine = DisgenetQueryEngine.SPARQL;
+
+    /**
+     * The gene-disease association types to be used ({@code null} if these should be retrieved by {@link #run()}).
+     */
+    private Set<URI> associationTypes;
+
+    /**
+     * Parsed once by {@link #run()} and shared by all chunks.
+     */
+    private PreparedQuery genesForPhenotypes;
+
+    /**
+     * Parsed once by {@link #run()} and shared by all chunks.
+     */
+    private PreparedQuery gdasWithDiseasesForGenes;
+
+    /**
+     * Used instead of SPARQL if the {@link #queryEngine} is {@link DisgenetQueryEngine#NATIVE} (created by {@link #run()}).
+     */
+    private DisgenetGraphMatcher graphMatcher;
 
     public GeneDiseaseCollection getGeneDiseaseCollection() {
         return geneDiseaseCollection;
     }
 
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param chunkSize the maximum number of {@link Phenotype}{@code s} or {@link Gene}{@code s} per query (by default
+     *                  all are queried at once)
+     * @throws IllegalArgumentException if {@code chunkSize} is less than 1
+     */
+    public void setChunkSize(int chunkSize) {
+        if(chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size should be at least 1.");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the {@link ExecutorService} on which {@link #run()} queries the chunks. Only used if the {@link ModelReader}
+     * supports concurrent reads, otherwise the chunks are queried one after another. The executor is owned by the
+     * caller (it is not shut down by this retriever) and should not be the single-threaded lane {@link #run()} itself
+     * is called on, as the chunks would then never be started.
+     * @param executor the executor to query the chunks on ({@code null} to query them one after another, the default)
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public Set<URI> getAssociationTypes() {
+        return associationTypes;
+    }
+
+    /**
+     * If not set, {@link #run()} retrieves {@link DisgenetAssociationType#ROOT} and all its subclasses.
+     * @param associationTypes the URIs of the gene-disease association types to be used (see {@link AssociationTypesRetriever})
+     * @throws IllegalArgumentException if {@code associationTypes} is empty
+     */
+    public void setAssociationTypes(Set<URI> associationTypes) {
+        if(associationTypes.isEmpty()) {
+            throw new IllegalArgumentException("At least 1 association type is required.");
+        }
+        this.associationTypes = Collections.unmodifiableSet(new HashSet<>(associationTypes));
+    }
+
+    public DisgenetQueryEngine getQueryEngine() {
+        return queryEngine;
+    }
+
+    /**
+     * @param queryEngine the way the data is retrieved (both result in the same {@link GeneDiseaseCollection})
+     */
+    public void setQueryEngine(DisgenetQueryEngine queryEngine) {
+        this.queryEngine = requireNonNull(queryEngine);
+    }
+
     public GenesForPhenotypeRetriever(ModelReader modelReader, Set<Phenotype> phenotypes) {
         super(modelReader);
         this.phenotypes = requireNonNull(phenotypes);
     }
 
+    /**
+     * @param modelReader the {@link ModelReader} to retrieve the data from
+     * @param phenotypes the {@link Phenotype}{@code s} to retrieve the genes for
+     * @param sources the {@link Source}{@code s} that were already retrieved from the database (see {@link SourcesRetriever})
+     */
+    public GenesForPhenotypeRetriever(ModelReader modelReader, Set<Phenotype> phenotypes, Map<URI, Source> sources) {
+        super(modelReader, sources);
+        this.phenotypes = requireNonNull(phenotypes);
+    }
+
+    /**
+     * Extends a {@link GeneDiseaseCollection} of an earlier run with the results for additional {@link Phenotype}{@code s}
+     * (such as those added when continuing a {@link PhenotypeNetwork} expansion up to a larger distance). Only the
+     * {@link Gene}{@code s} that are not present in {@code geneDiseaseCollection} yet are queried for their
+     * gene-disease associations, which are added to {@code geneDiseaseCollection} itself. The result is the same as a
+     * single run for all {@link Phenotype}{@code s} together.
+     * @param modelReader the {@link ModelReader} to retrieve the data from
+     * @param phenotypes the {@link Phenotype}{@code s} that were not part of the earlier run
+     * @param sources the {@link Source}{@code s} that were already retrieved from the database (see {@link SourcesRetriever})
+     * @param geneDiseaseCollection the {@link GeneDiseaseCollection} of the earlier run
+     */
+    public GenesForPhenotypeRetriever(ModelReader modelReader, Set<Phenotype> phenotypes, Map<URI, Source> sources,
+                                      GeneDiseaseCollection geneDiseaseCollection) {
+        this(modelReader, phenotypes, sources);
+        this.geneDiseaseCollection = requireNonNull(geneDiseaseCollection);
+    }
+
     @Override
     public void run() {
-        retrieveSources();
+        if(getSources().isEmpty()) {
+            retrieveSources();
+        }
+        if(phenotypes.isEmpty()) {
+            return;
+        }
+        if(associationTypes == null) {
+            AssociationTypesRetriever associationTypesRetriever = new AssociationTypesRetriever(getModelReader(), DisgenetAssociationType.ROOT);
+            associationTypesRetriever.run();
+            setAssociationTypes(associationTypesRetriever.getAssociationTypes());
+        }
+        if(queryEngine == DisgenetQueryEngine.NATIVE) {
+            graphMatcher = new DisgenetGraphMatcher(getModelReader().getModel().getGraph(), associationTypes);
+        } else {
+            genesForPhenotypes = new PreparedQuery(
+                    DisgenetQueryStringGenerator.getGenesForPhenotypesTemplate(associationTypes), "hpo");
+            gdasWithDiseasesForGenes = new PreparedQuery(
+                    DisgenetQueryStringGenerator.getGdasWithDiseasesForGenesTemplate(associationTypes), "gene");
+        }
         retrieveGenes();
-        retrieveGdasWithDiseases();
+        // Genes from an earlier run already have all their gene-disease associations.
+        genes.removeAll(geneDiseaseCollection.getGenes());
+        if(!genes.isEmpty()) {
+            retrieveGdasWithDiseases();
+        }
     }
 
     private void retrieveGenes() {
-        QueryRunner query = new QueryRunner(getModelReader().getModel(),
-                DisgenetQueryStringGenerator.getGenesForPhenotypes(phenotypes));
+        Function<List<Phenotype>, Set<Gene>> query = graphMatcher != null ? graphMatcher::findGenes : this::retrieveGenes;
+        for(Set<Gene> chunkGenes : queryChunks(phenotypes, query)) {
+            genes.addAll(chunkGenes);
+        }
+    }
 
-        while(query.hasNext()) {
-            QuerySolution result = query.next();
+    private void retrieveGdasWithDiseases() {
+        // Each gene belongs to a single chunk, so the gene-disease combinations of different chunks never overlap.
+        Function<List<Gene>, Collection<GeneDiseaseCombination>> query = graphMatcher != null ?
+                chunk -> graphMatcher.findGdasWithDiseases(chunk, getSources()) : this::retrieveGdasWithDiseases;
+        for(Collection<GeneDiseaseCombination> chunkGdcs : queryChunks(genes, query)) {
+            for(GeneDiseaseCombination gdc : chunkGdcs) {
+                geneDiseaseCollection.add(gdc);
+            }
+        }
+    }
 
-            URI geneUri = URI.create(result.get("gene").asResource().getURI());
-            String geneId = result.get("geneId").asLiteral().getString();
-            String geneTitle= result.get("geneTitle").asLiteral().getString();
-            String geneSymbol = result.get("geneSymbolTitle").asLiteral().getString();
-            double diseaseSpecificityIndex = result.get("dsiValue").asLiteral().getDouble();
-            double diseasePleiotropyIndex = result.get("dpiValue").asLiteral().getDouble();
+    /**
+     * Splits {@code values} into chunks of at most {@link #getChunkSize()} items and runs {@code query} for each chunk.
+     * @param values the values to be split
+     * @param query the query to be run per chunk (should not change any state of this retriever)
+     * @param <T> the type of the values
+     * @param <R> the type of the result of a chunk
+     * @return the results in the order of the chunks
+     */
+    private <T, R> List<R> queryChunks(Collection<T> values, Function<List<T>, R> query) {
+        List<T> valuesList = new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for(int start = 0; start < valuesList.size(); ) {
+            int end = start + Math.min(chunkSize, valuesList.size() - start);
+            chunks.add(valuesList.subList(start, end));
+            start = end;
+        }
 
-            Gene gene = new Gene(geneId, geneTitle, geneSymbol, diseaseSpecificityIndex, diseasePleiotropyIndex, geneUri);
-            genes.add(gene);
-            genesByUri.put(geneUri, gene);
+        ModelReader reader = getModelReader();
+        List<R> results = new ArrayList<>();
+        if(executor == null || chunks.size() == 1 || !reader.supportsConcurrentReads()) {
+            for(List<T> chunk : chunks) {
+                results.add(reader.read(() -> query.apply(chunk)));
+            }
+            return results;
         }
 
-        query.close();
+        List<Future<R>> chunkResults = new ArrayList<>();
+        try {
+            for(List<T> chunk : chunks) {
+                chunkResults.add(executor.submit(() -> reader.read(() -> query.apply(chunk))));
+            }
+            for(Future<R> chunkResult : chunkResults) {
+                results.add(chunkResult.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while querying the DisGeNET data.", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            // Chunks that are still pending after a failure are not needed anymore (does not affect the executor itself).
+            for(Future<R> chunkResult : chunkResults) {
+                chunkResult.cancel(true);
+            }
+        }
+        return results;
     }
 
-    private void retrieveGdasWithDiseases() {
-        QueryRunner query = new QueryRunner(getModelReader().getModel(),
-                DisgenetQueryStringGenerator.getGdasWithDiseasesForGenes(genes));
+    /**
+     * @param phenotypes a chunk of {@link #phenotypes}
+     * @return the {@link Gene}{@code s} belonging to {@code phenotypes}
+     */
+    private Set<Gene> retrieveGenes(List<Phenotype> phenotypes) {
+        Set<Gene> chunkGenes = new HashSet<>();
+        QueryRunner query = new QueryRunner(getModelReader().getModel(), genesForPhenotypes, phenotypes);
 
         while(query.hasNext()) {
             QuerySolution result = query.next();
 
-            // Check if disease is already stored, and if not, stores it (using URI as key).
-            URI diseaseUri = URI.create(result.get("disease").asResource().getURI());
-            Disease disease = diseasesByUri.get(diseaseUri);
+            // Only creates the gene if it was not registered yet.
+            String geneUri = result.get("gene").asResource().getURI();
+            Gene gene = BiologicalEntityRegistry.getGeneByUri(geneUri, () -> new Gene(
+                    result.get("geneId").asLiteral().getString(),
+                    result.get("geneTitle").asLiteral().getString(),
+                    result.get("geneSymbolTitle").asLiteral().getString(),
+                    result.get("dsiValue").asLiteral().getDouble(),
+                    result.get("dpiValue").asLiteral().getDouble(),
+                    URI.create(geneUri)));
+            chunkGenes.add(gene);
+        }
 
-            if(disease == null) {
-                disease = new Disease(result.get("diseaseId").asLiteral().getString(),
-                        result.get("diseaseTitle").asLiteral().getString(),
-                        diseaseUri);
+        query.close();
+        return chunkGenes;
+    }
 
-                diseasesByUri.put(diseaseUri, disease);
-            }
+    /**
+     * @param genes a chunk of {@link #genes}
+     * @return the {@link GeneDiseaseCombination}{@code s} belonging to {@code genes}
+     */
+    private Collection<GeneDiseaseCombination> retrieveGdasWithDiseases(List<Gene> genes) {
+        Map<GeneDiseaseCombination, GeneDiseaseCombination> chunkGdcs = new LinkedHashMap<>();
+        QueryRunner query = new QueryRunner(getModelReader().getModel(), gdasWithDiseasesForGenes, genes);
 
-            // Retrieves gene.
-            URI geneUri = URI.create(result.get("gene").asResource().getURI());
-            Gene gene = genesByUri.get(geneUri);
+        while(query.hasNext()) {
+            QuerySolution result = query.next();
+
+            // Retrieves the disease (only created if it was not registered yet).
+            String diseaseUri = result.get("disease").asResource().getURI();
+            Disease disease = BiologicalEntityRegistry.getDiseaseByUri(diseaseUri, () -> new Disease(
+                    result.get("diseaseId").asLiteral().getString(),
+                    result.get("diseaseTitle").asLiteral().getString(),
+                    URI.create(diseaseUri)));
+
+            // Retrieves gene (registered by retrieveGenes()).
+            Gene gene = BiologicalEntityRegistry.findGeneByUri(result.get("gene").asResource().getURI());
 
             // Retrieves score belonging to the gene-disease combination.
             double score = result.get("gdaScoreNumber").asLiteral().getDouble();
@@ -107,14 +328,8 @@ public class GenesForPhenotypeRetriever extends DisgenetRdfDataRetriever {
             // The gene-disease combination belonging to the single query result.
             GeneDiseaseCombination comparisonGdc = new GeneDiseaseCombination(gene, disease, score);
 
-            // Retrieves it from the collection (if it already exists).
-            GeneDiseaseCombination gdc = geneDiseaseCollection.get(comparisonGdc);
-
-            // If the gene-disease combination is not present yet, uses the comparison gdc and also adds it to the collection.
-            if(gdc == null) {
-                gdc = comparisonGdc;
-                geneDiseaseCollection.add(gdc);
-            }
+            // Retrieves it from the chunk results (if it already exists), otherwise uses the comparison gdc.
+            GeneDiseaseCombination gdc = chunkGdcs.computeIfAbsent(comparisonGdc, key -> key);
 
             // Retrieves source belonging to match. If this causes an error, this might indicate a corrupt database (as
             // retrieveSources() should retrieve all possible sources available).
@@ -129,5 +344,6 @@ public class GenesForPhenotypeRetriever extends DisgenetRdfDataRetriever {
         }
 
         query.close();
+        return chunkGdcs.values();
     }
 }
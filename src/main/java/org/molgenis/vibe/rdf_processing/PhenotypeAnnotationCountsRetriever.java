@@ -0,0 +1,50 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.apache.jena.query.QuerySolution;
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator;
+import org.molgenis.vibe.rdf_processing.querying.QueryRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Retrieves for each HPO phenotype the number of diseases it is annotated with in the DisGeNET database. These counts do
+ * not depend on the input, so they only need to be retrieved once per database (and can be used for calculating the
+ * information content of each phenotype, see {@link org.molgenis.vibe.ontology_processing.InformationContent}).
+ */
+public class PhenotypeAnnotationCountsRetriever extends DisgenetRdfDataRetriever {
+    /**
+     * The number of annotated diseases per phenotype URI (phenotypes without any annotation are not present).
+     */
+    private Map<String, Integer> annotationCounts = new HashMap<>();
+
+    /**
+     * Requires {@link #run()} to be run first!
+     * @return the number of annotated diseases per phenotype URI
+     */
+    public Map<String, Integer> getAnnotationCounts() {
+        return annotationCounts;
+    }
+
+    public PhenotypeAnnotationCountsRetriever(ModelReader modelReader) {
+        super(modelReader);
+    }
+
+    @Override
+    public void run() {
+        QueryRunner query = new QueryRunner(getModelReader().getModel(),
+                DisgenetQueryStringGenerator.getPhenotypeDiseaseCounts());
+
+        while(query.hasNext()) {
+            QuerySolution result = query.next();
+            // An aggregation without any matches results in a single row without a phenotype.
+            if(result.get("hpo") == null) {
+                continue;
+            }
+            annotationCounts.put(result.get("hpo").asResource().getURI(), result.get("diseaseCount").asLiteral().getInt());
+        }
+
+        query.close();
+    }
+}
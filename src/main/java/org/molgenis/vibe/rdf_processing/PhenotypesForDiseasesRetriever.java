@@ -0,0 +1,63 @@
+package org.molgenis.vibe.rdf_processing;
+
+import static java.util.Objects.requireNonNull;
+
+import org.apache.jena.query.QuerySolution;
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator;
+import org.molgenis.vibe.rdf_processing.querying.PreparedQuery;
+import org.molgenis.vibe.rdf_processing.querying.QueryRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Retrieves the {@link Phenotype}{@code s} annotated to given {@link Disease}{@code s} (such as the
+ * {@link GeneDiseaseCollection#getDiseases()} of an earlier run), so that the diseases can be compared to the input
+ * {@link Phenotype}{@code s} (see {@link org.molgenis.vibe.similarity.PhenotypeSetSimilarity}).
+ */
+public class PhenotypesForDiseasesRetriever extends DisgenetRdfDataRetriever {
+    private static final PreparedQuery PHENOTYPES_FOR_DISEASES = new PreparedQuery(
+            DisgenetQueryStringGenerator.getPhenotypesForDiseasesTemplate(), "disease");
+
+    /**
+     * The {@link Disease}{@code s} to be processed (by URI).
+     */
+    private Map<String, Disease> diseases = new HashMap<>();
+
+    /**
+     * The final output to be retrieved for further usage after querying.
+     */
+    private PhenotypeDiseaseCollection phenotypeDiseaseCollection = new PhenotypeDiseaseCollection();
+
+    public PhenotypeDiseaseCollection getPhenotypeDiseaseCollection() {
+        return phenotypeDiseaseCollection;
+    }
+
+    public PhenotypesForDiseasesRetriever(ModelReader modelReader, Set<Disease> diseases) {
+        super(modelReader);
+        for(Disease disease : requireNonNull(diseases)) {
+            this.diseases.put(disease.getUri().toString(), disease);
+        }
+    }
+
+    @Override
+    public void run() {
+        if(diseases.isEmpty()) {
+            return;
+        }
+
+        QueryRunner query = new QueryRunner(getModelReader().getModel(), PHENOTYPES_FOR_DISEASES, diseases.values());
+
+        while(query.hasNext()) {
+            QuerySolution result = query.next();
+            Disease disease = diseases.get(result.get("disease").asResource().getURI());
+            Phenotype phenotype = BiologicalEntityRegistry.getPhenotypeByUri(result.get("hpo").asResource().getURI());
+            phenotypeDiseaseCollection.add(new PhenotypeDiseaseCombination(phenotype, disease));
+        }
+
+        query.close();
+    }
+}
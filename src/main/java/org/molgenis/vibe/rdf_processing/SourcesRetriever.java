@@ -0,0 +1,31 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.molgenis.vibe.formats.Source;
+import org.molgenis.vibe.io.ModelReader;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Retrieves all available {@link Source}{@code s} from the DisGeNET database. As these do not depend on the input, they
+ * can be retrieved independently of (and be supplied to) other {@link DisgenetRdfDataRetriever}{@code s}.
+ */
+public class SourcesRetriever extends DisgenetRdfDataRetriever {
+    public SourcesRetriever(ModelReader modelReader) {
+        super(modelReader);
+    }
+
+    @Override
+    public void run() {
+        retrieveSources();
+    }
+
+    /**
+     * Requires {@link #run()} to be run first!
+     * @return all available {@link Source}{@code s}
+     */
+    @Override
+    public Map<URI, Source> getSources() {
+        return super.getSources();
+    }
+}
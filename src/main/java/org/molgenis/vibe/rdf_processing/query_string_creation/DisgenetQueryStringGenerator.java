@@ -1,13 +1,17 @@
 package org.molgenis.vibe.rdf_processing.query_string_creation;
 
+import org.molgenis.vibe.formats.Disease;
 import org.molgenis.vibe.formats.Gene;
 import org.molgenis.vibe.formats.Phenotype;
 import org.molgenis.vibe.formats.ResourceUri;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Generates SPARQL queries specific for the DisGeNET RDF dataset.
  */
@@ -59,7 +63,7 @@ public final class DisgenetQueryStringGenerator extends QueryStringGenerator {
      * <p>Retrieves the genes belonging to certain HPO phenotypes.</p>
      *
      * <br />between [0] and [1]: the HPO terms (URIs) to filter on (see {@link #createValuesStringForUris(Set)}
-     * <br />between [1] and [2]: the gene-disease association type (see {@link DisgenetAssociationType})
+     * <br />between [1] and [2]: the gene-disease association types (see {@link #getAssociationTypes(DisgenetAssociationType)})
      */
     private static final String[] GENES_FOR_PHENOTYPES = {"SELECT DISTINCT ?gene ?geneId ?geneTitle ?geneSymbolTitle ?dsiValue ?dpiValue \n" +
             "WHERE { \n" +
@@ -76,7 +80,7 @@ public final class DisgenetQueryStringGenerator extends QueryStringGenerator {
             "?disease rdf:type ncit:C7057 . \n" +
             "?gda sio:SIO_000628 ?disease , ?gene ; \n" +
             "rdf:type ?type . \n" +
-            "?type rdfs:subClassOf* ", " . \n" + // [1] -> [2]
+            "VALUES ?type ", " \n" + // [1] -> [2]
             "?gene rdf:type ncit:C16612 ; \n" +
             "dcterms:identifier ?geneId ; \n" +
             "dcterms:title ?geneTitle ; \n" +
@@ -95,7 +99,7 @@ public final class DisgenetQueryStringGenerator extends QueryStringGenerator {
      * <p>Retrieves the genes belonging to certain HPO phenotypes.</p>
      *
      * <br />between [0] and [1]: the {@link Gene} URIs to filter on (see {@link #createValuesStringForUris(Set)}
-     * <br />between [1] and [2]: the gene-disease association type (see {@link DisgenetAssociationType})
+     * <br />between [1] and [2]: the gene-disease association types (see {@link #getAssociationTypes(DisgenetAssociationType)})
      */
     private static final String[] GDA_WITH_DISEASES_FOR_GENES = {"SELECT ?gene ?disease ?diseaseId ?diseaseTitle ?gdaScoreNumber ?gdaSource ?evidence \n" +
             "WHERE { \n" +
@@ -107,13 +111,73 @@ public final class DisgenetQueryStringGenerator extends QueryStringGenerator {
             "?disease rdf:type ncit:C7057 ; \n" +
             "dcterms:identifier ?diseaseId ; \n" +
             "dcterms:title ?diseaseTitle . \n" +
-            "?type rdfs:subClassOf* ", " . \n" + // [1] -> [2]
+            "VALUES ?type ", " \n" + // [1] -> [2]
             "?gdaScore rdf:type ncit:C25338 ; \n" +
             "sio:SIO_000300 ?gdaScoreNumber . \n" +
             "OPTIONAL { ?gda sio:SIO_000772 ?evidence } \n" +
             "}"
     };
 
+    /**
+     * <p>Retrieves a gene-disease association type and all its (indirect) subclasses. As the hierarchy of association
+     * types is small and static, it only needs to be retrieved once (after which the other queries only check whether an
+     * association has one of these types, instead of evaluating {@code rdfs:subClassOf*} per association).</p>
+     *
+     * <br />between [0] and [1]: the root association type (see {@link DisgenetAssociationType})
+     */
+    private static final String[] ASSOCIATION_TYPES = {"SELECT DISTINCT ?type \n" +
+            "WHERE { \n" +
+            "?type rdfs:subClassOf* ", " . \n" + // [0] -> [1]
+            "}"
+    };
+
+    /**
+     * <p>Retrieves per HPO phenotype the number of diseases it is linked to (the same links as used by
+     * {@link #GENES_FOR_PHENOTYPES}), which is used for calculating the information content of the phenotypes.</p>
+     */
+    private static final String PHENOTYPE_DISEASE_COUNTS = "SELECT ?hpo (COUNT(DISTINCT ?disease) AS ?diseaseCount) \n" +
+            "WHERE { \n" +
+            "?hpo rdf:type sio:SIO_010056 . \n" +
+            "{ \n" +
+            "?hpo skos:exactMatch ?disease . \n" +
+            "} \n" +
+            "UNION \n" +
+            "{ \n" +
+            "?pda rdf:type sio:SIO_000897 ; \n" +
+            "sio:SIO_000628 ?hpo , ?disease . \n" +
+            "} \n" +
+            "?disease rdf:type ncit:C7057 . \n" +
+            "} \n" +
+            "GROUP BY ?hpo";
+
+    /**
+     * <p>Retrieves the HPO phenotypes annotated to certain diseases (the same links as used by
+     * {@link #GENES_FOR_PHENOTYPES}), which are compared to the input phenotypes for semantic similarity.</p>
+     *
+     * <br />between [0] and [1]: the disease URIs to filter on (see {@link #createValuesStringForUris(Set)}
+     */
+    private static final String[] PHENOTYPES_FOR_DISEASES = {"SELECT DISTINCT ?disease ?hpo \n" +
+            "WHERE { \n" +
+            "VALUES ?disease ", " \n" + // [0] -> [1]
+            "?disease rdf:type ncit:C7057 . \n" +
+            "{ \n" +
+            "?hpo skos:exactMatch ?disease . \n" +
+            "} \n" +
+            "UNION \n" +
+            "{ \n" +
+            "?pda rdf:type sio:SIO_000897 ; \n" +
+            "sio:SIO_000628 ?hpo , ?disease . \n" +
+            "} \n" +
+            "?hpo rdf:type sio:SIO_010056 . \n" +
+            "}"
+    };
+
+    /**
+     * A VALUES block used by the templates (see {@link org.molgenis.vibe.rdf_processing.querying.PreparedQuery}). It
+     * contains 2 values so that the optimizer cannot substitute it into the query.
+     */
+    private static final String VALUES_PLACEHOLDER = "{ <urn:x-vibe:placeholder:1> <urn:x-vibe:placeholder:2> }";
+
     public static String getPrefixes() {
         return PREFIXES;
     }
@@ -122,14 +186,68 @@ public final class DisgenetQueryStringGenerator extends QueryStringGenerator {
         return new QueryString(PREFIXES + SOURCES);
     }
 
-    public static QueryString getGenesForPhenotypes(Set<Phenotype> phenotypes) {
+    public static QueryString getPhenotypeDiseaseCounts() {
+        return new QueryString(PREFIXES + PHENOTYPE_DISEASE_COUNTS);
+    }
+
+    /**
+     * @param root the root association type
+     * @return a query retrieving {@code root} and all its subclasses (as {@code ?type})
+     */
+    public static QueryString getAssociationTypes(DisgenetAssociationType root) {
+        return new QueryString(PREFIXES + ASSOCIATION_TYPES[0] + root.getFormattedId() + ASSOCIATION_TYPES[1]);
+    }
+
+    /**
+     * @param associationTypes the gene-disease association types to be used (see {@link #getAssociationTypes(DisgenetAssociationType)})
+     * @return {@link #getGenesForPhenotypes(Set, Collection)} with a placeholder VALUES block for {@code ?hpo} (see
+     * {@link org.molgenis.vibe.rdf_processing.querying.PreparedQuery})
+     */
+    public static QueryString getGenesForPhenotypesTemplate(Collection<URI> associationTypes) {
+        return new QueryString(PREFIXES + GENES_FOR_PHENOTYPES[0] + VALUES_PLACEHOLDER + GENES_FOR_PHENOTYPES[1] +
+        createValuesString(associationTypes) + GENES_FOR_PHENOTYPES[2]);
+    }
+
+    /**
+     * @param associationTypes the gene-disease association types to be used (see {@link #getAssociationTypes(DisgenetAssociationType)})
+     * @return {@link #getGdasWithDiseasesForGenes(Set, Collection)} with a placeholder VALUES block for {@code ?gene}
+     * (see {@link org.molgenis.vibe.rdf_processing.querying.PreparedQuery})
+     */
+    public static QueryString getGdasWithDiseasesForGenesTemplate(Collection<URI> associationTypes) {
+        return new QueryString(PREFIXES + GDA_WITH_DISEASES_FOR_GENES[0] + VALUES_PLACEHOLDER + GDA_WITH_DISEASES_FOR_GENES[1] +
+        createValuesString(associationTypes) + GDA_WITH_DISEASES_FOR_GENES[2]);
+    }
+
+    /**
+     * @return {@link #getPhenotypesForDiseases(Set)} with a placeholder VALUES block for {@code ?disease} (see
+     * {@link org.molgenis.vibe.rdf_processing.querying.PreparedQuery})
+     */
+    public static QueryString getPhenotypesForDiseasesTemplate() {
+        return new QueryString(PREFIXES + PHENOTYPES_FOR_DISEASES[0] + VALUES_PLACEHOLDER + PHENOTYPES_FOR_DISEASES[1]);
+    }
+
+    /**
+     * @param phenotypes the phenotypes to retrieve the genes for
+     * @param associationTypes the gene-disease association types to be used (see {@link #getAssociationTypes(DisgenetAssociationType)})
+     * @return the query
+     */
+    public static QueryString getGenesForPhenotypes(Set<Phenotype> phenotypes, Collection<URI> associationTypes) {
         return new QueryString(PREFIXES + GENES_FOR_PHENOTYPES[0] + createValuesStringForUris(phenotypes) + GENES_FOR_PHENOTYPES[1] +
-        DisgenetAssociationType.GENE_DISEASE.getFormattedId() + GENES_FOR_PHENOTYPES[2]);
+        createValuesString(associationTypes) + GENES_FOR_PHENOTYPES[2]);
     }
 
-    public static QueryString getGdasWithDiseasesForGenes(Set<Gene> genes) {
+    /**
+     * @param genes the genes to retrieve the gene-disease associations for
+     * @param associationTypes the gene-disease association types to be used (see {@link #getAssociationTypes(DisgenetAssociationType)})
+     * @return the query
+     */
+    public static QueryString getGdasWithDiseasesForGenes(Set<Gene> genes, Collection<URI> associationTypes) {
         return new QueryString(PREFIXES + GDA_WITH_DISEASES_FOR_GENES[0] + createValuesStringForUris(genes) + GDA_WITH_DISEASES_FOR_GENES[1] +
-        DisgenetAssociationType.GENE_DISEASE.getFormattedId() + GDA_WITH_DISEASES_FOR_GENES[2]);
+        createValuesString(associationTypes) + GDA_WITH_DISEASES_FOR_GENES[2]);
+    }
+
+    public static QueryString getPhenotypesForDiseases(Set<Disease> diseases) {
+        return new QueryString(PREFIXES + PHENOTYPES_FOR_DISEASES[0] + createValuesStringForUris(diseases) + PHENOTYPES_FOR_DISEASES[1]);
     }
 
     /**
@@ -155,4 +273,20 @@ public final class DisgenetQueryStringGenerator extends QueryStringGenerator {
         }
         return strBuilder.append("> }").toString();
     }
+
+    /**
+     * Generates query-compatible {@link String} to be used as VALUES containing 1 or more {@link URI}{@code s}.
+     * @param uris the {@link URI}{@code s} to be used
+     * @return a SPARQL VALUES usable {@link String}
+     */
+    private static String createValuesString(Collection<URI> uris) {
+        if(uris.isEmpty()) {
+            throw new IllegalArgumentException("Collection should at least contain 1 item.");
+        }
+        StringBuilder strBuilder = new StringBuilder("{");
+        for(URI uri : uris) {
+            strBuilder.append(" <").append(requireNonNull(uri)).append(">");
+        }
+        return strBuilder.append(" }").toString();
+    }
 }
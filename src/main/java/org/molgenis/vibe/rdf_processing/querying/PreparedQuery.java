@@ -0,0 +1,123 @@
+package org.molgenis.vibe.rdf_processing.querying;
+
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.algebra.*;
+import org.apache.jena.sparql.algebra.op.OpTable;
+import org.apache.jena.sparql.algebra.table.TableN;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.util.Context;
+import org.molgenis.vibe.formats.ResourceUri;
+import org.molgenis.vibe.rdf_processing.query_string_creation.QueryString;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A SPARQL query with a single VALUES block of which the values are given per execution. The query is parsed, compiled
+ * into an algebra expression and optimized only once. Each execution replaces the table of the VALUES block within the
+ * optimized algebra expression (see {@link #bind(Collection)}), so no query {@link String} is generated or parsed and
+ * the query is not optimized again (see {@link QueryRunner#QueryRunner(org.apache.jena.rdf.model.Model, PreparedQuery, Collection)}).
+ *
+ * Immutable after construction, so can be used by multiple threads concurrently.
+ */
+public class PreparedQuery {
+    /**
+     * The context to be used when executing the algebra expression (as it is already optimized).
+     */
+    private static final Context EXECUTION_CONTEXT;
+
+    static {
+        EXECUTION_CONTEXT = ARQ.getContext().copy();
+        EXECUTION_CONTEXT.set(ARQ.optimization, false);
+    }
+
+    /**
+     * The optimized algebra expression.
+     */
+    private Op op;
+
+    /**
+     * The VALUES block within {@link #op} that is replaced per execution.
+     */
+    private OpTable placeholder;
+
+    /**
+     * The variable of the VALUES block.
+     */
+    private Var valuesVariable;
+
+    /**
+     * The variables that are returned.
+     */
+    private List<String> resultVars;
+
+    /**
+     * @param queryString a query containing a single VALUES block with {@code valuesVariable} as only variable (it should
+     *                    contain more than 1 value, so that the optimizer cannot substitute it into the query)
+     * @param valuesVariable the name of the variable for which values are given per execution (without {@code ?})
+     * @throws org.apache.jena.query.QueryException if {@code queryString} is not a valid query
+     * @throws IllegalArgumentException if {@code queryString} does not contain a VALUES block for {@code valuesVariable}
+     */
+    public PreparedQuery(QueryString queryString, String valuesVariable) {
+        Query query = QueryFactory.create(queryString.getQuery(), queryString.getSyntax());
+        this.resultVars = Collections.unmodifiableList(query.getResultVars());
+        this.valuesVariable = Var.alloc(requireNonNull(valuesVariable));
+        this.op = Algebra.optimize(Algebra.compile(query));
+
+        OpWalker.walk(op, new OpVisitorBase() {
+            @Override
+            public void visit(OpTable opTable) {
+                if(opTable.getTable().getVars().equals(Collections.singletonList(PreparedQuery.this.valuesVariable))) {
+                    if(placeholder != null) {
+                        throw new IllegalArgumentException("Multiple VALUES blocks found for ?" + valuesVariable + ".");
+                    }
+                    placeholder = opTable;
+                }
+            }
+        });
+        if(placeholder == null) {
+            throw new IllegalArgumentException("No VALUES block found for ?" + valuesVariable + ".");
+        }
+    }
+
+    public List<String> getResultVars() {
+        return resultVars;
+    }
+
+    static Context getExecutionContext() {
+        return EXECUTION_CONTEXT;
+    }
+
+    /**
+     * @param values the values for the VALUES block
+     * @return the optimized algebra expression containing {@code values}
+     * @throws IllegalArgumentException if {@code values} is empty or contains an item without {@link java.net.URI}
+     */
+    public Op bind(Collection<? extends ResourceUri> values) {
+        if(values.isEmpty()) {
+            throw new IllegalArgumentException("Collection should at least contain 1 item.");
+        }
+        TableN table = new TableN(Collections.singletonList(valuesVariable));
+        for(ResourceUri value : values) {
+            if(value.getUri() == null) {
+                throw new IllegalArgumentException("Not all Objects have a valid URI (an uri was null).");
+            }
+            table.addBinding(BindingFactory.binding(valuesVariable, NodeFactory.createURI(value.getUri().toString())));
+        }
+
+        OpTable replacement = OpTable.create(table);
+        return Transformer.transform(new TransformCopy() {
+            @Override
+            public Op transform(OpTable opTable) {
+                return opTable == placeholder ? replacement : opTable;
+            }
+        }, op);
+    }
+}
@@ -3,8 +3,20 @@ package org.molgenis.vibe.rdf_processing.querying;
 import org.apache.jena.atlas.lib.Closeable;
 import org.apache.jena.query.*;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.engine.Plan;
+import org.apache.jena.sparql.engine.QueryEngineFactory;
+import org.apache.jena.sparql.engine.QueryEngineRegistry;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.ResultSetStream;
+import org.apache.jena.sparql.engine.binding.BindingRoot;
+import org.apache.jena.sparql.util.Context;
+import org.molgenis.vibe.formats.ResourceUri;
 import org.molgenis.vibe.rdf_processing.query_string_creation.QueryString;
 
+import java.util.Collection;
 import java.util.Iterator;
 
 /**
@@ -12,10 +24,15 @@ import java.util.Iterator;
  */
 public class QueryRunner implements Closeable, Iterator {
     /**
-     * Object storing the query and model for query execution.
+     * Object storing the query and model for query execution (or {@code null} if a {@link PreparedQuery} is used).
      */
     private QueryExecution qexec;
 
+    /**
+     * The iterator over the algebra execution (or {@code null} if a {@link QueryString} is used).
+     */
+    private QueryIterator queryIterator;
+
     /**
      * Object for iterating over the query output (usually querying is done during the actual iteration over the results).
      */
@@ -27,6 +44,23 @@ public class QueryRunner implements Closeable, Iterator {
         results = qexec.execSelect();
     }
 
+    /**
+     * Runs a {@link PreparedQuery} without parsing or optimizing it again.
+     * @param model the {@link Model} to run the query on
+     * @param query the {@link PreparedQuery} to be run
+     * @param values the values for the VALUES block of the {@code query}
+     * @see PreparedQuery#bind(Collection)
+     */
+    public QueryRunner(Model model, PreparedQuery query, Collection<? extends ResourceUri> values) {
+        Op op = query.bind(values);
+        DatasetGraph dataset = DatasetGraphFactory.createOneGraph(model.getGraph());
+        Context context = Context.setupContext(PreparedQuery.getExecutionContext(), dataset);
+        QueryEngineFactory factory = QueryEngineRegistry.findFactory(op, dataset, context);
+        Plan plan = factory.create(op, dataset, BindingRoot.create(), context);
+        queryIterator = plan.iterator();
+        results = new ResultSetStream(query.getResultVars(), model, queryIterator);
+    }
+
     /**
      * Retrieve the output from the {@link Model} based on the given {@code queryString}. Note that depending on the
      * underlying implementation, the actual running of the query is done while retrieving the actual results.
@@ -49,6 +83,10 @@ public class QueryRunner implements Closeable, Iterator {
 
     @Override
     public void close() {
-        qexec.close();
+        if(qexec != null) {
+            qexec.close();
+        } else {
+            queryIterator.close();
+        }
     }
 }
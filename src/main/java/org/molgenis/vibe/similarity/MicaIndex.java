@@ -0,0 +1,161 @@
+package org.molgenis.vibe.similarity;
+
+import org.molgenis.vibe.ontology_processing.InformationContent;
+import org.molgenis.vibe.ontology_processing.OntologyIndex;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Finds the most informative common ancestor (MICA) of 2 classes within an {@link OntologyIndex}: the common ancestor
+ * (a class itself included) with the highest {@link InformationContent}.
+ *
+ * All classes are ranked by descending {@link InformationContent} (on a tie by ascending index). Per class, the ranks of
+ * its ancestors are stored as a sorted {@code int} array, so that the first rank 2 classes have in common is their MICA.
+ * This only requires a merge of 2 short arrays (no sets are created), so many pairs can be compared per millisecond.
+ * Ancestors are only followed through classes that are not skippable (see {@link OntologyIndex#isSkippable(int)}).
+ *
+ * Immutable after construction, so can be used by multiple threads concurrently.
+ */
+public class MicaIndex {
+    private InformationContent informationContent;
+
+    /**
+     * The class per rank.
+     */
+    private int[] classes;
+
+    /**
+     * The IC per rank.
+     */
+    private double[] rankInformationContent;
+
+    /**
+     * The position within {@link #ancestorRanks} where the ancestors of a class start (the ancestors of class {@code i}
+     * are stored from {@code ancestorOffsets[i]} up to (but excluding) {@code ancestorOffsets[i + 1]}).
+     */
+    private int[] ancestorOffsets;
+
+    /**
+     * The ranks of the ancestors per class, in ascending order.
+     */
+    private int[] ancestorRanks;
+
+    /**
+     * @param informationContent the {@link InformationContent} of the classes
+     */
+    public MicaIndex(InformationContent informationContent) {
+        this.informationContent = requireNonNull(informationContent);
+        OntologyIndex index = informationContent.getIndex();
+        int size = index.size();
+
+        classes = IntStream.range(0, size).boxed()
+                .sorted(Comparator.comparingDouble((Integer node) -> -informationContent.get(node)).thenComparingInt(node -> node))
+                .mapToInt(Integer::intValue).toArray();
+        int[] ranks = new int[size];
+        rankInformationContent = new double[size];
+        for(int rank = 0; rank < size; rank++) {
+            ranks[classes[rank]] = rank;
+            rankInformationContent[rank] = informationContent.get(classes[rank]);
+        }
+
+        ancestorOffsets = new int[size + 1];
+        ancestorRanks = new int[size];
+        int count = 0;
+        // Stamped per class (as node + 1) so the array does not need to be cleared between classes.
+        int[] visited = new int[size];
+        int[] stack = new int[size];
+        for(int node = 0; node < size; node++) {
+            ancestorOffsets[node] = count;
+            if(index.isSkippable(node)) {
+                continue;
+            }
+            int stackSize = 0;
+            stack[stackSize++] = node;
+            visited[node] = node + 1;
+            while(stackSize > 0) {
+                int ancestor = stack[--stackSize];
+                if(count == ancestorRanks.length) {
+                    ancestorRanks = Arrays.copyOf(ancestorRanks, ancestorRanks.length * 2);
+                }
+                ancestorRanks[count++] = ranks[ancestor];
+                for(int j = 0; j < index.getParentCount(ancestor); j++) {
+                    int parent = index.getParent(ancestor, j);
+                    if(visited[parent] != node + 1 && !index.isSkippable(parent)) {
+                        visited[parent] = node + 1;
+                        stack[stackSize++] = parent;
+                    }
+                }
+            }
+            Arrays.sort(ancestorRanks, ancestorOffsets[node], count);
+        }
+        ancestorOffsets[size] = count;
+        ancestorRanks = Arrays.copyOf(ancestorRanks, count);
+    }
+
+    public InformationContent getInformationContent() {
+        return informationContent;
+    }
+
+    /**
+     * @return the {@link OntologyIndex} of the classes
+     */
+    public OntologyIndex getIndex() {
+        return informationContent.getIndex();
+    }
+
+    /**
+     * @param node a class
+     * @return the number of ancestors of {@code node} (including itself, or {@code 0} if it is skippable)
+     */
+    public int getAncestorCount(int node) {
+        return ancestorOffsets[node + 1] - ancestorOffsets[node];
+    }
+
+    /**
+     * @param a a class
+     * @param b a class
+     * @return the MICA of {@code a} and {@code b}, or {@code -1} if they have no common ancestor
+     */
+    public int getMica(int a, int b) {
+        int rank = findMicaRank(a, b);
+        return rank == -1 ? -1 : classes[rank];
+    }
+
+    /**
+     * @param a a class
+     * @param b a class
+     * @return the {@link InformationContent} of the MICA of {@code a} and {@code b}, or {@code 0} if they have no common
+     * ancestor
+     */
+    public double getMicaInformationContent(int a, int b) {
+        int rank = findMicaRank(a, b);
+        return rank == -1 ? 0 : rankInformationContent[rank];
+    }
+
+    /**
+     * @return the lowest rank present in the ancestors of both {@code a} and {@code b}, or {@code -1} if none
+     */
+    private int findMicaRank(int a, int b) {
+        int i = ancestorOffsets[a];
+        int iEnd = ancestorOffsets[a + 1];
+        int j = ancestorOffsets[b];
+        int jEnd = ancestorOffsets[b + 1];
+        while(i < iEnd && j < jEnd) {
+            int rankA = ancestorRanks[i];
+            int rankB = ancestorRanks[j];
+            if(rankA == rankB) {
+                return rankA;
+            }
+            if(rankA < rankB) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return -1;
+    }
+}
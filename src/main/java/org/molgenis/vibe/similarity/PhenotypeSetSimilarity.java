@@ -0,0 +1,85 @@
+package org.molgenis.vibe.similarity;
+
+import org.molgenis.vibe.formats.Phenotype;
+
+import java.util.Collection;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compares sets of {@link Phenotype}{@code s} (such as the input phenotypes and the phenotypes annotated to a disease)
+ * using a {@link SimilarityMeasure}. The score is the average over the query classes of their best match among the
+ * target classes, so a target that explains all query classes well scores high even if it has many other classes.
+ *
+ * Can be used by multiple threads concurrently.
+ */
+public class PhenotypeSetSimilarity {
+    private MicaIndex micaIndex;
+
+    private SimilarityMeasure measure;
+
+    /**
+     * @param micaIndex the {@link MicaIndex} of the phenotype ontology
+     * @param measure the {@link SimilarityMeasure} to compare 2 classes with
+     */
+    public PhenotypeSetSimilarity(MicaIndex micaIndex, SimilarityMeasure measure) {
+        this.micaIndex = requireNonNull(micaIndex);
+        this.measure = requireNonNull(measure);
+    }
+
+    public MicaIndex getMicaIndex() {
+        return micaIndex;
+    }
+
+    public SimilarityMeasure getMeasure() {
+        return measure;
+    }
+
+    /**
+     * @param phenotypes {@link Phenotype}{@code s}
+     * @return the distinct classes (in ascending order) of the {@link Phenotype}{@code s} that are present in the
+     * ontology (others are ignored)
+     */
+    public int[] toClasses(Collection<Phenotype> phenotypes) {
+        return phenotypes.stream().mapToInt(phenotype -> micaIndex.getIndex().getIndex(phenotype.getUri().toString()))
+                .filter(node -> node != -1).distinct().sorted().toArray();
+    }
+
+    /**
+     * @param a a class
+     * @param b a class
+     * @return the similarity between {@code a} and {@code b}
+     */
+    public double calculate(int a, int b) {
+        return measure.calculate(micaIndex, a, b);
+    }
+
+    /**
+     * @param query the classes to be explained (see {@link #toClasses(Collection)})
+     * @param target the classes to compare {@code query} with
+     * @return the average best match of the {@code query} classes, or {@code 0} if either is empty
+     */
+    public double calculate(int[] query, int[] target) {
+        if(query.length == 0 || target.length == 0) {
+            return 0;
+        }
+        double total = 0;
+        for(int a : query) {
+            double best = 0;
+            for(int b : target) {
+                best = Math.max(best, calculate(a, b));
+            }
+            total += best;
+        }
+        return total / query.length;
+    }
+
+    /**
+     * @param query the {@link Phenotype}{@code s} to be explained
+     * @param target the {@link Phenotype}{@code s} to compare {@code query} with
+     * @return the average best match of the {@code query} classes (see {@link #calculate(int[], int[])})
+     */
+    public double calculate(Collection<Phenotype> query, Collection<Phenotype> target) {
+        return calculate(toClasses(query), toClasses(target));
+    }
+}
@@ -0,0 +1,52 @@
+package org.molgenis.vibe.similarity;
+
+import org.molgenis.vibe.formats.EnumTypeDefiner;
+
+/**
+ * Measures how similar 2 classes are based on the information content of their most informative common ancestor (see
+ * {@link MicaIndex}).
+ */
+public enum SimilarityMeasure implements EnumTypeDefiner {
+    /**
+     * The information content of the most informative common ancestor.
+     */
+    RESNIK("resnik") {
+        @Override
+        public double calculate(MicaIndex micaIndex, int a, int b) {
+            return micaIndex.getMicaInformationContent(a, b);
+        }
+    },
+    /**
+     * The Resnik similarity relative to the information content of both classes (from {@code 0} up to {@code 1}).
+     */
+    LIN("lin") {
+        @Override
+        public double calculate(MicaIndex micaIndex, int a, int b) {
+            double total = micaIndex.getInformationContent().get(a) + micaIndex.getInformationContent().get(b);
+            return total == 0 ? 0 : 2 * micaIndex.getMicaInformationContent(a, b) / total;
+        }
+    };
+
+    private String id;
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    SimilarityMeasure(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @param micaIndex the {@link MicaIndex} containing both classes
+     * @param a a class
+     * @param b a class
+     * @return the similarity between {@code a} and {@code b}
+     */
+    public abstract double calculate(MicaIndex micaIndex, int a, int b);
+
+    public static SimilarityMeasure retrieve(String name) {
+        return EnumTypeDefiner.retrieve(name, SimilarityMeasure.class);
+    }
+}
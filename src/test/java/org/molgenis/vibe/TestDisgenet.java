@@ -0,0 +1,174 @@
+package org.molgenis.vibe;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.tdb.TDBFactory;
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.io.TripleStoreDbReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A small dataset resembling the structure of the DisGeNET RDF dataset (using the phenotypes of {@link TestOntology}).
+ * Can be used by tests that do not require the actual dataset (which needs to be downloaded using
+ * TestNGPreprocessing.sh).
+ *
+ * <pre>
+ * phenotype    disease     gene (association type, score, source)
+ * HP_0000004   C0000001    1 (SIO_001119, 0.6, CURATED)
+ * HP_0000007   C0000002    1 (SIO_001121, 0.3, LITERATURE), 3 (SIO_001119, 0.1, CURATED)
+ * HP_0000007   C0000003    2 (SIO_001122, 0.5, CURATED)
+ * HP_0000009   C0000003
+ *              C0000004    3 (SIO_001120, 0.2, LITERATURE), 4 (SIO_001119, 0.7, CURATED)
+ * </pre>
+ *
+ * Association types: SIO_001119 &lt; SIO_001122 &lt; SIO_000983 and SIO_001120 &lt; SIO_001121 &lt; SIO_000983.
+ */
+public final class TestDisgenet {
+    public static final String TURTLE = "@prefix rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> .\n" +
+            "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n" +
+            "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n" +
+            "@prefix dcterms: <http://purl.org/dc/terms/> .\n" +
+            "@prefix dctypes: <http://purl.org/dc/dcmitype/> .\n" +
+            "@prefix skos: <http://www.w3.org/2004/02/skos/core#> .\n" +
+            "@prefix sio: <http://semanticscience.org/resource/> .\n" +
+            "@prefix ncit: <http://ncicb.nci.nih.gov/xml/owl/EVS/Thesaurus.owl#> .\n" +
+            "@prefix wi: <http://purl.org/ontology/wi/core#> .\n" +
+            "@prefix obo: <http://purl.obolibrary.org/obo/> .\n" +
+            "@prefix ncbigene: <http://identifiers.org/ncbigene/> .\n" +
+            "@prefix umls: <http://linkedlifedata.com/resource/umls/id/> .\n" +
+            "@prefix pubmed: <http://identifiers.org/pubmed/> .\n" +
+            "@prefix void: <http://rdf.disgenet.org/v5.0.0/void/> .\n" +
+            "@prefix ex: <http://rdf.disgenet.org/resource/> .\n" +
+            // Sources.
+            "void:CURATED a dctypes:Dataset ; dcterms:title \"CURATED\" ; wi:evidence void:source_evidence_curated .\n" +
+            "void:LITERATURE a dctypes:Dataset ; dcterms:title \"LITERATURE\" ; wi:evidence void:source_evidence_literature .\n" +
+            // Association types.
+            "sio:SIO_001122 rdfs:subClassOf sio:SIO_000983 .\n" +
+            "sio:SIO_001119 rdfs:subClassOf sio:SIO_001122 .\n" +
+            "sio:SIO_001121 rdfs:subClassOf sio:SIO_000983 .\n" +
+            "sio:SIO_001120 rdfs:subClassOf sio:SIO_001121 .\n" +
+            // Phenotypes.
+            "obo:HP_0000004 a sio:SIO_010056 ; skos:exactMatch umls:C0000001 .\n" +
+            "obo:HP_0000007 a sio:SIO_010056 .\n" +
+            "obo:HP_0000009 a sio:SIO_010056 .\n" +
+            "ex:pda1 a sio:SIO_000897 ; sio:SIO_000628 obo:HP_0000007 , umls:C0000002 .\n" +
+            "ex:pda2 a sio:SIO_000897 ; sio:SIO_000628 obo:HP_0000007 , umls:C0000003 .\n" +
+            "ex:pda3 a sio:SIO_000897 ; sio:SIO_000628 obo:HP_0000009 , umls:C0000003 .\n" +
+            // Diseases.
+            disease(1) + disease(2) + disease(3) + disease(4) +
+            // Genes.
+            gene(1, 0.5, 0.4) + gene(2, 0.9, 0.1) + gene(3, 0.6, 0.5) + gene(4, 0.7, 0.3) +
+            // Gene-disease associations.
+            gda(1, 1, 1, "SIO_001119", 0.6, "CURATED") + "ex:gda1 sio:SIO_000772 pubmed:1 .\n" +
+            gda(2, 1, 2, "SIO_001121", 0.3, "LITERATURE") +
+            gda(3, 3, 2, "SIO_001119", 0.1, "CURATED") +
+            gda(4, 2, 3, "SIO_001122", 0.5, "CURATED") +
+            gda(5, 3, 4, "SIO_001120", 0.2, "LITERATURE") +
+            gda(6, 4, 4, "SIO_001119", 0.7, "CURATED");
+
+    private TestDisgenet() {
+    }
+
+    private static String disease(int id) {
+        return String.format("umls:C%1$07d a ncit:C7057 ; dcterms:identifier \"umls:C%1$07d\" ; dcterms:title \"Disease %1$d\" .\n", id);
+    }
+
+    private static String gene(int id, double dsi, double dpi) {
+        return String.format("ncbigene:%1$d a ncit:C16612 ; dcterms:identifier \"ncbigene:%1$d\" ; dcterms:title \"Gene %1$d\" ; " +
+                "sio:SIO_000205 ex:symbol%1$d ; sio:SIO_000216 ex:dsi%1$d , ex:dpi%1$d .\n" +
+                "ex:symbol%1$d a ncit:C43568 ; dcterms:title \"G%1$d\" .\n" +
+                "ex:dsi%1$d a sio:SIO_001351 ; sio:SIO_000300 \"%2$s\"^^xsd:double .\n" +
+                "ex:dpi%1$d a sio:SIO_001352 ; sio:SIO_000300 \"%3$s\"^^xsd:double .\n", id, dsi, dpi);
+    }
+
+    private static String gda(int id, int gene, int disease, String type, double score, String source) {
+        return String.format("ex:gda%1$d a sio:%4$s ; sio:SIO_000628 ncbigene:%2$d , umls:C%3$07d ; sio:SIO_000216 ex:score%1$d ; " +
+                "sio:SIO_000253 void:%6$s .\n" +
+                "ex:score%1$d a ncit:C25338 ; sio:SIO_000300 \"%5$s\"^^xsd:double .\n", id, gene, disease, type, score, source);
+    }
+
+    /**
+     * @return a new {@link Model} containing the test dataset
+     */
+    public static Model createModel() {
+        return createModel("");
+    }
+
+    /**
+     * @param additionalTurtle triples to be added to the test dataset (may use the prefixes of {@link #TURTLE})
+     * @return a new {@link Model} containing the test dataset and {@code additionalTurtle}
+     */
+    public static Model createModel(String additionalTurtle) {
+        Model model = ModelFactory.createDefaultModel();
+        RDFDataMgr.read(model, new StringReader(TURTLE + additionalTurtle), null, Lang.TURTLE);
+        return model;
+    }
+
+    /**
+     * @return a new {@link ModelReader} containing the test dataset
+     */
+    public static ModelReader createModelReader() {
+        return createModelReader(createModel());
+    }
+
+    /**
+     * @param model the {@link Model} to be read
+     * @return a new {@link ModelReader} reading {@code model} directly from memory
+     */
+    public static ModelReader createModelReader(Model model) {
+        return new ModelReader() {
+            @Override
+            public Model getModel() {
+                return model;
+            }
+
+            @Override
+            public void close() {
+                model.close();
+            }
+        };
+    }
+
+    /**
+     * Stores {@code model} in a new TDB, so that each {@link ModelReader#read(java.util.function.Supplier)} uses a read
+     * transaction of its own.
+     * @param dir an empty directory to store the TDB in (see {@link #deleteTripleStoreDb(Path)})
+     * @param model the {@link Model} to be stored
+     * @return a {@link TripleStoreDbReader} for the TDB
+     * @throws IOException if the TDB could not be opened
+     */
+    public static ModelReader createTripleStoreDb(Path dir, Model model) throws IOException {
+        Dataset dataset = TDBFactory.createDataset(dir.toString());
+        dataset.begin(ReadWrite.WRITE);
+        dataset.getDefaultModel().add(model);
+        dataset.commit();
+        dataset.end();
+        dataset.close();
+
+        return new TripleStoreDbReader(dir);
+    }
+
+    /**
+     * Releases and deletes a TDB created by {@link #createTripleStoreDb(Path, Model)} (its reader should be closed first).
+     * @param dir the directory containing the TDB
+     * @throws IOException if the TDB could not be deleted
+     */
+    public static void deleteTripleStoreDb(Path dir) throws IOException {
+        TDBFactory.release(TDBFactory.createDataset(dir.toString()));
+        List<Path> files = Files.list(dir).collect(Collectors.toList());
+        for(Path file : files) {
+            Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+}
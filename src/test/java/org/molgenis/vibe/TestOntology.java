@@ -0,0 +1,95 @@
+package org.molgenis.vibe;
+
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.ontology_processing.OntologyHierarchy;
+
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A small ontology resembling the structure of the Human Phenotype Ontology. Can be used by tests that do not require
+ * the actual ontology (which needs to be downloaded using TestNGPreprocessing.sh).
+ *
+ * <pre>
+ * HP_0000001
+ * |-- HP_0000002
+ * |   |-- HP_0000004
+ * |   `-- HP_0000005
+ * |       `-- HP_0000009
+ * |-- HP_0000003
+ * |   |-- HP_0000005 (2 parents)
+ * |   `-- HP_0000006
+ * |       |-- HP_0000007
+ * |       `-- HP_0000009 (2 parents)
+ * `-- UPHENO_0000001 (skippable)
+ *     `-- HP_0000008
+ * </pre>
+ */
+public final class TestOntology {
+    public static final String TURTLE = "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n" +
+            "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n" +
+            "@prefix obo: <http://purl.obolibrary.org/obo/> .\n" +
+            "obo:HP_0000001 a owl:Class ; rdfs:label \"All\" .\n" +
+            "obo:HP_0000002 a owl:Class ; rdfs:subClassOf obo:HP_0000001 .\n" +
+            "obo:HP_0000003 a owl:Class ; rdfs:subClassOf obo:HP_0000001 .\n" +
+            "obo:HP_0000004 a owl:Class ; rdfs:subClassOf obo:HP_0000002 .\n" +
+            "obo:HP_0000005 a owl:Class ; rdfs:subClassOf obo:HP_0000002 , obo:HP_0000003 .\n" +
+            "obo:HP_0000006 a owl:Class ; rdfs:subClassOf obo:HP_0000003 .\n" +
+            "obo:HP_0000007 a owl:Class ; rdfs:subClassOf obo:HP_0000006 .\n" +
+            "obo:HP_0000009 a owl:Class ; rdfs:subClassOf obo:HP_0000005 , obo:HP_0000006 .\n" +
+            "obo:UPHENO_0000001 a owl:Class ; rdfs:subClassOf obo:HP_0000001 .\n" +
+            "obo:HP_0000008 a owl:Class ; rdfs:subClassOf obo:UPHENO_0000001 .\n";
+
+    private TestOntology() {
+    }
+
+    /**
+     * @return a new {@link OntModel} containing the test ontology
+     */
+    public static OntModel createModel() {
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+        RDFDataMgr.read(model, new StringReader(TURTLE), null, Lang.TURTLE);
+        return model;
+    }
+
+    /**
+     * @return a new {@link OntologyHierarchy} of the test ontology
+     */
+    public static OntologyHierarchy createHierarchy() {
+        return OntologyHierarchy.fromModel(createModel());
+    }
+
+    /**
+     * @param id the number of an HPO term within the test ontology
+     * @return the URI belonging to {@code id}
+     */
+    public static String hpoUri(int id) {
+        return String.format("http://purl.obolibrary.org/obo/HP_%07d", id);
+    }
+
+    /**
+     * @param id the number of an HPO term within the test ontology
+     * @return the {@link Phenotype} belonging to {@code id}
+     */
+    public static Phenotype phenotype(int id) {
+        return new Phenotype(String.format("hp:%07d", id));
+    }
+
+    /**
+     * @param ids the numbers of HPO terms within the test ontology
+     * @return the {@link Phenotype}{@code s} belonging to {@code ids}
+     */
+    public static Set<Phenotype> phenotypes(int... ids) {
+        Set<Phenotype> phenotypes = new HashSet<>();
+        for(int id : ids) {
+            phenotypes.add(phenotype(id));
+        }
+        return phenotypes;
+    }
+}
@@ -0,0 +1,154 @@
+package org.molgenis.vibe.formats;
+
+import org.molgenis.vibe.exceptions.InvalidStringFormatException;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BiologicalEntityRegistryTester {
+    @BeforeMethod
+    public void beforeMethod() {
+        BiologicalEntityRegistry.clear();
+    }
+
+    @Test
+    public void testPhenotypeInterned() {
+        Phenotype phenotype = BiologicalEntityRegistry.getPhenotypeByUri("http://purl.obolibrary.org/obo/HP_0001250");
+
+        Assert.assertEquals(phenotype, new Phenotype("hp:0001250"));
+        Assert.assertEquals(phenotype.getNumericId(), 1250);
+        Assert.assertSame(BiologicalEntityRegistry.getPhenotypeByUri("http://purl.obolibrary.org/obo/HP_0001250"), phenotype);
+        Assert.assertSame(BiologicalEntityRegistry.getPhenotype("HP:0001250"), phenotype);
+        Assert.assertSame(BiologicalEntityRegistry.intern(new Phenotype("hp:0001250")), phenotype);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testPhenotypeInvalidUriPrefix() {
+        BiologicalEntityRegistry.getPhenotypeByUri("http://purl.obolibrary.org/obo/UPHENO_0000001");
+    }
+
+    @Test(expectedExceptions = InvalidStringFormatException.class)
+    public void testPhenotypeInvalidUriId() {
+        BiologicalEntityRegistry.getPhenotypeByUri("http://purl.obolibrary.org/obo/HP_00012");
+    }
+
+    @Test(expectedExceptions = InvalidStringFormatException.class)
+    public void testPhenotypeInvalidId() {
+        BiologicalEntityRegistry.getPhenotype("hp:00012");
+    }
+
+    @Test
+    public void testManyPhenotypes() {
+        Phenotype[] phenotypes = new Phenotype[5000];
+        for(int i = 0; i < phenotypes.length; i++) {
+            phenotypes[i] = BiologicalEntityRegistry.getPhenotype(String.format("hp:%07d", i * 37));
+        }
+        for(int i = 0; i < phenotypes.length; i++) {
+            Assert.assertSame(BiologicalEntityRegistry.getPhenotypeByUri(String.format(
+                    "http://purl.obolibrary.org/obo/HP_%07d", i * 37)), phenotypes[i]);
+        }
+    }
+
+    @Test
+    public void testConcurrentlyInterned() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Phenotype[]>> results = new ArrayList<>();
+            for(int thread = 0; thread < 4; thread++) {
+                results.add(executor.submit(() -> {
+                    Phenotype[] phenotypes = new Phenotype[2000];
+                    for(int i = 0; i < phenotypes.length; i++) {
+                        phenotypes[i] = BiologicalEntityRegistry.getPhenotype(String.format("hp:%07d", i));
+                    }
+                    return phenotypes;
+                }));
+            }
+            Phenotype[] first = results.get(0).get();
+            for(Future<Phenotype[]> result : results) {
+                Phenotype[] phenotypes = result.get();
+                for(int i = 0; i < phenotypes.length; i++) {
+                    Assert.assertSame(phenotypes[i], first[i]);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGeneOnlyCreatedOnce() {
+        String uri = "http://identifiers.org/ncbigene/1234";
+        Gene gene = BiologicalEntityRegistry.getGeneByUri(uri,
+                () -> new Gene("ncbigene:1234", "name", "SYMBOL", 0.5, 0.25, URI.create(uri)));
+        Gene other = BiologicalEntityRegistry.getGeneByUri(uri, () -> {
+            throw new AssertionError("Gene should not be created again.");
+        });
+
+        Assert.assertSame(other, gene);
+        Assert.assertSame(BiologicalEntityRegistry.findGeneByUri(uri), gene);
+        Assert.assertNull(BiologicalEntityRegistry.findGeneByUri("http://identifiers.org/ncbigene/4321"));
+    }
+
+    @Test
+    public void testDiseaseInterned() {
+        String uri = "http://linkedlifedata.com/resource/umls/id/C0123456";
+        Disease disease = BiologicalEntityRegistry.getDiseaseByUri(uri,
+                () -> new Disease("umls:C0123456", "name", URI.create(uri)));
+
+        Assert.assertEquals(disease.getNumericId(), 123456);
+        Assert.assertSame(BiologicalEntityRegistry.getDiseaseByUri(uri, () -> null), disease);
+    }
+
+    @Test
+    public void testGeneLeadingZerosNotShared() {
+        String uri = "http://identifiers.org/ncbigene/1234";
+        String otherUri = "http://identifiers.org/ncbigene/01234";
+        Gene gene = BiologicalEntityRegistry.getGeneByUri(uri,
+                () -> new Gene("ncbigene:1234", "name", "SYMBOL", 0.5, 0.25, URI.create(uri)));
+        Gene other = BiologicalEntityRegistry.getGeneByUri(otherUri,
+                () -> new Gene("ncbigene:01234", "name", "SYMBOL", 0.5, 0.25, URI.create(otherUri)));
+
+        Assert.assertEquals(other.getId(), "01234");
+        Assert.assertNotEquals(other, gene);
+        Assert.assertSame(BiologicalEntityRegistry.findGeneByUri(uri), gene);
+        Assert.assertNull(BiologicalEntityRegistry.findGeneByUri(otherUri));
+    }
+
+    @Test
+    public void testDiseaseLeadingZerosNotShared() {
+        String uri = "http://linkedlifedata.com/resource/umls/id/C0001";
+        String otherUri = "http://linkedlifedata.com/resource/umls/id/C001";
+        Disease disease = BiologicalEntityRegistry.getDiseaseByUri(uri,
+                () -> new Disease("umls:C0001", "name", URI.create(uri)));
+        Disease other = BiologicalEntityRegistry.getDiseaseByUri(otherUri,
+                () -> new Disease("umls:C001", "other name", URI.create(otherUri)));
+
+        Assert.assertEquals(other.getId(), "C001");
+        Assert.assertEquals(other.getName(), "other name");
+        Assert.assertSame(BiologicalEntityRegistry.getDiseaseByUri(uri, () -> null), disease);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDiseaseInvalidUri() {
+        BiologicalEntityRegistry.getDiseaseByUri("http://linkedlifedata.com/resource/umls/id/0123456", () -> null);
+    }
+
+    @Test
+    public void testCompareToEqualToFormattedIdOrder() {
+        BiologicalEntity[] entities = {new Gene("ncbigene:123"), new Gene("ncbigene:45"), new Phenotype("hp:0000001"),
+                new Disease("umls:C0000001")};
+        for(BiologicalEntity first : entities) {
+            for(BiologicalEntity second : entities) {
+                Assert.assertEquals(Integer.signum(first.compareTo(second)),
+                        Integer.signum(first.getFormattedId().compareTo(second.getFormattedId())));
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.testng.annotations.Test;
 
 import java.net.URI;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -72,6 +73,42 @@ public class GeneDiseaseCombinationTester {
         Assert.assertEquals(geneDiseaseCombo.getEvidenceForSource(source2), source2Evidence);
     }
 
+    @Test
+    public void addingSourceMultipleTimesAtOnce() {
+        geneDiseaseCombo.add(source1);
+        geneDiseaseCombo.add(source1, 3);
+        geneDiseaseCombo.add(source2, 2);
+
+        Assert.assertEquals(geneDiseaseCombo.getSourcesCount().get(source1), new Integer(4));
+        Assert.assertEquals(geneDiseaseCombo.getSourcesCount().get(source2), new Integer(2));
+        Assert.assertEquals(geneDiseaseCombo.getSourcesWithEvidence(), new HashSet<>());
+    }
+
+    @Test
+    public void addingEvidenceMultipleTimesAtOnce() {
+        List<URI> evidence = Arrays.asList(URI.create("http://pubmed1.id"), URI.create("http://pubmed2.id"));
+        GeneDiseaseCombination expected = new GeneDiseaseCombination(gene, disease, score);
+        for(int i = 0; i < 2; i++) {
+            expected.add(source1, evidence.get(0));
+            expected.add(source1, evidence.get(1));
+        }
+
+        geneDiseaseCombo.add(source1, evidence, 2);
+
+        Assert.assertEquals(geneDiseaseCombo.getSourcesCount(), expected.getSourcesCount());
+        Assert.assertEquals(geneDiseaseCombo.getEvidenceForSource(source1), expected.getEvidenceForSource(source1));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void addingSourceZeroTimes() {
+        geneDiseaseCombo.add(source1, 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void addingEmptyEvidenceMultipleTimes() {
+        geneDiseaseCombo.add(source1, Collections.emptyList(), 2);
+    }
+
     @Test
     public void retrieveCountsWhenNothingIsStored() {
         Assert.assertEquals(geneDiseaseCombo.getSourcesCount(), new HashMap<>());
@@ -0,0 +1,169 @@
+package org.molgenis.vibe.formats;
+
+import org.molgenis.vibe.TestOntology;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PhenotypeNetworkCollectionTester {
+    @Test
+    public void testAddAndRetrieve() {
+        PhenotypeNetwork network = new PhenotypeNetwork(new Phenotype("hp:0000001"));
+        network.add(new Phenotype("hp:0000002"), 1);
+        PhenotypeNetworkCollection collection = new PhenotypeNetworkCollection();
+        collection.add(network);
+
+        Assert.assertSame(collection.getPhenotypeNetworkBySource(new Phenotype("hp:0000001")), network);
+        Assert.assertEquals(collection.getPhenotypes().size(), 2);
+    }
+
+    /**
+     * hp:0000001 -> hp:0000002, hp:0000003
+     * hp:0000004 -> hp:0000002, hp:0000005
+     * hp:0000006 -> hp:0000002, hp:0000003, hp:0000005
+     */
+    @Test
+    public void testSetOperations() {
+        PhenotypeNetworkCollection collection = new PhenotypeNetworkCollection();
+        collection.add(network(1, 2, 3));
+        collection.add(network(4, 2, 5));
+        collection.add(network(6, 2, 3, 5));
+
+        Assert.assertEquals(collection.getPhenotypes(), TestOntology.phenotypes(1, 2, 3, 4, 5, 6));
+        Assert.assertEquals(collection.getUnion(TestOntology.phenotypes(1, 4)), TestOntology.phenotypes(1, 2, 3, 4, 5));
+        Assert.assertEquals(collection.getIntersection(TestOntology.phenotypes(1, 6)), TestOntology.phenotypes(2, 3));
+        Assert.assertEquals(collection.getIntersection(TestOntology.phenotypes(1, 4, 6)), TestOntology.phenotypes(2));
+        Assert.assertEquals(collection.getDifference(TestOntology.phenotypes(6), TestOntology.phenotypes(1)), TestOntology.phenotypes(6, 5));
+        Assert.assertEquals(collection.getDifference(TestOntology.phenotypes(1, 4), TestOntology.phenotypes(6)), TestOntology.phenotypes(1, 4));
+    }
+
+    @Test
+    public void testUnknownSources() {
+        PhenotypeNetworkCollection collection = new PhenotypeNetworkCollection();
+        collection.add(network(1, 2));
+
+        Assert.assertEquals(collection.getUnion(TestOntology.phenotypes(1, 7)), TestOntology.phenotypes(1, 2));
+        Assert.assertTrue(collection.getIntersection(TestOntology.phenotypes(1, 7)).isEmpty());
+        Assert.assertTrue(collection.getIntersection(Collections.emptySet()).isEmpty());
+        Assert.assertFalse(collection.getPhenotypes().contains(new Phenotype("hp:0000007")));
+    }
+
+    @Test
+    public void testViewNotAffectedByChanges() {
+        PhenotypeNetworkCollection collection = new PhenotypeNetworkCollection();
+        collection.add(network(1, 2));
+        Set<Phenotype> before = collection.getPhenotypes();
+        collection.add(network(3, 4));
+
+        Assert.assertEquals(before, TestOntology.phenotypes(1, 2));
+        Assert.assertEquals(collection.getPhenotypes(), TestOntology.phenotypes(1, 2, 3, 4));
+    }
+
+    @Test
+    public void testViewNotAffectedByClear() {
+        PhenotypeNetworkCollection collection = new PhenotypeNetworkCollection();
+        collection.add(network(1, 2));
+        Set<Phenotype> before = collection.getPhenotypes();
+        collection.clear();
+        collection.add(network(3, 4));
+
+        Assert.assertEquals(before, TestOntology.phenotypes(1, 2));
+        Assert.assertTrue(before.contains(TestOntology.phenotype(2)));
+        Assert.assertFalse(before.contains(TestOntology.phenotype(3)));
+        Assert.assertEquals(collection.getPhenotypes(), TestOntology.phenotypes(3, 4));
+        Assert.assertFalse(collection.getPhenotypes().contains(TestOntology.phenotype(1)));
+    }
+
+    /**
+     * Phenotypes that are only present in a removed or replaced network should no longer be present.
+     */
+    @Test
+    public void testRemoveAndReplace() {
+        PhenotypeNetworkCollection collection = new PhenotypeNetworkCollection();
+        PhenotypeNetwork network = network(1, 2);
+        collection.add(network);
+        collection.add(network(3, 2, 4));
+        collection.add(network(3, 5));
+        Assert.assertEquals(collection.getPhenotypes(), TestOntology.phenotypes(1, 2, 3, 5));
+
+        Assert.assertTrue(collection.remove(network));
+        Assert.assertFalse(collection.remove(network));
+        Assert.assertEquals(collection.getPhenotypes(), TestOntology.phenotypes(3, 5));
+
+        collection.clear();
+        Assert.assertTrue(collection.getPhenotypes().isEmpty());
+    }
+
+    @Test(timeOut = 10000)
+    public void testConcurrentAdd() throws Exception {
+        PhenotypeNetworkCollection collection = new PhenotypeNetworkCollection();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int thread = 0; thread < 4; thread++) {
+                int offset = thread * 1000;
+                futures.add(executor.submit(() -> {
+                    for(int i = 0; i < 1000; i++) {
+                        PhenotypeNetwork network = new PhenotypeNetwork(new Phenotype(String.format("hp:%07d", offset + i)));
+                        network.add(new Phenotype(String.format("hp:%07d", 9000000 + i)), 1);
+                        collection.add(network);
+                    }
+                }));
+            }
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        // 4000 sources + 1000 shared linked phenotypes.
+        Assert.assertEquals(collection.getPhenotypes().size(), 5000);
+        for(int i = 0; i < 4000; i++) {
+            Assert.assertNotNull(collection.getPhenotypeNetworkBySource(new Phenotype(String.format("hp:%07d", i))));
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testReadWhileAdding() throws Exception {
+        PhenotypeNetworkCollection collection = new PhenotypeNetworkCollection();
+        collection.add(network(1, 2, 3));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> future = executor.submit(() -> {
+                for(int i = 0; i < 1000; i++) {
+                    collection.add(network(1000 + i, 2000 + i, 3000 + i));
+                }
+            });
+            while(!future.isDone()) {
+                Set<Phenotype> union = collection.getUnion(Collections.singletonList(TestOntology.phenotype(1)));
+                Assert.assertTrue(union.contains(TestOntology.phenotype(3)));
+                Assert.assertFalse(union.contains(TestOntology.phenotype(2000)));
+            }
+            future.get();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        Assert.assertEquals(collection.getPhenotypes().size(), 3003);
+    }
+
+    /**
+     * @param source the source ID
+     * @param ids the IDs of the phenotypes at distance 1
+     */
+    private PhenotypeNetwork network(int source, int... ids) {
+        PhenotypeNetwork network = new PhenotypeNetwork(TestOntology.phenotype(source));
+        for(int id : ids) {
+            network.add(TestOntology.phenotype(id), 1);
+        }
+        return network;
+    }
+}
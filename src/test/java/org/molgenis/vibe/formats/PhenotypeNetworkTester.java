@@ -52,7 +52,125 @@ public class PhenotypeNetworkTester {
         Assert.assertEquals(phenotypeNetwork.getDistance(phenotypes[1]), 3);
     }
 
-    //todo: more tests
+    @Test
+    public void testReplacingDistanceUpdatesDistanceSets() {
+        phenotypeNetwork.add(phenotypes[1], 4);
+        phenotypeNetwork.add(phenotypes[2], 4);
+        phenotypeNetwork.add(phenotypes[1], 2);
+
+        Assert.assertEquals(phenotypeNetwork.getDistances(), new HashSet<>(Arrays.asList(0, 2, 4)));
+        Assert.assertEquals(phenotypeNetwork.getByDistance(2), Collections.singleton(phenotypes[1]));
+        Assert.assertEquals(phenotypeNetwork.getByDistance(4), Collections.singleton(phenotypes[2]));
+        Assert.assertFalse(phenotypeNetwork.getByDistance(4).contains(phenotypes[1]));
+
+        // All phenotypes at distance 4 moved.
+        phenotypeNetwork.add(phenotypes[2], 1);
+        Assert.assertEquals(phenotypeNetwork.getDistances(), new HashSet<>(Arrays.asList(0, 1, 2)));
+        Assert.assertTrue(phenotypeNetwork.getByDistance(4).isEmpty());
+    }
+
+    @Test
+    public void testManyPhenotypes() {
+        Set<Phenotype> expected = new HashSet<>();
+        expected.add(phenotypes[0]);
+        for(int i = 1; i <= 5000; i++) {
+            Phenotype phenotype = new Phenotype(String.format("hp:%07d", i * 37));
+            expected.add(phenotype);
+            Assert.assertTrue(phenotypeNetwork.add(phenotype, i % 10 + 1));
+        }
+
+        Assert.assertEquals(phenotypeNetwork.getPhenotypes(), expected);
+        Assert.assertEquals(phenotypeNetwork.getByDistance(3).size(), 500);
+        Assert.assertEquals(phenotypeNetwork.getDistance(new Phenotype("hp:0000370")), 1);
+        Assert.assertTrue(phenotypeNetwork.contains(new Phenotype("hp:0185000")));
+        Assert.assertFalse(phenotypeNetwork.contains(new Phenotype("hp:0000036")));
+    }
+
+    @Test
+    public void testEquals() {
+        PhenotypeNetwork other = new PhenotypeNetwork(phenotypes[0]);
+        other.add(phenotypes[2], 2);
+        other.add(phenotypes[1], 1);
+        phenotypeNetwork.add(phenotypes[1], 1);
+        phenotypeNetwork.add(phenotypes[2], 3);
+        Assert.assertNotEquals(phenotypeNetwork, other);
+
+        phenotypeNetwork.add(phenotypes[2], 2);
+        Assert.assertEquals(phenotypeNetwork, other);
+        Assert.assertEquals(phenotypeNetwork.hashCode(), other.hashCode());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void testDistanceOfMissingPhenotype() {
+        phenotypeNetwork.getDistance(phenotypes[1]);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void testPhenotypesOfMissingDistance() {
+        phenotypeNetwork.add(phenotypes[1], 2);
+        phenotypeNetwork.getByDistance(1);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testPhenotypesUnmodifiable() {
+        phenotypeNetwork.getPhenotypes().add(phenotypes[1]);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testPhenotypesByDistanceUnmodifiable() {
+        phenotypeNetwork.add(phenotypes[1], 1);
+        phenotypeNetwork.getByDistance(1).clear();
+    }
+
+    @Test(expectedExceptions = ConcurrentModificationException.class)
+    public void testChangeWhileIterating() {
+        phenotypeNetwork.add(phenotypes[1], 1);
+        phenotypeNetwork.add(phenotypes[2], 1);
+        for(Phenotype phenotype : phenotypeNetwork.getByDistance(1)) {
+            phenotypeNetwork.add(phenotypes[3], 2);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDistanceTooLarge() {
+        phenotypeNetwork.add(phenotypes[1], PhenotypeNetwork.MAX_DISTANCE + 1);
+    }
+
+    @Test
+    public void testFrontier() {
+        phenotypeNetwork.add(phenotypes[1], 1);
+        phenotypeNetwork.add(phenotypes[2], 2);
+        phenotypeNetwork.add(phenotypes[3], 2);
+
+        Assert.assertFalse(phenotypeNetwork.isResumable());
+        Assert.assertTrue(phenotypeNetwork.getFrontier().isEmpty());
+
+        phenotypeNetwork.markExpanded(2);
+        Assert.assertEquals(phenotypeNetwork.getExpandedDistance(), 2);
+        Assert.assertEquals(phenotypeNetwork.getFrontier(), new HashSet<>(Arrays.asList(phenotypes[2], phenotypes[3])));
+
+        // Nothing found at the expanded distance.
+        phenotypeNetwork.markExpanded(3);
+        Assert.assertTrue(phenotypeNetwork.getFrontier().isEmpty());
+    }
+
+    @Test
+    public void testCopyWithinKeepsExpandedDistance() {
+        phenotypeNetwork.add(phenotypes[1], 1);
+        phenotypeNetwork.add(phenotypes[2], 2);
+
+        Assert.assertFalse(phenotypeNetwork.copyWithin(1).isResumable());
+
+        phenotypeNetwork.markExpanded(2);
+        Assert.assertEquals(phenotypeNetwork.copyWithin(1).getExpandedDistance(), 1);
+        Assert.assertEquals(phenotypeNetwork.copyWithin(1).getFrontier(), Collections.singleton(phenotypes[1]));
+        Assert.assertEquals(phenotypeNetwork.copyWithin(5).getExpandedDistance(), 2);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testMarkExpandedWhenFrozen() {
+        phenotypeNetwork.freeze().markExpanded(1);
+    }
 
     private void addExpectedPhenotypesUsingDistance(int[] phenotypePositions, int distance) {
         HashSet<Phenotype> phenotypesForDistance = new HashSet<>();
@@ -0,0 +1,104 @@
+package org.molgenis.vibe.io;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RiotNotFoundException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ModelFilesReaderTester {
+    private static final int FILE_COUNT = 6;
+
+    private Path tmpDir;
+    private String[] files;
+
+    @BeforeClass
+    public void beforeClass() throws IOException {
+        tmpDir = Files.createTempDirectory("vibe");
+        files = new String[FILE_COUNT];
+        for(int i = 0; i < FILE_COUNT; i++) {
+            Path file = tmpDir.resolve("file" + i + ".ttl");
+            StringBuilder turtle = new StringBuilder("@prefix ex" + i + ": <http://example.org/" + i + "/> .\n");
+            for(int j = 0; j < 100; j++) {
+                turtle.append("ex").append(i).append(":s").append(j).append(" ex").append(i).append(":p [ ex")
+                        .append(i).append(":value ").append(j).append(" ] .\n");
+            }
+            Files.write(file, turtle.toString().getBytes("UTF-8"));
+            files[i] = file.toString();
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() throws IOException {
+        for(String file : files) {
+            Files.deleteIfExists(tmpDir.resolve(file));
+        }
+        Files.deleteIfExists(tmpDir);
+    }
+
+    @Test
+    public void testParallelEqualsSequential() {
+        ModelFilesReader sequentialReader = new ModelFilesReader(files[0]);
+        for(int i = 1; i < FILE_COUNT; i++) {
+            sequentialReader.read(files[i]);
+        }
+        ModelFilesReader parallelReader = new ModelFilesReader(files);
+
+        Model sequentialModel = sequentialReader.getModel();
+        Model parallelModel = parallelReader.getModel();
+        Assert.assertEquals(parallelModel.size(), FILE_COUNT * 100 * 2);
+        Assert.assertTrue(parallelModel.isIsomorphicWith(sequentialModel));
+        Assert.assertEquals(parallelModel.getNsPrefixMap(), sequentialModel.getNsPrefixMap());
+
+        sequentialReader.close();
+        parallelReader.close();
+    }
+
+    @Test
+    public void testParallelWithLang() {
+        ModelFilesReader reader = new ModelFilesReader(files, Lang.TURTLE);
+        Assert.assertEquals(reader.getModel().size(), FILE_COUNT * 100 * 2);
+        reader.close();
+    }
+
+    /**
+     * More triples than fit in the buffer between the parsing threads and the model at once.
+     */
+    @Test
+    public void testParallelExceedingBuffer() throws IOException {
+        String[] largeFiles = new String[2];
+        try {
+            for(int i = 0; i < largeFiles.length; i++) {
+                Path file = tmpDir.resolve("large" + i + ".nt");
+                StringBuilder triples = new StringBuilder();
+                for(int j = 0; j < 50000; j++) {
+                    triples.append("<http://example.org/").append(i).append("/s").append(j)
+                            .append("> <http://example.org/p> \"").append(j).append("\" .\n");
+                }
+                Files.write(file, triples.toString().getBytes("UTF-8"));
+                largeFiles[i] = file.toString();
+            }
+
+            ModelFilesReader reader = new ModelFilesReader(largeFiles);
+            Assert.assertEquals(reader.getModel().size(), 100000);
+            reader.close();
+        } finally {
+            for(String file : largeFiles) {
+                if(file != null) {
+                    Files.deleteIfExists(tmpDir.resolve(file));
+                }
+            }
+        }
+    }
+
+    @Test(expectedExceptions = RiotNotFoundException.class)
+    public void testNonExistingFileAmongOthers() {
+        new ModelFilesReader(new String[]{files[0], tmpDir.resolve("myNonExistingFile.ttl").toString(), files[1]});
+    }
+}
@@ -0,0 +1,183 @@
+package org.molgenis.vibe.io;
+
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.io.output.NeighborhoodIndexWriter;
+import org.molgenis.vibe.ontology_processing.IndexTraversal;
+import org.molgenis.vibe.ontology_processing.IndexedMaxDistanceRetriever;
+import org.molgenis.vibe.ontology_processing.NeighborhoodIndex;
+import org.molgenis.vibe.ontology_processing.NeighborhoodRetriever;
+import org.molgenis.vibe.ontology_processing.OntologyHierarchy;
+import org.molgenis.vibe.ontology_processing.PhenotypesRetriever;
+import org.molgenis.vibe.ontology_processing.PhenotypesRetrieverFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class NeighborhoodIndexTester {
+    private static final int MAX_DISTANCE = 3;
+
+    private Path tmpDir;
+    private Path ontologyFile;
+    private OntologyHierarchy hierarchy;
+    private NeighborhoodIndexReader reader;
+
+    @BeforeClass
+    public void beforeClass() throws IOException {
+        tmpDir = Files.createTempDirectory("vibe");
+        ontologyFile = tmpDir.resolve("hp.ttl");
+        Files.write(ontologyFile, TestOntology.TURTLE.getBytes("UTF-8"));
+        hierarchy = TestOntology.createHierarchy();
+
+        new NeighborhoodIndexWriter(NeighborhoodIndexReader.getNeighborhoodIndexPath(ontologyFile), hierarchy,
+                MAX_DISTANCE).run();
+        reader = new NeighborhoodIndexReader(NeighborhoodIndexReader.getNeighborhoodIndexPath(ontologyFile));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() throws IOException {
+        Files.deleteIfExists(NeighborhoodIndexReader.getNeighborhoodIndexPath(ontologyFile));
+        Files.deleteIfExists(ontologyFile);
+        Files.deleteIfExists(tmpDir);
+    }
+
+    @Test
+    public void testUpToDate() {
+        Assert.assertTrue(NeighborhoodIndexReader.isUpToDate(NeighborhoodIndexReader.getNeighborhoodIndexPath(ontologyFile), hierarchy));
+        Assert.assertEquals(reader.getNeighborhoods().getMaxDistance(), MAX_DISTANCE);
+    }
+
+    /**
+     * A hierarchy with the same number of classes and relations (but a different structure) should not use the
+     * neighborhoods.
+     */
+    @Test
+    public void testOutdatedForOtherHierarchyWithSameCounts() throws IOException {
+        String[] uris = new String[3];
+        for(int i = 0; i < uris.length; i++) {
+            uris[i] = TestOntology.hpoUri(i + 1);
+        }
+        OntologyHierarchy chain = new OntologyHierarchy(uris, new int[]{1, 2}, new int[]{0, 1});
+        OntologyHierarchy star = new OntologyHierarchy(uris, new int[]{1, 2}, new int[]{0, 0});
+        Assert.assertEquals(chain.size(), star.size());
+        Assert.assertEquals(chain.edgeCount(), star.edgeCount());
+
+        Path file = tmpDir.resolve("chain.neighborhood");
+        try {
+            new NeighborhoodIndexWriter(file, chain, 1).run();
+            Assert.assertTrue(NeighborhoodIndexReader.isUpToDate(file, chain));
+            Assert.assertFalse(NeighborhoodIndexReader.isUpToDate(file, star));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testMissingFile() {
+        Assert.assertFalse(NeighborhoodIndexReader.isUpToDate(tmpDir.resolve("missing.neighborhood"), hierarchy));
+    }
+
+    @Test
+    public void testEqualToTraversal() {
+        NeighborhoodIndex neighborhoods = reader.getNeighborhoods();
+        IndexTraversal traversal = new IndexTraversal(hierarchy, IndexTraversal.Direction.PARENTS_AND_CHILDREN);
+        for(int distance = 0; distance <= MAX_DISTANCE; distance++) {
+            for(int node = 0; node < hierarchy.size(); node++) {
+                traversal.run(node, distance);
+                Map<Integer, Integer> expected = new HashMap<>();
+                for(int i = 1; i < traversal.size(); i++) {
+                    expected.put(traversal.getNode(i), traversal.getDistance(i));
+                }
+
+                Map<Integer, Integer> actual = new HashMap<>();
+                neighborhoods.visit(node, distance, actual::put);
+                Assert.assertEquals(actual, expected, "node: " + node + ", distance: " + distance);
+            }
+        }
+    }
+
+    @Test
+    public void testRetrieverEqualToTraversingRetriever() {
+        List<Phenotype> phenotypes = new ArrayList<>();
+        for(int i = 1; i <= 9; i++) {
+            phenotypes.add(new Phenotype(URI.create(TestOntology.hpoUri(i))));
+        }
+        phenotypes.add(new Phenotype("hp:1234567"));
+
+        for(int distance = 0; distance <= MAX_DISTANCE; distance++) {
+            PhenotypesRetriever neighborhoodRetriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy,
+                    reader.getNeighborhoods(), null, 0, phenotypes, distance);
+            PhenotypesRetriever traversingRetriever = new IndexedMaxDistanceRetriever(hierarchy, phenotypes, distance);
+            neighborhoodRetriever.run();
+            traversingRetriever.run();
+
+            Assert.assertTrue(neighborhoodRetriever instanceof NeighborhoodRetriever);
+            Assert.assertEquals(neighborhoodRetriever.getPhenotypeNetworkCollection(), traversingRetriever.getPhenotypeNetworkCollection());
+        }
+    }
+
+    @Test
+    public void testFallbackBeyondMaxDistance() {
+        Assert.assertTrue(PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, reader.getNeighborhoods(), null, 0,
+                new ArrayList<>(), MAX_DISTANCE + 1) instanceof IndexedMaxDistanceRetriever);
+        Assert.assertFalse(PhenotypesRetrieverFactory.CHILDREN.create(hierarchy, reader.getNeighborhoods(), null, 0,
+                new ArrayList<>(), 1) instanceof NeighborhoodRetriever);
+    }
+
+    /**
+     * A star of 400 classes (plus one extra relation), so that counts and differences need multiple bytes.
+     */
+    @Test
+    public void testLargeNeighborhoods() throws IOException {
+        String[] uris = new String[401];
+        int[] subClasses = new int[401];
+        int[] superClasses = new int[401];
+        for(int i = 0; i < uris.length; i++) {
+            uris[i] = TestOntology.hpoUri(i);
+            subClasses[i] = i;
+        }
+        subClasses[0] = 300;
+        superClasses[0] = 5;
+        OntologyHierarchy star = new OntologyHierarchy(uris, subClasses, superClasses);
+
+        Path file = tmpDir.resolve("star.neighborhood");
+        try {
+            new NeighborhoodIndexWriter(file, star, 2).run();
+            NeighborhoodIndex neighborhoods = new NeighborhoodIndexReader(file).getNeighborhoods();
+
+            IndexTraversal traversal = new IndexTraversal(star, IndexTraversal.Direction.PARENTS_AND_CHILDREN);
+            for(int node = 0; node < star.size(); node++) {
+                traversal.run(node, 2);
+                Map<Integer, Integer> expected = new HashMap<>();
+                for(int i = 1; i < traversal.size(); i++) {
+                    expected.put(traversal.getNode(i), traversal.getDistance(i));
+                }
+                Map<Integer, Integer> actual = new HashMap<>();
+                neighborhoods.visit(node, 2, actual::put);
+                Assert.assertEquals(actual, expected, "node: " + node);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testVisitBeyondMaxDistance() {
+        reader.getNeighborhoods().visit(0, MAX_DISTANCE + 1, (node, distance) -> {});
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadingInvalidFile() throws IOException {
+        new NeighborhoodIndexReader(ontologyFile);
+    }
+}
@@ -0,0 +1,121 @@
+package org.molgenis.vibe.io;
+
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.io.output.OntologyHierarchySnapshotWriter;
+import org.molgenis.vibe.ontology_processing.MappedOntologyHierarchy;
+import org.molgenis.vibe.ontology_processing.OntologyHierarchy;
+import org.molgenis.vibe.ontology_processing.OntologyIndex;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class OntologyHierarchySnapshotTester {
+    private Path tmpDir;
+    private Path ontologyFile;
+    private OntologyHierarchy hierarchy;
+
+    @BeforeClass
+    public void beforeClass() throws IOException {
+        tmpDir = Files.createTempDirectory("vibe");
+        ontologyFile = tmpDir.resolve("hp.ttl");
+        Files.write(ontologyFile, TestOntology.TURTLE.getBytes("UTF-8"));
+        hierarchy = TestOntology.createHierarchy();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() throws IOException {
+        Files.deleteIfExists(OntologyHierarchySnapshotReader.getSnapshotPath(ontologyFile));
+        Files.deleteIfExists(ontologyFile);
+        Files.deleteIfExists(tmpDir);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path snapshot = writeSnapshot();
+        OntologyIndex readHierarchy = new OntologyHierarchySnapshotReader(snapshot).getHierarchy();
+
+        Assert.assertTrue(readHierarchy instanceof MappedOntologyHierarchy);
+        Assert.assertEquals(readHierarchy.size(), hierarchy.size());
+        Assert.assertEquals(readHierarchy.edgeCount(), hierarchy.edgeCount());
+        for(int i = 0; i < hierarchy.size(); i++) {
+            Assert.assertEquals(readHierarchy.getUri(i), hierarchy.getUri(i));
+            Assert.assertEquals(readHierarchy.isSkippable(i), hierarchy.isSkippable(i));
+            Assert.assertEquals(readHierarchy.getParents(i), hierarchy.getParents(i));
+            Assert.assertEquals(readHierarchy.getChildren(i), hierarchy.getChildren(i));
+        }
+    }
+
+    @Test
+    public void testUpToDate() throws IOException {
+        Path snapshot = writeSnapshot();
+        Assert.assertTrue(OntologyHierarchySnapshotReader.isUpToDate(snapshot, ontologyFile));
+    }
+
+    @Test
+    public void testUpToDateAfterTouch() throws IOException {
+        Path snapshot = writeSnapshot();
+        FileTime touched = FileTime.fromMillis(Files.getLastModifiedTime(ontologyFile).toMillis() + 1000);
+        Files.setLastModifiedTime(ontologyFile, touched);
+        Assert.assertTrue(OntologyHierarchySnapshotReader.isUpToDate(snapshot, ontologyFile));
+        Assert.assertEquals(readStoredLastModified(snapshot), touched.toMillis());
+    }
+
+    @Test
+    public void testUnchangedMetadataSkipsHashing() throws IOException {
+        Path snapshot = writeSnapshot();
+        FileTime lastModified = Files.getLastModifiedTime(ontologyFile);
+        try {
+            // Same size and last modified time: the content is not compared.
+            Files.write(ontologyFile, TestOntology.TURTLE.replace("HP_0000001", "HP_0000000").getBytes("UTF-8"));
+            Files.setLastModifiedTime(ontologyFile, lastModified);
+            Assert.assertTrue(OntologyHierarchySnapshotReader.isUpToDate(snapshot, ontologyFile));
+        } finally {
+            Files.write(ontologyFile, TestOntology.TURTLE.getBytes("UTF-8"));
+        }
+    }
+
+    @Test
+    public void testOutdatedAfterOntologyChange() throws IOException {
+        Path snapshot = writeSnapshot();
+        FileTime lastModified = Files.getLastModifiedTime(ontologyFile);
+        try {
+            Files.write(ontologyFile, TestOntology.TURTLE.replace("HP_0000001", "HP_0000000").getBytes("UTF-8"));
+            Files.setLastModifiedTime(ontologyFile, FileTime.fromMillis(lastModified.toMillis() + 1000));
+            Assert.assertFalse(OntologyHierarchySnapshotReader.isUpToDate(snapshot, ontologyFile));
+            Assert.assertEquals(readStoredLastModified(snapshot), lastModified.toMillis());
+        } finally {
+            Files.write(ontologyFile, TestOntology.TURTLE.getBytes("UTF-8"));
+        }
+    }
+
+    @Test
+    public void testMissingSnapshot() {
+        Assert.assertFalse(OntologyHierarchySnapshotReader.isUpToDate(tmpDir.resolve("missing.hierarchy"), ontologyFile));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadingInvalidSnapshot() throws IOException {
+        new OntologyHierarchySnapshotReader(ontologyFile);
+    }
+
+    private Path writeSnapshot() throws IOException {
+        OntologyHierarchySnapshotWriter writer = new OntologyHierarchySnapshotWriter(
+                OntologyHierarchySnapshotReader.getSnapshotPath(ontologyFile), hierarchy, ontologyFile);
+        writer.run();
+        return writer.getPath();
+    }
+
+    private long readStoredLastModified(Path snapshot) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshot))) {
+            in.skipBytes(16);
+            return in.readLong();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.molgenis.vibe.io;
+
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.ontology_processing.OntologyHierarchy;
+import org.molgenis.vibe.ontology_processing.OntologyIndex;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+public class OntologyHierarchyStreamReaderTester {
+    private Path tmpDir;
+    private Path ontologyFile;
+    private OntologyIndex streamedHierarchy;
+    private OntologyHierarchy modelHierarchy;
+
+    @BeforeClass
+    public void beforeClass() throws IOException {
+        tmpDir = Files.createTempDirectory("vibe");
+        ontologyFile = tmpDir.resolve("hp.ttl");
+        Files.write(ontologyFile, TestOntology.TURTLE.getBytes("UTF-8"));
+        streamedHierarchy = new OntologyHierarchyStreamReader(ontologyFile.toString()).getHierarchy();
+        modelHierarchy = TestOntology.createHierarchy();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() throws IOException {
+        Files.deleteIfExists(ontologyFile);
+        Files.deleteIfExists(tmpDir);
+    }
+
+    @Test
+    public void testSizes() {
+        Assert.assertEquals(streamedHierarchy.size(), 10);
+        Assert.assertEquals(streamedHierarchy.edgeCount(), 11);
+    }
+
+    /**
+     * The order in which classes are encountered might differ, so the relations are compared using the URIs.
+     */
+    @Test
+    public void testEqualToModelHierarchy() {
+        Assert.assertEquals(streamedHierarchy.size(), modelHierarchy.size());
+        for(int i = 0; i < modelHierarchy.size(); i++) {
+            String uri = modelHierarchy.getUri(i);
+            int streamedIndex = streamedHierarchy.getIndex(uri);
+            Assert.assertNotEquals(streamedIndex, -1, uri);
+            Assert.assertEquals(streamedHierarchy.isSkippable(streamedIndex), modelHierarchy.isSkippable(i), uri);
+            Assert.assertEquals(toUris(streamedHierarchy, streamedHierarchy.getParents(streamedIndex)),
+                    toUris(modelHierarchy, modelHierarchy.getParents(i)), uri);
+            Assert.assertEquals(toUris(streamedHierarchy, streamedHierarchy.getChildren(streamedIndex)),
+                    toUris(modelHierarchy, modelHierarchy.getChildren(i)), uri);
+        }
+    }
+
+    @Test
+    public void testModelContainsHierarchy() {
+        OntologyHierarchyStreamReader reader = new OntologyHierarchyStreamReader(ontologyFile.toString());
+        Assert.assertNotNull(reader.getModel().getOntClass(TestOntology.hpoUri(5)));
+        Assert.assertEquals(reader.getModel().getOntClass(TestOntology.hpoUri(5)).listSuperClasses().toSet().size(), 2);
+        reader.close();
+    }
+
+    private Set<String> toUris(OntologyIndex hierarchy, int[] indices) {
+        Set<String> uris = new HashSet<>();
+        for(int index : indices) {
+            uris.add(hierarchy.getUri(index));
+        }
+        return uris;
+    }
+}
@@ -0,0 +1,178 @@
+package org.molgenis.vibe.io;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorOutputStream;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.molgenis.vibe.TestOntology;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RdfFileParserTester {
+    private Path tmpDir;
+    private List<Path> files = new ArrayList<>();
+
+    /**
+     * Large enough to be split into multiple chunks by the {@link BackgroundDecompressionInputStream}.
+     */
+    private String largeTurtle;
+    private Model expectedLargeModel;
+
+    @BeforeClass
+    public void beforeClass() throws IOException {
+        tmpDir = Files.createTempDirectory("vibe");
+
+        StringBuilder turtle = new StringBuilder("@prefix ex: <http://example.org/> .\n");
+        for(int i = 0; i < 20000; i++) {
+            turtle.append("ex:s").append(i).append(" ex:p \"value ").append(i).append("\" .\n");
+        }
+        largeTurtle = turtle.toString();
+        expectedLargeModel = ModelFactory.createDefaultModel().read(new ByteArrayInputStream(largeTurtle.getBytes(StandardCharsets.UTF_8)), null, "TTL");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() throws IOException {
+        for(Path file : files) {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(tmpDir);
+    }
+
+    @Test
+    public void testDetectFormats() throws IOException {
+        Assert.assertEquals(detect(compress(CompressionFormat.GZIP, "data")), CompressionFormat.GZIP);
+        Assert.assertEquals(detect(compress(CompressionFormat.BZIP2, "data")), CompressionFormat.BZIP2);
+        Assert.assertEquals(detect(compress(CompressionFormat.XZ, "data")), CompressionFormat.XZ);
+        Assert.assertEquals(detect(compress(CompressionFormat.NONE, "data")), CompressionFormat.NONE);
+        Assert.assertEquals(detect(new byte[]{0x1F}), CompressionFormat.NONE);
+        Assert.assertEquals(detect(new byte[0]), CompressionFormat.NONE);
+    }
+
+    @Test
+    public void testDetectDoesNotConsumeBytes() throws IOException {
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream("BZh".getBytes(StandardCharsets.UTF_8)));
+        CompressionFormat.detect(in);
+        Assert.assertEquals(in.read(), 'B');
+    }
+
+    @Test
+    public void testStripExtension() {
+        Assert.assertEquals(CompressionFormat.stripExtension("hp.owl.gz"), "hp.owl");
+        Assert.assertEquals(CompressionFormat.stripExtension("hp.owl.bz2"), "hp.owl");
+        Assert.assertEquals(CompressionFormat.stripExtension("hp.owl.XZ"), "hp.owl");
+        Assert.assertEquals(CompressionFormat.stripExtension("hp.owl"), "hp.owl");
+    }
+
+    @Test
+    public void testGuessLang() {
+        Assert.assertEquals(RdfFileParser.guessLang("hp.owl.gz"), Lang.RDFXML);
+        Assert.assertEquals(RdfFileParser.guessLang("disgenet.ttl.bz2"), Lang.TURTLE);
+    }
+
+    @Test
+    public void testReadGzip() throws IOException {
+        assertReadsLargeTurtle(CompressionFormat.GZIP, "large.ttl.gz");
+    }
+
+    @Test
+    public void testReadBzip2() throws IOException {
+        assertReadsLargeTurtle(CompressionFormat.BZIP2, "large.ttl.bz2");
+    }
+
+    @Test
+    public void testReadXz() throws IOException {
+        assertReadsLargeTurtle(CompressionFormat.XZ, "large.ttl.xz");
+    }
+
+    /**
+     * Compression is based on the magic bytes, not on the extension.
+     */
+    @Test
+    public void testReadCompressedWithoutExtension() throws IOException {
+        assertReadsLargeTurtle(CompressionFormat.GZIP, "large_gzip.ttl");
+    }
+
+    @Test
+    public void testReadUncompressed() throws IOException {
+        assertReadsLargeTurtle(CompressionFormat.NONE, "large.ttl");
+    }
+
+    @Test
+    public void testOntologyReadersWithCompressedFile() throws IOException {
+        Path file = write("hp.ttl.xz", compress(CompressionFormat.XZ, TestOntology.TURTLE));
+
+        OntologyHierarchyStreamReader streamReader = new OntologyHierarchyStreamReader(file.toString());
+        Assert.assertEquals(streamReader.getHierarchy().size(), 10);
+        streamReader.close();
+
+        OntologyModelFilesReader modelReader = new OntologyModelFilesReader(file.toString());
+        Assert.assertTrue(modelReader.getModel().isIsomorphicWith(TestOntology.createModel()));
+        modelReader.close();
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testCorruptCompressedFile() throws IOException {
+        byte[] compressed = compress(CompressionFormat.GZIP, largeTurtle);
+        for(int i = compressed.length / 2; i < compressed.length; i++) {
+            compressed[i] = 0;
+        }
+        Path file = write("corrupt.ttl.gz", compressed);
+        new ModelFilesReader(file.toString());
+    }
+
+    private void assertReadsLargeTurtle(CompressionFormat format, String fileName) throws IOException {
+        Path file = write(fileName, compress(format, largeTurtle));
+        ModelFilesReader reader = new ModelFilesReader(file.toString());
+        Assert.assertTrue(reader.getModel().isIsomorphicWith(expectedLargeModel));
+        Assert.assertEquals(reader.getModel().getNsPrefixURI("ex"), "http://example.org/");
+        reader.close();
+    }
+
+    private Path write(String fileName, byte[] data) throws IOException {
+        Path file = tmpDir.resolve(fileName);
+        Files.write(file, data);
+        files.add(file);
+        return file;
+    }
+
+    private CompressionFormat detect(byte[] data) throws IOException {
+        return CompressionFormat.detect(new BufferedInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private byte[] compress(CompressionFormat format, String data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out;
+        switch (format) {
+            case GZIP:
+                out = new GzipCompressorOutputStream(bytes);
+                break;
+            case BZIP2:
+                out = new BZip2CompressorOutputStream(bytes);
+                break;
+            case XZ:
+                out = new XZCompressorOutputStream(bytes);
+                break;
+            default:
+                out = bytes;
+        }
+        out.write(data.getBytes(StandardCharsets.UTF_8));
+        out.close();
+        return bytes.toByteArray();
+    }
+}
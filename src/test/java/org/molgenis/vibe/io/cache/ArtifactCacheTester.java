@@ -0,0 +1,173 @@
+package org.molgenis.vibe.io.cache;
+
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.Source;
+import org.molgenis.vibe.ontology_processing.OntologyHierarchy;
+import org.molgenis.vibe.ontology_processing.OntologyIndex;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class ArtifactCacheTester {
+    private Path tmpDir;
+    private ArtifactCache cache;
+
+    @BeforeMethod
+    public void beforeMethod() throws IOException {
+        tmpDir = Files.createTempDirectory("vibe");
+        cache = new ArtifactCache(tmpDir.resolve("cache"), 1024 * 1024);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() throws IOException {
+        try (Stream<Path> paths = Files.walk(tmpDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testHierarchyRoundTrip() throws IOException {
+        OntologyHierarchy hierarchy = TestOntology.createHierarchy();
+        cache.put(new Fingerprint("hierarchy"), new OntologyHierarchySerializer(), hierarchy);
+        OntologyIndex cachedHierarchy = cache.get(new Fingerprint("hierarchy"), new OntologyHierarchySerializer());
+
+        Assert.assertNotNull(cachedHierarchy);
+        Assert.assertEquals(cachedHierarchy.size(), hierarchy.size());
+        for(int i = 0; i < hierarchy.size(); i++) {
+            Assert.assertEquals(cachedHierarchy.getUri(i), hierarchy.getUri(i));
+            Assert.assertEquals(cachedHierarchy.isSkippable(i), hierarchy.isSkippable(i));
+            Assert.assertEquals(cachedHierarchy.getParents(i), hierarchy.getParents(i));
+            Assert.assertEquals(cachedHierarchy.getChildren(i), hierarchy.getChildren(i));
+        }
+    }
+
+    @Test
+    public void testSourcesRoundTrip() throws IOException {
+        Map<URI, Source> sources = createSources();
+        cache.put(new Fingerprint("sources"), new SourcesSerializer(), sources);
+        Map<URI, Source> cachedSources = cache.get(new Fingerprint("sources"), new SourcesSerializer());
+
+        Assert.assertEquals(cachedSources, sources);
+        for(URI uri : sources.keySet()) {
+            Assert.assertEquals(cachedSources.get(uri).getLevel(), sources.get(uri).getLevel());
+            Assert.assertEquals(cachedSources.get(uri).getUri(), uri);
+        }
+    }
+
+    @Test
+    public void testAnnotationCountsRoundTrip() throws IOException {
+        Map<String, Integer> annotationCounts = new HashMap<>();
+        annotationCounts.put(TestOntology.hpoUri(1), 12);
+        annotationCounts.put(TestOntology.hpoUri(4), 3);
+        cache.put(new Fingerprint("annotation-counts"), new AnnotationCountsSerializer(), annotationCounts);
+
+        Assert.assertEquals(cache.get(new Fingerprint("annotation-counts"), new AnnotationCountsSerializer()), annotationCounts);
+    }
+
+    @Test
+    public void testMissingArtifact() {
+        Assert.assertNull(cache.get(new Fingerprint("sources"), new SourcesSerializer()));
+    }
+
+    @Test
+    public void testDifferentInputIsMiss() throws IOException {
+        cache.put(new Fingerprint("sources").add("input1"), new SourcesSerializer(), createSources());
+        Assert.assertNotNull(cache.get(new Fingerprint("sources").add("input1"), new SourcesSerializer()));
+        Assert.assertNull(cache.get(new Fingerprint("sources").add("input2"), new SourcesSerializer()));
+    }
+
+    @Test
+    public void testCorruptArtifactIsRemoved() throws IOException {
+        Fingerprint fingerprint = new Fingerprint("sources");
+        cache.put(fingerprint, new SourcesSerializer(), createSources());
+        Path path = cache.getPath(fingerprint);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+
+        Assert.assertNull(cache.get(new Fingerprint("sources"), new SourcesSerializer()));
+        Assert.assertFalse(Files.exists(path));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws IOException {
+        Fingerprint first = new Fingerprint("sources").add(1);
+        Fingerprint second = new Fingerprint("sources").add(2);
+        cache.put(first, new SourcesSerializer(), createSources());
+        cache.put(second, new SourcesSerializer(), createSources());
+        long artifactSize = Files.size(cache.getPath(first));
+
+        // Makes the first artifact the most recently used one.
+        Files.setLastModifiedTime(cache.getPath(second), FileTime.fromMillis(System.currentTimeMillis() - 60000));
+        Assert.assertNotNull(cache.get(first, new SourcesSerializer()));
+
+        // Only room for 2 artifacts.
+        ArtifactCache smallCache = new ArtifactCache(cache.getDir(), artifactSize * 2);
+        Fingerprint third = new Fingerprint("sources").add(3);
+        smallCache.put(third, new SourcesSerializer(), createSources());
+
+        Assert.assertTrue(Files.exists(smallCache.getPath(first)));
+        Assert.assertFalse(Files.exists(smallCache.getPath(second)));
+        Assert.assertTrue(Files.exists(smallCache.getPath(third)));
+    }
+
+    @Test
+    public void testFileFingerprint() throws IOException {
+        Path file = tmpDir.resolve("hp.owl");
+        Files.write(file, "content".getBytes("UTF-8"));
+        String original = new Fingerprint("file").addFile(file).toString();
+        Assert.assertEquals(new Fingerprint("file").addFile(file).toString(), original);
+        Assert.assertNotEquals(new Fingerprint("other").addFile(file).toString(), original);
+
+        Files.write(file, "changed".getBytes("UTF-8"));
+        Assert.assertNotEquals(new Fingerprint("file").addFile(file).toString(), original);
+    }
+
+    @Test
+    public void testDirectoryFingerprint() throws IOException {
+        Path dir = Files.createDirectory(tmpDir.resolve("tdb"));
+        Files.write(dir.resolve("a.dat"), "a".getBytes("UTF-8"));
+        String original = new Fingerprint("dir").addDirectory(dir).toString();
+        Assert.assertEquals(new Fingerprint("dir").addDirectory(dir).toString(), original);
+
+        Files.write(dir.resolve("b.dat"), "b".getBytes("UTF-8"));
+        Assert.assertNotEquals(new Fingerprint("dir").addDirectory(dir).toString(), original);
+    }
+
+    @Test
+    public void testDirectoryFingerprintIgnoredFile() throws IOException {
+        Path dir = Files.createDirectory(tmpDir.resolve("tdb"));
+        Files.write(dir.resolve("a.dat"), "a".getBytes("UTF-8"));
+        String original = new Fingerprint("dir").addDirectory(dir, "tdb.lock").toString();
+
+        Files.write(dir.resolve("tdb.lock"), "12345".getBytes("UTF-8"));
+        Assert.assertEquals(new Fingerprint("dir").addDirectory(dir, "tdb.lock").toString(), original);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testFingerprintCannotChangeAfterUse() {
+        Fingerprint fingerprint = new Fingerprint("test");
+        fingerprint.toString();
+        fingerprint.add("more");
+    }
+
+    private Map<URI, Source> createSources() {
+        Map<URI, Source> sources = new HashMap<>();
+        URI curated = URI.create("http://rdf.disgenet.org/v5.0.0/void/CTD_human");
+        URI literature = URI.create("http://rdf.disgenet.org/v5.0.0/void/LHGDN");
+        sources.put(curated, new Source("CTD_human", Source.Level.CURATED, curated));
+        sources.put(literature, new Source("LHGDN", Source.Level.LITERATURE, literature));
+        return sources;
+    }
+}
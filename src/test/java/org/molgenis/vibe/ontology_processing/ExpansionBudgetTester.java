@@ -0,0 +1,169 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+import org.molgenis.vibe.formats.PhenotypeNetworkCollection;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ExpansionBudgetTester {
+    private OntologyHierarchy hierarchy;
+
+    @BeforeClass
+    public void beforeClass() {
+        hierarchy = TestOntology.createHierarchy();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBudget() {
+        new ExpansionBudget(0, ExpansionBudget.UNLIMITED);
+    }
+
+    @Test
+    public void testWithinBudget() {
+        IndexedPhenotypesRetriever retriever = retrieve(3, new ExpansionBudget(7, 7), TestOntology.phenotype(4));
+
+        Assert.assertTrue(retriever.getCutoffs().isEmpty());
+        Assert.assertEquals(retriever.getPhenotypeNetworkCollection(), retrieve(3, null, TestOntology.phenotype(4)).getPhenotypeNetworkCollection());
+        Assert.assertEquals(retriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(TestOntology.phenotype(4)).getExpandedDistance(), 3);
+    }
+
+    /**
+     * hp:0000004 has 1 phenotype at distance 1 and 2 at distance 2, so only distance 1 fits within a budget of 3.
+     */
+    @Test
+    public void testBudgetPerInput() {
+        IndexedPhenotypesRetriever retriever = retrieve(3, new ExpansionBudget(3, ExpansionBudget.UNLIMITED), TestOntology.phenotype(4), TestOntology.phenotype(7));
+        PhenotypeNetworkCollection collection = retriever.getPhenotypeNetworkCollection();
+
+        List<ExpansionBudget.Cutoff> cutoffs = retriever.getCutoffs();
+        Assert.assertEquals(cutoffs.size(), 2);
+        Assert.assertEquals(cutoffs.get(0).getSource(), TestOntology.phenotype(4));
+        Assert.assertEquals(cutoffs.get(0).getDistance(), 1);
+        Assert.assertEquals(cutoffs.get(0).getPhenotypeCount(), 2);
+        Assert.assertEquals(cutoffs.get(1).getSource(), TestOntology.phenotype(7));
+        Assert.assertEquals(collection.getPhenotypeNetworkBySource(TestOntology.phenotype(4)).getPhenotypes(), TestOntology.phenotypes(4, 2));
+        Assert.assertEquals(collection.getPhenotypeNetworkBySource(TestOntology.phenotype(4)).getExpandedDistance(), 1);
+        Assert.assertEquals(collection.getPhenotypeNetworkBySource(TestOntology.phenotype(7)).getPhenotypes(), TestOntology.phenotypes(7, 6));
+        Assert.assertEquals(collection.getPhenotypes(), TestOntology.phenotypes(4, 2, 7, 6));
+    }
+
+    /**
+     * Both inputs together have 4 phenotypes within distance 1.
+     */
+    @Test
+    public void testBudgetForAllInputs() {
+        IndexedPhenotypesRetriever retriever = retrieve(1, new ExpansionBudget(ExpansionBudget.UNLIMITED, 3), TestOntology.phenotype(4), TestOntology.phenotype(7));
+
+        List<ExpansionBudget.Cutoff> cutoffs = retriever.getCutoffs();
+        Assert.assertEquals(cutoffs.size(), 1);
+        Assert.assertNull(cutoffs.get(0).getSource());
+        Assert.assertEquals(cutoffs.get(0).getDistance(), 0);
+        Assert.assertEquals(cutoffs.get(0).getPhenotypeCount(), 2);
+        Assert.assertEquals(retriever.getPhenotypeNetworkCollection().getPhenotypes(), TestOntology.phenotypes(4, 7));
+    }
+
+    /**
+     * The budget is enforced on the traversal itself: it stops at the first distance that does not fit.
+     */
+    @Test
+    public void testTraversalStopsAtBudget() {
+        IndexTraversal traversal = new IndexTraversal(hierarchy, IndexTraversal.Direction.PARENTS_AND_CHILDREN);
+        traversal.setMaxSize(3);
+
+        Assert.assertEquals(traversal.run(hierarchy.getIndex(TestOntology.phenotype(4).getUri().toString()), 3), 2);
+        Assert.assertEquals(traversal.getExpandedDistance(), 1);
+    }
+
+    @Test
+    public void testPreviousNetworkNotChanged() {
+        PhenotypeNetworkCollection previous = retrieve(3, null, TestOntology.phenotype(4)).getPhenotypeNetworkCollection();
+        PhenotypeNetwork network = previous.getPhenotypeNetworkBySource(TestOntology.phenotype(4)).freeze();
+
+        IndexedPhenotypesRetriever retriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0, Arrays.asList(TestOntology.phenotype(4)), 3);
+        retriever.setPreviousNetworkCollection(previous);
+        retriever.setExpansionBudget(new ExpansionBudget(2, ExpansionBudget.UNLIMITED));
+        retriever.run();
+
+        Assert.assertEquals(network.getPhenotypes().size(), 6);
+        Assert.assertEquals(retriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(TestOntology.phenotype(4)).getPhenotypes(), TestOntology.phenotypes(4, 2));
+    }
+
+    @Test
+    public void testResumeCutOffNetwork() {
+        PhenotypeNetworkCollection previous = retrieve(3, new ExpansionBudget(3, ExpansionBudget.UNLIMITED), TestOntology.phenotype(4))
+                .getPhenotypeNetworkCollection();
+
+        IndexedPhenotypesRetriever retriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0, Arrays.asList(TestOntology.phenotype(4)), 3);
+        retriever.setPreviousNetworkCollection(previous);
+        retriever.run();
+
+        Assert.assertEquals(retriever.getPhenotypeNetworkCollection(), retrieve(3, null, TestOntology.phenotype(4)).getPhenotypeNetworkCollection());
+    }
+
+    /**
+     * hp:0000004 has no children, so the previous network has no phenotypes at distance 1 and 2.
+     */
+    @Test
+    public void testResumeLeafWithBudget() {
+        PhenotypeNetworkCollection previous = resume(PhenotypesRetrieverFactory.CHILDREN, null, 2, null, TestOntology.phenotype(4));
+        PhenotypeNetworkCollection resumed = resume(PhenotypesRetrieverFactory.CHILDREN, previous, 3,
+                new ExpansionBudget(10, 10), TestOntology.phenotype(4));
+
+        Assert.assertEquals(resumed, resume(PhenotypesRetrieverFactory.CHILDREN, null, 3, null, TestOntology.phenotype(4)));
+    }
+
+    /**
+     * The previous network of hp:0000007 is complete long before distance 10, so it has empty distances within 8.
+     */
+    @Test
+    public void testResumeShorterWithBudget() {
+        PhenotypeNetworkCollection previous = resume(PhenotypesRetrieverFactory.DISTANCE, null, 10, null, TestOntology.phenotype(7));
+        PhenotypeNetworkCollection resumed = resume(PhenotypesRetrieverFactory.DISTANCE, previous, 8,
+                new ExpansionBudget(10, 10), TestOntology.phenotype(7));
+
+        Assert.assertEquals(resumed, resume(PhenotypesRetrieverFactory.DISTANCE, null, 8, null, TestOntology.phenotype(7)));
+    }
+
+    /**
+     * The information content retriever keeps the phenotypes with the lowest loss (all equal here, so the nearest).
+     */
+    @Test
+    public void testBudgetInformationContent() {
+        IndexedPhenotypesRetriever retriever = PhenotypesRetrieverFactory.INFORMATION_CONTENT.create(hierarchy, null,
+                InformationContent.uniform(hierarchy), 0, Arrays.asList(TestOntology.phenotype(4), TestOntology.phenotype(7)), 3);
+        retriever.setExpansionBudget(new ExpansionBudget(2, 3));
+        retriever.run();
+
+        Assert.assertEquals(retriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(TestOntology.phenotype(4)).getPhenotypes(), TestOntology.phenotypes(4, 2));
+        Assert.assertEquals(retriever.getPhenotypeNetworkCollection().getPhenotypes().size(), 3);
+        Assert.assertFalse(retriever.getCutoffs().isEmpty());
+    }
+
+    private PhenotypeNetworkCollection resume(PhenotypesRetrieverFactory factory, PhenotypeNetworkCollection previous,
+                                              int maxDistance, ExpansionBudget budget, Phenotype... phenotypes) {
+        IndexedPhenotypesRetriever retriever = factory.create(hierarchy, null, null, 0, Arrays.asList(phenotypes), maxDistance);
+        if(previous != null) {
+            retriever.setPreviousNetworkCollection(previous);
+        }
+        if(budget != null) {
+            retriever.setExpansionBudget(budget);
+        }
+        retriever.run();
+        return retriever.getPhenotypeNetworkCollection();
+    }
+
+    private IndexedPhenotypesRetriever retrieve(int maxDistance, ExpansionBudget budget, Phenotype... phenotypes) {
+        IndexedPhenotypesRetriever retriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0, Arrays.asList(phenotypes), maxDistance);
+        if(budget != null) {
+            retriever.setExpansionBudget(budget);
+        }
+        retriever.run();
+        return retriever;
+    }
+}
@@ -0,0 +1,126 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.TestOntology;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class IndexTraversalTester {
+    private OntologyHierarchy hierarchy;
+
+    @BeforeClass
+    public void beforeClass() {
+        hierarchy = TestOntology.createHierarchy();
+    }
+
+    @Test
+    public void testChildren() {
+        IndexTraversal traversal = new IndexTraversal(hierarchy, IndexTraversal.Direction.CHILDREN);
+        traversal.run(index(3), 2);
+
+        Map<Integer, Integer> expected = new HashMap<>();
+        expected.put(3, 0);
+        expected.put(5, 1);
+        expected.put(6, 1);
+        expected.put(7, 2);
+        expected.put(9, 2);
+        Assert.assertEquals(retrieveDistances(traversal), expected);
+    }
+
+    @Test
+    public void testParentsAndChildren() {
+        IndexTraversal traversal = new IndexTraversal(hierarchy, IndexTraversal.Direction.PARENTS_AND_CHILDREN);
+        traversal.run(index(4), 3);
+
+        Map<Integer, Integer> expected = new HashMap<>();
+        expected.put(4, 0);
+        expected.put(2, 1);
+        expected.put(1, 2);
+        expected.put(5, 2);
+        expected.put(3, 3);
+        expected.put(9, 3);
+        Assert.assertEquals(retrieveDistances(traversal), expected);
+    }
+
+    @Test
+    public void testSkippableNotTraversed() {
+        IndexTraversal traversal = new IndexTraversal(hierarchy, IndexTraversal.Direction.CHILDREN);
+        traversal.run(index(1), 10);
+
+        Assert.assertEquals(traversal.size(), 8);
+        Assert.assertFalse(traversal.isVisited(index(8)));
+        Assert.assertFalse(traversal.isVisited(hierarchy.getIndex("http://purl.obolibrary.org/obo/UPHENO_0000001")));
+    }
+
+    @Test
+    public void testDistanceZero() {
+        IndexTraversal traversal = new IndexTraversal(hierarchy, IndexTraversal.Direction.PARENTS_AND_CHILDREN);
+        Assert.assertEquals(traversal.run(index(5), 0), 1);
+        Assert.assertEquals(traversal.getNode(0), index(5));
+        Assert.assertEquals(traversal.getDistance(0), 0);
+    }
+
+    @Test
+    public void testReuseClearsPreviousRun() {
+        IndexTraversal traversal = new IndexTraversal(hierarchy, IndexTraversal.Direction.CHILDREN);
+        traversal.run(index(1), 10);
+        traversal.run(index(6), 10);
+
+        Assert.assertEquals(traversal.size(), 3);
+        for(int i = 0; i < hierarchy.size(); i++) {
+            boolean expected = i == index(6) || i == index(7) || i == index(9);
+            Assert.assertEquals(traversal.isVisited(i), expected, hierarchy.getUri(i));
+        }
+    }
+
+    @Test
+    public void testResumeEqualToRun() {
+        IndexTraversal traversal = new IndexTraversal(hierarchy, IndexTraversal.Direction.PARENTS_AND_CHILDREN);
+        for(int previousDistance = 0; previousDistance <= 3; previousDistance++) {
+            traversal.run(index(4), previousDistance);
+            int[] reached = new int[traversal.size()];
+            int[] frontier = new int[traversal.size()];
+            int frontierSize = 0;
+            for(int i = 0; i < traversal.size(); i++) {
+                reached[i] = traversal.getNode(i);
+                if(traversal.getDistance(i) == previousDistance) {
+                    frontier[frontierSize++] = traversal.getNode(i);
+                }
+            }
+            Map<Integer, Integer> expected = retrieveDistances(traversal);
+
+            int firstNew = traversal.resume(reached, Arrays.copyOf(frontier, frontierSize), previousDistance, 10);
+            Assert.assertEquals(firstNew, reached.length);
+            Map<Integer, Integer> actual = retrieveDistances(traversal);
+            for(int i = 0; i < firstNew; i++) {
+                String uri = hierarchy.getUri(traversal.getNode(i));
+                actual.remove(Integer.parseInt(uri.substring(uri.lastIndexOf('_') + 1)));
+            }
+            actual.putAll(expected);
+
+            traversal.run(index(4), 10);
+            Assert.assertEquals(actual, retrieveDistances(traversal), "previousDistance: " + previousDistance);
+        }
+    }
+
+    /**
+     * @param traversal the {@link IndexTraversal} after running
+     * @return the distance per HPO number within {@link TestOntology}
+     */
+    private Map<Integer, Integer> retrieveDistances(IndexTraversal traversal) {
+        Map<Integer, Integer> distances = new HashMap<>();
+        for(int i = 0; i < traversal.size(); i++) {
+            String uri = hierarchy.getUri(traversal.getNode(i));
+            distances.put(Integer.parseInt(uri.substring(uri.lastIndexOf('_') + 1)), traversal.getDistance(i));
+        }
+        return distances;
+    }
+
+    private int index(int id) {
+        return hierarchy.getIndex(TestOntology.hpoUri(id));
+    }
+}
@@ -0,0 +1,243 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.apache.jena.ontology.OntModel;
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares the {@link IndexedPhenotypesRetriever}{@code s} created by a {@link PhenotypesRetrieverFactory} with the
+ * {@link OntModel} based {@link PhenotypesRetriever} doing the same ({@link ChildrenRetriever} and
+ * {@link MaxDistanceRetriever2}).
+ */
+public class IndexedPhenotypesRetrieverTester {
+    private OntModel model;
+    private OntologyHierarchy hierarchy;
+    private List<Phenotype> phenotypes;
+
+    @BeforeClass
+    public void beforeClass() {
+        model = TestOntology.createModel();
+        hierarchy = OntologyHierarchy.fromModel(model);
+
+        phenotypes = new ArrayList<>();
+        for(int i = 1; i <= 9; i++) {
+            phenotypes.add(new Phenotype(URI.create(TestOntology.hpoUri(i))));
+        }
+    }
+
+    /**
+     * HP_0000001 is excluded as {@link ChildrenRetriever} fails on its skippable child.
+     */
+    @Test
+    public void testChildrenEqualToModel() {
+        compareWithModel(PhenotypesRetrieverFactory.CHILDREN, phenotypes.subList(1, phenotypes.size()));
+    }
+
+    @Test
+    public void testChildrenSkipsUpheno() {
+        Phenotype source = new Phenotype("hp:0000001");
+        PhenotypesRetriever retriever = PhenotypesRetrieverFactory.CHILDREN.create(hierarchy, null, null, 0,
+                Collections.singletonList(source), 5);
+        retriever.run();
+
+        PhenotypeNetwork network = retriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(source);
+        Assert.assertFalse(network.contains(new Phenotype("hp:0000008")));
+        Assert.assertEquals(network.getPhenotypes().size(), 8);
+        Assert.assertEquals(network.getDistance(new Phenotype("hp:0000009")), 3);
+    }
+
+    @Test
+    public void testDistanceEqualToModel() {
+        compareWithModel(PhenotypesRetrieverFactory.DISTANCE, phenotypes);
+    }
+
+    @Test
+    public void testMaxDistanceRetrieverEqualToIndex() {
+        for(int maxDistance = 0; maxDistance <= 6; maxDistance++) {
+            PhenotypesRetriever modelRetriever = new MaxDistanceRetriever(model, phenotypes, maxDistance);
+            PhenotypesRetriever indexRetriever = new IndexedMaxDistanceRetriever(hierarchy, phenotypes, maxDistance);
+            modelRetriever.run();
+            indexRetriever.run();
+
+            Assert.assertEquals(modelRetriever.getPhenotypeNetworkCollection(), indexRetriever.getPhenotypeNetworkCollection(),
+                    "maxDistance: " + maxDistance);
+        }
+    }
+
+    @Test
+    public void testDistanceSkipsUpheno() {
+        Phenotype source = new Phenotype("hp:0000001");
+        PhenotypesRetriever retriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0,
+                Collections.singletonList(source), 5);
+        retriever.run();
+
+        PhenotypeNetwork network = retriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(source);
+        Assert.assertFalse(network.contains(new Phenotype("hp:0000008")));
+        Assert.assertEquals(network.getDistance(new Phenotype("hp:0000009")), 3);
+    }
+
+    /**
+     * More input phenotypes than can be traversed at once (the unknown phenotypes only have themselves in their network).
+     */
+    @Test
+    public void testMultipleBatches() {
+        List<Phenotype> manyPhenotypes = new ArrayList<>(phenotypes);
+        for(int i = 0; i < MultiSourceIndexTraversal.MAX_SOURCES; i++) {
+            manyPhenotypes.add(new Phenotype(URI.create(TestOntology.hpoUri(1000000 + i))));
+        }
+
+        PhenotypesRetriever allRetriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0, manyPhenotypes, 3);
+        PhenotypesRetriever knownRetriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0, phenotypes, 3);
+        allRetriever.run();
+        knownRetriever.run();
+
+        for(Phenotype phenotype : manyPhenotypes) {
+            PhenotypeNetwork network = allRetriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(phenotype);
+            PhenotypeNetwork knownNetwork = knownRetriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(phenotype);
+            if(knownNetwork != null) {
+                Assert.assertEquals(network, knownNetwork);
+            } else {
+                Assert.assertEquals(network.getPhenotypes(), Collections.singleton(phenotype));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelEqualToSequential() {
+        List<Phenotype> manyPhenotypes = new ArrayList<>(phenotypes);
+        for(int i = 0; i < 100; i++) {
+            manyPhenotypes.add(new Phenotype(URI.create(TestOntology.hpoUri(1000000 + i))));
+        }
+
+        for(PhenotypesRetrieverFactory factory : PhenotypesRetrieverFactory.values()) {
+            PhenotypesRetriever sequentialRetriever = create(factory, manyPhenotypes, 3);
+            sequentialRetriever.run();
+            for(int parallelism : new int[]{2, 3, 8}) {
+                PhenotypesRetriever parallelRetriever = create(factory, manyPhenotypes, 3);
+                parallelRetriever.setParallelism(parallelism);
+                parallelRetriever.run();
+
+                Assert.assertEquals(parallelRetriever.getPhenotypeNetworkCollection(), sequentialRetriever.getPhenotypeNetworkCollection());
+                Assert.assertEquals(parallelRetriever.getPhenotypeNetworkCollection().getPhenotypes(),
+                        sequentialRetriever.getPhenotypeNetworkCollection().getPhenotypes());
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidParallelism() {
+        PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0, phenotypes, 1).setParallelism(0);
+    }
+
+    @Test
+    public void testUnknownPhenotype() {
+        Phenotype unknown = new Phenotype("hp:1234567");
+        for(PhenotypesRetrieverFactory factory : PhenotypesRetrieverFactory.values()) {
+            PhenotypesRetriever retriever = create(factory, Collections.singletonList(unknown), 2);
+            retriever.run();
+
+            Assert.assertEquals(retriever.getPhenotypeNetworkCollection().getPhenotypes(), Collections.singleton(unknown));
+        }
+    }
+
+    @Test
+    public void testResumeEqualToFromScratch() {
+        for(PhenotypesRetrieverFactory factory : PhenotypesRetrieverFactory.values()) {
+            for(int previousDistance = 0; previousDistance <= 4; previousDistance++) {
+                PhenotypesRetriever previousRetriever = create(factory, phenotypes, previousDistance);
+                previousRetriever.run();
+                for(int maxDistance = 0; maxDistance <= 4; maxDistance++) {
+                    PhenotypesRetriever resumedRetriever = create(factory, phenotypes, maxDistance);
+                    resumedRetriever.setPreviousNetworkCollection(previousRetriever.getPhenotypeNetworkCollection());
+                    resumedRetriever.run();
+                    PhenotypesRetriever retriever = create(factory, phenotypes, maxDistance);
+                    retriever.run();
+
+                    Assert.assertEquals(resumedRetriever.getPhenotypeNetworkCollection(), retriever.getPhenotypeNetworkCollection(),
+                            factory + " from " + previousDistance + " to " + maxDistance);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testModelResumeEqualToFromScratch() {
+        for(int previousDistance = 0; previousDistance <= 3; previousDistance++) {
+            PhenotypesRetriever previousRetriever = createFromModel(PhenotypesRetrieverFactory.DISTANCE, phenotypes, previousDistance);
+            previousRetriever.run();
+            for(int maxDistance = 0; maxDistance <= 4; maxDistance++) {
+                PhenotypesRetriever resumedRetriever = createFromModel(PhenotypesRetrieverFactory.DISTANCE, phenotypes, maxDistance);
+                resumedRetriever.setPreviousNetworkCollection(previousRetriever.getPhenotypeNetworkCollection());
+                resumedRetriever.run();
+                PhenotypesRetriever retriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0, phenotypes, maxDistance);
+                retriever.run();
+
+                Assert.assertEquals(resumedRetriever.getPhenotypeNetworkCollection(), retriever.getPhenotypeNetworkCollection(),
+                        "from " + previousDistance + " to " + maxDistance);
+            }
+        }
+    }
+
+    @Test
+    public void testResumeDoesNotChangePreviousNetworks() {
+        Phenotype source = new Phenotype("hp:0000004");
+        PhenotypesRetriever previousRetriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0,
+                Collections.singletonList(source), 1);
+        previousRetriever.run();
+        PhenotypeNetwork previousNetwork = previousRetriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(source).freeze();
+
+        PhenotypesRetriever resumedRetriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0,
+                Collections.singletonList(source), 3);
+        resumedRetriever.setPreviousNetworkCollection(previousRetriever.getPhenotypeNetworkCollection());
+        resumedRetriever.run();
+        PhenotypeNetwork network = resumedRetriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(source);
+
+        Assert.assertEquals(previousNetwork.getPhenotypes().size(), 2);
+        Assert.assertEquals(previousNetwork.getExpandedDistance(), 1);
+        Assert.assertEquals(network.getPhenotypes().size(), 6);
+        Assert.assertEquals(network.getExpandedDistance(), 3);
+    }
+
+    /**
+     * @return a {@link PhenotypesRetriever} created by {@code factory} (regarding all classes as equally specific, which
+     * is only used if an {@link InformationContent} is required)
+     */
+    private PhenotypesRetriever create(PhenotypesRetrieverFactory factory, List<Phenotype> phenotypes, int maxDistance) {
+        return factory.create(hierarchy, null, InformationContent.uniform(hierarchy), 0, phenotypes, maxDistance);
+    }
+
+    /**
+     * @return the {@link OntModel} based {@link PhenotypesRetriever} equal to {@code factory}
+     */
+    private PhenotypesRetriever createFromModel(PhenotypesRetrieverFactory factory, List<Phenotype> phenotypes, int maxDistance) {
+        switch(factory) {
+            case CHILDREN:
+                return new ChildrenRetriever(model, phenotypes, maxDistance);
+            case DISTANCE:
+                return new MaxDistanceRetriever2(model, phenotypes, maxDistance);
+            default:
+                throw new IllegalArgumentException("No OntModel based retriever for " + factory + ".");
+        }
+    }
+
+    private void compareWithModel(PhenotypesRetrieverFactory factory, List<Phenotype> phenotypes) {
+        for(int maxDistance = 0; maxDistance <= 4; maxDistance++) {
+            PhenotypesRetriever modelRetriever = createFromModel(factory, phenotypes, maxDistance);
+            PhenotypesRetriever indexRetriever = create(factory, phenotypes, maxDistance);
+            modelRetriever.run();
+            indexRetriever.run();
+
+            Assert.assertEquals(indexRetriever.getPhenotypeNetworkCollection(), modelRetriever.getPhenotypeNetworkCollection(),
+                    "maxDistance: " + maxDistance);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.*;
+
+public class InformationContentRetrieverTester {
+    private OntologyHierarchy hierarchy;
+    private InformationContent informationContent;
+
+    /**
+     * Information content: hp:0000001 (0), hp:0000003 (0.13), hp:0000002 and hp:0000006 (0.29), hp:0000005 (0.47),
+     * hp:0000009 (0.69), hp:0000007 (1.39), hp:0000004 and hp:0000008 (2.08).
+     */
+    @BeforeClass
+    public void beforeClass() {
+        hierarchy = TestOntology.createHierarchy();
+        Map<String, Integer> annotationCounts = new HashMap<>();
+        annotationCounts.put(TestOntology.hpoUri(4), 1);
+        annotationCounts.put(TestOntology.hpoUri(5), 1);
+        annotationCounts.put(TestOntology.hpoUri(7), 2);
+        annotationCounts.put(TestOntology.hpoUri(9), 4);
+        informationContent = InformationContent.fromAnnotationCounts(new ReachabilityIndex(hierarchy), annotationCounts);
+    }
+
+    @Test
+    public void testRetrieveFactory() {
+        Assert.assertEquals(PhenotypesRetrieverFactory.retrieve("ic"), PhenotypesRetrieverFactory.INFORMATION_CONTENT);
+        Assert.assertTrue(PhenotypesRetrieverFactory.INFORMATION_CONTENT.usesInformationContent());
+        Assert.assertFalse(PhenotypesRetrieverFactory.DISTANCE.usesInformationContent());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void testRequiresInformationContent() {
+        PhenotypesRetrieverFactory.INFORMATION_CONTENT.create(hierarchy, null, null, 0, Collections.emptyList(), 1);
+    }
+
+    /**
+     * All factories share the same create contract, so the others accept (and ignore) an {@link InformationContent}.
+     */
+    @Test
+    public void testOtherFactoriesIgnoreInformationContent() {
+        for(PhenotypesRetrieverFactory factory : new PhenotypesRetrieverFactory[]{PhenotypesRetrieverFactory.CHILDREN, PhenotypesRetrieverFactory.DISTANCE}) {
+            PhenotypesRetriever retriever = factory.create(hierarchy, null, InformationContent.uniform(hierarchy), 100,
+                    TestOntology.phenotypes(4), 2);
+            PhenotypesRetriever plainRetriever = factory.create(hierarchy, null, null, 0, TestOntology.phenotypes(4), 2);
+            retriever.run();
+            plainRetriever.run();
+
+            Assert.assertEquals(retriever.getPhenotypeNetworkCollection(), plainRetriever.getPhenotypeNetworkCollection(), factory.toString());
+        }
+    }
+
+    @Test
+    public void testUniformEqualToDistance() {
+        List<Phenotype> phenotypes = new ArrayList<>();
+        for(int i = 1; i <= 9; i++) {
+            phenotypes.add(new Phenotype(URI.create(TestOntology.hpoUri(i))));
+        }
+
+        for(int maxDistance = 0; maxDistance <= 4; maxDistance++) {
+            PhenotypesRetriever retriever = PhenotypesRetrieverFactory.INFORMATION_CONTENT.create(hierarchy, null,
+                    InformationContent.uniform(hierarchy), 0, phenotypes, maxDistance);
+            PhenotypesRetriever distanceRetriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0, phenotypes, maxDistance);
+            retriever.run();
+            distanceRetriever.run();
+
+            Assert.assertEquals(retriever.getPhenotypeNetworkCollection(), distanceRetriever.getPhenotypeNetworkCollection(),
+                    "maxDistance: " + maxDistance);
+        }
+    }
+
+    /**
+     * Without hp:0000001 everything except hp:0000008 can still be reached, but through hp:0000005 and hp:0000003.
+     */
+    @Test
+    public void testGeneralPhenotypeNotTraversed() {
+        PhenotypeNetwork network = retrieve(4, 0.1, 10);
+
+        Assert.assertEquals(network.getPhenotypes(), TestOntology.phenotypes(4, 2, 5, 3, 9, 6, 7));
+        Assert.assertEquals(network.getByDistance(1), TestOntology.phenotypes(2));
+        Assert.assertEquals(network.getByDistance(2), TestOntology.phenotypes(5));
+        Assert.assertEquals(network.getByDistance(3), TestOntology.phenotypes(3, 9));
+        Assert.assertEquals(network.getByDistance(4), TestOntology.phenotypes(6));
+        Assert.assertEquals(network.getByDistance(5), TestOntology.phenotypes(7));
+    }
+
+    @Test
+    public void testMaxDistance() {
+        Assert.assertEquals(retrieve(4, 0.1, 4).getPhenotypes(), TestOntology.phenotypes(4, 2, 5, 3, 9, 6));
+    }
+
+    @Test
+    public void testOnlyGeneralNeighbors() {
+        Assert.assertEquals(retrieve(4, 0.3, 10).getPhenotypes(), TestOntology.phenotypes(4));
+    }
+
+    /**
+     * The input phenotype itself is always expanded, even if it is below the threshold.
+     */
+    @Test
+    public void testGeneralInputPhenotype() {
+        PhenotypeNetwork network = retrieve(2, 0.3, 10);
+
+        Assert.assertEquals(network.getByDistance(1), TestOntology.phenotypes(4, 5));
+        Assert.assertEquals(network.getByDistance(2), TestOntology.phenotypes(9));
+        Assert.assertEquals(network.getPhenotypes().size(), 4);
+    }
+
+    @Test
+    public void testUnknownPhenotype() {
+        Phenotype unknown = new Phenotype("hp:1234567");
+        PhenotypesRetriever retriever = PhenotypesRetrieverFactory.INFORMATION_CONTENT.create(hierarchy, null, informationContent,
+                0, Collections.singletonList(unknown), 2);
+        retriever.run();
+
+        Assert.assertEquals(retriever.getPhenotypeNetworkCollection().getPhenotypes(), Collections.singleton(unknown));
+    }
+
+    @Test
+    public void testParallelEqualToSequential() {
+        List<Phenotype> phenotypes = new ArrayList<>();
+        for(int i = 1; i <= 9; i++) {
+            phenotypes.add(TestOntology.phenotype(i));
+        }
+
+        PhenotypesRetriever sequentialRetriever = PhenotypesRetrieverFactory.INFORMATION_CONTENT.create(hierarchy, null,
+                informationContent, 0.3, phenotypes, 3);
+        sequentialRetriever.run();
+        PhenotypesRetriever parallelRetriever = PhenotypesRetrieverFactory.INFORMATION_CONTENT.create(hierarchy, null,
+                informationContent, 0.3, phenotypes, 3);
+        parallelRetriever.setParallelism(4);
+        parallelRetriever.run();
+
+        Assert.assertEquals(parallelRetriever.getPhenotypeNetworkCollection(), sequentialRetriever.getPhenotypeNetworkCollection());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInformationContentOfOtherIndex() {
+        new InformationContentRetriever(TestOntology.createHierarchy(), informationContent, 0,
+                Collections.emptyList(), 1);
+    }
+
+    private PhenotypeNetwork retrieve(int source, double minInformationContent, int maxDistance) {
+        Phenotype phenotype = TestOntology.phenotype(source);
+        PhenotypesRetriever retriever = PhenotypesRetrieverFactory.INFORMATION_CONTENT.create(hierarchy, null, informationContent,
+                minInformationContent, Collections.singletonList(phenotype), maxDistance);
+        retriever.run();
+        return retriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(phenotype);
+    }
+}
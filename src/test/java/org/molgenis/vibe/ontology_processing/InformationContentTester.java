@@ -0,0 +1,74 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.TestOntology;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class InformationContentTester {
+    private static final double DELTA = 1e-9;
+
+    private OntologyHierarchy hierarchy;
+    private InformationContent informationContent;
+
+    /**
+     * 8 annotations in total: hp:0000004 (1), hp:0000005 (1), hp:0000007 (2) and hp:0000009 (4).
+     */
+    @BeforeClass
+    public void beforeClass() {
+        hierarchy = TestOntology.createHierarchy();
+        Map<String, Integer> annotationCounts = new HashMap<>();
+        annotationCounts.put(TestOntology.hpoUri(4), 1);
+        annotationCounts.put(TestOntology.hpoUri(5), 1);
+        annotationCounts.put(TestOntology.hpoUri(7), 2);
+        annotationCounts.put(TestOntology.hpoUri(9), 4);
+        annotationCounts.put(TestOntology.hpoUri(1234567), 100);
+        informationContent = InformationContent.fromAnnotationCounts(new ReachabilityIndex(hierarchy), annotationCounts);
+    }
+
+    @Test
+    public void testRootHasNoInformationContent() {
+        Assert.assertEquals(informationContent.get(TestOntology.hpoUri(1)), 0, DELTA);
+    }
+
+    /**
+     * hp:0000009 has 2 parents, but its annotations should only be counted once for the common ancestors.
+     */
+    @Test
+    public void testAnnotationsCountForAncestors() {
+        Assert.assertEquals(informationContent.get(TestOntology.hpoUri(2)), Math.log(8.0 / 6), DELTA);
+        Assert.assertEquals(informationContent.get(TestOntology.hpoUri(3)), Math.log(8.0 / 7), DELTA);
+        Assert.assertEquals(informationContent.get(TestOntology.hpoUri(5)), Math.log(8.0 / 5), DELTA);
+        Assert.assertEquals(informationContent.get(TestOntology.hpoUri(6)), Math.log(8.0 / 6), DELTA);
+        Assert.assertEquals(informationContent.get(TestOntology.hpoUri(9)), Math.log(8.0 / 4), DELTA);
+    }
+
+    @Test
+    public void testWithoutAnnotationsMostSpecific() {
+        Assert.assertEquals(informationContent.getMax(), Math.log(8), DELTA);
+        Assert.assertEquals(informationContent.get(TestOntology.hpoUri(4)), Math.log(8), DELTA);
+        Assert.assertEquals(informationContent.get(TestOntology.hpoUri(8)), Math.log(8), DELTA);
+        Assert.assertEquals(informationContent.get(TestOntology.hpoUri(1234567)), Math.log(8), DELTA);
+    }
+
+    @Test
+    public void testSkippable() {
+        Assert.assertEquals(informationContent.get("http://purl.obolibrary.org/obo/UPHENO_0000001"), 0, DELTA);
+    }
+
+    @Test
+    public void testUniform() {
+        InformationContent uniform = InformationContent.uniform(hierarchy);
+        for(int i = 0; i < hierarchy.size(); i++) {
+            Assert.assertEquals(uniform.get(i), 0, DELTA);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new InformationContent(hierarchy, new double[hierarchy.size() + 1]);
+    }
+}
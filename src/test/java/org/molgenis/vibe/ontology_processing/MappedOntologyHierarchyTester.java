@@ -0,0 +1,84 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.io.cache.OntologyHierarchySerializer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class MappedOntologyHierarchyTester {
+    /**
+     * Number of bytes written before the hierarchy (to check the position is taken into account).
+     */
+    private static final int POSITION = 16;
+
+    private Path file;
+    private OntologyHierarchy hierarchy;
+    private MappedOntologyHierarchy mappedHierarchy;
+
+    @BeforeClass
+    public void beforeClass() throws IOException {
+        hierarchy = TestOntology.createHierarchy();
+        file = Files.createTempFile("vibe", ".hierarchy");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.write(new byte[POSITION]);
+            new OntologyHierarchySerializer().write(out, hierarchy);
+        }
+        mappedHierarchy = new MappedOntologyHierarchy(file, POSITION);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testSize() {
+        Assert.assertEquals(mappedHierarchy.size(), hierarchy.size());
+        Assert.assertEquals(mappedHierarchy.edgeCount(), hierarchy.edgeCount());
+    }
+
+    @Test
+    public void testEqualToHeapHierarchy() {
+        for(int i = 0; i < hierarchy.size(); i++) {
+            Assert.assertEquals(mappedHierarchy.getUri(i), hierarchy.getUri(i));
+            Assert.assertEquals(mappedHierarchy.isSkippable(i), hierarchy.isSkippable(i));
+            Assert.assertEquals(mappedHierarchy.getParents(i), hierarchy.getParents(i));
+            Assert.assertEquals(mappedHierarchy.getChildren(i), hierarchy.getChildren(i));
+        }
+    }
+
+    @Test
+    public void testGetIndex() {
+        for(int i = 0; i < hierarchy.size(); i++) {
+            Assert.assertEquals(mappedHierarchy.getIndex(hierarchy.getUri(i)), i);
+        }
+    }
+
+    @Test
+    public void testUnknownUri() {
+        Assert.assertEquals(mappedHierarchy.getIndex(TestOntology.hpoUri(1234567)), -1);
+        Assert.assertEquals(mappedHierarchy.getIndex(""), -1);
+        Assert.assertEquals(mappedHierarchy.getIndex("http://purl.obolibrary.org/obo/HP_"), -1);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testTruncatedFile() throws IOException {
+        Path truncated = Files.createTempFile("vibe", ".hierarchy");
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+            new MappedOntologyHierarchy(truncated, POSITION);
+        } finally {
+            Files.deleteIfExists(truncated);
+        }
+    }
+}
@@ -37,7 +37,7 @@ public class MaxDistanceAlgorithmsSpeedComparison {
     @Test(groups = {"benchmarking"})
     public void benchmarkMaxDistance1() {
         printHeader();
-        for(int i : new int[]{0,2,5,6,7,8,9}) {
+        for(int i : new int[]{0,2,5,8,9,10,20,50}) {
             printResults(i, runRetriever(new MaxDistanceRetriever(model, startPhenotypes1, i)));
         }
         printFooter();
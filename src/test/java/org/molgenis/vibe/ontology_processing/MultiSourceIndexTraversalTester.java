@@ -0,0 +1,88 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.TestOntology;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MultiSourceIndexTraversalTester {
+    private OntologyHierarchy hierarchy;
+
+    @BeforeClass
+    public void beforeClass() {
+        hierarchy = TestOntology.createHierarchy();
+    }
+
+    @Test
+    public void testEqualToSingleSourceChildren() {
+        compareWithSingleSource(IndexTraversal.Direction.CHILDREN);
+    }
+
+    @Test
+    public void testEqualToSingleSourceParentsAndChildren() {
+        compareWithSingleSource(IndexTraversal.Direction.PARENTS_AND_CHILDREN);
+    }
+
+    @Test
+    public void testDuplicateSources() {
+        MultiSourceIndexTraversal traversal = new MultiSourceIndexTraversal(hierarchy, IndexTraversal.Direction.CHILDREN);
+        int source = hierarchy.getIndex(TestOntology.hpoUri(6));
+        Map<Integer, Map<Integer, Integer>> results = run(traversal, new int[]{source, source}, 5);
+
+        Assert.assertEquals(results.get(0), results.get(1));
+        Assert.assertEquals(results.get(0).size(), 3);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTooManySources() {
+        new MultiSourceIndexTraversal(hierarchy, IndexTraversal.Direction.CHILDREN)
+                .run(new int[MultiSourceIndexTraversal.MAX_SOURCES + 1], 1, (node, sources, distance) -> {});
+    }
+
+    /**
+     * Runs all classes as sources at once (repeatedly, to check whether the state is reset) and compares the results
+     * with an {@link IndexTraversal} per source.
+     */
+    private void compareWithSingleSource(IndexTraversal.Direction direction) {
+        MultiSourceIndexTraversal multiSourceTraversal = new MultiSourceIndexTraversal(hierarchy, direction);
+        IndexTraversal singleSourceTraversal = new IndexTraversal(hierarchy, direction);
+
+        int[] sources = new int[hierarchy.size()];
+        for(int i = 0; i < sources.length; i++) {
+            sources[i] = i;
+        }
+
+        for(int maxDistance = 0; maxDistance <= 5; maxDistance++) {
+            Map<Integer, Map<Integer, Integer>> results = run(multiSourceTraversal, sources, maxDistance);
+            for(int i = 0; i < sources.length; i++) {
+                singleSourceTraversal.run(sources[i], maxDistance);
+                Map<Integer, Integer> expected = new HashMap<>();
+                for(int j = 0; j < singleSourceTraversal.size(); j++) {
+                    expected.put(singleSourceTraversal.getNode(j), singleSourceTraversal.getDistance(j));
+                }
+                Assert.assertEquals(results.get(i), expected, "source: " + i + ", maxDistance: " + maxDistance);
+            }
+        }
+    }
+
+    /**
+     * @return per source position the distance per reached class
+     */
+    private Map<Integer, Map<Integer, Integer>> run(MultiSourceIndexTraversal traversal, int[] sources, int maxDistance) {
+        Map<Integer, Map<Integer, Integer>> results = new HashMap<>();
+        for(int i = 0; i < sources.length; i++) {
+            results.put(i, new HashMap<>());
+        }
+        traversal.run(sources, maxDistance, (node, mask, distance) -> {
+            for(int i = 0; i < sources.length; i++) {
+                if((mask & (1L << i)) != 0) {
+                    Assert.assertNull(results.get(i).put(node, distance), "reported twice: " + node);
+                }
+            }
+        });
+        return results;
+    }
+}
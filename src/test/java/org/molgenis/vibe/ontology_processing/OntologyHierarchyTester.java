@@ -0,0 +1,92 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDFS;
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.Phenotype;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public class OntologyHierarchyTester {
+    private OntModel model;
+    private OntologyHierarchy hierarchy;
+
+    @BeforeClass
+    public void beforeClass() {
+        model = TestOntology.createModel();
+        hierarchy = OntologyHierarchy.fromModel(model);
+    }
+
+    @Test
+    public void testSize() {
+        Assert.assertEquals(hierarchy.size(), 10);
+        Assert.assertEquals(hierarchy.edgeCount(), 11);
+    }
+
+    @Test
+    public void testParents() {
+        Assert.assertEquals(retrieveUris(hierarchy.getParents(index(5))),
+                new HashSet<>(Arrays.asList(TestOntology.hpoUri(2), TestOntology.hpoUri(3))));
+        Assert.assertEquals(hierarchy.getParents(index(1)).length, 0);
+    }
+
+    @Test
+    public void testChildren() {
+        Assert.assertEquals(retrieveUris(hierarchy.getChildren(index(6))),
+                new HashSet<>(Arrays.asList(TestOntology.hpoUri(7), TestOntology.hpoUri(9))));
+        Assert.assertEquals(hierarchy.getChildren(index(8)).length, 0);
+    }
+
+    @Test
+    public void testSkippable() {
+        Assert.assertTrue(hierarchy.isSkippable(hierarchy.getIndex("http://purl.obolibrary.org/obo/UPHENO_0000001")));
+        Assert.assertFalse(hierarchy.isSkippable(index(8)));
+    }
+
+    @Test
+    public void testUnknownUri() {
+        Assert.assertEquals(hierarchy.getIndex(TestOntology.hpoUri(1234567)), -1);
+    }
+
+    @Test
+    public void testAnonymousClassesAreIgnored() {
+        OntModel modelWithRestriction = TestOntology.createModel();
+        Resource restriction = modelWithRestriction.createResource(OWL.Restriction);
+        modelWithRestriction.getResource(TestOntology.hpoUri(4)).addProperty(RDFS.subClassOf, restriction);
+
+        OntologyHierarchy hierarchyWithRestriction = OntologyHierarchy.fromModel(modelWithRestriction);
+        Assert.assertEquals(hierarchyWithRestriction.size(), hierarchy.size());
+        Assert.assertEquals(hierarchyWithRestriction.edgeCount(), hierarchy.edgeCount());
+    }
+
+    @Test
+    public void testRetrieverOnGeneratedModel() {
+        Set<Phenotype> startPhenotypes = new HashSet<>(Collections.singletonList(new Phenotype("hp:0000005")));
+
+        for(int i = 0; i <= 4; i++) {
+            PhenotypesRetriever expected = new MaxDistanceRetriever2(model, startPhenotypes, i);
+            expected.run();
+            PhenotypesRetriever actual = new MaxDistanceRetriever2(hierarchy.toModel(), startPhenotypes, i);
+            actual.run();
+
+            Assert.assertEquals(actual.getPhenotypeNetworkCollection(), expected.getPhenotypeNetworkCollection());
+        }
+    }
+
+    private int index(int hpoId) {
+        return hierarchy.getIndex(TestOntology.hpoUri(hpoId));
+    }
+
+    private Set<String> retrieveUris(int[] indices) {
+        Set<String> uris = new HashSet<>();
+        for(int index : indices) {
+            uris.add(hierarchy.getUri(index));
+        }
+        return uris;
+    }
+}
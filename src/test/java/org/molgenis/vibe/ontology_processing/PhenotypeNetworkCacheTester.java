@@ -0,0 +1,105 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.PhenotypeNetwork;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+public class PhenotypeNetworkCacheTester {
+    private OntologyHierarchy hierarchy;
+
+    @BeforeClass
+    public void beforeClass() {
+        hierarchy = TestOntology.createHierarchy();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new PhenotypeNetworkCache(0);
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        PhenotypeNetworkCache cache = new PhenotypeNetworkCache(10);
+        PhenotypeNetwork network = new PhenotypeNetwork(new Phenotype("hp:0000002"));
+        cache.put(network, PhenotypesRetrieverFactory.DISTANCE, 2);
+
+        Assert.assertSame(cache.get(new Phenotype("hp:0000002"), PhenotypesRetrieverFactory.DISTANCE, 2), network);
+        Assert.assertNull(cache.get(new Phenotype("hp:0000002"), PhenotypesRetrieverFactory.DISTANCE, 3));
+        Assert.assertNull(cache.get(new Phenotype("hp:0000002"), PhenotypesRetrieverFactory.CHILDREN, 2));
+        Assert.assertNull(cache.get(new Phenotype("hp:0000003"), PhenotypesRetrieverFactory.DISTANCE, 2));
+
+        Assert.assertEquals(cache.getHitCount(), 1);
+        Assert.assertEquals(cache.getMissCount(), 3);
+        Assert.assertEquals(cache.getHitRate(), 0.25);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testStoredNetworkIsFrozen() {
+        PhenotypeNetworkCache cache = new PhenotypeNetworkCache(10);
+        PhenotypeNetwork network = new PhenotypeNetwork(new Phenotype("hp:0000002"));
+        cache.put(network, PhenotypesRetrieverFactory.DISTANCE, 2);
+
+        Assert.assertTrue(network.isFrozen());
+        network.add(new Phenotype("hp:0000001"), 1);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        PhenotypeNetworkCache cache = new PhenotypeNetworkCache(2);
+        cache.put(new PhenotypeNetwork(new Phenotype("hp:0000001")), PhenotypesRetrieverFactory.DISTANCE, 1);
+        cache.put(new PhenotypeNetwork(new Phenotype("hp:0000002")), PhenotypesRetrieverFactory.DISTANCE, 1);
+        // Makes hp:0000001 the most recently used.
+        cache.get(new Phenotype("hp:0000001"), PhenotypesRetrieverFactory.DISTANCE, 1);
+        cache.put(new PhenotypeNetwork(new Phenotype("hp:0000003")), PhenotypesRetrieverFactory.DISTANCE, 1);
+
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertEquals(cache.getEvictionCount(), 1);
+        Assert.assertNotNull(cache.get(new Phenotype("hp:0000001"), PhenotypesRetrieverFactory.DISTANCE, 1));
+        Assert.assertNull(cache.get(new Phenotype("hp:0000002"), PhenotypesRetrieverFactory.DISTANCE, 1));
+        Assert.assertNotNull(cache.get(new Phenotype("hp:0000003"), PhenotypesRetrieverFactory.DISTANCE, 1));
+    }
+
+    @Test
+    public void testCachingRetrieverOnlyExpandsMissing() {
+        PhenotypeNetworkCache cache = new PhenotypeNetworkCache(10);
+        List<Collection<Phenotype>> expanded = new ArrayList<>();
+
+        List<Phenotype> first = Arrays.asList(new Phenotype("hp:0000002"), new Phenotype("hp:0000005"));
+        PhenotypesRetriever retriever = createCachingRetriever(cache, first, expanded);
+        retriever.run();
+
+        List<Phenotype> second = Arrays.asList(new Phenotype("hp:0000005"), new Phenotype("hp:0000006"));
+        PhenotypesRetriever cachingRetriever = createCachingRetriever(cache, second, expanded);
+        cachingRetriever.run();
+
+        Assert.assertEquals(expanded.size(), 2);
+        Assert.assertEquals(expanded.get(1), Arrays.asList(new Phenotype("hp:0000006")));
+        Assert.assertEquals(cache.getHitCount(), 1);
+        Assert.assertEquals(cache.getMissCount(), 3);
+
+        PhenotypesRetriever uncachedRetriever = PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0, second, 2);
+        uncachedRetriever.run();
+        Assert.assertEquals(cachingRetriever.getPhenotypeNetworkCollection(), uncachedRetriever.getPhenotypeNetworkCollection());
+        Assert.assertSame(cachingRetriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(new Phenotype("hp:0000005")),
+                retriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(new Phenotype("hp:0000005")));
+    }
+
+    /**
+     * @param expanded receives the {@link Phenotype}{@code s} given to each created delegate
+     */
+    private PhenotypesRetriever createCachingRetriever(PhenotypeNetworkCache cache, Collection<Phenotype> phenotypes,
+                                                       List<Collection<Phenotype>> expanded) {
+        return new CachingPhenotypesRetriever(cache, PhenotypesRetrieverFactory.DISTANCE, missing -> {
+            expanded.add(missing);
+            return PhenotypesRetrieverFactory.DISTANCE.create(hierarchy, null, null, 0, missing, 2);
+        }, phenotypes, 2);
+    }
+}
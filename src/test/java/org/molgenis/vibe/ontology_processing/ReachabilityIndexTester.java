@@ -0,0 +1,116 @@
+package org.molgenis.vibe.ontology_processing;
+
+import org.molgenis.vibe.TestOntology;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class ReachabilityIndexTester {
+    private OntologyHierarchy hierarchy;
+    private ReachabilityIndex reachability;
+
+    @BeforeClass
+    public void beforeClass() {
+        hierarchy = TestOntology.createHierarchy();
+        reachability = new ReachabilityIndex(hierarchy);
+    }
+
+    @Test
+    public void testMultipleParents() {
+        Assert.assertTrue(reachability.isSubsumedBy(index(9), index(2)));
+        Assert.assertTrue(reachability.isSubsumedBy(index(9), index(3)));
+        Assert.assertTrue(reachability.isSubsumedBy(index(5), index(3)));
+        Assert.assertFalse(reachability.isSubsumedBy(index(7), index(2)));
+        Assert.assertFalse(reachability.isSubsumedBy(index(2), index(9)));
+    }
+
+    @Test
+    public void testReflexive() {
+        Assert.assertTrue(reachability.isSubsumedBy(index(4), index(4)));
+    }
+
+    @Test
+    public void testSkippable() {
+        int upheno = hierarchy.getIndex("http://purl.obolibrary.org/obo/UPHENO_0000001");
+        Assert.assertEquals(reachability.getPosition(upheno), -1);
+        Assert.assertEquals(reachability.getRangeCount(upheno), 0);
+        Assert.assertFalse(reachability.isSubsumedBy(upheno, index(1)));
+        Assert.assertFalse(reachability.isSubsumedBy(index(8), index(1)));
+    }
+
+    @Test
+    public void testDescendantsOfRoot() {
+        Set<Integer> descendants = new HashSet<>();
+        reachability.forEachDescendant(index(1), descendants::add);
+
+        Assert.assertEquals(descendants, indices(2, 3, 4, 5, 6, 7, 9));
+        Assert.assertEquals(reachability.getDescendantCount(index(1)), 7);
+        Assert.assertEquals(reachability.getRangeCount(index(1)), 1);
+    }
+
+    @Test
+    public void testEqualToTraversal() {
+        assertEqualToTraversal(hierarchy, reachability);
+    }
+
+    @Test
+    public void testRandomDagEqualToTraversal() {
+        Random random = new Random(3);
+        int size = 300;
+        String[] uris = new String[size];
+        int[] subClasses = new int[size * 2];
+        int[] superClasses = new int[size * 2];
+        int edgeCount = 0;
+        for(int i = 0; i < size; i++) {
+            uris[i] = TestOntology.hpoUri(i + 1);
+            // Only relations to classes with a lower index, so the hierarchy is acyclic.
+            for(int j = 0; i > 0 && j < 1 + random.nextInt(2); j++) {
+                subClasses[edgeCount] = i;
+                superClasses[edgeCount] = random.nextInt(i);
+                edgeCount++;
+            }
+        }
+        OntologyHierarchy dag = new OntologyHierarchy(uris, Arrays.copyOf(subClasses, edgeCount),
+                Arrays.copyOf(superClasses, edgeCount));
+
+        assertEqualToTraversal(dag, new ReachabilityIndex(dag));
+    }
+
+    private void assertEqualToTraversal(OntologyIndex index, ReachabilityIndex reachability) {
+        IndexTraversal traversal = new IndexTraversal(index, IndexTraversal.Direction.CHILDREN);
+        for(int ancestor = 0; ancestor < index.size(); ancestor++) {
+            if(index.isSkippable(ancestor)) {
+                continue;
+            }
+            traversal.run(ancestor, Integer.MAX_VALUE);
+
+            Set<Integer> descendants = new HashSet<>();
+            reachability.forEachDescendant(ancestor, descendants::add);
+            Assert.assertEquals(descendants.size() + 1, traversal.size(), index.getUri(ancestor));
+            Assert.assertEquals(reachability.getDescendantCount(ancestor), descendants.size());
+
+            for(int node = 0; node < index.size(); node++) {
+                Assert.assertEquals(reachability.isSubsumedBy(node, ancestor), traversal.isVisited(node),
+                        index.getUri(node) + " under " + index.getUri(ancestor));
+                Assert.assertEquals(descendants.contains(node), node != ancestor && traversal.isVisited(node));
+            }
+        }
+    }
+
+    private Set<Integer> indices(int... ids) {
+        Set<Integer> indices = new HashSet<>();
+        for(int id : ids) {
+            indices.add(index(id));
+        }
+        return indices;
+    }
+
+    private int index(int id) {
+        return hierarchy.getIndex(TestOntology.hpoUri(id));
+    }
+}
@@ -0,0 +1,157 @@
+package org.molgenis.vibe.options_digestion;
+
+import org.molgenis.vibe.options_digestion.StageScheduler.Stage;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class StageSchedulerTester {
+    @Test
+    public void testDependencyResults() throws Exception {
+        StageScheduler scheduler = new StageScheduler(text -> {});
+        Stage<Integer> first = scheduler.addStage("first", () -> 1);
+        Stage<Integer> second = scheduler.addStage("second", () -> 2);
+        Stage<Integer> sum = scheduler.addStage("sum", () -> first.get() + second.get(), first, second);
+        scheduler.run();
+
+        Assert.assertEquals(sum.get(), Integer.valueOf(3));
+    }
+
+    @Test
+    public void testDependencyOrder() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        StageScheduler scheduler = new StageScheduler(text -> {});
+        Stage<Void> first = scheduler.addStage("first", () -> {
+            Thread.sleep(50);
+            order.add("first");
+            return null;
+        });
+        scheduler.addStage("second", () -> {
+            order.add("second");
+            return null;
+        }, first);
+        scheduler.run();
+
+        Assert.assertEquals(order, new ArrayList<String>() {{ add("first"); add("second"); }});
+    }
+
+    /**
+     * Both stages can only finish if they run concurrently.
+     */
+    @Test(timeOut = 10000)
+    public void testIndependentStagesOverlap() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        StageScheduler scheduler = new StageScheduler(text -> {});
+        for(String name : new String[]{"first", "second"}) {
+            scheduler.addStage(name, () -> {
+                latch.countDown();
+                return latch.await(5, TimeUnit.SECONDS);
+            });
+        }
+        scheduler.run();
+
+        for(Stage<?> stage : scheduler.getStages()) {
+            Assert.assertEquals(stage.get(), true);
+        }
+    }
+
+    @Test
+    public void testLaneUsesSingleThread() throws Exception {
+        StageScheduler scheduler = new StageScheduler(text -> {});
+        ExecutorService lane = scheduler.createLane("test");
+        Stage<Thread> first = scheduler.addStage("first", lane, Thread::currentThread);
+        Stage<Thread> other = scheduler.addStage("other", () -> {
+            Thread.sleep(50);
+            return Thread.currentThread();
+        });
+        Stage<Thread> second = scheduler.addStage("second", lane, Thread::currentThread, first, other);
+        scheduler.run();
+
+        Assert.assertSame(first.get(), second.get());
+        Assert.assertNotSame(first.get(), other.get());
+    }
+
+    @Test
+    public void testPoolUsableWithinLaneStage() throws Exception {
+        StageScheduler scheduler = new StageScheduler(text -> {});
+        ExecutorService lane = scheduler.createLane("test");
+        ExecutorService pool = scheduler.createPool("pool", 2);
+        Stage<Integer> stage = scheduler.addStage("stage", lane, () -> pool.submit(() -> 1).get() + pool.submit(() -> 2).get());
+        scheduler.run();
+
+        Assert.assertEquals(stage.get(), Integer.valueOf(3));
+        Assert.assertTrue(pool.isShutdown());
+    }
+
+    @Test
+    public void testTimingsArePrinted() throws Exception {
+        List<String> lines = new ArrayList<>();
+        StageScheduler scheduler = new StageScheduler(lines::add);
+        scheduler.addStage("my stage", () -> null);
+        scheduler.run();
+
+        Assert.assertEquals(lines.size(), 2);
+        Assert.assertTrue(lines.get(0).startsWith("Elapsed time (my stage): "));
+        Assert.assertTrue(lines.get(1).startsWith("Total elapsed time: "));
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "failing stage")
+    public void testExceptionIsUnwrapped() throws Exception {
+        StageScheduler scheduler = new StageScheduler(text -> {});
+        scheduler.addStage("failing", () -> {
+            throw new IOException("failing stage");
+        });
+        scheduler.run();
+    }
+
+    @Test
+    public void testDependentStageNotRunAfterFailure() throws Exception {
+        AtomicBoolean dependentRan = new AtomicBoolean(false);
+        StageScheduler scheduler = new StageScheduler(text -> {});
+        Stage<Void> failing = scheduler.addStage("failing", () -> {
+            throw new IllegalStateException("failing stage");
+        });
+        scheduler.addStage("dependent", () -> {
+            dependentRan.set(true);
+            return null;
+        }, failing);
+
+        try {
+            scheduler.run();
+            Assert.fail("Exception should have been thrown.");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals(e.getMessage(), "failing stage");
+        }
+        Assert.assertFalse(dependentRan.get());
+    }
+
+    /**
+     * A failing stage should not have to wait for a slow independent stage.
+     */
+    @Test(timeOut = 5000)
+    public void testFailsFast() throws Exception {
+        StageScheduler scheduler = new StageScheduler(text -> {});
+        scheduler.addStage("slow", () -> {
+            Thread.sleep(60000);
+            return null;
+        });
+        scheduler.addStage("failing", () -> {
+            throw new IOException("failing stage");
+        });
+
+        try {
+            scheduler.run();
+            Assert.fail("Exception should have been thrown.");
+        } catch (IOException e) {
+            Assert.assertEquals(e.getMessage(), "failing stage");
+        }
+    }
+}
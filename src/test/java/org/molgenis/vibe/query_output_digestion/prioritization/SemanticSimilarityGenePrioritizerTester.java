@@ -0,0 +1,72 @@
+package org.molgenis.vibe.query_output_digestion.prioritization;
+
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.ontology_processing.InformationContent;
+import org.molgenis.vibe.ontology_processing.OntologyHierarchy;
+import org.molgenis.vibe.ontology_processing.ReachabilityIndex;
+import org.molgenis.vibe.similarity.MicaIndex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public class SemanticSimilarityGenePrioritizerTester {
+
+    /**
+     * The input phenotype hp:0000007 is most similar to hp:0000009 (through hp:0000006), less similar to hp:0000005
+     * (through hp:0000003) and least similar to hp:0000004 (through hp:0000001).
+     */
+    @Test
+    public void testOrdering() {
+        Map<String, Integer> annotationCounts = new HashMap<>();
+        annotationCounts.put(TestOntology.hpoUri(4), 1);
+        annotationCounts.put(TestOntology.hpoUri(5), 1);
+        annotationCounts.put(TestOntology.hpoUri(7), 2);
+        annotationCounts.put(TestOntology.hpoUri(9), 4);
+        MicaIndex micaIndex = new MicaIndex(InformationContent.fromAnnotationCounts(
+                new ReachabilityIndex(TestOntology.createHierarchy()), annotationCounts));
+
+        Gene[] genes = new Gene[]{
+                new Gene("ncbigene:1"),
+                new Gene("ncbigene:2"),
+                new Gene("ncbigene:3"),
+                new Gene("ncbigene:4")
+        };
+
+        Disease[] diseases = new Disease[]{
+                new Disease("umls:C1"),
+                new Disease("umls:C2"),
+                new Disease("umls:C3"),
+                new Disease("umls:C4")
+        };
+
+        GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection(new HashSet<>(Arrays.asList(
+                new GeneDiseaseCombination(genes[0], diseases[0], 0.9),
+                new GeneDiseaseCombination(genes[1], diseases[1], 0.1),
+                new GeneDiseaseCombination(genes[1], diseases[0], 0.1),
+                new GeneDiseaseCombination(genes[2], diseases[2], 0.5),
+                new GeneDiseaseCombination(genes[3], diseases[3], 0.4)
+        )));
+
+        PhenotypeDiseaseCollection phenotypeDiseaseCollection = new PhenotypeDiseaseCollection(new HashSet<>(Arrays.asList(
+                new PhenotypeDiseaseCombination(new Phenotype("hp:0000004"), diseases[0]),
+                new PhenotypeDiseaseCombination(new Phenotype("hp:0000009"), diseases[1]),
+                new PhenotypeDiseaseCombination(new Phenotype("hp:0000005"), diseases[2])
+        )));
+
+        List<Gene> expectedPriority = new ArrayList<>( Arrays.asList(
+                genes[1], // hp:0000009
+                genes[2], // hp:0000005
+                genes[0], // hp:0000004 (0 similarity, highest GDA score)
+                genes[3] // no phenotypes (0 similarity)
+        ));
+
+        SemanticSimilarityGenePrioritizer prioritizer = (SemanticSimilarityGenePrioritizer) GenePrioritizerFactory.RESNIK_SIMILARITY.create(
+                geneDiseaseCollection, phenotypeDiseaseCollection, micaIndex, Collections.singletonList(new Phenotype("hp:0000007")));
+        prioritizer.run();
+        Assert.assertEquals(prioritizer.getPriority(), expectedPriority);
+        Assert.assertEquals(prioritizer.getScore(genes[1]), Math.log(8.0 / 6), 1e-9);
+        Assert.assertEquals(prioritizer.getScore(diseases[3]), 0, 1e-9);
+    }
+}
@@ -0,0 +1,98 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.molgenis.vibe.TestDisgenet;
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.GeneDiseaseCombination;
+import org.molgenis.vibe.io.ModelReader;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetAssociationType;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.*;
+
+public class AssociationTypesRetrieverTester {
+    private static final String SIO = "http://semanticscience.org/resource/";
+
+    private ModelReader reader;
+
+    @BeforeClass
+    public void beforeClass() {
+        reader = TestDisgenet.createModelReader();
+    }
+
+    @Test
+    public void retrieveRoot() {
+        Assert.assertEquals(retrieveTypes(DisgenetAssociationType.ROOT),
+                types("SIO_000983", "SIO_001122", "SIO_001119", "SIO_001121", "SIO_001120"));
+    }
+
+    @Test
+    public void retrieveSubclass() {
+        Assert.assertEquals(retrieveTypes(DisgenetAssociationType.GENETIC_VARIATION), types("SIO_001122", "SIO_001119"));
+    }
+
+    @Test
+    public void retrieveWithoutSubclasses() {
+        Assert.assertEquals(retrieveTypes(DisgenetAssociationType.THERAPEUTIC), types("SIO_001120"));
+    }
+
+    @Test
+    public void retrieveTypeNotInDataset() {
+        Assert.assertEquals(retrieveTypes(DisgenetAssociationType.FUSION_GENE), types("SIO_001348"));
+    }
+
+    @Test
+    public void retrieveGdasForSubclass() {
+        Set<String> expected = new HashSet<>(Arrays.asList(
+                "1 - C0000001 - 0.6",
+                "3 - C0000002 - 0.1",
+                "2 - C0000003 - 0.5"
+        ));
+        Set<URI> types = retrieveTypes(DisgenetAssociationType.GENETIC_VARIATION);
+
+        Assert.assertEquals(retrieveGdas(DisgenetQueryEngine.SPARQL, types), expected);
+        Assert.assertEquals(retrieveGdas(DisgenetQueryEngine.NATIVE, types), expected);
+    }
+
+    @Test
+    public void retrieveGdasForTypeNotInDataset() {
+        Set<URI> types = retrieveTypes(DisgenetAssociationType.FUSION_GENE);
+
+        Assert.assertEquals(retrieveGdas(DisgenetQueryEngine.SPARQL, types), Collections.emptySet());
+        Assert.assertEquals(retrieveGdas(DisgenetQueryEngine.NATIVE, types), Collections.emptySet());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void setEmptyAssociationTypes() {
+        new GenesForPhenotypeRetriever(reader, new HashSet<>()).setAssociationTypes(Collections.emptySet());
+    }
+
+    private Set<URI> retrieveTypes(DisgenetAssociationType root) {
+        AssociationTypesRetriever retriever = new AssociationTypesRetriever(reader, root);
+        retriever.run();
+        return retriever.getAssociationTypes();
+    }
+
+    private Set<String> retrieveGdas(DisgenetQueryEngine queryEngine, Set<URI> types) {
+        GenesForPhenotypeRetriever retriever = new GenesForPhenotypeRetriever(reader, TestOntology.phenotypes(4, 7, 9));
+        retriever.setAssociationTypes(types);
+        retriever.setQueryEngine(queryEngine);
+        retriever.run();
+
+        Set<String> gdas = new HashSet<>();
+        for(GeneDiseaseCombination gdc : retriever.getGeneDiseaseCollection().getGeneDiseaseCombinations()) {
+            gdas.add(gdc.getGene().getId() + " - " + gdc.getDisease().getId() + " - " + gdc.getDisgenetScore());
+        }
+        return gdas;
+    }
+
+    private Set<URI> types(String... ids) {
+        Set<URI> types = new HashSet<>();
+        for(String id : ids) {
+            types.add(URI.create(SIO + id));
+        }
+        return types;
+    }
+}
@@ -0,0 +1,131 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.molgenis.vibe.TestDisgenet;
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.GeneDiseaseCombination;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.formats.Source;
+import org.molgenis.vibe.io.ModelReader;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the {@link GenesForPhenotypeRetriever} on a TDB (created from {@link TestDisgenet}), so that each chunk is
+ * queried within a read transaction of its own.
+ */
+public class ChunkedGenesForPhenotypeRetrieverTester {
+    private static final Set<String> EXPECTED = new HashSet<>(Arrays.asList(
+            "1 - C0000001 - 0.6 - [CURATED]",
+            "1 - C0000002 - 0.3 - [LITERATURE]",
+            "3 - C0000002 - 0.1 - [CURATED]",
+            "2 - C0000003 - 0.5 - [CURATED]",
+            "3 - C0000004 - 0.2 - [LITERATURE]"
+    ));
+
+    private Path dir;
+    private ModelReader reader;
+    private ExecutorService pool;
+
+    @BeforeClass
+    public void beforeClass() throws IOException {
+        dir = Files.createTempDirectory("vibe-tdb");
+        reader = TestDisgenet.createTripleStoreDb(dir, TestDisgenet.createModel());
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() throws IOException {
+        pool.shutdownNow();
+        reader.close();
+        TestDisgenet.deleteTripleStoreDb(dir);
+    }
+
+    @Test
+    public void retrieveWithoutChunks() {
+        Assert.assertEquals(retrieve(Integer.MAX_VALUE, null), EXPECTED);
+    }
+
+    @Test
+    public void retrieveSequentialChunks() {
+        Assert.assertEquals(retrieve(1, null), EXPECTED);
+    }
+
+    @Test
+    public void retrieveConcurrentChunks() {
+        Assert.assertEquals(retrieve(1, pool), EXPECTED);
+        Assert.assertEquals(retrieve(2, pool), EXPECTED);
+    }
+
+    @Test
+    public void retrieveConcurrentChunksNative() {
+        GenesForPhenotypeRetriever retriever = createRetriever(TestOntology.phenotypes(4, 7, 9), 1, pool);
+        retriever.setQueryEngine(DisgenetQueryEngine.NATIVE);
+        retriever.run();
+        Assert.assertEquals(toStrings(retriever.getGeneDiseaseCollection().getGeneDiseaseCombinations()), EXPECTED);
+    }
+
+    @Test
+    public void retrieveIncrementallyWithConcurrentChunks() {
+        GenesForPhenotypeRetriever first = createRetriever(TestOntology.phenotypes(4), 1, pool);
+        first.run();
+        GenesForPhenotypeRetriever second = new GenesForPhenotypeRetriever(reader, TestOntology.phenotypes(7, 9),
+                new HashMap<>(), first.getGeneDiseaseCollection());
+        second.setChunkSize(1);
+        second.setExecutor(pool);
+        second.run();
+
+        Assert.assertEquals(toStrings(second.getGeneDiseaseCollection().getGeneDiseaseCombinations()), EXPECTED);
+    }
+
+    @Test
+    public void retrieveKeepsExecutorRunning() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            retrieve(1, executor);
+            Assert.assertFalse(executor.isShutdown());
+            Assert.assertEquals(retrieve(1, executor), EXPECTED);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void setInvalidChunkSize() {
+        createRetriever(TestOntology.phenotypes(4), 0, null);
+    }
+
+    private Set<String> retrieve(int chunkSize, ExecutorService executor) {
+        GenesForPhenotypeRetriever retriever = createRetriever(TestOntology.phenotypes(4, 7, 9), chunkSize, executor);
+        retriever.run();
+        return toStrings(retriever.getGeneDiseaseCollection().getGeneDiseaseCombinations());
+    }
+
+    private GenesForPhenotypeRetriever createRetriever(Set<Phenotype> phenotypes, int chunkSize, ExecutorService executor) {
+        GenesForPhenotypeRetriever retriever = new GenesForPhenotypeRetriever(reader, phenotypes);
+        retriever.setChunkSize(chunkSize);
+        retriever.setExecutor(executor);
+        return retriever;
+    }
+
+    private Set<String> toStrings(Set<GeneDiseaseCombination> gdcs) {
+        Set<String> strings = new HashSet<>();
+        for(GeneDiseaseCombination gdc : gdcs) {
+            List<String> sources = new ArrayList<>();
+            for(Source source : gdc.getSourcesWithCount()) {
+                sources.add(source.getName());
+            }
+            Collections.sort(sources);
+            strings.add(gdc.getGene().getId() + " - " + gdc.getDisease().getId() + " - " + gdc.getDisgenetScore() + " - " + sources);
+        }
+        return strings;
+    }
+}
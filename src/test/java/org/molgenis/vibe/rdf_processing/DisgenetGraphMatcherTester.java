@@ -0,0 +1,153 @@
+package org.molgenis.vibe.rdf_processing;
+
+import org.molgenis.vibe.TestDisgenet;
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.io.ModelReader;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Compares the {@link DisgenetGraphMatcher} with the SPARQL queries of the {@link GenesForPhenotypeRetriever}. Besides
+ * {@link TestDisgenet}, the data contains a gene-disease association with multiple types, sources and evidence (for a
+ * disease with multiple titles), a phenotype-disease association referring to a gene and a gene without symbol. The
+ * comparison is done both in memory and on a TDB containing the same data.
+ */
+public class DisgenetGraphMatcherTester {
+    private static final String ADDITIONAL_TURTLE =
+            "ex:gda7 a sio:SIO_001119 , sio:SIO_001122 ; sio:SIO_000628 ncbigene:2 , umls:C0000001 ; sio:SIO_000216 ex:score7 ; " +
+            "sio:SIO_000253 void:CURATED , void:LITERATURE ; sio:SIO_000772 pubmed:2 , pubmed:3 .\n" +
+            "ex:score7 a ncit:C25338 ; sio:SIO_000300 \"0.4\"^^xsd:double .\n" +
+            "umls:C0000001 dcterms:title \"Disease 1 synonym\" .\n" +
+            "ex:pda4 a sio:SIO_000897 ; sio:SIO_000628 ncbigene:4 , umls:C0000001 ; sio:SIO_000216 ex:score7 ; " +
+            "sio:SIO_000253 void:CURATED .\n" +
+            "ncbigene:5 a ncit:C16612 ; dcterms:identifier \"ncbigene:5\" ; dcterms:title \"Gene 5\" .\n" +
+            "ex:gda9 a sio:SIO_001119 ; sio:SIO_000628 ncbigene:5 , umls:C0000001 ; sio:SIO_000216 ex:score7 ; " +
+            "sio:SIO_000253 void:CURATED .\n";
+
+    private ModelReader reader;
+    private Path tdbDir;
+    private ModelReader tdbReader;
+
+    @BeforeClass
+    public void beforeClass() throws IOException {
+        reader = TestDisgenet.createModelReader(TestDisgenet.createModel(ADDITIONAL_TURTLE));
+        tdbDir = Files.createTempDirectory("vibe-tdb");
+        tdbReader = TestDisgenet.createTripleStoreDb(tdbDir, TestDisgenet.createModel(ADDITIONAL_TURTLE));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() throws IOException {
+        tdbReader.close();
+        TestDisgenet.deleteTripleStoreDb(tdbDir);
+    }
+
+    @Test
+    public void compareWithSparql() {
+        Set<String> sparql = retrieve(DisgenetQueryEngine.SPARQL, TestOntology.phenotypes(4, 7, 9), 1);
+        Set<String> graph = retrieve(DisgenetQueryEngine.NATIVE, TestOntology.phenotypes(4, 7, 9), 1);
+
+        Assert.assertEquals(graph, sparql);
+        Assert.assertEquals(graph.size(), 6);
+    }
+
+    @Test
+    public void compareWithSparqlChunked() {
+        Assert.assertEquals(retrieve(DisgenetQueryEngine.NATIVE, TestOntology.phenotypes(4, 7, 9), 2),
+                retrieve(DisgenetQueryEngine.SPARQL, TestOntology.phenotypes(4, 7, 9), 2));
+    }
+
+    @Test
+    public void compareWithSparqlPerPhenotype() {
+        for(int id : new int[]{1, 4, 5, 7, 8, 9}) {
+            Assert.assertEquals(retrieve(DisgenetQueryEngine.NATIVE, TestOntology.phenotypes(id), 1),
+                    retrieve(DisgenetQueryEngine.SPARQL, TestOntology.phenotypes(id), 1), "HP_" + id);
+        }
+    }
+
+    @Test
+    public void compareWithSparqlOnTripleStoreDb() {
+        Set<String> sparql = retrieve(tdbReader, DisgenetQueryEngine.SPARQL, TestOntology.phenotypes(4, 7, 9), 1);
+        Set<String> graph = retrieve(tdbReader, DisgenetQueryEngine.NATIVE, TestOntology.phenotypes(4, 7, 9), 1);
+
+        Assert.assertEquals(graph, sparql);
+        Assert.assertEquals(graph, retrieve(DisgenetQueryEngine.NATIVE, TestOntology.phenotypes(4, 7, 9), 1));
+    }
+
+    @Test
+    public void compareWithSparqlOnTripleStoreDbChunked() {
+        Assert.assertEquals(retrieve(tdbReader, DisgenetQueryEngine.NATIVE, TestOntology.phenotypes(4, 7, 9), 2),
+                retrieve(tdbReader, DisgenetQueryEngine.SPARQL, TestOntology.phenotypes(4, 7, 9), 2));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void failOnUnknownSource() {
+        Map<URI, Source> sources = new HashMap<>();
+        sources.put(URI.create("http://rdf.disgenet.org/v5.0.0/void/CURATED"), new Source("CURATED"));
+        // Phenotype 7 also results in a gene-disease association from LITERATURE.
+        GenesForPhenotypeRetriever retriever = new GenesForPhenotypeRetriever(reader, TestOntology.phenotypes(7), sources);
+        retriever.setQueryEngine(DisgenetQueryEngine.NATIVE);
+        retriever.run();
+    }
+
+    @Test
+    public void countMultipleResultsPerAssociation() {
+        // 2 types * 2 disease titles * 2 evidence per source.
+        Assert.assertTrue(retrieve(DisgenetQueryEngine.NATIVE, TestOntology.phenotypes(4), 1).contains(
+                "2 - C0000001 - 0.4 - {CURATED=8, LITERATURE=8} - [2, 3]"));
+    }
+
+    @Test
+    public void skipIncompleteGenes() {
+        GenesForPhenotypeRetriever retriever = new GenesForPhenotypeRetriever(reader, TestOntology.phenotypes(4));
+        retriever.setQueryEngine(DisgenetQueryEngine.NATIVE);
+        retriever.run();
+
+        Set<String> genes = new HashSet<>();
+        for(Gene gene : retriever.getGeneDiseaseCollection().getGenes()) {
+            genes.add(gene.getId());
+        }
+        Assert.assertEquals(genes, new HashSet<>(Arrays.asList("1", "2")));
+    }
+
+    private Set<String> retrieve(DisgenetQueryEngine queryEngine, Set<Phenotype> phenotypes, int chunkSize) {
+        return retrieve(reader, queryEngine, phenotypes, chunkSize);
+    }
+
+    private Set<String> retrieve(ModelReader reader, DisgenetQueryEngine queryEngine, Set<Phenotype> phenotypes, int chunkSize) {
+        GenesForPhenotypeRetriever retriever = new GenesForPhenotypeRetriever(reader, phenotypes);
+        retriever.setQueryEngine(queryEngine);
+        retriever.setChunkSize(chunkSize);
+        retriever.run();
+        return toStrings(retriever.getGeneDiseaseCollection().getGeneDiseaseCombinations());
+    }
+
+    /**
+     * Describes each {@link GeneDiseaseCombination} by its gene, disease, score, count per source and evidence.
+     */
+    private Set<String> toStrings(Set<GeneDiseaseCombination> gdcs) {
+        Set<String> strings = new HashSet<>();
+        for(GeneDiseaseCombination gdc : gdcs) {
+            Map<String, Integer> counts = new TreeMap<>();
+            for(Source source : gdc.getSourcesWithCount()) {
+                counts.put(source.getName(), gdc.getCountForSource(source));
+            }
+            List<String> evidence = new ArrayList<>();
+            for(URI uri : gdc.getAllEvidence()) {
+                evidence.add(uri.toString().substring(uri.toString().lastIndexOf('/') + 1));
+            }
+            Collections.sort(evidence);
+            strings.add(gdc.getGene().getId() + " - " + gdc.getDisease().getId() + " - " + gdc.getDisgenetScore() +
+                    " - " + counts + " - " + evidence);
+        }
+        return strings;
+    }
+}
@@ -88,6 +88,27 @@ public class GenesForPhenotypeRetrieverTester {
         assertGeneDiseaseCombination(actualCollection, expectedCollection);
     }
 
+    @Test
+    public void retrieveGeneDiseaseCollectionIncrementally() {
+        Phenotype firstPhenotype = new Phenotype("hp:0001377");
+        Phenotype secondPhenotype = new Phenotype("hp:0005060");
+
+        retriever = new GenesForPhenotypeRetriever(reader, new HashSet<>(Arrays.asList(firstPhenotype, secondPhenotype)));
+        retriever.run();
+        GeneDiseaseCollection expectedCollection = retriever.getGeneDiseaseCollection();
+
+        retriever = new GenesForPhenotypeRetriever(reader, Collections.singleton(firstPhenotype));
+        retriever.run();
+        GeneDiseaseCollection actualCollection = retriever.getGeneDiseaseCollection();
+
+        retriever = new GenesForPhenotypeRetriever(reader, Collections.singleton(secondPhenotype), retriever.getSources(),
+                actualCollection);
+        retriever.run();
+
+        Assert.assertSame(retriever.getGeneDiseaseCollection(), actualCollection);
+        assertGeneDiseaseCombination(actualCollection, expectedCollection);
+    }
+
     @Test
     public void retrieveGeneDiseaseCollectionWithDiseaseNotDirectlyLinkedToPhenotype() {
 
@@ -6,6 +6,7 @@ import org.molgenis.vibe.formats.Gene;
 import org.molgenis.vibe.formats.Phenotype;
 import org.molgenis.vibe.io.ModelReader;
 import org.molgenis.vibe.io.TripleStoreDbReader;
+import org.molgenis.vibe.rdf_processing.AssociationTypesRetriever;
 import org.molgenis.vibe.rdf_processing.QueryTester;
 import org.molgenis.vibe.rdf_processing.querying.QueryRunnerRewindable;
 import org.testng.Assert;
@@ -29,11 +30,16 @@ public class DisgenetQueryStringGeneratorTester extends QueryTester {
 
     private ModelReader reader;
 
+    private Set<URI> associationTypes;
+
     private QueryRunnerRewindable runner;
 
     @BeforeClass
     public void beforeClass() throws IOException {
         reader = new TripleStoreDbReader(TestData.TDB_MINI.getDir());
+        AssociationTypesRetriever associationTypesRetriever = new AssociationTypesRetriever(reader, DisgenetAssociationType.ROOT);
+        associationTypesRetriever.run();
+        associationTypes = associationTypesRetriever.getAssociationTypes();
     }
 
     @AfterClass(alwaysRun = true)
@@ -99,7 +105,7 @@ public class DisgenetQueryStringGeneratorTester extends QueryTester {
                 Arrays.asList("http://identifiers.org/ncbigene/1292", "ncbigene:1292", "collagen type VI alpha 2 chain", "COL6A2")
         );
 
-        QueryString queryString = DisgenetQueryStringGenerator.getGenesForPhenotypes(phenotypes);
+        QueryString queryString = DisgenetQueryStringGenerator.getGenesForPhenotypes(phenotypes, associationTypes);
         runQueryTest(queryString, fieldOrder, expectedOutput);
     }
 
@@ -115,7 +121,7 @@ public class DisgenetQueryStringGeneratorTester extends QueryTester {
                 Arrays.asList("http://identifiers.org/ncbigene/1291", "http://linkedlifedata.com/resource/umls/id/C0026850", "umls:C0026850", "Muscular Dystrophy", "0.214763469460921E0", "http://rdf.disgenet.org/v5.0.0/void/BEFREE", "http://identifiers.org/pubmed/19519726")
         );
 
-        QueryString queryString = DisgenetQueryStringGenerator.getGdasWithDiseasesForGenes(genes);
+        QueryString queryString = DisgenetQueryStringGenerator.getGdasWithDiseasesForGenes(genes, associationTypes);
         runQueryTest(queryString, fieldOrder, expectedOutput);
     }
 }
@@ -0,0 +1,138 @@
+package org.molgenis.vibe.rdf_processing.querying;
+
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.rdf.model.Model;
+import org.molgenis.vibe.TestDisgenet;
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.*;
+import org.molgenis.vibe.rdf_processing.AssociationTypesRetriever;
+import org.molgenis.vibe.rdf_processing.GenesForPhenotypeRetriever;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetAssociationType;
+import org.molgenis.vibe.rdf_processing.query_string_creation.DisgenetQueryStringGenerator;
+import org.molgenis.vibe.rdf_processing.query_string_creation.QueryString;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.*;
+
+public class PreparedQueryTester {
+    private Model model;
+    private Set<URI> types;
+
+    @BeforeClass
+    public void beforeClass() {
+        model = TestDisgenet.createModel();
+        AssociationTypesRetriever retriever = new AssociationTypesRetriever(TestDisgenet.createModelReader(), DisgenetAssociationType.ROOT);
+        retriever.run();
+        types = retriever.getAssociationTypes();
+    }
+
+    @Test
+    public void genesForPhenotypesEqualsQueryString() {
+        Set<Phenotype> phenotypes = TestOntology.phenotypes(4, 7);
+        PreparedQuery query = new PreparedQuery(DisgenetQueryStringGenerator.getGenesForPhenotypesTemplate(types), "hpo");
+
+        Set<String> expected = run(DisgenetQueryStringGenerator.getGenesForPhenotypes(phenotypes, types));
+        Assert.assertEquals(expected.size(), 3);
+        Assert.assertEquals(run(query, phenotypes), expected);
+    }
+
+    @Test
+    public void gdasWithDiseasesForGenesEqualsQueryString() {
+        Set<Gene> genes = new HashSet<>(Arrays.asList(new Gene("ncbigene:1"), new Gene("ncbigene:3")));
+        PreparedQuery query = new PreparedQuery(DisgenetQueryStringGenerator.getGdasWithDiseasesForGenesTemplate(types), "gene");
+
+        Set<String> expected = run(DisgenetQueryStringGenerator.getGdasWithDiseasesForGenes(genes, types));
+        Assert.assertEquals(expected.size(), 4);
+        Assert.assertEquals(run(query, genes), expected);
+    }
+
+    @Test
+    public void phenotypesForDiseasesEqualsQueryString() {
+        Set<Disease> diseases = new HashSet<>(Arrays.asList(new Disease("umls:C0000001"), new Disease("umls:C0000003")));
+        PreparedQuery query = new PreparedQuery(DisgenetQueryStringGenerator.getPhenotypesForDiseasesTemplate(), "disease");
+
+        Set<String> expected = run(DisgenetQueryStringGenerator.getPhenotypesForDiseases(diseases));
+        Assert.assertEquals(expected.size(), 3);
+        Assert.assertEquals(run(query, diseases), expected);
+    }
+
+    @Test
+    public void reuseWithDifferentValues() {
+        PreparedQuery query = new PreparedQuery(DisgenetQueryStringGenerator.getGenesForPhenotypesTemplate(types), "hpo");
+
+        Assert.assertEquals(run(query, TestOntology.phenotypes(4)), run(DisgenetQueryStringGenerator.getGenesForPhenotypes(TestOntology.phenotypes(4), types)));
+        Assert.assertEquals(run(query, TestOntology.phenotypes(9)), run(DisgenetQueryStringGenerator.getGenesForPhenotypes(TestOntology.phenotypes(9), types)));
+        Assert.assertEquals(run(query, TestOntology.phenotypes(4)).size(), 1);
+    }
+
+    @Test
+    public void singleValueWithoutResults() {
+        PreparedQuery query = new PreparedQuery(DisgenetQueryStringGenerator.getGenesForPhenotypesTemplate(types), "hpo");
+        Assert.assertEquals(run(query, TestOntology.phenotypes(5)), Collections.emptySet());
+    }
+
+    @Test
+    public void retrieveGeneDiseaseCollection() {
+        GenesForPhenotypeRetriever retriever = new GenesForPhenotypeRetriever(TestDisgenet.createModelReader(), TestOntology.phenotypes(4, 7));
+        retriever.run();
+
+        Set<String> actual = new HashSet<>();
+        for(GeneDiseaseCombination gdc : retriever.getGeneDiseaseCollection().getGeneDiseaseCombinations()) {
+            actual.add(gdc.getGene().getId() + " - " + gdc.getDisease().getId() + " - " + gdc.getDisgenetScore());
+        }
+        Set<String> expected = new HashSet<>(Arrays.asList(
+                "1 - C0000001 - 0.6",
+                "1 - C0000002 - 0.3",
+                "3 - C0000002 - 0.1",
+                "2 - C0000003 - 0.5",
+                "3 - C0000004 - 0.2"
+        ));
+        Assert.assertEquals(actual, expected);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void bindEmptyCollection() {
+        new PreparedQuery(DisgenetQueryStringGenerator.getGenesForPhenotypesTemplate(types), "hpo").bind(Collections.emptySet());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void queryWithoutValuesBlock() {
+        new PreparedQuery(DisgenetQueryStringGenerator.getSources(), "hpo");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void queryWithValuesBlockForOtherVariable() {
+        new PreparedQuery(DisgenetQueryStringGenerator.getGenesForPhenotypesTemplate(types), "gene");
+    }
+
+    private Set<String> run(QueryString queryString) {
+        return collect(new QueryRunner(model, queryString));
+    }
+
+    private Set<String> run(PreparedQuery query, Collection<? extends ResourceUri> values) {
+        return collect(new QueryRunner(model, query, values));
+    }
+
+    /**
+     * Stores each result as a {@link String} (the distinct results are compared, as the order is not defined).
+     */
+    private Set<String> collect(QueryRunner runner) {
+        Set<String> results = new HashSet<>();
+        while(runner.hasNext()) {
+            QuerySolution solution = runner.next();
+            List<String> fields = new ArrayList<>();
+            Iterator<String> names = solution.varNames();
+            while(names.hasNext()) {
+                String name = names.next();
+                fields.add(name + "=" + solution.get(name));
+            }
+            Collections.sort(fields);
+            results.add(String.join(", ", fields));
+        }
+        runner.close();
+        return results;
+    }
+}
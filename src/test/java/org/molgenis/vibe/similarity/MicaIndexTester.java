@@ -0,0 +1,139 @@
+package org.molgenis.vibe.similarity;
+
+import org.molgenis.vibe.TestOntology;
+import org.molgenis.vibe.formats.Phenotype;
+import org.molgenis.vibe.ontology_processing.InformationContent;
+import org.molgenis.vibe.ontology_processing.OntologyHierarchy;
+import org.molgenis.vibe.ontology_processing.OntologyIndex;
+import org.molgenis.vibe.ontology_processing.ReachabilityIndex;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public class MicaIndexTester {
+    private static final double DELTA = 1e-9;
+
+    private OntologyHierarchy hierarchy;
+    private InformationContent informationContent;
+    private MicaIndex micaIndex;
+
+    /**
+     * 8 annotations in total: hp:0000004 (1), hp:0000005 (1), hp:0000007 (2) and hp:0000009 (4).
+     */
+    @BeforeClass
+    public void beforeClass() {
+        hierarchy = TestOntology.createHierarchy();
+        Map<String, Integer> annotationCounts = new HashMap<>();
+        annotationCounts.put(TestOntology.hpoUri(4), 1);
+        annotationCounts.put(TestOntology.hpoUri(5), 1);
+        annotationCounts.put(TestOntology.hpoUri(7), 2);
+        annotationCounts.put(TestOntology.hpoUri(9), 4);
+        informationContent = InformationContent.fromAnnotationCounts(new ReachabilityIndex(hierarchy), annotationCounts);
+        micaIndex = new MicaIndex(informationContent);
+    }
+
+    @Test
+    public void testMicaOfItself() {
+        Assert.assertEquals(micaIndex.getMica(node(9), node(9)), node(9));
+    }
+
+    @Test
+    public void testMicaOfSiblings() {
+        Assert.assertEquals(micaIndex.getMica(node(4), node(5)), node(2));
+        Assert.assertEquals(micaIndex.getMicaInformationContent(node(4), node(5)), Math.log(8.0 / 6), DELTA);
+    }
+
+    /**
+     * hp:0000007 and hp:0000009 share hp:0000006, hp:0000003 and hp:0000001, of which hp:0000006 is most informative.
+     */
+    @Test
+    public void testMostInformativeOfMultipleCommonAncestors() {
+        Assert.assertEquals(micaIndex.getMica(node(7), node(9)), node(6));
+        Assert.assertEquals(micaIndex.getMica(node(9), node(5)), node(5));
+        Assert.assertEquals(micaIndex.getMica(node(4), node(7)), node(1));
+    }
+
+    /**
+     * hp:0000008 is only connected to the other classes through a skippable class.
+     */
+    @Test
+    public void testNoCommonAncestor() {
+        Assert.assertEquals(micaIndex.getAncestorCount(node(8)), 1);
+        Assert.assertEquals(micaIndex.getMica(node(8), node(4)), -1);
+        Assert.assertEquals(micaIndex.getMicaInformationContent(node(8), node(4)), 0, DELTA);
+    }
+
+    /**
+     * Compares all pairs with the intersection of their ancestor sets.
+     */
+    @Test
+    public void testAllPairsEqualToAncestorIntersection() {
+        for(int a = 0; a < hierarchy.size(); a++) {
+            for(int b = 0; b < hierarchy.size(); b++) {
+                Set<Integer> common = ancestors(a);
+                common.retainAll(ancestors(b));
+                double expected = 0;
+                for(int ancestor : common) {
+                    expected = Math.max(expected, informationContent.get(ancestor));
+                }
+                Assert.assertEquals(micaIndex.getMicaInformationContent(a, b), expected, DELTA,
+                        hierarchy.getUri(a) + " - " + hierarchy.getUri(b));
+            }
+        }
+    }
+
+    @Test
+    public void testResnik() {
+        Assert.assertEquals(SimilarityMeasure.RESNIK.calculate(micaIndex, node(7), node(9)), Math.log(8.0 / 6), DELTA);
+    }
+
+    @Test
+    public void testLin() {
+        Assert.assertEquals(SimilarityMeasure.LIN.calculate(micaIndex, node(4), node(5)),
+                2 * Math.log(8.0 / 6) / (Math.log(8) + Math.log(8.0 / 5)), DELTA);
+        Assert.assertEquals(SimilarityMeasure.LIN.calculate(micaIndex, node(9), node(9)), 1, DELTA);
+        Assert.assertEquals(SimilarityMeasure.LIN.calculate(micaIndex, node(1), node(1)), 0, DELTA);
+    }
+
+    /**
+     * hp:0000004 best matches hp:0000005 (through hp:0000002), hp:0000007 best matches hp:0000009 (through hp:0000006).
+     * The unknown phenotype is ignored.
+     */
+    @Test
+    public void testPhenotypeSetSimilarity() {
+        PhenotypeSetSimilarity similarity = new PhenotypeSetSimilarity(micaIndex, SimilarityMeasure.RESNIK);
+        List<Phenotype> query = Arrays.asList(new Phenotype("hp:0000004"), new Phenotype("hp:0000007"), new Phenotype("hp:1234567"));
+        List<Phenotype> target = Arrays.asList(new Phenotype("hp:0000005"), new Phenotype("hp:0000009"));
+
+        Assert.assertEquals(similarity.calculate(query, target), (Math.log(8.0 / 6) + Math.log(8.0 / 6)) / 2, DELTA);
+        Assert.assertEquals(similarity.calculate(query, Collections.emptyList()), 0, DELTA);
+    }
+
+    private int node(int id) {
+        return hierarchy.getIndex(TestOntology.hpoUri(id));
+    }
+
+    /**
+     * @return the class itself and all classes reachable through non-skippable parents
+     */
+    private Set<Integer> ancestors(int node) {
+        Set<Integer> ancestors = new HashSet<>();
+        if(hierarchy.isSkippable(node)) {
+            return ancestors;
+        }
+        Deque<Integer> queue = new ArrayDeque<>(Collections.singleton(node));
+        while(!queue.isEmpty()) {
+            int ancestor = queue.poll();
+            if(ancestors.add(ancestor)) {
+                for(int parent : ((OntologyIndex) hierarchy).getParents(ancestor)) {
+                    if(!hierarchy.isSkippable(parent)) {
+                        queue.add(parent);
+                    }
+                }
+            }
+        }
+        return ancestors;
+    }
+}